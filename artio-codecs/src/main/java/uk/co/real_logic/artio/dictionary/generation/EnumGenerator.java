@@ -17,16 +17,18 @@ package uk.co.real_logic.artio.dictionary.generation;
 
 import org.agrona.LangUtil;
 import org.agrona.generation.OutputManager;
-import uk.co.real_logic.artio.dictionary.CharArrayMap;
 import uk.co.real_logic.artio.dictionary.ir.Dictionary;
 import uk.co.real_logic.artio.dictionary.ir.Field;
 import uk.co.real_logic.artio.dictionary.ir.Field.Type;
 import uk.co.real_logic.artio.dictionary.ir.Field.Value;
+import uk.co.real_logic.artio.util.AsciiBuffer;
 
 import java.io.IOException;
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.IntFunction;
 
 import static java.lang.String.format;
 import static java.util.stream.Collectors.joining;
@@ -71,9 +73,10 @@ public final class EnumGenerator
             try
             {
                 out.append(fileHeader(builderPackage));
-                out.append(importFor(CharArrayMap.class));
-                out.append(importFor(Map.class));
-                out.append(importFor(HashMap.class));
+                if (type == Type.STRING || type == Type.MULTIPLEVALUESTRING)
+                {
+                    out.append(importFor(AsciiBuffer.class));
+                }
                 out.append(generateEnumDeclaration(enumName));
 
                 out.append(generateEnumValues(values, type));
@@ -159,32 +162,141 @@ public final class EnumGenerator
             case STRING:
             case MULTIPLEVALUESTRING:
 
-                final String entries = allValues
-                    .stream()
-                    .map((v) -> format("        stringMap.put(%s, %s);\n", literal(v, type), v.description()))
-                    .collect(joining());
+                // Later values with the same representation replace earlier ones.
+                final Map<Integer, Map<String, Value>> lengthToValues = new TreeMap<>();
+                allValues.forEach((value) ->
+                {
+                    final String representation = value.representation();
+                    lengthToValues
+                        .computeIfAbsent(representation.length(), (length) -> new TreeMap<>())
+                        .put(representation, value);
+                });
 
                 return format(
-                    "    private static final CharArrayMap<%1$s> charMap;\n" +
-                    "    static\n" +
+                    "    public static %1$s decode(final char[] representation, final int length)\n" +
                     "    {\n" +
-                    "        final Map<String, %1$s> stringMap = new HashMap<>();\n" +
                     "%2$s" +
-                    "        charMap = new CharArrayMap<>(stringMap);\n" +
                     "    }\n" +
                     "\n" +
-                    "    public static %1$s decode(final char[] representation, final int length)\n" +
+                    "    public static %1$s decode(final AsciiBuffer buffer, final int offset, final int length)\n" +
                     "    {\n" +
-                    "        return charMap.get(representation, length);\n" +
-                    "    }\n",
+                    "%3$s" +
+                    "    }\n" +
+                    "\n",
                     typeName,
-                    entries);
+                    lengthSwitch(lengthToValues, (i) -> "representation[" + i + "]"),
+                    lengthSwitch(lengthToValues, EnumGenerator::bufferAccessor));
 
             default:
                 return "";
         }
     }
 
+    /**
+     * Generates a switch on the length of the representation, followed by a nested switch on each character that
+     * distinguishes the values of that length. This is collision free and doesn't allocate or share any state.
+     */
+    private String lengthSwitch(
+        final Map<Integer, Map<String, Value>> lengthToValues, final IntFunction<String> charAccessor)
+    {
+        final StringBuilder code = new StringBuilder();
+        final String indent = INDENT + INDENT;
+        code.append(indent).append("switch (length)\n")
+            .append(indent).append("{\n");
+
+        lengthToValues.forEach((length, representationToValue) ->
+        {
+            code.append(indent).append(INDENT).append("case ").append(length).append(":\n");
+            final List<Value> values = new ArrayList<>(representationToValue.values());
+            final boolean alwaysReturns = charSwitch(values, 0, length, charAccessor, indent + INDENT + INDENT, code);
+            if (!alwaysReturns)
+            {
+                code.append(indent).append(INDENT).append(INDENT).append("break;\n");
+            }
+        });
+
+        code.append(indent).append("}\n")
+            .append(indent).append("return null;\n");
+
+        return code.toString();
+    }
+
+    private static String bufferAccessor(final int index)
+    {
+        return index == 0 ? "buffer.getByte(offset)" : "buffer.getByte(offset + " + index + ")";
+    }
+
+    private boolean charSwitch(
+        final List<Value> values,
+        final int position,
+        final int length,
+        final IntFunction<String> charAccessor,
+        final String indent,
+        final StringBuilder code)
+    {
+        if (values.size() == 1)
+        {
+            final Value value = values.get(0);
+            final String representation = value.representation();
+            if (position == length)
+            {
+                code.append(indent).append("return ").append(value.description()).append(";\n");
+                return true;
+            }
+
+            code.append(indent).append("if (");
+            for (int i = position; i < length; i++)
+            {
+                if (i > position)
+                {
+                    code.append(" && ");
+                }
+                code.append(charAccessor.apply(i)).append(" == ").append(charLiteral(representation.charAt(i)));
+            }
+            code.append(")\n")
+                .append(indent).append("{\n")
+                .append(indent).append(INDENT).append("return ").append(value.description()).append(";\n")
+                .append(indent).append("}\n");
+            return false;
+        }
+
+        final Map<Character, List<Value>> charToValues = new TreeMap<>();
+        values.forEach((value) -> charToValues
+            .computeIfAbsent(value.representation().charAt(position), (c) -> new ArrayList<>())
+            .add(value));
+
+        code.append(indent).append("switch (").append(charAccessor.apply(position)).append(")\n")
+            .append(indent).append("{\n");
+        charToValues.forEach((character, charValues) ->
+        {
+            code.append(indent).append(INDENT).append("case ").append(charLiteral(character)).append(":\n");
+            final boolean alwaysReturns = charSwitch(
+                charValues, position + 1, length, charAccessor, indent + INDENT + INDENT, code);
+            if (!alwaysReturns)
+            {
+                code.append(indent).append(INDENT).append(INDENT).append("break;\n");
+            }
+        });
+        code.append(indent).append("}\n");
+
+        return false;
+    }
+
+    private static String charLiteral(final char value)
+    {
+        switch (value)
+        {
+            case '\'':
+                return "'\\''";
+
+            case '\\':
+                return "'\\\\'";
+
+            default:
+                return "'" + value + "'";
+        }
+    }
+
     private boolean hasGeneratedValueOf(final Type type)
     {
         switch (type)
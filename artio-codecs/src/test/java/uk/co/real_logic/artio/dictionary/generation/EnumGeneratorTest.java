@@ -19,9 +19,13 @@ import org.agrona.generation.CompilerUtil;
 import org.agrona.generation.StringWriterOutputManager;
 import org.junit.Before;
 import org.junit.Test;
+import uk.co.real_logic.artio.util.AsciiBuffer;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
 
 import java.lang.reflect.Method;
 
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
 import static org.hamcrest.Matchers.*;
 import static org.junit.Assert.*;
 import static uk.co.real_logic.artio.dictionary.ExampleDictionary.*;
@@ -122,6 +126,33 @@ public class EnumGeneratorTest
         assertEquals(values[2], decode.invoke(null, "AA ".toCharArray(), 2));
     }
 
+    @Test
+    public void generatesAsciiBufferBasedDecode() throws Exception
+    {
+        final Class<?> clazz = compile(STRING_ENUM);
+        final Enum[] values = (Enum[])clazz.getEnumConstants();
+
+        final Method decode = clazz.getMethod("decode", AsciiBuffer.class, int.class, int.class);
+        final MutableAsciiBuffer buffer = new MutableAsciiBuffer("=0|A|AA|B".getBytes(US_ASCII));
+
+        assertEquals(values[0], decode.invoke(null, buffer, 1, 1));
+        assertEquals(values[1], decode.invoke(null, buffer, 3, 1));
+        assertEquals(values[2], decode.invoke(null, buffer, 5, 2));
+        assertNull(decode.invoke(null, buffer, 8, 1));
+    }
+
+    @Test
+    public void returnsNullForUnknownCharArrayRepresentation() throws Exception
+    {
+        final Class<?> clazz = compile(STRING_ENUM);
+
+        final Method decode = clazz.getMethod("decode", char[].class, int.class);
+
+        assertNull(decode.invoke(null, "B".toCharArray(), 1));
+        assertNull(decode.invoke(null, "AB".toCharArray(), 2));
+        assertNull(decode.invoke(null, "AAA".toCharArray(), 3));
+    }
+
     private Method stringDecode(final Class<?> clazz) throws NoSuchMethodException
     {
         return clazz.getMethod("decode", String.class);
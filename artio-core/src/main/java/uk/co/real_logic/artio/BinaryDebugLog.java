@@ -0,0 +1,354 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio;
+
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.AgentRunner;
+import org.agrona.concurrent.SleepingIdleStrategy;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.ringbuffer.ManyToOneRingBuffer;
+import org.agrona.concurrent.ringbuffer.RingBuffer;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.agrona.BitUtil.SIZE_OF_BYTE;
+import static org.agrona.BitUtil.SIZE_OF_INT;
+import static org.agrona.BitUtil.SIZE_OF_LONG;
+import static org.agrona.concurrent.ringbuffer.RingBufferDescriptor.TRAILER_LENGTH;
+
+/**
+ * An event log for the {@link DebugLogger} that avoids formatting, boxing and copying into
+ * strings on the logging thread.
+ *
+ * Each event is written into an off-heap many to one ring buffer as a fixed layout of a timestamp, the thread,
+ * the {@link LogTag}, an id for the format string and the arguments. Buffers, for example FIX messages, are
+ * copied as raw bytes. Format strings and thread names are written to the log once, the first time that they're
+ * used. The {@link BinaryDebugLogAgent} drains the ring buffer to a file on a low priority thread, which can be
+ * formatted offline with the {@link BinaryDebugLogReader}.
+ *
+ * If the ring buffer is full then events are dropped rather than blocking the logging thread and the number of
+ * dropped events is recorded in the log.
+ */
+public final class BinaryDebugLog
+{
+    static final int FORMAT_DEFINITION_TYPE_ID = 1;
+    static final int THREAD_DEFINITION_TYPE_ID = 2;
+    static final int EVENT_TYPE_ID = 3;
+    static final int DROPPED_TYPE_ID = 4;
+
+    static final byte LONG_ARGUMENT = 'J';
+    static final byte BOOLEAN_ARGUMENT = 'Z';
+    static final byte ASCII_ARGUMENT = 'S';
+    static final byte SBE_ARGUMENT = 'M';
+
+    // Plain messages are logged with this format, so that they don't need a definition each.
+    static final int MESSAGE_FORMAT_ID = 0;
+    static final String MESSAGE_FORMAT = "%s%n";
+
+    static final int TIMESTAMP_OFFSET = 0;
+    static final int THREAD_ID_OFFSET = TIMESTAMP_OFFSET + SIZE_OF_LONG;
+    static final int TAG_OFFSET = THREAD_ID_OFFSET + SIZE_OF_LONG;
+    static final int FORMAT_ID_OFFSET = TAG_OFFSET + SIZE_OF_INT;
+    static final int ARGUMENT_COUNT_OFFSET = FORMAT_ID_OFFSET + SIZE_OF_INT;
+    static final int ARGUMENTS_OFFSET = ARGUMENT_COUNT_OFFSET + SIZE_OF_INT;
+
+    private static final int DEFINITION_ATTEMPTS = 1000;
+
+    private final ConcurrentHashMap<String, Integer> formatToId = new ConcurrentHashMap<>();
+    private final AtomicInteger nextFormatId = new AtomicInteger(MESSAGE_FORMAT_ID + 1);
+    private final AtomicLong droppedEvents = new AtomicLong();
+    private final ThreadLocal<EventEncoder> encoders = ThreadLocal.withInitial(EventEncoder::new);
+    private final RingBuffer ringBuffer;
+
+    /**
+     * Start logging events to a file, draining them on a low priority daemon thread.
+     *
+     * @param file the file that events are written to.
+     * @param bufferLength the length of the ring buffer, must be a power of two.
+     * @return the new log.
+     */
+    public static BinaryDebugLog start(final File file, final int bufferLength)
+    {
+        final BinaryDebugLog log = new BinaryDebugLog(bufferLength);
+        final BinaryDebugLogAgent agent = new BinaryDebugLogAgent(log, file);
+        final AgentRunner runner = new AgentRunner(
+            new SleepingIdleStrategy(MILLISECONDS.toNanos(1)), Throwable::printStackTrace, null, agent);
+
+        final Thread thread = new Thread(runner, agent.roleName());
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+
+        // Drain any events that are still buffered when the process exits.
+        Runtime.getRuntime().addShutdownHook(new Thread(runner::close));
+
+        return log;
+    }
+
+    public BinaryDebugLog(final int bufferLength)
+    {
+        final ByteBuffer byteBuffer = ByteBuffer.allocateDirect(bufferLength + TRAILER_LENGTH);
+        ringBuffer = new ManyToOneRingBuffer(new UnsafeBuffer(byteBuffer));
+        formatToId.put(MESSAGE_FORMAT, MESSAGE_FORMAT_ID);
+    }
+
+    /**
+     * Start encoding an event for the calling thread. The arguments must be added in the order in which they
+     * appear in the format string, then the event must be committed.
+     *
+     * @param tag the tag the event is logged under.
+     * @param formatString the format string used to print the event when it's read.
+     * @return the encoder for the calling thread.
+     */
+    public EventEncoder event(final LogTag tag, final String formatString)
+    {
+        return encoders.get().start(tag, formatId(formatString));
+    }
+
+    /**
+     * Start encoding a plain message for the calling thread.
+     *
+     * @param tag the tag the event is logged under.
+     * @return the encoder for the calling thread, add the message as its only argument.
+     */
+    public EventEncoder message(final LogTag tag)
+    {
+        return encoders.get().start(tag, MESSAGE_FORMAT_ID);
+    }
+
+    public long droppedEvents()
+    {
+        return droppedEvents.get();
+    }
+
+    RingBuffer ringBuffer()
+    {
+        return ringBuffer;
+    }
+
+    private int formatId(final String formatString)
+    {
+        final Integer formatId = formatToId.get(formatString);
+        if (formatId != null)
+        {
+            return formatId;
+        }
+
+        // Concurrent loggers wait for the definition, so it is always in the log before the format's first event.
+        return formatToId.computeIfAbsent(formatString, this::defineFormat);
+    }
+
+    private Integer defineFormat(final String formatString)
+    {
+        final int formatId = nextFormatId.getAndIncrement();
+        final UnsafeBuffer buffer = new UnsafeBuffer(new byte[SIZE_OF_INT + formatString.length()]);
+        buffer.putInt(0, formatId);
+        final int length = SIZE_OF_INT + putAscii(buffer, SIZE_OF_INT, formatString, formatString.length());
+        writeDefinition(FORMAT_DEFINITION_TYPE_ID, buffer, length);
+        return formatId;
+    }
+
+    private void writeDefinition(final int msgTypeId, final DirectBuffer buffer, final int length)
+    {
+        for (int i = 0; i < DEFINITION_ATTEMPTS; i++)
+        {
+            if (ringBuffer.write(msgTypeId, buffer, 0, length))
+            {
+                return;
+            }
+
+            Thread.yield();
+        }
+
+        droppedEvents.incrementAndGet();
+    }
+
+    private static int putAscii(
+        final UnsafeBuffer buffer, final int offset, final CharSequence value, final int maxLength)
+    {
+        final int length = Math.min(value.length(), maxLength);
+        for (int i = 0; i < length; i++)
+        {
+            buffer.putByte(offset + i, (byte)value.charAt(i));
+        }
+        return length;
+    }
+
+    /**
+     * Encodes the events of a single thread. Events from threads that aren't enabled by the
+     * {@link CommonConfiguration#DEBUG_PRINT_THREAD_PROPERTY} are discarded.
+     */
+    public final class EventEncoder
+    {
+        private final UnsafeBuffer buffer = new UnsafeBuffer(ByteBuffer.allocateDirect(ringBuffer.maxMsgLength()));
+        private final long threadId;
+        private final boolean enabled;
+
+        private int position;
+        private int argumentCount;
+
+        private EventEncoder()
+        {
+            final Thread thread = Thread.currentThread();
+            threadId = thread.getId();
+            enabled = DebugLogger.isThreadEnabled(thread.getName());
+
+            final String threadName = thread.getName();
+            buffer.putLong(0, threadId);
+            final int length = SIZE_OF_LONG + putAscii(buffer, SIZE_OF_LONG, threadName, capacity(SIZE_OF_LONG));
+            writeDefinition(THREAD_DEFINITION_TYPE_ID, buffer, length);
+        }
+
+        private EventEncoder start(final LogTag tag, final int formatId)
+        {
+            buffer.putLong(TIMESTAMP_OFFSET, System.currentTimeMillis());
+            buffer.putLong(THREAD_ID_OFFSET, threadId);
+            buffer.putInt(TAG_OFFSET, tag.ordinal());
+            buffer.putInt(FORMAT_ID_OFFSET, formatId);
+            position = ARGUMENTS_OFFSET;
+            argumentCount = 0;
+            return this;
+        }
+
+        public EventEncoder longArgument(final long value)
+        {
+            if (capacity(position) >= SIZE_OF_BYTE + SIZE_OF_LONG)
+            {
+                buffer.putByte(position, LONG_ARGUMENT);
+                buffer.putLong(position + SIZE_OF_BYTE, value);
+                position += SIZE_OF_BYTE + SIZE_OF_LONG;
+                argumentCount++;
+            }
+            return this;
+        }
+
+        public EventEncoder booleanArgument(final boolean value)
+        {
+            if (capacity(position) >= SIZE_OF_BYTE + SIZE_OF_BYTE)
+            {
+                buffer.putByte(position, BOOLEAN_ARGUMENT);
+                buffer.putByte(position + SIZE_OF_BYTE, (byte)(value ? 1 : 0));
+                position += SIZE_OF_BYTE + SIZE_OF_BYTE;
+                argumentCount++;
+            }
+            return this;
+        }
+
+        /**
+         * Add an argument that is only known as an object, for example an enum. Integral numbers and booleans are
+         * encoded as such, anything else as the ASCII of its string representation, so it allocates: prefer the
+         * primitive and buffer arguments on hot paths.
+         *
+         * @param value the argument.
+         * @return this encoder.
+         */
+        public EventEncoder objectArgument(final Object value)
+        {
+            if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte)
+            {
+                return longArgument(((Number)value).longValue());
+            }
+
+            if (value instanceof Boolean)
+            {
+                return booleanArgument((Boolean)value);
+            }
+
+            final String string = String.valueOf(value);
+            final int length = reserve(ASCII_ARGUMENT, string.length());
+            if (length >= 0)
+            {
+                position += putAscii(buffer, position, string, length);
+            }
+            return this;
+        }
+
+        public EventEncoder asciiArgument(final DirectBuffer srcBuffer, final int srcOffset, final int srcLength)
+        {
+            final int length = reserve(ASCII_ARGUMENT, srcLength);
+            if (length >= 0)
+            {
+                buffer.putBytes(position, srcBuffer, srcOffset, length);
+                position += length;
+            }
+            return this;
+        }
+
+        public EventEncoder asciiArgument(final ByteBuffer srcBuffer, final int srcOffset, final int srcLength)
+        {
+            final int length = reserve(ASCII_ARGUMENT, srcLength);
+            if (length >= 0)
+            {
+                buffer.putBytes(position, srcBuffer, srcOffset, length);
+                position += length;
+            }
+            return this;
+        }
+
+        public EventEncoder sbeArgument(final DirectBuffer srcBuffer, final int srcOffset, final int srcLength)
+        {
+            // An SBE message can't be decoded once it's truncated, so fallback to its string representation.
+            if (capacity(position) < SIZE_OF_BYTE + SIZE_OF_INT + srcLength)
+            {
+                return objectArgument("<truncated SBE message of " + srcLength + " bytes>");
+            }
+
+            reserve(SBE_ARGUMENT, srcLength);
+            buffer.putBytes(position, srcBuffer, srcOffset, srcLength);
+            position += srcLength;
+            return this;
+        }
+
+        public void commit()
+        {
+            if (enabled)
+            {
+                buffer.putInt(ARGUMENT_COUNT_OFFSET, argumentCount);
+                if (!ringBuffer.write(EVENT_TYPE_ID, buffer, 0, position))
+                {
+                    droppedEvents.incrementAndGet();
+                }
+            }
+        }
+
+        // Variable length arguments are truncated to fit, returns -1 if there's no space for the argument at all.
+        private int reserve(final byte type, final int length)
+        {
+            final int available = capacity(position) - (SIZE_OF_BYTE + SIZE_OF_INT);
+            if (available < 0)
+            {
+                return -1;
+            }
+
+            final int reservedLength = Math.min(length, available);
+            buffer.putByte(position, type);
+            buffer.putInt(position + SIZE_OF_BYTE, reservedLength);
+            position += SIZE_OF_BYTE + SIZE_OF_INT;
+            argumentCount++;
+            return reservedLength;
+        }
+
+        private int capacity(final int offset)
+        {
+            return buffer.capacity() - offset;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio;
+
+import org.agrona.LangUtil;
+import org.agrona.MutableDirectBuffer;
+import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.MessageHandler;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.ringbuffer.RingBuffer;
+import uk.co.real_logic.artio.engine.ByteBufferUtil;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+import static org.agrona.BitUtil.SIZE_OF_INT;
+import static org.agrona.BitUtil.SIZE_OF_LONG;
+import static uk.co.real_logic.artio.BinaryDebugLog.DROPPED_TYPE_ID;
+
+/**
+ * Drains the events of a {@link BinaryDebugLog} to a file. Each record in the file is the length and type of
+ * the event, followed by the event itself, as it was written to the ring buffer.
+ */
+public class BinaryDebugLogAgent implements Agent
+{
+    static final int LENGTH_OFFSET = 0;
+    static final int TYPE_OFFSET = LENGTH_OFFSET + SIZE_OF_INT;
+    static final int RECORD_HEADER_LENGTH = TYPE_OFFSET + SIZE_OF_INT;
+    static final ByteOrder FILE_BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    private static final int EVENTS_PER_POLL = 1000;
+
+    private final BinaryDebugLog log;
+    private final RingBuffer ringBuffer;
+    private final FileChannel channel;
+    private final ByteBuffer byteBuffer;
+    private final UnsafeBuffer buffer;
+    private final MessageHandler eventHandler = this::onEvent;
+
+    private long lastDroppedEvents;
+
+    public BinaryDebugLogAgent(final BinaryDebugLog log, final File file)
+    {
+        this.log = log;
+        ringBuffer = log.ringBuffer();
+        byteBuffer = ByteBuffer.allocateDirect(RECORD_HEADER_LENGTH + ringBuffer.maxMsgLength());
+        buffer = new UnsafeBuffer(byteBuffer);
+
+        FileChannel channel = null;
+        try
+        {
+            channel = new FileOutputStream(file).getChannel();
+        }
+        catch (final IOException e)
+        {
+            LangUtil.rethrowUnchecked(e);
+        }
+        this.channel = channel;
+    }
+
+    public int doWork()
+    {
+        final int events = ringBuffer.read(eventHandler, EVENTS_PER_POLL);
+
+        final long droppedEvents = log.droppedEvents();
+        if (droppedEvents != lastDroppedEvents)
+        {
+            lastDroppedEvents = droppedEvents;
+            final int offset = append(DROPPED_TYPE_ID, SIZE_OF_LONG);
+            buffer.putLong(offset + RECORD_HEADER_LENGTH, droppedEvents, FILE_BYTE_ORDER);
+        }
+
+        flush();
+
+        return events;
+    }
+
+    private void onEvent(final int msgTypeId, final MutableDirectBuffer srcBuffer, final int index, final int length)
+    {
+        final int offset = append(msgTypeId, length);
+        buffer.putBytes(offset + RECORD_HEADER_LENGTH, srcBuffer, index, length);
+    }
+
+    private int append(final int msgTypeId, final int length)
+    {
+        if (byteBuffer.remaining() < RECORD_HEADER_LENGTH + length)
+        {
+            flush();
+        }
+
+        final int offset = byteBuffer.position();
+        buffer.putInt(offset + LENGTH_OFFSET, length, FILE_BYTE_ORDER);
+        buffer.putInt(offset + TYPE_OFFSET, msgTypeId, FILE_BYTE_ORDER);
+        ByteBufferUtil.position(byteBuffer, offset + RECORD_HEADER_LENGTH + length);
+        return offset;
+    }
+
+    private void flush()
+    {
+        if (byteBuffer.position() > 0)
+        {
+            ByteBufferUtil.limit(byteBuffer, byteBuffer.position());
+            ByteBufferUtil.position(byteBuffer, 0);
+            try
+            {
+                while (byteBuffer.hasRemaining())
+                {
+                    channel.write(byteBuffer);
+                }
+            }
+            catch (final IOException e)
+            {
+                LangUtil.rethrowUnchecked(e);
+            }
+            byteBuffer.clear();
+        }
+    }
+
+    public void onClose()
+    {
+        while (doWork() > 0)
+        {
+            // Drain the remaining events
+        }
+
+        try
+        {
+            channel.close();
+        }
+        catch (final IOException e)
+        {
+            LangUtil.rethrowUnchecked(e);
+        }
+    }
+
+    public String roleName()
+    {
+        return "BinaryDebugLogger";
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio;
+
+import org.agrona.collections.Int2ObjectHashMap;
+import org.agrona.collections.Long2ObjectHashMap;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.IllegalFormatException;
+import java.util.function.Consumer;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.agrona.BitUtil.SIZE_OF_BYTE;
+import static org.agrona.BitUtil.SIZE_OF_INT;
+import static org.agrona.BitUtil.SIZE_OF_LONG;
+import static uk.co.real_logic.artio.BinaryDebugLog.*;
+import static uk.co.real_logic.artio.BinaryDebugLogAgent.*;
+
+/**
+ * Formats the events in a file written by the {@link BinaryDebugLogAgent}, in the same way that the
+ * {@link DebugLogger} prints them.
+ */
+public class BinaryDebugLogReader
+{
+    private static final LogTag[] TAGS = LogTag.values();
+
+    public static void main(final String[] args) throws IOException
+    {
+        if (args.length < 1)
+        {
+            System.err.println("Usage: BinaryDebugLogReader <logFile>");
+            System.err.println("Where <logFile> is the path to binary debug log file");
+            System.exit(-1);
+        }
+
+        read(new File(args[0]), System.out);
+    }
+
+    public static void read(final File file, final PrintStream output) throws IOException
+    {
+        new BinaryDebugLogReader().read(new UnsafeBuffer(Files.readAllBytes(file.toPath())), output::print);
+    }
+
+    private final Int2ObjectHashMap<String> idToFormat = new Int2ObjectHashMap<>();
+    private final Long2ObjectHashMap<String> idToThreadName = new Long2ObjectHashMap<>();
+
+    public BinaryDebugLogReader()
+    {
+        idToFormat.put(MESSAGE_FORMAT_ID, MESSAGE_FORMAT);
+    }
+
+    /**
+     * Format the events within a buffer.
+     *
+     * @param buffer the contents of the log file.
+     * @param eventConsumer receives each formatted event.
+     * @return the number of events that were read.
+     */
+    public int read(final UnsafeBuffer buffer, final Consumer<String> eventConsumer)
+    {
+        int events = 0;
+        int offset = 0;
+        final int limit = buffer.capacity();
+        while (offset + RECORD_HEADER_LENGTH <= limit)
+        {
+            final int length = buffer.getInt(offset + LENGTH_OFFSET, FILE_BYTE_ORDER);
+            final int msgTypeId = buffer.getInt(offset + TYPE_OFFSET, FILE_BYTE_ORDER);
+            final int eventOffset = offset + RECORD_HEADER_LENGTH;
+            if (eventOffset + length > limit)
+            {
+                // The file was truncated part way through writing an event
+                break;
+            }
+
+            switch (msgTypeId)
+            {
+                case FORMAT_DEFINITION_TYPE_ID:
+                    idToFormat.put(
+                        buffer.getInt(eventOffset), ascii(buffer, eventOffset + SIZE_OF_INT, length - SIZE_OF_INT));
+                    break;
+
+                case THREAD_DEFINITION_TYPE_ID:
+                    idToThreadName.put(
+                        buffer.getLong(eventOffset), ascii(buffer, eventOffset + SIZE_OF_LONG, length - SIZE_OF_LONG));
+                    break;
+
+                case EVENT_TYPE_ID:
+                    eventConsumer.accept(formatEvent(buffer, eventOffset));
+                    events++;
+                    break;
+
+                case DROPPED_TYPE_ID:
+                    eventConsumer.accept(String.format(
+                        "%d events dropped so far%n", buffer.getLong(eventOffset, FILE_BYTE_ORDER)));
+                    break;
+            }
+
+            offset = eventOffset + length;
+        }
+
+        return events;
+    }
+
+    private String formatEvent(final UnsafeBuffer buffer, final int offset)
+    {
+        final long timestamp = buffer.getLong(offset + TIMESTAMP_OFFSET);
+        final String threadName = idToThreadName.get(buffer.getLong(offset + THREAD_ID_OFFSET));
+        final LogTag tag = TAGS[buffer.getInt(offset + TAG_OFFSET)];
+        final int formatId = buffer.getInt(offset + FORMAT_ID_OFFSET);
+        final Object[] arguments = new Object[buffer.getInt(offset + ARGUMENT_COUNT_OFFSET)];
+
+        int position = offset + ARGUMENTS_OFFSET;
+        for (int i = 0; i < arguments.length; i++)
+        {
+            final byte type = buffer.getByte(position);
+            position += SIZE_OF_BYTE;
+            switch (type)
+            {
+                case LONG_ARGUMENT:
+                    arguments[i] = buffer.getLong(position);
+                    position += SIZE_OF_LONG;
+                    break;
+
+                case BOOLEAN_ARGUMENT:
+                    arguments[i] = buffer.getByte(position) != 0;
+                    position += SIZE_OF_BYTE;
+                    break;
+
+                case ASCII_ARGUMENT:
+                {
+                    final int length = buffer.getInt(position);
+                    arguments[i] = ascii(buffer, position + SIZE_OF_INT, length);
+                    position += SIZE_OF_INT + length;
+                    break;
+                }
+
+                case SBE_ARGUMENT:
+                {
+                    final int length = buffer.getInt(position);
+                    arguments[i] = DebugLogger.toStringSbeMessage(buffer, position + SIZE_OF_INT, length);
+                    position += SIZE_OF_INT + length;
+                    break;
+                }
+
+                default:
+                    throw new IllegalStateException("Unknown argument type: " + type);
+            }
+        }
+
+        final String format = idToFormat.get(formatId);
+        String message;
+        try
+        {
+            message = String.format(format, arguments);
+        }
+        catch (final IllegalFormatException e)
+        {
+            message = format + " " + Arrays.toString(arguments) + System.lineSeparator();
+        }
+
+        return timestamp + ":" + threadName + "[" + tag.name() + "]" + " : " + message;
+    }
+
+    private static String ascii(final UnsafeBuffer buffer, final int offset, final int length)
+    {
+        final byte[] data = new byte[length];
+        buffer.getBytes(offset, data);
+        return new String(data, US_ASCII);
+    }
+}
@@ -25,8 +25,10 @@ import uk.co.real_logic.artio.validation.AuthenticationStrategy;
 import uk.co.real_logic.artio.validation.MessageValidationStrategy;
 
 import java.io.File;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumSet;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Stream;
@@ -88,9 +90,20 @@ public class CommonConfiguration
      */
     public static final String TIME_MESSAGES_PROPERTY = "fix.core.timing";
     /**
-     * Property name for the file to log debug messages to, default is standard output
+     * Property name for the file to log debug messages to, default is standard output or
+     * {@link #DEFAULT_DEBUG_BINARY_FILE} when debug messages are logged as binary events
      */
     public static final String DEBUG_FILE_PROPERTY = "fix.core.debug.file";
+    /**
+     * Property name for the flag to log debug messages as binary events rather than formatted text,
+     * see {@link uk.co.real_logic.artio.BinaryDebugLog}
+     */
+    public static final String DEBUG_BINARY_PROPERTY = "fix.core.debug.binary";
+    /**
+     * Property name for the length of the ring buffer that binary debug events are written to,
+     * must be a power of two
+     */
+    public static final String DEBUG_BINARY_BUFFER_LENGTH_PROPERTY = "fix.core.debug.binary.length";
     /**
      * Property name for the period at which histogram intervals are polled and logged
      */
@@ -99,6 +112,11 @@ public class CommonConfiguration
      * Property name for the file to which histogram intervals are logged
      */
     public static final String HISTOGRAM_LOGGING_FILE_PROPERTY = "fix.benchmark.histogram_file";
+    /**
+     * Property name for the number of times that the warm up corpus is run through the engine's or library's
+     * message handling code in each round of warm up, zero disables warm up.
+     */
+    public static final String WARM_UP_ITERATIONS_PROPERTY = "fix.core.warm_up_iterations";
 
     public static final int DEFAULT_MONITORING_BUFFER_LENGTH = 64 * 1024 * 1024;
     public static final String DEFAULT_DIRECTORY = optimalTmpDirName() + File.separator + "fix-%s";
@@ -106,10 +124,13 @@ public class CommonConfiguration
 
     public static final String DEFAULT_HISTOGRAM_LOGGING_FILE = DEFAULT_DIRECTORY + File.separator + "histograms";
     public static final String DEFAULT_NAME_PREFIX = "";
+    public static final String DEFAULT_DEBUG_BINARY_FILE = optimalTmpDirName() + File.separator + "artio-debug.log";
+    public static final int DEFAULT_DEBUG_BINARY_BUFFER_LENGTH = 8 * 1024 * 1024;
     public static final int DEFAULT_REASONABLE_TRANSMISSION_TIME_IN_S = 3;
     public static final long DEFAULT_REASONABLE_TRANSMISSION_TIME_IN_MS =
         SECONDS.toMillis(DEFAULT_REASONABLE_TRANSMISSION_TIME_IN_S);
     public static final boolean DEFAULT_PRINT_AERON_STREAM_IDENTIFIERS = false;
+    public static final int DEFAULT_WARM_UP_ITERATIONS = 0;
 
     private long reasonableTransmissionTimeInMs = DEFAULT_REASONABLE_TRANSMISSION_TIME_IN_MS;
     private boolean printAeronStreamIdentifiers = DEFAULT_PRINT_AERON_STREAM_IDENTIFIERS;
@@ -173,6 +194,9 @@ public class CommonConfiguration
     }
 
     public static final String DEBUG_FILE = System.getProperty(DEBUG_FILE_PROPERTY);
+    public static final boolean DEBUG_BINARY = Boolean.getBoolean(DEBUG_BINARY_PROPERTY);
+    public static final int DEBUG_BINARY_BUFFER_LENGTH =
+        Integer.getInteger(DEBUG_BINARY_BUFFER_LENGTH_PROPERTY, DEFAULT_DEBUG_BINARY_BUFFER_LENGTH);
     public static final boolean TIME_MESSAGES = Boolean.getBoolean(TIME_MESSAGES_PROPERTY);
     public static final boolean FORCE_WRITES = Boolean.getBoolean(FORCE_WRITES_MESSAGES_PROPERTY);
 
@@ -216,6 +240,8 @@ public class CommonConfiguration
     private String histogramLoggingFile = null;
     private HistogramHandler histogramHandler;
     private String agentNamePrefix = DEFAULT_NAME_PREFIX;
+    private int warmUpIterations = getInteger(WARM_UP_ITERATIONS_PROPERTY, DEFAULT_WARM_UP_ITERATIONS);
+    private List<byte[]> warmUpMessages = null;
 
     private final AtomicBoolean isConcluded = new AtomicBoolean(false);
 
@@ -456,6 +482,40 @@ public class CommonConfiguration
         return this;
     }
 
+    /**
+     * Sets the number of times that the warm up messages are run through the message handling code in each
+     * round of warm up. Warm up happens when an engine is launched or a library connects, before they handle any
+     * real messages. It runs rounds until the JIT compiler stops compiling, so that the first real messages don't
+     * run through interpreted or partially compiled code.
+     * <p>
+     * Warm up only uses in memory channels and publications, it doesn't touch the archive or any real sessions.
+     *
+     * @param warmUpIterations the number of iterations in each round of warm up, zero disables warm up.
+     * @return this
+     * @see CommonConfiguration#WARM_UP_ITERATIONS_PROPERTY
+     * @see CommonConfiguration#warmUpMessages(byte[]...)
+     */
+    public CommonConfiguration warmUpIterations(final int warmUpIterations)
+    {
+        this.warmUpIterations = warmUpIterations;
+        return this;
+    }
+
+    /**
+     * Sets the messages that are used to warm up the message handling code. Each is a complete FIX message,
+     * including its body length and checksum, using the session dictionary's BeginString. Messages should have
+     * consecutive sequence numbers. By default a corpus of test requests and heartbeats is used.
+     *
+     * @param warmUpMessages the messages that are used to warm up.
+     * @return this
+     * @see CommonConfiguration#warmUpIterations(int)
+     */
+    public CommonConfiguration warmUpMessages(final byte[]... warmUpMessages)
+    {
+        this.warmUpMessages = Arrays.asList(warmUpMessages);
+        return this;
+    }
+
     public CommonConfiguration printAeronStreamIdentifiers(final boolean printAeronStreamIdentifiers)
     {
         this.printAeronStreamIdentifiers = printAeronStreamIdentifiers;
@@ -569,6 +629,21 @@ public class CommonConfiguration
         return printAeronStreamIdentifiers;
     }
 
+    public int warmUpIterations()
+    {
+        return warmUpIterations;
+    }
+
+    public List<byte[]> warmUpMessages()
+    {
+        if (warmUpMessages == null)
+        {
+            warmUpMessages = WarmUp.defaultMessages();
+        }
+
+        return warmUpMessages;
+    }
+
     protected void conclude(final String fixSuffix)
     {
         if (isConcluded.compareAndSet(false, true))
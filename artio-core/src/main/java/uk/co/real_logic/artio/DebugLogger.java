@@ -22,33 +22,49 @@ import uk.co.real_logic.artio.sbe_util.MessageDumper;
 import uk.co.real_logic.artio.sbe_util.MessageSchemaIr;
 import uk.co.real_logic.sbe.json.JsonPrinter;
 
+import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.nio.ByteBuffer;
 
 import static java.nio.charset.StandardCharsets.US_ASCII;
+import static uk.co.real_logic.artio.CommonConfiguration.DEBUG_BINARY;
+import static uk.co.real_logic.artio.CommonConfiguration.DEBUG_BINARY_BUFFER_LENGTH;
 import static uk.co.real_logic.artio.CommonConfiguration.DEBUG_PRINT_THREAD;
 import static uk.co.real_logic.artio.CommonConfiguration.DEBUG_TAGS;
+import static uk.co.real_logic.artio.CommonConfiguration.DEFAULT_DEBUG_BINARY_FILE;
 import static uk.co.real_logic.artio.engine.EngineConfiguration.DEBUG_FILE;
 import static uk.co.real_logic.artio.engine.EngineConfiguration.DEBUG_PRINT_MESSAGES;
 
 /**
  * A logger purely for debug data. Not optimised for high performance logging, but all logging calls must be removable
  * by the optimiser.
+ *
+ * If {@link uk.co.real_logic.artio.CommonConfiguration#DEBUG_BINARY_PROPERTY} is set then messages are logged as
+ * binary events by a {@link BinaryDebugLog} instead, which is cheap enough to leave enabled in production.
  */
 public final class DebugLogger
 {
     private static final PrintStream OUTPUT;
+    private static final BinaryDebugLog BINARY_LOG;
 
     static
     {
-        if (DEBUG_FILE == null)
+        if (DEBUG_BINARY && DEBUG_PRINT_MESSAGES)
+        {
+            OUTPUT = System.out;
+            BINARY_LOG = BinaryDebugLog.start(
+                new File(DEBUG_FILE == null ? DEFAULT_DEBUG_BINARY_FILE : DEBUG_FILE), DEBUG_BINARY_BUFFER_LENGTH);
+        }
+        else if (DEBUG_FILE == null)
         {
+            BINARY_LOG = null;
             OUTPUT = System.out;
         }
         else
         {
+            BINARY_LOG = null;
             PrintStream output = null;
             try
             {
@@ -76,7 +92,14 @@ public final class DebugLogger
     {
         if (isEnabled(tag))
         {
-            log(tag, formatString, Integer.valueOf(value), buffer, offset, length);
+            if (BINARY_LOG != null)
+            {
+                BINARY_LOG.event(tag, formatString).longArgument(value).asciiArgument(buffer, offset, length).commit();
+            }
+            else
+            {
+                log(tag, formatString, Integer.valueOf(value), buffer, offset, length);
+            }
         }
     }
 
@@ -90,9 +113,19 @@ public final class DebugLogger
     {
         if (isEnabled(tag))
         {
-            final byte[] data = new byte[length];
-            buffer.getBytes(offset, data);
-            printf(tag, formatString, value, new String(data, US_ASCII));
+            if (BINARY_LOG != null)
+            {
+                BINARY_LOG.event(tag, formatString)
+                    .objectArgument(value)
+                    .asciiArgument(buffer, offset, length)
+                    .commit();
+            }
+            else
+            {
+                final byte[] data = new byte[length];
+                buffer.getBytes(offset, data);
+                printf(tag, formatString, value, new String(data, US_ASCII));
+            }
         }
     }
 
@@ -104,7 +137,14 @@ public final class DebugLogger
     {
         if (isEnabled(tag))
         {
-            println(toStringSbeMessage(buffer, offset, length));
+            if (BINARY_LOG != null)
+            {
+                BINARY_LOG.message(tag).sbeArgument(buffer, offset, length).commit();
+            }
+            else
+            {
+                println(toStringSbeMessage(buffer, offset, length));
+            }
         }
     }
 
@@ -114,11 +154,18 @@ public final class DebugLogger
     {
         if (isEnabled(tag))
         {
-            println(sbeObject.toString());
+            if (BINARY_LOG != null)
+            {
+                BINARY_LOG.message(tag).objectArgument(sbeObject).commit();
+            }
+            else
+            {
+                println(sbeObject.toString());
+            }
         }
     }
 
-    private static String toStringSbeMessage(final DirectBuffer buffer, final int offset, final int length)
+    static String toStringSbeMessage(final DirectBuffer buffer, final int offset, final int length)
     {
         final JsonPrinter dumper = new JsonPrinter(MessageSchemaIr.SCHEMA_IR);
         return MessageDumper.print(dumper, buffer, offset, length);
@@ -133,9 +180,16 @@ public final class DebugLogger
     {
         if (isEnabled(tag))
         {
-            final byte[] data = new byte[length];
-            buffer.getBytes(offset, data);
-            printf(tag, formatString, new String(data, US_ASCII));
+            if (BINARY_LOG != null)
+            {
+                BINARY_LOG.event(tag, formatString).asciiArgument(buffer, offset, length).commit();
+            }
+            else
+            {
+                final byte[] data = new byte[length];
+                buffer.getBytes(offset, data);
+                printf(tag, formatString, new String(data, US_ASCII));
+            }
         }
     }
 
@@ -147,13 +201,22 @@ public final class DebugLogger
     {
         if (isEnabled(tag))
         {
-            final byte[] data = new byte[length];
-            final int originalPosition = byteBuffer.position();
-            ByteBufferUtil.position(byteBuffer, originalPosition - length);
-            byteBuffer.get(data);
-            ByteBufferUtil.position(byteBuffer, originalPosition);
+            if (BINARY_LOG != null)
+            {
+                BINARY_LOG.event(tag, formatString)
+                    .asciiArgument(byteBuffer, byteBuffer.position() - length, length)
+                    .commit();
+            }
+            else
+            {
+                final byte[] data = new byte[length];
+                final int originalPosition = byteBuffer.position();
+                ByteBufferUtil.position(byteBuffer, originalPosition - length);
+                byteBuffer.get(data);
+                ByteBufferUtil.position(byteBuffer, originalPosition);
 
-            printf(tag, formatString, new String(data, US_ASCII));
+                printf(tag, formatString, new String(data, US_ASCII));
+            }
         }
     }
 
@@ -163,7 +226,14 @@ public final class DebugLogger
     {
         if (isEnabled(tag))
         {
-            println(message);
+            if (BINARY_LOG != null)
+            {
+                BINARY_LOG.message(tag).objectArgument(message).commit();
+            }
+            else
+            {
+                println(message);
+            }
         }
     }
 
@@ -174,7 +244,14 @@ public final class DebugLogger
     {
         if (isEnabled(tag))
         {
-            printf(tag, formatString, value);
+            if (BINARY_LOG != null)
+            {
+                BINARY_LOG.event(tag, formatString).objectArgument(value).commit();
+            }
+            else
+            {
+                printf(tag, formatString, value);
+            }
         }
     }
 
@@ -186,7 +263,14 @@ public final class DebugLogger
     {
         if (isEnabled(tag))
         {
-            printf(tag, formatString, first, second);
+            if (BINARY_LOG != null)
+            {
+                BINARY_LOG.event(tag, formatString).longArgument(first).booleanArgument(second).commit();
+            }
+            else
+            {
+                printf(tag, formatString, first, second);
+            }
         }
     }
 
@@ -197,7 +281,14 @@ public final class DebugLogger
     {
         if (isEnabled(tag))
         {
-            printf(tag, formatString, first);
+            if (BINARY_LOG != null)
+            {
+                BINARY_LOG.event(tag, formatString).longArgument(first).commit();
+            }
+            else
+            {
+                printf(tag, formatString, first);
+            }
         }
     }
 
@@ -209,7 +300,14 @@ public final class DebugLogger
     {
         if (isEnabled(tag))
         {
-            printf(tag, formatString, first, second);
+            if (BINARY_LOG != null)
+            {
+                BINARY_LOG.event(tag, formatString).objectArgument(first).objectArgument(second).commit();
+            }
+            else
+            {
+                printf(tag, formatString, first, second);
+            }
         }
     }
 
@@ -221,7 +319,14 @@ public final class DebugLogger
     {
         if (isEnabled(tag))
         {
-            printf(tag, formatString, first, second);
+            if (BINARY_LOG != null)
+            {
+                BINARY_LOG.event(tag, formatString).longArgument(first).objectArgument(second).commit();
+            }
+            else
+            {
+                printf(tag, formatString, first, second);
+            }
         }
     }
 
@@ -233,7 +338,14 @@ public final class DebugLogger
     {
         if (isEnabled(tag))
         {
-            printf(tag, formatString, first, second);
+            if (BINARY_LOG != null)
+            {
+                BINARY_LOG.event(tag, formatString).longArgument(first).longArgument(second).commit();
+            }
+            else
+            {
+                printf(tag, formatString, first, second);
+            }
         }
     }
 
@@ -246,7 +358,18 @@ public final class DebugLogger
     {
         if (isEnabled(tag))
         {
-            printf(tag, formatString, first, second, third);
+            if (BINARY_LOG != null)
+            {
+                BINARY_LOG.event(tag, formatString)
+                    .longArgument(first)
+                    .longArgument(second)
+                    .longArgument(third)
+                    .commit();
+            }
+            else
+            {
+                printf(tag, formatString, first, second, third);
+            }
         }
     }
 
@@ -259,7 +382,18 @@ public final class DebugLogger
     {
         if (isEnabled(tag))
         {
-            printf(tag, formatString, first, second, third);
+            if (BINARY_LOG != null)
+            {
+                BINARY_LOG.event(tag, formatString)
+                    .objectArgument(first)
+                    .longArgument(second)
+                    .longArgument(third)
+                    .commit();
+            }
+            else
+            {
+                printf(tag, formatString, first, second, third);
+            }
         }
     }
 
@@ -273,7 +407,19 @@ public final class DebugLogger
     {
         if (isEnabled(tag))
         {
-            printf(tag, formatString, first, second, third, fourth);
+            if (BINARY_LOG != null)
+            {
+                BINARY_LOG.event(tag, formatString)
+                    .longArgument(first)
+                    .longArgument(second)
+                    .longArgument(third)
+                    .longArgument(fourth)
+                    .commit();
+            }
+            else
+            {
+                printf(tag, formatString, first, second, third, fourth);
+            }
         }
     }
 
@@ -287,7 +433,19 @@ public final class DebugLogger
     {
         if (isEnabled(tag))
         {
-            printf(tag, formatString, first, second, third, fourth);
+            if (BINARY_LOG != null)
+            {
+                BINARY_LOG.event(tag, formatString)
+                    .objectArgument(first)
+                    .longArgument(second)
+                    .longArgument(third)
+                    .longArgument(fourth)
+                    .commit();
+            }
+            else
+            {
+                printf(tag, formatString, first, second, third, fourth);
+            }
         }
     }
 
@@ -327,7 +485,18 @@ public final class DebugLogger
     {
         if (isEnabled(tag))
         {
-            printf(tag, formatString, first, second, third);
+            if (BINARY_LOG != null)
+            {
+                BINARY_LOG.event(tag, formatString)
+                    .objectArgument(first)
+                    .objectArgument(second)
+                    .objectArgument(third)
+                    .commit();
+            }
+            else
+            {
+                printf(tag, formatString, first, second, third);
+            }
         }
     }
 
@@ -342,7 +511,20 @@ public final class DebugLogger
     {
         if (isEnabled(tag))
         {
-            printf(tag, formatString, first, second, third, fourth, fifth);
+            if (BINARY_LOG != null)
+            {
+                BINARY_LOG.event(tag, formatString)
+                    .longArgument(first)
+                    .longArgument(second)
+                    .longArgument(third)
+                    .longArgument(fourth)
+                    .longArgument(fifth)
+                    .commit();
+            }
+            else
+            {
+                printf(tag, formatString, first, second, third, fourth, fifth);
+            }
         }
     }
 
@@ -358,7 +540,21 @@ public final class DebugLogger
     {
         if (isEnabled(tag))
         {
-            printf(tag, formatString, first, second, third, fourth, fifth, sixth);
+            if (BINARY_LOG != null)
+            {
+                BINARY_LOG.event(tag, formatString)
+                    .longArgument(first)
+                    .longArgument(second)
+                    .longArgument(third)
+                    .longArgument(fourth)
+                    .longArgument(fifth)
+                    .longArgument(sixth)
+                    .commit();
+            }
+            else
+            {
+                printf(tag, formatString, first, second, third, fourth, fifth, sixth);
+            }
         }
     }
 
@@ -375,7 +571,22 @@ public final class DebugLogger
     {
         if (isEnabled(tag))
         {
-            printf(tag, formatString, first, second, third, fourth, fifth, sixth, seventh);
+            if (BINARY_LOG != null)
+            {
+                BINARY_LOG.event(tag, formatString)
+                    .longArgument(first)
+                    .longArgument(second)
+                    .longArgument(third)
+                    .longArgument(fourth)
+                    .longArgument(fifth)
+                    .longArgument(sixth)
+                    .longArgument(seventh)
+                    .commit();
+            }
+            else
+            {
+                printf(tag, formatString, first, second, third, fourth, fifth, sixth, seventh);
+            }
         }
     }
 
@@ -390,7 +601,20 @@ public final class DebugLogger
     {
         if (isEnabled(tag))
         {
-            printf(tag, formatString, first, second, third, fourth, fifth);
+            if (BINARY_LOG != null)
+            {
+                BINARY_LOG.event(tag, formatString)
+                    .objectArgument(first)
+                    .longArgument(second)
+                    .longArgument(third)
+                    .longArgument(fourth)
+                    .longArgument(fifth)
+                    .commit();
+            }
+            else
+            {
+                printf(tag, formatString, first, second, third, fourth, fifth);
+            }
         }
     }
 
@@ -399,7 +623,7 @@ public final class DebugLogger
         return DEBUG_PRINT_MESSAGES && DEBUG_TAGS.contains(tag);
     }
 
-    private static boolean isThreadEnabled(final String threadName)
+    static boolean isThreadEnabled(final String threadName)
     {
         return DEBUG_PRINT_THREAD == null || DEBUG_PRINT_THREAD.equals(threadName);
     }
@@ -19,14 +19,42 @@ import org.agrona.CloseHelper;
 import org.agrona.concurrent.status.AtomicCounter;
 import org.agrona.concurrent.status.CountersManager;
 
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The counters of an engine or library, stored in its monitoring file.
+ *
+ * Counters that belong to a session, connection or library have a type id that says so and the id of what they
+ * belong to at the start of their key, so that tools like {@link FixStat} can group them.
+ */
 public class FixCounters implements AutoCloseable
 {
+    public static final int GLOBAL_TYPE_ID = 0;
+    public static final int CONNECTION_TYPE_ID = 1;
+    public static final int SESSION_TYPE_ID = 2;
+    public static final int LIBRARY_TYPE_ID = 3;
+
+    /**
+     * Offset within the key of the connection id, or library id, that a counter belongs to.
+     */
+    public static final int KEY_ID_OFFSET = 0;
+
     private final CountersManager countersManager;
     private final AtomicCounter failedInboundPublications;
     private final AtomicCounter failedOutboundPublications;
     private final AtomicCounter failedReplayPublications;
+    private final List<AtomicCounter> indexerLags = new ArrayList<>();
 
     private AtomicCounter failedRaftPublications = null;
+    private AtomicCounter raftCatchUpBytesSent = null;
+    private AtomicCounter raftCatchUpBytesRemaining = null;
+    private AtomicCounter archiveMappingHits = null;
+    private AtomicCounter archiveMappingMisses = null;
+    private AtomicCounter indexCatchUpTimeInMs = null;
+    private AtomicCounter startupTimeInMs = null;
+    private AtomicCounter warmUpTimeInMs = null;
+    private AtomicCounter warmUpSettled = null;
 
     FixCounters(final CountersManager countersManager)
     {
@@ -61,29 +89,152 @@ public class FixCounters implements AutoCloseable
         return failedRaftPublications;
     }
 
+    public AtomicCounter raftCatchUpBytesSent()
+    {
+        if (raftCatchUpBytesSent == null)
+        {
+            raftCatchUpBytesSent = countersManager.newCounter("Raft catch up bytes sent");
+        }
+
+        return raftCatchUpBytesSent;
+    }
+
+    public AtomicCounter raftCatchUpBytesRemaining()
+    {
+        if (raftCatchUpBytesRemaining == null)
+        {
+            raftCatchUpBytesRemaining = countersManager.newCounter("Raft catch up bytes remaining");
+        }
+
+        return raftCatchUpBytesRemaining;
+    }
+
+    public AtomicCounter archiveMappingHits()
+    {
+        if (archiveMappingHits == null)
+        {
+            archiveMappingHits = countersManager.newCounter("Archive term mapping hits");
+        }
+
+        return archiveMappingHits;
+    }
+
+    public AtomicCounter archiveMappingMisses()
+    {
+        if (archiveMappingMisses == null)
+        {
+            archiveMappingMisses = countersManager.newCounter("Archive term mapping misses");
+        }
+
+        return archiveMappingMisses;
+    }
+
+    public AtomicCounter indexCatchUpTimeInMs()
+    {
+        if (indexCatchUpTimeInMs == null)
+        {
+            indexCatchUpTimeInMs = countersManager.newCounter("Index catch up time in ms");
+        }
+
+        return indexCatchUpTimeInMs;
+    }
+
+    public AtomicCounter startupTimeInMs()
+    {
+        if (startupTimeInMs == null)
+        {
+            startupTimeInMs = countersManager.newCounter("Engine startup time in ms");
+        }
+
+        return startupTimeInMs;
+    }
+
+    public AtomicCounter warmUpTimeInMs()
+    {
+        if (warmUpTimeInMs == null)
+        {
+            warmUpTimeInMs = countersManager.newCounter("Warm up time in ms");
+        }
+
+        return warmUpTimeInMs;
+    }
+
+    public AtomicCounter warmUpSettled()
+    {
+        if (warmUpSettled == null)
+        {
+            warmUpSettled = countersManager.newCounter("Warm up settled compilation");
+        }
+
+        return warmUpSettled;
+    }
+
     public AtomicCounter messagesRead(final long connectionId, final String address)
     {
-        return newCounter("Messages Read from " + address + " id = " + connectionId);
+        return newCounter("Messages Read from " + address + " id = " + connectionId, CONNECTION_TYPE_ID, connectionId);
+    }
+
+    public AtomicCounter messagesWritten(final long connectionId, final String address)
+    {
+        return newCounter(
+            "Messages Written to " + address + " id = " + connectionId, CONNECTION_TYPE_ID, connectionId);
     }
 
     public AtomicCounter bytesInBuffer(final long connectionId, final String address)
     {
-        return newCounter("Quarantined bytes for " + address + " id = " + connectionId);
+        return newCounter(
+            "Quarantined bytes for " + address + " id = " + connectionId, CONNECTION_TYPE_ID, connectionId);
+    }
+
+    public AtomicCounter slowConsumerTimeInMs(final long connectionId, final String address)
+    {
+        return newCounter(
+            "Slow consumer time in ms for " + address + " id = " + connectionId, CONNECTION_TYPE_ID, connectionId);
+    }
+
+    public AtomicCounter throttledTimeInMs(final long connectionId, final String address)
+    {
+        return newCounter(
+            "Throttled time in ms for " + address + " id = " + connectionId, CONNECTION_TYPE_ID, connectionId);
     }
 
     public AtomicCounter invalidLibraryAttempts(final long connectionId, final String address)
     {
-        return newCounter("Invalid Library Attempts for " + address + " id = " + connectionId);
+        return newCounter(
+            "Invalid Library Attempts for " + address + " id = " + connectionId, CONNECTION_TYPE_ID, connectionId);
     }
 
     public AtomicCounter sentMsgSeqNo(final long connectionId)
     {
-        return newCounter("Last Sent MsgSeqNo for " + connectionId);
+        return newCounter("Last Sent MsgSeqNo for " + connectionId, SESSION_TYPE_ID, connectionId);
     }
 
     public AtomicCounter receivedMsgSeqNo(final long connectionId)
     {
-        return newCounter("Last Received MsgSeqNo for " + connectionId);
+        return newCounter("Last Received MsgSeqNo for " + connectionId, SESSION_TYPE_ID, connectionId);
+    }
+
+    public SessionCounters sessionCounters(final long connectionId)
+    {
+        return new SessionCounters(
+            newCounter("Resend requests received for " + connectionId, SESSION_TYPE_ID, connectionId),
+            newCounter("Resend requests sent for " + connectionId, SESSION_TYPE_ID, connectionId),
+            newCounter("Gap fills received for " + connectionId, SESSION_TYPE_ID, connectionId),
+            newCounter("Sequence resets received for " + connectionId, SESSION_TYPE_ID, connectionId));
+    }
+
+    public LibraryCounters libraryCounters(final int libraryId)
+    {
+        return new LibraryCounters(
+            newCounter("Sessions for library " + libraryId, LIBRARY_TYPE_ID, libraryId),
+            newCounter("Slow consumer events for library " + libraryId, LIBRARY_TYPE_ID, libraryId));
+    }
+
+    public AtomicCounter indexerLag(final String roleName)
+    {
+        final AtomicCounter indexerLag = newCounter("Bytes archived but not indexed: " + roleName);
+        indexerLags.add(indexerLag);
+        return indexerLag;
     }
 
     private AtomicCounter newCounter(final String label)
@@ -91,12 +242,20 @@ public class FixCounters implements AutoCloseable
         return countersManager.newCounter(label);
     }
 
+    private AtomicCounter newCounter(final String label, final int typeId, final long id)
+    {
+        return countersManager.newCounter(label, typeId, (keyBuffer) -> keyBuffer.putLong(KEY_ID_OFFSET, id));
+    }
+
     public void close()
     {
         failedInboundPublications.close();
         failedOutboundPublications.close();
         failedReplayPublications.close();
         CloseHelper.close(failedRaftPublications);
+        CloseHelper.close(raftCatchUpBytesSent);
+        CloseHelper.close(raftCatchUpBytesRemaining);
+        indexerLags.forEach(AtomicCounter::close);
     }
 
 }
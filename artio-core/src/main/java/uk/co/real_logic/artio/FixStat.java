@@ -21,19 +21,32 @@ import org.agrona.concurrent.status.CountersManager;
 import uk.co.real_logic.artio.engine.EngineConfiguration;
 
 import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import static uk.co.real_logic.artio.FixCounters.KEY_ID_OFFSET;
+
 /**
  * FixStat prints out the counter statistics from an operational fix gateway.
  * <p>
  * Takes the same configuration properties as the gateway, for example:
  *
  * -Dfix.counters.file=/tmp/fix-client/counters
+ * <p>
+ * By default the counters are redrawn every second. If run with <code>-s &lt;intervalInMs&gt;</code> then
+ * the counters are sampled at that interval and written as a compact time series instead, suitable for redirecting
+ * to a file. Each counter is defined once, when it's first seen, by a line of the form
+ * <code>#id,typeId,keyId,label</code>, where the key id is the connection or library that the counter belongs to.
+ * Each sample is then a line of the form <code>timeInMs,id=value,id=value</code> that only holds the counters
+ * whose value has changed since the previous sample.
  */
 public class FixStat
 {
     public static void main(final String[] args) throws InterruptedException
     {
+        final long sampleIntervalInMs = args.length == 2 && "-s".equals(args[0]) ? Long.parseLong(args[1]) : 0;
+
         final EngineConfiguration configuration = new EngineConfiguration();
         configuration.libraryAeronChannel("").conclude();
         try (MonitoringFile monitoringFile = new MonitoringFile(false, configuration))
@@ -44,23 +57,81 @@ public class FixStat
             final AtomicBoolean running = new AtomicBoolean(true);
             SigInt.register(() -> running.set(false));
 
-            while (running.get())
+            if (sampleIntervalInMs > 0)
             {
-                System.out.print("\033[H\033[2J");
-                System.out.format("%1$tH:%1$tM:%1$tS - Fix Stat%n", LocalTime.now());
-                System.out.println("=========================");
+                printTimeSeries(countersManager, countersBuffer, sampleIntervalInMs, running);
+            }
+            else
+            {
+                printCounters(countersManager, countersBuffer, running);
+            }
+        }
+    }
+
+    private static void printCounters(
+        final CountersManager countersManager, final AtomicBuffer countersBuffer, final AtomicBoolean running)
+        throws InterruptedException
+    {
+        while (running.get())
+        {
+            System.out.print("\033[H\033[2J");
+            System.out.format("%1$tH:%1$tM:%1$tS - Fix Stat%n", LocalTime.now());
+            System.out.println("=========================");
+
+            countersManager.forEach(
+                (id, label) ->
+                {
+                    final int offset = CountersManager.counterOffset(id);
+                    final long value = countersBuffer.getLongVolatile(offset);
 
-                countersManager.forEach(
-                    (id, label) ->
+                    System.out.format("%3d: %,20d - %s%n", id, value, label);
+                });
+
+            Thread.sleep(1000);
+        }
+    }
+
+    private static void printTimeSeries(
+        final CountersManager countersManager,
+        final AtomicBuffer countersBuffer,
+        final long sampleIntervalInMs,
+        final AtomicBoolean running)
+        throws InterruptedException
+    {
+        final Map<Integer, String> idToLabel = new HashMap<>();
+        final Map<Integer, Long> idToValue = new HashMap<>();
+        final StringBuilder sample = new StringBuilder();
+
+        while (running.get())
+        {
+            sample.setLength(0);
+            sample.append(System.currentTimeMillis());
+            final int timeLength = sample.length();
+
+            countersManager.forEach(
+                (id, typeId, keyBuffer, label) ->
+                {
+                    // Counter ids are reused once freed, so a new label means that it's a new counter.
+                    if (!label.equals(idToLabel.put(id, label)))
                     {
-                        final int offset = CountersManager.counterOffset(id);
-                        final long value = countersBuffer.getLongVolatile(offset);
+                        System.out.format("#%d,%d,%d,%s%n", id, typeId, keyBuffer.getLong(KEY_ID_OFFSET), label);
+                        idToValue.remove(id);
+                    }
 
-                        System.out.format("%3d: %,20d - %s%n", id, value, label);
-                    });
+                    final long value = countersBuffer.getLongVolatile(CountersManager.counterOffset(id));
+                    final Long lastValue = idToValue.put(id, value);
+                    if (lastValue == null || lastValue != value)
+                    {
+                        sample.append(',').append(id).append('=').append(value);
+                    }
+                });
 
-                Thread.sleep(1000);
+            if (sample.length() > timeLength)
+            {
+                System.out.println(sample);
             }
+
+            Thread.sleep(sampleIntervalInMs);
         }
     }
 }
@@ -25,8 +25,10 @@ import uk.co.real_logic.artio.timing.Timer;
 import java.nio.channels.ClosedByInterruptException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 
 import static io.aeron.driver.Configuration.ERROR_BUFFER_LENGTH_PROP_NAME;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static uk.co.real_logic.artio.CommonConfiguration.TIME_MESSAGES;
 import static uk.co.real_logic.artio.dictionary.generation.Exceptions.closeAll;
 
@@ -133,6 +135,34 @@ public class GatewayProcess implements AutoCloseable
         }
     }
 
+    /**
+     * Runs a warm up if {@link CommonConfiguration#warmUpIterations()} enables it, recording how long it took and
+     * whether compilation settled. Failures are only reported to the error handler: a process that hasn't been
+     * warmed up is slower at first, but still correct.
+     *
+     * @param warmUpFactory creates the warm up for this process.
+     */
+    protected void warmUp(final Supplier<WarmUp> warmUpFactory)
+    {
+        final int iterations = configuration.warmUpIterations();
+        if (iterations <= 0)
+        {
+            return;
+        }
+
+        final NanoClock nanoClock = configuration.nanoClock();
+        final long startTimeInNs = nanoClock.nanoTime();
+        try (WarmUp warmUp = warmUpFactory.get())
+        {
+            fixCounters.warmUpSettled().set(warmUp.run(iterations) ? 1 : 0);
+        }
+        catch (final Exception e)
+        {
+            errorHandler.onError(e);
+        }
+        fixCounters.warmUpTimeInMs().set(NANOSECONDS.toMillis(nanoClock.nanoTime() - startTimeInNs));
+    }
+
     public void close()
     {
         closeAll(
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio;
+
+import org.agrona.concurrent.status.AtomicCounter;
+
+/**
+ * Counters kept by the engine for each connected library, allocated when the library connects and freed when it
+ * times out.
+ */
+public class LibraryCounters implements AutoCloseable
+{
+    private final AtomicCounter sessions;
+    private final AtomicCounter slowConsumerEvents;
+
+    LibraryCounters(final AtomicCounter sessions, final AtomicCounter slowConsumerEvents)
+    {
+        this.sessions = sessions;
+        this.slowConsumerEvents = slowConsumerEvents;
+    }
+
+    /**
+     * Get the number of sessions that the library currently owns.
+     *
+     * @return the number of sessions that the library currently owns.
+     */
+    public AtomicCounter sessions()
+    {
+        return sessions;
+    }
+
+    /**
+     * Get the number of times that one of the library's sessions has become a slow consumer, at which point
+     * the library's messages for it are held back by the engine.
+     *
+     * @return the number of times that one of the library's sessions has become a slow consumer.
+     */
+    public AtomicCounter slowConsumerEvents()
+    {
+        return slowConsumerEvents;
+    }
+
+    public void close()
+    {
+        sessions.close();
+        slowConsumerEvents.close();
+    }
+}
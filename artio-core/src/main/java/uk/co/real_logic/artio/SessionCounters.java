@@ -0,0 +1,69 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio;
+
+import org.agrona.concurrent.status.AtomicCounter;
+
+/**
+ * Counters for a single FIX session, allocated when a session object is created and freed when it's closed.
+ */
+public class SessionCounters implements AutoCloseable
+{
+    private final AtomicCounter resendRequestsReceived;
+    private final AtomicCounter resendRequestsSent;
+    private final AtomicCounter gapFillsReceived;
+    private final AtomicCounter sequenceResetsReceived;
+
+    SessionCounters(
+        final AtomicCounter resendRequestsReceived,
+        final AtomicCounter resendRequestsSent,
+        final AtomicCounter gapFillsReceived,
+        final AtomicCounter sequenceResetsReceived)
+    {
+        this.resendRequestsReceived = resendRequestsReceived;
+        this.resendRequestsSent = resendRequestsSent;
+        this.gapFillsReceived = gapFillsReceived;
+        this.sequenceResetsReceived = sequenceResetsReceived;
+    }
+
+    public AtomicCounter resendRequestsReceived()
+    {
+        return resendRequestsReceived;
+    }
+
+    public AtomicCounter resendRequestsSent()
+    {
+        return resendRequestsSent;
+    }
+
+    public AtomicCounter gapFillsReceived()
+    {
+        return gapFillsReceived;
+    }
+
+    public AtomicCounter sequenceResetsReceived()
+    {
+        return sequenceResetsReceived;
+    }
+
+    public void close()
+    {
+        resendRequestsReceived.close();
+        resendRequestsSent.close();
+        gapFillsReceived.close();
+        sequenceResetsReceived.close();
+    }
+}
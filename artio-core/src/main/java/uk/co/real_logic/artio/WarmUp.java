@@ -0,0 +1,167 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio;
+
+import org.agrona.concurrent.NoOpIdleStrategy;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.status.AtomicCounter;
+import org.agrona.concurrent.status.CountersManager;
+import uk.co.real_logic.artio.builder.Encoder;
+import uk.co.real_logic.artio.builder.HeaderEncoder;
+import uk.co.real_logic.artio.builder.HeartbeatEncoder;
+import uk.co.real_logic.artio.builder.TestRequestEncoder;
+import uk.co.real_logic.artio.fields.UtcTimestampEncoder;
+import uk.co.real_logic.artio.protocol.GatewayPublication;
+import uk.co.real_logic.artio.replication.ClusterablePublication;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
+
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs the latency sensitive message handling code of an engine or library over a corpus of messages before it
+ * handles any real messages, so that the first real messages aren't run through interpreted or partially
+ * compiled code.
+ *
+ * Warm up runs in rounds until a round completes without the JIT compiler having done any more compilation, or
+ * {@link #MAX_ROUNDS} rounds have run. Messages are only read from and written to memory, never to the network
+ * or the archive.
+ *
+ * @see CommonConfiguration#warmUpIterations(int)
+ */
+public abstract class WarmUp implements AutoCloseable
+{
+    public static final int MAX_ROUNDS = 100;
+
+    public static final String SENDER_COMP_ID = "warmUpSender";
+    public static final String TARGET_COMP_ID = "warmUpTarget";
+
+    private static final int DEFAULT_MESSAGE_COUNT = 100;
+    private static final int MESSAGE_BUFFER_SIZE = 1024;
+    private static final int MAX_COUNTERS = 16;
+    private static final int COUNTER_VALUES_LENGTH = MAX_COUNTERS * 64;
+
+    private final CountersManager countersManager = new CountersManager(
+        new UnsafeBuffer(new byte[COUNTER_VALUES_LENGTH * 2]), new UnsafeBuffer(new byte[COUNTER_VALUES_LENGTH]));
+
+    /**
+     * Run every warm up message through the message handling code once.
+     */
+    protected abstract void runMessages();
+
+    /**
+     * Warm up the message handling code.
+     *
+     * @param iterations the number of times that the messages are run in each round.
+     * @return true if compilation settled before {@link #MAX_ROUNDS} rounds had run, false otherwise or if
+     *         the JVM doesn't support monitoring compilation time, in which case only a single round is run.
+     */
+    public boolean run(final int iterations)
+    {
+        final CompilationMXBean compilation = ManagementFactory.getCompilationMXBean();
+        final boolean canMonitorCompilation =
+            compilation != null && compilation.isCompilationTimeMonitoringSupported();
+        long compilationTimeInMs = canMonitorCompilation ? compilation.getTotalCompilationTime() : 0;
+
+        for (int round = 0; round < MAX_ROUNDS; round++)
+        {
+            for (int i = 0; i < iterations; i++)
+            {
+                runMessages();
+            }
+
+            if (!canMonitorCompilation)
+            {
+                return false;
+            }
+
+            final long newCompilationTimeInMs = compilation.getTotalCompilationTime();
+            if (newCompilationTimeInMs == compilationTimeInMs)
+            {
+                return true;
+            }
+            compilationTimeInMs = newCompilationTimeInMs;
+        }
+
+        return false;
+    }
+
+    public void close()
+    {
+    }
+
+    protected AtomicCounter newCounter(final String label)
+    {
+        return countersManager.newCounter(label);
+    }
+
+    /**
+     * Create a publication that encodes its messages in the normal way, but then discards them.
+     *
+     * @param configuration the configuration of the process being warmed up.
+     * @param maxPayloadLength the maximum length of a message that can be published.
+     * @return the publication.
+     */
+    protected GatewayPublication newSinkPublication(
+        final CommonConfiguration configuration, final int maxPayloadLength)
+    {
+        return new GatewayPublication(
+            ClusterablePublication.sink(maxPayloadLength),
+            newCounter("Warm up failed claims"),
+            new NoOpIdleStrategy(),
+            configuration.nanoClock(),
+            1);
+    }
+
+    /**
+     * Create the default warm up messages: test requests and heartbeats from {@link #SENDER_COMP_ID} to
+     * {@link #TARGET_COMP_ID}, with consecutive sequence numbers starting at 1.
+     *
+     * @return the default warm up messages.
+     */
+    public static List<byte[]> defaultMessages()
+    {
+        final long sendingTime = System.currentTimeMillis();
+        final UtcTimestampEncoder timestampEncoder = new UtcTimestampEncoder();
+        final int timestampLength = timestampEncoder.encode(sendingTime);
+        final TestRequestEncoder testRequest = new TestRequestEncoder();
+        final HeartbeatEncoder heartbeat = new HeartbeatEncoder();
+        testRequest.testReqID("warmUp");
+        final MutableAsciiBuffer buffer = new MutableAsciiBuffer(new byte[MESSAGE_BUFFER_SIZE]);
+
+        final List<byte[]> messages = new ArrayList<>(DEFAULT_MESSAGE_COUNT);
+        for (int msgSeqNum = 1; msgSeqNum <= DEFAULT_MESSAGE_COUNT; msgSeqNum++)
+        {
+            final boolean isTestRequest = (msgSeqNum & 1) == 1;
+            final HeaderEncoder header = isTestRequest ? testRequest.header() : heartbeat.header();
+            header
+                .sendingTime(timestampEncoder.buffer(), timestampLength)
+                .senderCompID(SENDER_COMP_ID)
+                .targetCompID(TARGET_COMP_ID)
+                .msgSeqNum(msgSeqNum);
+
+            final Encoder encoder = isTestRequest ? testRequest : heartbeat;
+            final long result = encoder.encode(buffer, 0);
+            final byte[] message = new byte[Encoder.length(result)];
+            buffer.getBytes(Encoder.offset(result), message);
+            messages.add(message);
+        }
+
+        return messages;
+    }
+}
@@ -19,11 +19,18 @@ import org.agrona.ErrorHandler;
 import org.agrona.concurrent.AtomicBuffer;
 
 import java.nio.ByteBuffer;
+import java.util.function.IntConsumer;
 import java.util.zip.CRC32;
 
-// TODO: optimisation: write and checksum only needed bytes
+// TODO: optimisation: write only needed bytes
 public class ChecksumFramer extends SectorFramer
 {
+    private static final IntConsumer NO_SECTOR_HANDLER = sectorStart -> {};
+
+    private final boolean[] dirtySectors;
+    private final int[] dirtySectorIndices;
+    private int dirtySectorCount;
+
     private final CRC32 crc32 = new CRC32();
     private final AtomicBuffer buffer;
     private final ChecksumConsumer saveChecksumFunc;
@@ -46,6 +53,10 @@ public class ChecksumFramer extends SectorFramer
         this.errorReportingOffset = errorReportingOffset;
         this.fileName = fileName;
         validateChecksumFunc = this::validateChecksum;
+
+        final int sectorCount = capacity / SECTOR_SIZE;
+        dirtySectors = new boolean[sectorCount];
+        dirtySectorIndices = new int[sectorCount];
     }
 
     public void validateCheckSums()
@@ -56,6 +67,87 @@ public class ChecksumFramer extends SectorFramer
     public void updateChecksums()
     {
         withChecksums(saveChecksumFunc);
+        clearDirtySectors();
+    }
+
+    /**
+     * Mark the sector that contains an offset as modified, so that its checksum is updated by the next call to
+     * {@link #updateDirtyChecksums()}.
+     *
+     * @param offset the offset within the buffer that has been written to.
+     */
+    public void markDirty(final int offset)
+    {
+        final int sectorIndex = offset / SECTOR_SIZE;
+        if (sectorIndex < dirtySectors.length && !dirtySectors[sectorIndex])
+        {
+            dirtySectors[sectorIndex] = true;
+            dirtySectorIndices[dirtySectorCount++] = sectorIndex;
+        }
+    }
+
+    /**
+     * Update the checksums of only those sectors that have been marked dirty since they were last checksummed.
+     *
+     * @return the number of sectors whose checksums were updated.
+     */
+    public int updateDirtyChecksums()
+    {
+        return updateDirtyChecksums(NO_SECTOR_HANDLER);
+    }
+
+    /**
+     * Update the checksums of only those sectors that have been marked dirty since they were last checksummed,
+     * passing the start of each one to a handler once its checksum has been updated.
+     *
+     * @param onSectorUpdated called with the offset of the start of each sector that has been updated.
+     * @return the number of sectors whose checksums were updated.
+     */
+    public int updateDirtyChecksums(final IntConsumer onSectorUpdated)
+    {
+        final int dirtySectorCount = this.dirtySectorCount;
+        if (dirtySectorCount == 0)
+        {
+            return 0;
+        }
+
+        final int[] dirtySectorIndices = this.dirtySectorIndices;
+        for (int i = 0; i < dirtySectorCount; i++)
+        {
+            final int sectorStart = dirtySectorIndices[i] * SECTOR_SIZE;
+            updateChecksum(sectorStart);
+            onSectorUpdated.accept(sectorStart);
+        }
+        clearDirtySectors();
+
+        return dirtySectorCount;
+    }
+
+    private void clearDirtySectors()
+    {
+        final boolean[] dirtySectors = this.dirtySectors;
+        final int[] dirtySectorIndices = this.dirtySectorIndices;
+        for (int i = 0; i < dirtySectorCount; i++)
+        {
+            dirtySectors[dirtySectorIndices[i]] = false;
+        }
+        dirtySectorCount = 0;
+    }
+
+    /**
+     * Update the checksum of a single sector, rather than the whole buffer.
+     *
+     * @param sectorStart the offset of the start of the sector within the buffer.
+     */
+    public void updateChecksum(final int sectorStart)
+    {
+        final ByteBuffer inMemoryByteBuffer = buffer.byteBuffer();
+        saveChecksumFunc.accept(sectorStart + SECTOR_DATA_LENGTH, checksumSector(sectorStart));
+
+        if (inMemoryByteBuffer != null)
+        {
+            inMemoryByteBuffer.clear();
+        }
     }
 
     private void validateChecksum(final int checksumOffset, final int calculatedChecksum)
@@ -68,7 +160,6 @@ public class ChecksumFramer extends SectorFramer
 
     private void withChecksums(final ChecksumConsumer consumer)
     {
-        final byte[] inMemoryBytes = buffer.byteArray();
         final ByteBuffer inMemoryByteBuffer = buffer.byteBuffer();
         final int capacity = this.capacity;
 
@@ -76,20 +167,7 @@ public class ChecksumFramer extends SectorFramer
         {
             final int sectorStart = sectorEnd - SECTOR_SIZE;
             final int checksumOffset = sectorEnd - CHECKSUM_SIZE;
-
-            crc32.reset();
-            if (inMemoryBytes != null)
-            {
-                crc32.update(inMemoryBytes, sectorStart, SECTOR_DATA_LENGTH);
-            }
-            else
-            {
-                ByteBufferUtil.limit(inMemoryByteBuffer, sectorStart + SECTOR_DATA_LENGTH);
-                ByteBufferUtil.position(inMemoryByteBuffer, sectorStart);
-                crc32.update(inMemoryByteBuffer);
-            }
-            final int sectorChecksum = (int)crc32.getValue();
-            consumer.accept(checksumOffset, sectorChecksum);
+            consumer.accept(checksumOffset, checksumSector(sectorStart));
         }
 
         if (inMemoryByteBuffer != null)
@@ -98,6 +176,25 @@ public class ChecksumFramer extends SectorFramer
         }
     }
 
+    private int checksumSector(final int sectorStart)
+    {
+        final byte[] inMemoryBytes = buffer.byteArray();
+
+        crc32.reset();
+        if (inMemoryBytes != null)
+        {
+            crc32.update(inMemoryBytes, sectorStart, SECTOR_DATA_LENGTH);
+        }
+        else
+        {
+            final ByteBuffer inMemoryByteBuffer = buffer.byteBuffer();
+            ByteBufferUtil.limit(inMemoryByteBuffer, sectorStart + SECTOR_DATA_LENGTH);
+            ByteBufferUtil.position(inMemoryByteBuffer, sectorStart);
+            crc32.update(inMemoryByteBuffer);
+        }
+        return (int)crc32.getValue();
+    }
+
     private interface ChecksumConsumer
     {
         void accept(int checksumOffset, int sectorChecksum);
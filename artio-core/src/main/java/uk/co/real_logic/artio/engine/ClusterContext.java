@@ -30,11 +30,14 @@ import uk.co.real_logic.artio.protocol.GatewayPublication;
 import uk.co.real_logic.artio.protocol.Streams;
 import uk.co.real_logic.artio.replication.*;
 
+import java.util.Arrays;
+
 import static uk.co.real_logic.artio.GatewayProcess.INBOUND_LIBRARY_STREAM;
 import static uk.co.real_logic.artio.GatewayProcess.OUTBOUND_LIBRARY_STREAM;
 import static uk.co.real_logic.artio.dictionary.generation.Exceptions.closeAll;
 import static uk.co.real_logic.artio.dictionary.generation.Exceptions.suppressingClose;
 import static uk.co.real_logic.artio.engine.logger.LoggerUtil.newArchiveMetaData;
+import static uk.co.real_logic.artio.replication.ClusterConfiguration.DEFAULT_CATCH_UP_STREAM_ID;
 import static uk.co.real_logic.artio.replication.ClusterConfiguration.DEFAULT_DATA_STREAM_ID;
 
 class ClusterContext extends EngineContext
@@ -66,8 +69,10 @@ class ClusterContext extends EngineContext
             StreamInformation.print("inboundPublication", inboundPublication, configuration);
             clusterAgent = node(configuration, fixCounters, aeron, channel, engineDescriptorStore);
             newStreams(clusterAgent.clusterStreams());
-            newIndexers(inboundArchiveReader(), outboundArchiveReader(), null);
+            newIndexers(
+                archiveReader(dataStream, INBOUND_LIBRARY_STREAM), outboundArchiveReader(), null);
 
+            // Each agent gets its own reader, since they can be scheduled on different threads.
             replayer = newReplayer(replayPublication, outboundArchiveReader());
 
             localInboundArchiver = archiver(
@@ -93,14 +98,14 @@ class ClusterContext extends EngineContext
 
             localOutboundArchiver.positionHandler(positionSender);
 
-            archivingAgent = new CompositeAgent(
+            // The position sender is invoked by the local outbound archiver, so they must share a thread.
+            archivingAgents(Arrays.asList(
                 inboundIndexer,
                 outboundIndexer,
                 clusterAgent,
                 replayer,
                 localInboundArchiver,
-                localOutboundArchiver,
-                positionSender);
+                new CompositeAgent(localOutboundArchiver, positionSender)));
         }
         catch (final Exception e)
         {
@@ -125,14 +130,18 @@ class ClusterContext extends EngineContext
         final int cacheSetSize = configuration.loggerCacheSetSize();
         final String logFileDir = configuration.logFileDir();
 
-        final Archiver archiver = new Archiver(
+        final Archiver archiver = configure(new Archiver(
             newArchiveMetaData(logFileDir), cacheNumSets, cacheSetSize, dataStream, configuration.agentNamePrefix(),
-            outboundClusterCompletionPosition());
+            outboundClusterCompletionPosition()));
 
         final ClusterConfiguration clusterConfiguration = new ClusterConfiguration()
             .nodeId(configuration.nodeId())
             .otherNodes(configuration.otherNodes())
             .timeoutIntervalInMs(configuration.clusterTimeoutIntervalInMs())
+            .acknowledgementBatchSize(configuration.clusterAcknowledgementBatchSize())
+            .acknowledgementIntervalInMs(configuration.clusterAcknowledgementIntervalInMs())
+            .catchUpChunkSize(configuration.clusterCatchUpChunkSize())
+            .catchUpCounters(fixCounters.raftCatchUpBytesSent(), fixCounters.raftCatchUpBytesRemaining())
             .idleStrategy(configuration.framerIdleStrategy())
             .archiver(archiver)
             .archiveReaderSupplier(() -> archiveReader(dataStream))
@@ -147,6 +156,11 @@ class ClusterContext extends EngineContext
             .agentNamePrefix(configuration.agentNamePrefix())
             .printAeronStreamIdentifiers(configuration.printAeronStreamIdentifiers());
 
+        if (configuration.clusterCatchUpOnSeparateStream())
+        {
+            clusterConfiguration.catchUpStream(new StreamIdentifier(clusterAeronChannel, DEFAULT_CATCH_UP_STREAM_ID));
+        }
+
         return new ClusterAgent(clusterConfiguration, System.currentTimeMillis());
     }
 
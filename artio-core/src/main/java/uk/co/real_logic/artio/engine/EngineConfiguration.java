@@ -22,6 +22,9 @@ import org.agrona.concurrent.IdleStrategy;
 import org.agrona.concurrent.UnsafeBuffer;
 import uk.co.real_logic.artio.CommonConfiguration;
 import uk.co.real_logic.artio.engine.framer.TcpChannelSupplier;
+import uk.co.real_logic.artio.engine.logger.ArchiveReader;
+import uk.co.real_logic.artio.engine.logger.ArchiveRetention;
+import uk.co.real_logic.artio.engine.logger.ChecksumAlgorithm;
 import uk.co.real_logic.artio.replication.ClusterConfiguration;
 import uk.co.real_logic.artio.replication.RoleHandler;
 import uk.co.real_logic.artio.validation.SessionPersistenceStrategy;
@@ -29,6 +32,11 @@ import uk.co.real_logic.artio.validation.SessionPersistenceStrategy;
 import java.io.File;
 import java.io.IOException;
 import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.function.Function;
 
@@ -97,6 +105,17 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
      * Property name for the size in bytes of the sequence number cache file
      */
     public static final String SEQUENCE_NUMBER_INDEX_SIZE_PROP = "fix.core.sequence_number_cache_size";
+    /**
+     * Property name for the interval in milliseconds between incremental flushes of the sequence number index,
+     * 0 only flushes the whole index file when the archive's term rolls.
+     */
+    public static final String SEQUENCE_NUMBER_INDEX_FLUSH_INTERVAL_PROP =
+        "fix.core.sequence_number_index_flush_interval";
+    /**
+     * Property name for the interval in milliseconds between updates of the replay index's position checksums,
+     * 0 updates them after each batch of indexed messages.
+     */
+    public static final String REPLAY_INDEX_CHECKSUM_INTERVAL_PROP = "fix.core.replay_index_checksum_interval";
     /**
      * Property name for the size in bytes of the session id file
      */
@@ -105,6 +124,67 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
      * Property name for the maximum number of bytes to allow in the quarantine buffer before disconnection
      */
     public static final String SENDER_MAX_BYTES_IN_BUFFER_PROP = "fix.core.sender_max_bytes_in_buffer";
+    /**
+     * Property name for whether the unsent bytes of slow connections are spilled into a queue of their own
+     */
+    public static final String SENDER_SPILL_QUEUE_PROP = "fix.core.sender_spill_queue";
+    /**
+     * Property name for the size in bytes that a spill queue can grow to in memory before it's mapped to a file
+     */
+    public static final String SENDER_SPILL_IN_MEMORY_BYTES_PROP = "fix.core.sender_spill_in_memory_bytes";
+    /**
+     * Property name for the length in milliseconds of the window that session throttles limit messages within
+     */
+    public static final String THROTTLE_WINDOW_IN_MS_PROP = "fix.core.throttle_window_in_ms";
+    /**
+     * Property name for the time in milliseconds that the resolved addresses of initiated connections are cached for
+     */
+    public static final String ADDRESS_CACHE_TTL_PROP = "fix.core.address_cache_ttl";
+    /**
+     * Property name for a comma separated list of hosts whose addresses are resolved when the engine starts
+     */
+    public static final String PRE_RESOLVED_HOSTS_PROP = "fix.core.pre_resolved_hosts";
+    /**
+     * Property name for whether the next term file of each archived stream is created ahead of time
+     */
+    public static final String ARCHIVE_PRE_ALLOCATE_PROP = "fix.core.archive_pre_allocate";
+    /**
+     * Property name for whether every page of a pre-allocated term file is touched when it's created
+     */
+    public static final String ARCHIVE_PRE_TOUCH_PROP = "fix.core.archive_pre_touch";
+    /**
+     * Property name for the maximum number of archive term files that are mapped at once by each archive reader
+     */
+    public static final String ARCHIVE_MAPPINGS_PER_READER_PROP = "fix.core.archive_mappings_per_reader";
+    /**
+     * Property name for how many bytes ahead of a sequential archive read the pages of the term file are touched
+     */
+    public static final String ARCHIVE_READ_AHEAD_BYTES_PROP = "fix.core.archive_read_ahead_bytes";
+    /**
+     * Property name for the algorithm that archived frames are checksummed with, the name of a
+     * {@link ChecksumAlgorithm}
+     */
+    public static final String ARCHIVE_CHECKSUM_ALGORITHM_PROP = "fix.core.archive_checksum_algorithm";
+    /**
+     * Property name for whether archived frames are only validated the first time that they're read from a mapping
+     */
+    public static final String ARCHIVE_VALIDATE_ONCE_PROP = "fix.core.archive_validate_once";
+    /**
+     * Property name for the interval in milliseconds between checks for archived term files to remove
+     */
+    public static final String ARCHIVE_RETENTION_INTERVAL_PROP = "fix.core.archive_retention_interval";
+    /**
+     * Property name for the age in milliseconds after which archived term files are removed
+     */
+    public static final String ARCHIVE_RETENTION_MAX_AGE_PROP = "fix.core.archive_retention_max_age";
+    /**
+     * Property name for the size in bytes of an archived stream's term files above which the oldest are removed
+     */
+    public static final String ARCHIVE_RETENTION_MAX_BYTES_PROP = "fix.core.archive_retention_max_bytes";
+    /**
+     * Property name for the number of the most recent messages of each session whose term files are always kept
+     */
+    public static final String ARCHIVE_RETENTION_MIN_MESSAGES_PROP = "fix.core.archive_retention_min_messages";
     /**
      * Property name for the timeout before a connection that hasn't sent a logon is disconnected
      */
@@ -118,6 +198,11 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
     public static final int DEFAULT_REPLAY_INDEX_FILE_SIZE = 2 * 1024 * 1024 + INITIAL_RECORD_OFFSET;
     public static final int DEFAULT_LOGGER_CACHE_NUM_SETS = 8;
     public static final int DEFAULT_LOGGER_CACHE_SET_SIZE = 4;
+    public static final int DEFAULT_ARCHIVE_MAPPINGS_PER_READER = 64;
+    public static final int DEFAULT_ARCHIVE_READ_AHEAD_BYTES = 0;
+    public static final ChecksumAlgorithm DEFAULT_ARCHIVE_CHECKSUM_ALGORITHM = ChecksumAlgorithm.CRC32;
+    public static final long DEFAULT_ARCHIVE_RETENTION_INTERVAL_IN_MS = 0;
+    public static final int DEFAULT_ARCHIVE_RETENTION_MIN_MESSAGES = 0;
 
     public static final int DEFAULT_OUTBOUND_LIBRARY_FRAGMENT_LIMIT = 100;
     public static final int DEFAULT_REPLAY_FRAGMENT_LIMIT = 5;
@@ -126,8 +211,12 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
     public static final int DEFAULT_RECEIVER_SOCKET_BUFFER_SIZE = 1024 * 1024;
     public static final int DEFAULT_SENDER_SOCKET_BUFFER_SIZE = 1024 * 1024;
     public static final int DEFAULT_SEQUENCE_NUMBER_INDEX_SIZE = 8 * 1024 * 1024;
+    public static final long DEFAULT_SEQUENCE_NUMBER_INDEX_FLUSH_INTERVAL_IN_MS = 0;
+    public static final long DEFAULT_REPLAY_INDEX_CHECKSUM_INTERVAL_IN_MS = 0;
     public static final int DEFAULT_SESSION_ID_BUFFER_SIZE = 4 * 1024 * 1024;
     public static final int DEFAULT_SENDER_MAX_BYTES_IN_BUFFER = 4 * 1024 * 1024;
+    public static final int DEFAULT_SENDER_SPILL_IN_MEMORY_BYTES = 256 * 1024;
+    public static final long DEFAULT_ADDRESS_CACHE_TTL_IN_MS = 30_000;
     public static final int DEFAULT_NO_LOGON_DISCONNECT_TIMEOUT = (int)SECONDS.toMillis(5);
     public static final int DEFAULT_CLUSTER_TIMEOUT_IN_MS = 1000;
     public static final String DEFAULT_SESSION_ID_FILE = "session_id_buffer";
@@ -135,6 +224,10 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
     public static final String DEFAULT_SEQUENCE_NUMBERS_RECEIVED_FILE = "sequence_numbers_received";
     public static final short NO_NODE_ID = -1;
     public static final long DEFAULT_SLOW_CONSUMER_TIMEOUT_IN_MS = 10_000;
+    public static final long DEFAULT_THROTTLE_WINDOW_IN_MS = 1000;
+
+    // Heartbeat, TestRequest, ResendRequest, Reject, SequenceReset, Logout and Logon.
+    private static final List<String> SESSION_MESSAGE_TYPES = Arrays.asList("0", "1", "2", "3", "4", "5", "A");
 
     private String host = null;
     private int port;
@@ -155,6 +248,10 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
     private short nodeId = NO_NODE_ID;
     private IntHashSet otherNodes = new IntHashSet();
     private long clusterTimeoutIntervalInMs = DEFAULT_CLUSTER_TIMEOUT_IN_MS;
+    private int clusterAcknowledgementBatchSize = ClusterConfiguration.DEFAULT_ACKNOWLEDGEMENT_BATCH_SIZE;
+    private long clusterAcknowledgementIntervalInMs = ClusterConfiguration.DEFAULT_ACKNOWLEDGEMENT_INTERVAL_IN_MS;
+    private int clusterCatchUpChunkSize = ClusterConfiguration.DEFAULT_CATCH_UP_CHUNK_SIZE;
+    private boolean clusterCatchUpOnSeparateStream = false;
 
     private int outboundLibraryFragmentLimit =
         getInteger(OUTBOUND_LIBRARY_FRAGMENT_LIMIT_PROP, DEFAULT_OUTBOUND_LIBRARY_FRAGMENT_LIMIT);
@@ -170,10 +267,34 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         getInteger(SENDER_SOCKET_BUFFER_SIZE_PROP, DEFAULT_SENDER_SOCKET_BUFFER_SIZE);
     private int sequenceNumberIndexSize =
         getInteger(SEQUENCE_NUMBER_INDEX_SIZE_PROP, DEFAULT_SEQUENCE_NUMBER_INDEX_SIZE);
+    private long sequenceNumberIndexFlushIntervalInMs =
+        Long.getLong(SEQUENCE_NUMBER_INDEX_FLUSH_INTERVAL_PROP, DEFAULT_SEQUENCE_NUMBER_INDEX_FLUSH_INTERVAL_IN_MS);
+    private long replayIndexChecksumIntervalInMs =
+        Long.getLong(REPLAY_INDEX_CHECKSUM_INTERVAL_PROP, DEFAULT_REPLAY_INDEX_CHECKSUM_INTERVAL_IN_MS);
     private int sessionIdBufferSize =
         getInteger(SESSION_ID_BUFFER_SIZE_PROP, DEFAULT_SESSION_ID_BUFFER_SIZE);
     private int senderMaxBytesInBuffer =
         getInteger(SENDER_MAX_BYTES_IN_BUFFER_PROP, DEFAULT_SENDER_MAX_BYTES_IN_BUFFER);
+    private boolean senderSpillQueue = Boolean.getBoolean(SENDER_SPILL_QUEUE_PROP);
+    private int senderSpillInMemoryBytes =
+        getInteger(SENDER_SPILL_IN_MEMORY_BYTES_PROP, DEFAULT_SENDER_SPILL_IN_MEMORY_BYTES);
+    private long addressCacheTtlInMs = Long.getLong(ADDRESS_CACHE_TTL_PROP, DEFAULT_ADDRESS_CACHE_TTL_IN_MS);
+    private List<String> preResolvedHosts = hosts(getProperty(PRE_RESOLVED_HOSTS_PROP, ""));
+    private long throttleWindowInMs = Long.getLong(THROTTLE_WINDOW_IN_MS_PROP, DEFAULT_THROTTLE_WINDOW_IN_MS);
+    private boolean archivePreAllocate = Boolean.getBoolean(ARCHIVE_PRE_ALLOCATE_PROP);
+    private boolean archivePreTouch = Boolean.getBoolean(ARCHIVE_PRE_TOUCH_PROP);
+    private int archiveMappingsPerReader =
+        getInteger(ARCHIVE_MAPPINGS_PER_READER_PROP, DEFAULT_ARCHIVE_MAPPINGS_PER_READER);
+    private int archiveReadAheadBytes = getInteger(ARCHIVE_READ_AHEAD_BYTES_PROP, DEFAULT_ARCHIVE_READ_AHEAD_BYTES);
+    private ChecksumAlgorithm archiveChecksumAlgorithm = ChecksumAlgorithm.valueOf(
+        getProperty(ARCHIVE_CHECKSUM_ALGORITHM_PROP, DEFAULT_ARCHIVE_CHECKSUM_ALGORITHM.name()));
+    private boolean archiveValidateOnce = Boolean.getBoolean(ARCHIVE_VALIDATE_ONCE_PROP);
+    private long archiveRetentionIntervalInMs =
+        Long.getLong(ARCHIVE_RETENTION_INTERVAL_PROP, DEFAULT_ARCHIVE_RETENTION_INTERVAL_IN_MS);
+    private long archiveRetentionMaxAgeInMs = Long.getLong(ARCHIVE_RETENTION_MAX_AGE_PROP, ArchiveRetention.NO_LIMIT);
+    private long archiveRetentionMaxBytes = Long.getLong(ARCHIVE_RETENTION_MAX_BYTES_PROP, ArchiveRetention.NO_LIMIT);
+    private int archiveRetentionMinMessages =
+        getInteger(ARCHIVE_RETENTION_MIN_MESSAGES_PROP, DEFAULT_ARCHIVE_RETENTION_MIN_MESSAGES);
     private int noLogonDisconnectTimeoutInMs =
         getInteger(NO_LOGON_DISCONNECT_TIMEOUT_PROP, DEFAULT_NO_LOGON_DISCONNECT_TIMEOUT);
 
@@ -183,6 +304,8 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
     private SessionPersistenceStrategy sessionPersistenceStrategy;
     private long slowConsumerTimeoutInMs = DEFAULT_SLOW_CONSUMER_TIMEOUT_IN_MS;
     private EngineScheduler scheduler = new DefaultEngineScheduler();
+    private final Map<String, String> messageTypeRoutes = new HashMap<>();
+    private SessionThrottleStrategy sessionThrottleStrategy = SessionThrottleStrategy.none();
 
     /**
      * Sets the local address to bind to when the Gateway is used to accept connections.
@@ -403,6 +526,344 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return this;
     }
 
+    /**
+     * Sets the time for which the resolved addresses of initiated connections are cached.
+     * <p>
+     * Host names are resolved off the Framer thread, so a slow lookup doesn't hold up other sessions, but an
+     * initiated connection waits for its host name to be resolved unless its address is cached.
+     *
+     * @param addressCacheTtlInMs the time in milliseconds that resolved addresses are cached for.
+     * @return this
+     * @see EngineConfiguration#ADDRESS_CACHE_TTL_PROP
+     */
+    public EngineConfiguration addressCacheTtlInMs(final long addressCacheTtlInMs)
+    {
+        this.addressCacheTtlInMs = addressCacheTtlInMs;
+        return this;
+    }
+
+    /**
+     * Sets the hosts whose addresses are resolved, and cached, when the engine starts. This avoids waiting for a
+     * lookup the first time that a connection is initiated to a counterparty.
+     *
+     * @param preResolvedHosts the host names to resolve when the engine starts.
+     * @return this
+     * @see EngineConfiguration#PRE_RESOLVED_HOSTS_PROP
+     * @see EngineConfiguration#addressCacheTtlInMs(long)
+     */
+    public EngineConfiguration preResolvedHosts(final String... preResolvedHosts)
+    {
+        this.preResolvedHosts = Arrays.asList(preResolvedHosts);
+        return this;
+    }
+
+    /**
+     * Sets whether the unsent bytes of a slow connection are spilled into a queue of its own.
+     * <p>
+     * By default a slow connection holds back its position on the shared outbound stream until it catches up,
+     * which bounds how far it can fall behind by the stream's term buffer. With a spill queue the unsent bytes
+     * are copied out of the stream, so the stream carries on for every other connection. The queue is held in
+     * memory up to {@link #senderSpillInMemoryBytes(int)} and mapped to a file in the log file directory beyond
+     * that. A connection is still disconnected if its queue exceeds {@link #senderMaxBytesInBuffer(int)}.
+     * <p>
+     * Default: false.
+     *
+     * @param senderSpillQueue true to spill the unsent bytes of slow connections into a queue of their own.
+     * @return this
+     * @see EngineConfiguration#SENDER_SPILL_QUEUE_PROP
+     */
+    public EngineConfiguration senderSpillQueue(final boolean senderSpillQueue)
+    {
+        this.senderSpillQueue = senderSpillQueue;
+        return this;
+    }
+
+    /**
+     * Sets the size in bytes that a connection's spill queue can grow to in memory before it's mapped to a file.
+     *
+     * @param senderSpillInMemoryBytes the size in bytes that a spill queue can grow to in memory.
+     * @return this
+     * @see EngineConfiguration#SENDER_SPILL_IN_MEMORY_BYTES_PROP
+     * @see EngineConfiguration#senderSpillQueue(boolean)
+     */
+    public EngineConfiguration senderSpillInMemoryBytes(final int senderSpillInMemoryBytes)
+    {
+        this.senderSpillInMemoryBytes = senderSpillInMemoryBytes;
+        return this;
+    }
+
+    /**
+     * Sets whether the next term file of each archived stream is created and sized on a background thread, so that
+     * rolling onto a new term doesn't stall the archiver.
+     * <p>
+     * Default: false.
+     *
+     * @param archivePreAllocate true to create term files ahead of time.
+     * @return this
+     * @see EngineConfiguration#ARCHIVE_PRE_ALLOCATE_PROP
+     */
+    public EngineConfiguration archivePreAllocate(final boolean archivePreAllocate)
+    {
+        this.archivePreAllocate = archivePreAllocate;
+        return this;
+    }
+
+    /**
+     * Sets whether every page of a pre-allocated term file is written to when it's created, so that the first
+     * messages archived into it don't page fault.
+     * <p>
+     * Default: false.
+     *
+     * @param archivePreTouch true to touch the pages of pre-allocated term files.
+     * @return this
+     * @see EngineConfiguration#ARCHIVE_PRE_TOUCH_PROP
+     * @see EngineConfiguration#archivePreAllocate(boolean)
+     */
+    public EngineConfiguration archivePreTouch(final boolean archivePreTouch)
+    {
+        this.archivePreTouch = archivePreTouch;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of archive term files that are mapped at once by each reader of the archive. A reader's
+     * mappings are shared between the sessions that it reads, and its least recently used term is unmapped once
+     * it has this many mapped.
+     * <p>
+     * This is a per reader limit, not an engine wide one. Readers can run on different threads, so they don't share
+     * mappings. An unclustered engine that logs inbound and outbound messages has four readers: one per indexer, one
+     * for the replayer and one for inbound replay queries. It can map up to four times this many term files at once.
+     * <p>
+     * Default: 64.
+     *
+     * @param archiveMappingsPerReader the maximum number of term files that each reader maps at once.
+     * @return this
+     * @see EngineConfiguration#ARCHIVE_MAPPINGS_PER_READER_PROP
+     */
+    public EngineConfiguration archiveMappingsPerReader(final int archiveMappingsPerReader)
+    {
+        this.archiveMappingsPerReader = archiveMappingsPerReader;
+        return this;
+    }
+
+    /**
+     * Sets how many bytes ahead of a sequential read of the archive, such as a replay, the pages of the term file
+     * are touched. The next term is also mapped once a read gets within this distance of the end of a term.
+     * <p>
+     * Default: 0, which turns off read-ahead.
+     *
+     * @param archiveReadAheadBytes how many bytes ahead of a sequential read to touch.
+     * @return this
+     * @see EngineConfiguration#ARCHIVE_READ_AHEAD_BYTES_PROP
+     */
+    public EngineConfiguration archiveReadAheadBytes(final int archiveReadAheadBytes)
+    {
+        this.archiveReadAheadBytes = archiveReadAheadBytes;
+        return this;
+    }
+
+    /**
+     * Sets the algorithm that archived frames are checksummed with. {@link ChecksumAlgorithm#CRC32C} is faster
+     * on most CPUs, but needs Java 9 or later. The algorithm is recorded in the meta data of each session's archive,
+     * so changing it only affects sessions that are archived afterwards: existing sessions are still read and
+     * written with the algorithm that they were started with.
+     * <p>
+     * Default: CRC32.
+     *
+     * @param archiveChecksumAlgorithm the algorithm that archived frames are checksummed with.
+     * @return this
+     * @see EngineConfiguration#ARCHIVE_CHECKSUM_ALGORITHM_PROP
+     */
+    public EngineConfiguration archiveChecksumAlgorithm(final ChecksumAlgorithm archiveChecksumAlgorithm)
+    {
+        this.archiveChecksumAlgorithm = archiveChecksumAlgorithm;
+        return this;
+    }
+
+    /**
+     * Sets whether archived frames are only validated against their checksum the first time that they're read
+     * from a mapping of their term, rather than every time that they're read. Replays of recent messages then
+     * don't pay for validating them again.
+     * <p>
+     * Default: false.
+     *
+     * @param archiveValidateOnce true to only validate each frame once per mapping.
+     * @return this
+     * @see EngineConfiguration#ARCHIVE_VALIDATE_ONCE_PROP
+     * @see ArchiveReader#validateOnce(boolean)
+     */
+    public EngineConfiguration archiveValidateOnce(final boolean archiveValidateOnce)
+    {
+        this.archiveValidateOnce = archiveValidateOnce;
+        return this;
+    }
+
+    /**
+     * Sets the interval in milliseconds between checks for archived term files to remove. Whole term files are
+     * removed while the engine runs, according to {@link #archiveRetentionMaxAgeInMs(long)} and
+     * {@link #archiveRetentionMaxBytes(long)}, but only once every index of their stream has indexed beyond them.
+     * <p>
+     * Default: 0, which never removes term files.
+     *
+     * @param archiveRetentionIntervalInMs the interval between checks for term files to remove.
+     * @return this
+     * @see EngineConfiguration#ARCHIVE_RETENTION_INTERVAL_PROP
+     */
+    public EngineConfiguration archiveRetentionIntervalInMs(final long archiveRetentionIntervalInMs)
+    {
+        this.archiveRetentionIntervalInMs = archiveRetentionIntervalInMs;
+        return this;
+    }
+
+    /**
+     * Sets the age in milliseconds, by last modification time, after which archived term files are removed.
+     *
+     * @param archiveRetentionMaxAgeInMs the maximum age of a term file, or {@link ArchiveRetention#NO_LIMIT}.
+     * @return this
+     * @see EngineConfiguration#ARCHIVE_RETENTION_MAX_AGE_PROP
+     * @see EngineConfiguration#archiveRetentionIntervalInMs(long)
+     */
+    public EngineConfiguration archiveRetentionMaxAgeInMs(final long archiveRetentionMaxAgeInMs)
+    {
+        this.archiveRetentionMaxAgeInMs = archiveRetentionMaxAgeInMs;
+        return this;
+    }
+
+    /**
+     * Sets the size in bytes of each archived stream's term files above which the oldest are removed.
+     *
+     * @param archiveRetentionMaxBytes the maximum size of a stream's term files, or {@link ArchiveRetention#NO_LIMIT}.
+     * @return this
+     * @see EngineConfiguration#ARCHIVE_RETENTION_MAX_BYTES_PROP
+     * @see EngineConfiguration#archiveRetentionIntervalInMs(long)
+     */
+    public EngineConfiguration archiveRetentionMaxBytes(final long archiveRetentionMaxBytes)
+    {
+        this.archiveRetentionMaxBytes = archiveRetentionMaxBytes;
+        return this;
+    }
+
+    /**
+     * Sets the number of the most recent messages of each session whose term files are never removed, so that
+     * they can still be replayed.
+     *
+     * @param archiveRetentionMinMessages the number of recent messages of each session to keep.
+     * @return this
+     * @see EngineConfiguration#ARCHIVE_RETENTION_MIN_MESSAGES_PROP
+     * @see EngineConfiguration#archiveRetentionIntervalInMs(long)
+     */
+    public EngineConfiguration archiveRetentionMinMessages(final int archiveRetentionMinMessages)
+    {
+        this.archiveRetentionMinMessages = archiveRetentionMinMessages;
+        return this;
+    }
+
+    /**
+     * Routes inbound application messages of a given type to a library, by name, rather than to the library that
+     * owns their session. This lets a single FIX session be split across libraries, for example sending market
+     * data to one library and order flow to another.
+     * <p>
+     * Each routed message is published once, and the library named by the route receives it through its
+     * {@link uk.co.real_logic.artio.library.RoutedMessageHandler}. The library that owns the session still runs
+     * the message's header through the session, so that sequence numbers are kept by a single owner, but
+     * doesn't pass it on to its {@link uk.co.real_logic.artio.library.SessionHandler}. Session level messages
+     * can't be routed. Messages aren't routed while no library of that name is connected.
+     *
+     * @param messageType the FIX msgType field, for example "W".
+     * @param libraryName the name of the library to route the messages to.
+     * @return this
+     * @throws IllegalArgumentException if the message type is a session level message type.
+     * @see uk.co.real_logic.artio.library.LibraryConfiguration#libraryName(String)
+     */
+    public EngineConfiguration routeMessageType(final String messageType, final String libraryName)
+    {
+        Objects.requireNonNull(messageType, "messageType");
+        Objects.requireNonNull(libraryName, "libraryName");
+        if (SESSION_MESSAGE_TYPES.contains(messageType))
+        {
+            throw new IllegalArgumentException("Session level messages can't be routed: " + messageType);
+        }
+        messageTypeRoutes.put(messageType, libraryName);
+        return this;
+    }
+
+    /**
+     * Sets the strategy that limits the rate of messages the engine sends on each session.
+     * <p>
+     * Messages beyond a session's limit are held back on the outbound stream until the window has room for them,
+     * in the same way as a slow consumer's messages are: the session's library is told that it's slow rather than
+     * being blocked, and the held back bytes still count towards {@link #senderMaxBytesInBuffer(int)}. This can't
+     * be combined with {@link #senderSpillQueue(boolean)}. Session level messages, such as heartbeats, logouts and
+     * resend requests, don't count towards the limit, but are still sent after any messages held back before them.
+     * <p>
+     * Default: no session is throttled.
+     *
+     * @param sessionThrottleStrategy the strategy that determines the limit of each session when it logs on.
+     * @return this
+     * @see EngineConfiguration#throttleWindowInMs(long)
+     */
+    public EngineConfiguration sessionThrottleStrategy(final SessionThrottleStrategy sessionThrottleStrategy)
+    {
+        this.sessionThrottleStrategy = sessionThrottleStrategy;
+        return this;
+    }
+
+    /**
+     * Sets the length in milliseconds of the window that session throttles limit messages within.
+     * <p>
+     * Default: {@value #DEFAULT_THROTTLE_WINDOW_IN_MS}.
+     *
+     * @param throttleWindowInMs the length in milliseconds of the window.
+     * @return this
+     * @see EngineConfiguration#THROTTLE_WINDOW_IN_MS_PROP
+     * @see EngineConfiguration#sessionThrottleStrategy(SessionThrottleStrategy)
+     */
+    public EngineConfiguration throttleWindowInMs(final long throttleWindowInMs)
+    {
+        this.throttleWindowInMs = throttleWindowInMs;
+        return this;
+    }
+
+    /**
+     * Sets the interval in milliseconds between incremental flushes of the sequence number indices.
+     * <p>
+     * A complete copy of the index file is always saved, via a passing place file, whenever the archive's term
+     * rolls. If this is set then the sectors of the index that have changed are also written to disk, in place,
+     * each interval, so on restart messages are only re-indexed from the archive after the last flushed position.
+     * In place writes aren't atomic: if the engine crashes part way through one then a torn sector is reported
+     * as a checksum error on restart.
+     * <p>
+     * Default: 0, which only saves the complete copies.
+     *
+     * @param sequenceNumberIndexFlushIntervalInMs the interval between flushes, or 0 to only flush on term roll.
+     * @return this
+     * @see EngineConfiguration#SEQUENCE_NUMBER_INDEX_FLUSH_INTERVAL_PROP
+     */
+    public EngineConfiguration sequenceNumberIndexFlushIntervalInMs(final long sequenceNumberIndexFlushIntervalInMs)
+    {
+        this.sequenceNumberIndexFlushIntervalInMs = sequenceNumberIndexFlushIntervalInMs;
+        return this;
+    }
+
+    /**
+     * Sets the interval in milliseconds between updates of the checksums of the replay index's indexed positions.
+     * <p>
+     * Only the sectors whose positions have changed are checksummed, both at each update and when the engine closes,
+     * so a cleanly closed index validates on restart. If the engine stops without closing then positions indexed
+     * since the last update fail checksum validation on restart.
+     * <p>
+     * Default: 0, which updates the checksums after each batch of indexed messages.
+     *
+     * @param replayIndexChecksumIntervalInMs the interval between updates, or 0 to update them per batch.
+     * @return this
+     * @see EngineConfiguration#REPLAY_INDEX_CHECKSUM_INTERVAL_PROP
+     */
+    public EngineConfiguration replayIndexChecksumIntervalInMs(final long replayIndexChecksumIntervalInMs)
+    {
+        this.replayIndexChecksumIntervalInMs = replayIndexChecksumIntervalInMs;
+        return this;
+    }
+
     /**
      * Set the timeout in milliseconds for TCP connections which don't send a logon message.
      *
@@ -471,6 +932,62 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return this;
     }
 
+    /**
+     * Set the number of bytes a follower in the cluster may receive before acknowledging them.
+     *
+     * @param clusterAcknowledgementBatchSize the number of bytes, or 0 to acknowledge every read.
+     * @return this
+     * @see ClusterConfiguration#acknowledgementBatchSize(int)
+     */
+    public EngineConfiguration clusterAcknowledgementBatchSize(final int clusterAcknowledgementBatchSize)
+    {
+        this.clusterAcknowledgementBatchSize = clusterAcknowledgementBatchSize;
+        return this;
+    }
+
+    /**
+     * Set the maximum interval that a follower in the cluster coalesces acknowledgements for.
+     *
+     * @param clusterAcknowledgementIntervalInMs the maximum interval between acknowledgements.
+     * @return this
+     * @see ClusterConfiguration#acknowledgementIntervalInMs(long)
+     */
+    public EngineConfiguration clusterAcknowledgementIntervalInMs(final long clusterAcknowledgementIntervalInMs)
+    {
+        this.clusterAcknowledgementIntervalInMs = clusterAcknowledgementIntervalInMs;
+        return this;
+    }
+
+    /**
+     * Set the maximum number of bytes of archived data sent in a single message to a follower that has
+     * fallen behind the leader of the cluster.
+     *
+     * @param clusterCatchUpChunkSize the maximum number of bytes sent in a single message.
+     * @return this
+     * @see ClusterConfiguration#catchUpChunkSize(int)
+     */
+    public EngineConfiguration clusterCatchUpChunkSize(final int clusterCatchUpChunkSize)
+    {
+        this.clusterCatchUpChunkSize = clusterCatchUpChunkSize;
+        return this;
+    }
+
+    /**
+     * Stream archived data to followers that have fallen behind the leader of the cluster over its own
+     * stream, rather than the control stream.
+     * <p>
+     * Default: false.
+     *
+     * @param clusterCatchUpOnSeparateStream true to use a separate stream.
+     * @return this
+     * @see ClusterConfiguration#catchUpStream(uk.co.real_logic.artio.replication.StreamIdentifier)
+     */
+    public EngineConfiguration clusterCatchUpOnSeparateStream(final boolean clusterCatchUpOnSeparateStream)
+    {
+        this.clusterCatchUpOnSeparateStream = clusterCatchUpOnSeparateStream;
+        return this;
+    }
+
     public EngineConfiguration channelSupplierFactory(final Function<EngineConfiguration, TcpChannelSupplier> value)
     {
         this.channelSupplierFactory = value;
@@ -601,6 +1118,16 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return receivedSequenceNumberBuffer;
     }
 
+    public long sequenceNumberIndexFlushIntervalInMs()
+    {
+        return sequenceNumberIndexFlushIntervalInMs;
+    }
+
+    public long replayIndexChecksumIntervalInMs()
+    {
+        return replayIndexChecksumIntervalInMs;
+    }
+
     public MappedFile sessionIdBuffer()
     {
         return sessionIdBuffer;
@@ -611,6 +1138,91 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return senderMaxBytesInBuffer;
     }
 
+    public long addressCacheTtlInMs()
+    {
+        return addressCacheTtlInMs;
+    }
+
+    public List<String> preResolvedHosts()
+    {
+        return preResolvedHosts;
+    }
+
+    public boolean archivePreAllocate()
+    {
+        return archivePreAllocate;
+    }
+
+    public boolean archivePreTouch()
+    {
+        return archivePreTouch;
+    }
+
+    public int archiveMappingsPerReader()
+    {
+        return archiveMappingsPerReader;
+    }
+
+    public int archiveReadAheadBytes()
+    {
+        return archiveReadAheadBytes;
+    }
+
+    public ChecksumAlgorithm archiveChecksumAlgorithm()
+    {
+        return archiveChecksumAlgorithm;
+    }
+
+    public boolean archiveValidateOnce()
+    {
+        return archiveValidateOnce;
+    }
+
+    public long archiveRetentionIntervalInMs()
+    {
+        return archiveRetentionIntervalInMs;
+    }
+
+    public long archiveRetentionMaxAgeInMs()
+    {
+        return archiveRetentionMaxAgeInMs;
+    }
+
+    public long archiveRetentionMaxBytes()
+    {
+        return archiveRetentionMaxBytes;
+    }
+
+    public int archiveRetentionMinMessages()
+    {
+        return archiveRetentionMinMessages;
+    }
+
+    public Map<String, String> messageTypeRoutes()
+    {
+        return messageTypeRoutes;
+    }
+
+    public SessionThrottleStrategy sessionThrottleStrategy()
+    {
+        return sessionThrottleStrategy;
+    }
+
+    public long throttleWindowInMs()
+    {
+        return throttleWindowInMs;
+    }
+
+    public boolean senderSpillQueue()
+    {
+        return senderSpillQueue;
+    }
+
+    public int senderSpillInMemoryBytes()
+    {
+        return senderSpillInMemoryBytes;
+    }
+
     public int noLogonDisconnectTimeoutInMs()
     {
         return noLogonDisconnectTimeoutInMs;
@@ -641,6 +1253,26 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return clusterTimeoutIntervalInMs;
     }
 
+    public int clusterAcknowledgementBatchSize()
+    {
+        return clusterAcknowledgementBatchSize;
+    }
+
+    public long clusterAcknowledgementIntervalInMs()
+    {
+        return clusterAcknowledgementIntervalInMs;
+    }
+
+    public int clusterCatchUpChunkSize()
+    {
+        return clusterCatchUpChunkSize;
+    }
+
+    public boolean clusterCatchUpOnSeparateStream()
+    {
+        return clusterCatchUpOnSeparateStream;
+    }
+
     public RoleHandler roleHandler()
     {
         return roleHandler;
@@ -730,6 +1362,18 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
             receivedSequenceNumberBuffer = new UnsafeBuffer(new byte[sequenceNumberIndexSize]);
         }
 
+        if (sequenceNumberIndexFlushIntervalInMs() < 0)
+        {
+            throw new IllegalArgumentException(
+                "sequenceNumberIndexFlushIntervalInMs must be >= 0: " + sequenceNumberIndexFlushIntervalInMs());
+        }
+
+        if (replayIndexChecksumIntervalInMs() < 0)
+        {
+            throw new IllegalArgumentException(
+                "replayIndexChecksumIntervalInMs must be >= 0: " + replayIndexChecksumIntervalInMs());
+        }
+
         if (sessionIdBuffer() == null)
         {
             sessionIdBuffer = mapFile(DEFAULT_SESSION_ID_FILE, sessionIdBufferSize);
@@ -740,6 +1384,17 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
             sessionPersistenceStrategy(isClustered() ? alwaysReplicated() : alwaysLocallyArchive());
         }
 
+        if (sessionThrottleStrategy() != SessionThrottleStrategy.none() && senderSpillQueue())
+        {
+            throw new IllegalArgumentException(
+                "A sessionThrottleStrategy can't be used with senderSpillQueue, since spilled messages can't be held");
+        }
+
+        if (throttleWindowInMs() <= 0)
+        {
+            throw new IllegalArgumentException("throttleWindowInMs must be > 0: " + throttleWindowInMs());
+        }
+
         return this;
     }
 
@@ -748,6 +1403,11 @@ public final class EngineConfiguration extends CommonConfiguration implements Au
         return MappedFile.map(logFileDir() + File.separator + file, size);
     }
 
+    private static List<String> hosts(final String hosts)
+    {
+        return hosts.isEmpty() ? Collections.emptyList() : Arrays.asList(hosts.split(","));
+    }
+
     public void close()
     {
         CloseHelper.close(sentSequenceNumberIndex);
@@ -22,6 +22,7 @@ import io.aeron.UnavailableImageHandler;
 import io.aeron.logbuffer.ExclusiveBufferClaim;
 import org.agrona.ErrorHandler;
 import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.EpochClock;
 import org.agrona.concurrent.IdleStrategy;
 import org.agrona.concurrent.NanoClock;
 import org.agrona.concurrent.SystemEpochClock;
@@ -38,6 +39,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import static java.util.Arrays.asList;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static uk.co.real_logic.artio.GatewayProcess.INBOUND_LIBRARY_STREAM;
 import static uk.co.real_logic.artio.GatewayProcess.OUTBOUND_LIBRARY_STREAM;
 import static uk.co.real_logic.artio.dictionary.generation.Exceptions.suppressingClose;
@@ -46,6 +48,7 @@ import static uk.co.real_logic.artio.replication.ReservedValue.NO_FILTER;
 public abstract class EngineContext implements AutoCloseable
 {
     protected final NanoClock nanoClock;
+    protected final EpochClock epochClock;
     protected final EngineConfiguration configuration;
     protected final ErrorHandler errorHandler;
     protected final FixCounters fixCounters;
@@ -59,10 +62,10 @@ public abstract class EngineContext implements AutoCloseable
 
     protected Streams inboundLibraryStreams;
     protected Streams outboundLibraryStreams;
-    // Indexers are owned by the archivingAgent
+    // Indexers are owned by the archiving agents
     protected Indexer inboundIndexer;
     protected Indexer outboundIndexer;
-    protected Agent archivingAgent;
+    private List<Agent> archivingAgents;
 
     public static EngineContext of(
         final EngineConfiguration configuration,
@@ -110,19 +113,25 @@ public abstract class EngineContext implements AutoCloseable
         this.fixCounters = fixCounters;
         this.aeron = aeron;
         this.nanoClock = configuration.nanoClock();
+        this.epochClock = new SystemEpochClock();
 
         try
         {
+            final long flushIntervalInMs = configuration.sequenceNumberIndexFlushIntervalInMs();
             sentSequenceNumberIndex = new SequenceNumberIndexWriter(
                 configuration.sentSequenceNumberBuffer(),
                 configuration.sentSequenceNumberIndex(),
                 errorHandler,
-                OUTBOUND_LIBRARY_STREAM);
+                OUTBOUND_LIBRARY_STREAM,
+                epochClock,
+                flushIntervalInMs);
             receivedSequenceNumberIndex = new SequenceNumberIndexWriter(
                 configuration.receivedSequenceNumberBuffer(),
                 configuration.receivedSequenceNumberIndex(),
                 errorHandler,
-                INBOUND_LIBRARY_STREAM);
+                INBOUND_LIBRARY_STREAM,
+                epochClock,
+                flushIntervalInMs);
         }
         catch (final Exception e)
         {
@@ -156,7 +165,9 @@ public abstract class EngineContext implements AutoCloseable
             cacheSetSize,
             LoggerUtil::map,
             ReplayIndexDescriptor.replayPositionBuffer(logFileDir, streamId),
-            errorHandler);
+            errorHandler,
+            epochClock,
+            configuration.replayIndexChecksumIntervalInMs());
     }
 
     protected ReplayQuery newReplayQuery(final ArchiveReader archiveReader, final IdleStrategy idleStrategy)
@@ -186,25 +197,52 @@ public abstract class EngineContext implements AutoCloseable
         return archiveReader(streamId, NO_FILTER);
     }
 
+    // Archiving agents can each be scheduled on their own thread, and a pool unmaps the terms that it evicts, so
+    // every reader has its own pool. This makes archiveMappingsPerReader a per reader limit, not an engine wide one.
     protected ArchiveReader archiveReader(final StreamIdentifier streamId, final int reservedValueFilter)
     {
         return new ArchiveReader(
             LoggerUtil.newArchiveMetaData(configuration.logFileDir()),
-            configuration.loggerCacheNumSets(),
-            configuration.loggerCacheSetSize(),
+            newTermBufferPool(),
+            configuration.archiveReadAheadBytes(),
             streamId,
-            reservedValueFilter);
+            reservedValueFilter)
+            .checksumAlgorithm(configuration.archiveChecksumAlgorithm())
+            .validateOnce(configuration.archiveValidateOnce());
+    }
+
+    private TermBufferPool newTermBufferPool()
+    {
+        return new TermBufferPool(
+            configuration.archiveMappingsPerReader(),
+            fixCounters.archiveMappingHits(),
+            fixCounters.archiveMappingMisses());
     }
 
     protected Archiver archiver(final StreamIdentifier streamId, final CompletionPosition completionPosition)
     {
-        return new Archiver(
+        final Archiver archiver = new Archiver(
             LoggerUtil.newArchiveMetaData(configuration.logFileDir()),
             configuration.loggerCacheNumSets(),
             configuration.loggerCacheSetSize(),
             streamId,
             configuration.agentNamePrefix(),
             completionPosition);
+
+        return configure(archiver);
+    }
+
+    protected Archiver configure(final Archiver archiver)
+    {
+        archiver.checksumAlgorithm(configuration.archiveChecksumAlgorithm());
+
+        if (configuration.archivePreAllocate())
+        {
+            archiver.preAllocator(new TermFilePreAllocator(
+                configuration.archivePreTouch(), configuration.agentNamePrefix()));
+        }
+
+        return archiver;
     }
 
     protected Replayer newReplayer(
@@ -219,7 +257,7 @@ public abstract class EngineContext implements AutoCloseable
             configuration.outboundMaxClaimAttempts(),
             inboundLibraryStreams.subscription("replayer"),
             configuration.agentNamePrefix(),
-            new SystemEpochClock());
+            epochClock);
     }
 
     protected void newIndexers(
@@ -233,12 +271,16 @@ public abstract class EngineContext implements AutoCloseable
 
         final ReplayIndex replayIndex = newReplayIndex(cacheSetSize, cacheNumSets, logFileDir, INBOUND_LIBRARY_STREAM);
 
+        // Indexers catch up with the archive when they're created.
+        final long catchUpStartInNs = nanoClock.nanoTime();
         inboundIndexer = new Indexer(
             asList(replayIndex, receivedSequenceNumberIndex),
             inboundArchiveReader,
             inboundLibraryStreams.subscription("inboundIndexer"),
+            INBOUND_LIBRARY_STREAM,
             configuration.agentNamePrefix(),
-            inboundCompletionPosition);
+            inboundCompletionPosition)
+            .retention(newRetention(INBOUND_LIBRARY_STREAM));
 
         final List<Index> outboundIndices = new ArrayList<>();
         outboundIndices.add(newReplayIndex(cacheSetSize, cacheNumSets, logFileDir, OUTBOUND_LIBRARY_STREAM));
@@ -252,8 +294,30 @@ public abstract class EngineContext implements AutoCloseable
             outboundIndices,
             outboundArchiveReader,
             outboundLibraryStreams.subscription("outboundIndexer"),
+            OUTBOUND_LIBRARY_STREAM,
             configuration.agentNamePrefix(),
-            outboundLibraryCompletionPosition);
+            outboundLibraryCompletionPosition)
+            .retention(newRetention(OUTBOUND_LIBRARY_STREAM));
+
+        fixCounters.indexCatchUpTimeInMs().set(NANOSECONDS.toMillis(nanoClock.nanoTime() - catchUpStartInNs));
+    }
+
+    private ArchiveRetention newRetention(final int streamId)
+    {
+        final long intervalInMs = configuration.archiveRetentionIntervalInMs();
+        if (intervalInMs <= 0)
+        {
+            return null;
+        }
+
+        return new ArchiveRetention(
+            configuration.logFileDir(),
+            streamId,
+            epochClock,
+            intervalInMs,
+            configuration.archiveRetentionMaxAgeInMs(),
+            configuration.archiveRetentionMaxBytes(),
+            configuration.archiveRetentionMinMessages());
     }
 
     public abstract Streams outboundLibraryStreams();
@@ -300,8 +364,19 @@ public abstract class EngineContext implements AutoCloseable
         outboundClusterCompletionPosition.completeDuringStartup();
     }
 
-    Agent archivingAgent()
+    /**
+     * Set the agents that archive, index and replay messages. Each is scheduled separately, so agents that
+     * share state that isn't thread safe must be combined into a single agent.
+     *
+     * @param agents the agents to schedule.
+     */
+    protected void archivingAgents(final List<Agent> agents)
+    {
+        this.archivingAgents = agents;
+    }
+
+    List<Agent> archivingAgents()
     {
-        return archivingAgent;
+        return archivingAgents;
     }
 }
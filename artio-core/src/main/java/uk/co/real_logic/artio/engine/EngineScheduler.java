@@ -19,6 +19,9 @@ import io.aeron.Aeron;
 import org.agrona.ErrorHandler;
 import org.agrona.concurrent.Agent;
 import org.agrona.concurrent.AgentRunner;
+import org.agrona.concurrent.CompositeAgent;
+
+import java.util.List;
 
 /**
  * Interface for determining how an Engine's Agents are allocated to threads.
@@ -44,6 +47,38 @@ public interface EngineScheduler extends AutoCloseable
         Agent monitoringAgent,
         Agent conductorAgent);
 
+    /**
+     * Invoked by the FIX Engine to start the threads.
+     * Should only return once they are started.
+     *
+     * The archiving, indexing and replaying work is split into separate agents so that a scheduler can run
+     * them independently. By default they are combined into a single archiving agent.
+     *
+     * @param configuration the engine's configuration object.
+     * @param errorHandler the ErrorHandler used by the engine.
+     * @param framer the framer agent to schedule.
+     * @param archivingAgents the archiving, indexing and replaying agents to schedule.
+     * @param monitoringAgent the monitoring agent to schedule.
+     * @param conductorAgent if aeron has useConductorInvoker enable it
+     *                       is the agent for the conductor, otherwise null.
+     */
+    default void launch(
+        EngineConfiguration configuration,
+        ErrorHandler errorHandler,
+        Agent framer,
+        List<Agent> archivingAgents,
+        Agent monitoringAgent,
+        Agent conductorAgent)
+    {
+        launch(
+            configuration,
+            errorHandler,
+            framer,
+            new CompositeAgent(archivingAgents),
+            monitoringAgent,
+            conductorAgent);
+    }
+
     /**
      * Invoked by the FIX Engine to stop the threads. Should only return once they are completed stopped.
      */
@@ -25,6 +25,7 @@ import uk.co.real_logic.artio.GatewayProcess;
 import uk.co.real_logic.artio.Reply;
 import uk.co.real_logic.artio.StreamInformation;
 import uk.co.real_logic.artio.engine.framer.FramerContext;
+import uk.co.real_logic.artio.engine.framer.FramerWarmUp;
 import uk.co.real_logic.artio.engine.framer.LibraryInfo;
 import uk.co.real_logic.artio.replication.ClusterableStreams;
 import uk.co.real_logic.artio.timing.EngineTimers;
@@ -149,6 +150,7 @@ public final class FixEngine extends GatewayProcess
 
     private FixEngine(final EngineConfiguration configuration)
     {
+        final long startTimeInNs = configuration.nanoClock().nanoTime();
         try
         {
             timers = new EngineTimers(configuration.nanoClock());
@@ -167,7 +169,7 @@ public final class FixEngine extends GatewayProcess
                 aeron,
                 engineDescriptorStore);
             streams = engineContext.streams();
-            initFramer(configuration, fixCounters, replayPublication.sessionId());
+            initFramer(configuration, fixCounters, replayPublication.sessionId(), startTimeInNs);
             initMonitoringAgent(timers.all(), configuration);
         }
         catch (final Exception e)
@@ -192,7 +194,10 @@ public final class FixEngine extends GatewayProcess
     }
 
     private void initFramer(
-        final EngineConfiguration configuration, final FixCounters fixCounters, final int replaySessionId)
+        final EngineConfiguration configuration,
+        final FixCounters fixCounters,
+        final int replaySessionId,
+        final long startTimeInNs)
     {
         framerContext = new FramerContext(
             configuration,
@@ -203,7 +208,8 @@ public final class FixEngine extends GatewayProcess
             replayImage("slow-replay", replaySessionId),
             engineDescriptorStore,
             timers,
-            aeron.conductorAgentInvoker());
+            aeron.conductorAgentInvoker(),
+            startTimeInNs);
     }
 
     /**
@@ -254,11 +260,13 @@ public final class FixEngine extends GatewayProcess
 
     private FixEngine launch()
     {
+        warmUp(() -> new FramerWarmUp(configuration, errorHandler));
+
         scheduler.launch(
             configuration,
             errorHandler,
             framerContext.framer(),
-            engineContext.archivingAgent(),
+            engineContext.archivingAgents(),
             monitoringAgent,
             conductorAgent());
 
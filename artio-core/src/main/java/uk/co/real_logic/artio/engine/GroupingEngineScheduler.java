@@ -0,0 +1,172 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine;
+
+import io.aeron.Aeron;
+import org.agrona.ErrorHandler;
+import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.AgentRunner;
+import org.agrona.concurrent.CompositeAgent;
+import org.agrona.concurrent.IdleStrategy;
+import uk.co.real_logic.artio.CommonConfiguration;
+import uk.co.real_logic.artio.dictionary.generation.Exceptions;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.agrona.concurrent.AgentRunner.startOnThread;
+import static uk.co.real_logic.artio.CommonConfiguration.backoffIdleStrategy;
+
+/**
+ * A scheduler that runs the archiving, indexing and replaying agents separately from each other, so that
+ * for example a large resend or an fsync when the archive's term rolls doesn't delay indexing.
+ *
+ * By default every agent gets its own thread. Alternatively agents can be grouped by their role name, in which
+ * case the agents in each group share a thread. Archivers and indexers are named after the stream that they read,
+ * for example "Indexer-1" for the inbound library stream. The framer and monitoring agent each get their own thread, as
+ * with the {@link DefaultEngineScheduler}.
+ *
+ * NB: Ensure that a new instance is created for each engine.
+ */
+public class GroupingEngineScheduler implements EngineScheduler
+{
+    private final Function<String, String> roleNameToGroup;
+    private final Supplier<IdleStrategy> idleStrategySupplier;
+    private final List<AgentRunner> archivingRunners = new ArrayList<>();
+
+    private AgentRunner framerRunner;
+    private AgentRunner monitoringRunner;
+
+    /**
+     * Create a scheduler that runs every archiving agent on its own thread.
+     */
+    public GroupingEngineScheduler()
+    {
+        this(null, CommonConfiguration::backoffIdleStrategy);
+    }
+
+    /**
+     * Create a scheduler that runs archiving agents in groups.
+     *
+     * @param roleNameToGroup maps the role name of each agent to the name of its group, agents in the same
+     *                        group share a thread. If this is null then every agent has its own thread.
+     * @param idleStrategySupplier creates the idle strategy for each archiving thread.
+     */
+    public GroupingEngineScheduler(
+        final Function<String, String> roleNameToGroup,
+        final Supplier<IdleStrategy> idleStrategySupplier)
+    {
+        this.roleNameToGroup = roleNameToGroup;
+        this.idleStrategySupplier = idleStrategySupplier;
+    }
+
+    public void launch(
+        final EngineConfiguration configuration,
+        final ErrorHandler errorHandler,
+        final Agent framer,
+        final Agent archivingAgent,
+        final Agent monitoringAgent,
+        final Agent conductorAgent)
+    {
+        launch(
+            configuration,
+            errorHandler,
+            framer,
+            Collections.singletonList(archivingAgent),
+            monitoringAgent,
+            conductorAgent);
+    }
+
+    public void launch(
+        final EngineConfiguration configuration,
+        final ErrorHandler errorHandler,
+        final Agent framer,
+        final List<Agent> archivingAgents,
+        final Agent monitoringAgent,
+        final Agent conductorAgent)
+    {
+        if (framerRunner != null)
+        {
+            EngineScheduler.fail();
+        }
+
+        framerRunner = new AgentRunner(
+            configuration.framerIdleStrategy(), errorHandler, null, framer);
+        startOnThread(framerRunner);
+
+        for (final List<Agent> group : group(archivingAgents))
+        {
+            final Agent agent = group.size() == 1 ? group.get(0) : new CompositeAgent(group);
+            final AgentRunner runner = new AgentRunner(idleStrategySupplier.get(), errorHandler, null, agent);
+            archivingRunners.add(runner);
+            startOnThread(runner);
+        }
+
+        if (monitoringAgent != null)
+        {
+            monitoringRunner = new AgentRunner(
+                backoffIdleStrategy(), errorHandler, null, monitoringAgent);
+            startOnThread(monitoringRunner);
+        }
+    }
+
+    private Iterable<List<Agent>> group(final List<Agent> archivingAgents)
+    {
+        final List<List<Agent>> groups = new ArrayList<>();
+        if (roleNameToGroup == null)
+        {
+            for (final Agent agent : archivingAgents)
+            {
+                final List<Agent> group = new ArrayList<>();
+                group.add(agent);
+                groups.add(group);
+            }
+
+            return groups;
+        }
+
+        final Map<String, List<Agent>> groupNameToAgents = new LinkedHashMap<>();
+        for (final Agent agent : archivingAgents)
+        {
+            final String groupName = roleNameToGroup.apply(agent.roleName());
+            groupNameToAgents.computeIfAbsent(groupName, ignore -> new ArrayList<>()).add(agent);
+        }
+
+        return groupNameToAgents.values();
+    }
+
+    public void close()
+    {
+        EngineScheduler.awaitRunnerStart(framerRunner);
+        archivingRunners.forEach(EngineScheduler::awaitRunnerStart);
+        EngineScheduler.awaitRunnerStart(monitoringRunner);
+
+        final List<AutoCloseable> runners = new ArrayList<>();
+        runners.add(framerRunner);
+        runners.addAll(archivingRunners);
+        runners.add(monitoringRunner);
+        Exceptions.closeAll(runners);
+    }
+
+    public void configure(final Aeron.Context aeronContext)
+    {
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine;
+
+import uk.co.real_logic.artio.session.CompositeKey;
+
+/**
+ * Determines how many messages the engine sends on a session within each throttle window, for counterparties
+ * that disconnect sessions which exceed a message rate limit.
+ * <p>
+ * The limit applies to any window of time, not just to fixed windows, so a burst at the end of one window can't be
+ * followed by another at the start of the next. Messages beyond it are held back on the outbound stream, just like a
+ * slow consumer's, until the window has room for them, so libraries never block on the throttle. Session level
+ * messages, such as heartbeats and logouts, aren't counted against the limit.
+ *
+ * @see EngineConfiguration#sessionThrottleStrategy(SessionThrottleStrategy)
+ * @see EngineConfiguration#throttleWindowInMs(long)
+ */
+@FunctionalInterface
+public interface SessionThrottleStrategy
+{
+    int NO_LIMIT = 0;
+
+    SessionThrottleStrategy NONE = (sessionKey) -> NO_LIMIT;
+
+    static SessionThrottleStrategy none()
+    {
+        return NONE;
+    }
+
+    static SessionThrottleStrategy limitAll(final int messageLimit)
+    {
+        return (sessionKey) -> messageLimit;
+    }
+
+    /**
+     * Gets the limit for a session, called when it logs on.
+     *
+     * @param sessionKey the key of the session that has logged on.
+     * @return the maximum number of messages sent on the session within each throttle window, or
+     *         {@link #NO_LIMIT} if it isn't throttled.
+     */
+    int messageLimit(CompositeKey sessionKey);
+}
@@ -20,7 +20,6 @@ import io.aeron.ExclusivePublication;
 import io.aeron.Subscription;
 import org.agrona.ErrorHandler;
 import org.agrona.concurrent.Agent;
-import org.agrona.concurrent.CompositeAgent;
 import uk.co.real_logic.artio.FixCounters;
 import uk.co.real_logic.artio.StreamInformation;
 import uk.co.real_logic.artio.dictionary.generation.Exceptions;
@@ -33,11 +32,13 @@ import uk.co.real_logic.artio.replication.ClusterableStreams;
 import uk.co.real_logic.artio.replication.StreamIdentifier;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import static uk.co.real_logic.artio.GatewayProcess.INBOUND_LIBRARY_STREAM;
 import static uk.co.real_logic.artio.GatewayProcess.OUTBOUND_LIBRARY_STREAM;
 import static uk.co.real_logic.artio.dictionary.generation.Exceptions.suppressingClose;
+import static uk.co.real_logic.artio.replication.ReservedValue.NO_FILTER;
 
 class SoloContext extends EngineContext
 {
@@ -49,6 +50,7 @@ class SoloContext extends EngineContext
 
     private ArchiveReader outboundArchiveReader;
     private ArchiveReader inboundArchiveReader;
+    private ArchiveReader replayerArchiveReader;
     private Archiver inboundArchiver;
     private Archiver outboundArchiver;
 
@@ -98,17 +100,21 @@ class SoloContext extends EngineContext
                 outboundArchiveReader,
                 new SoloPositionSender(inboundLibraryPublication()));
 
-            final Replayer replayer = newReplayer(replayPublication, outboundArchiveReader);
+            // The replayer can be scheduled on a different thread to the outbound indexer, so it has its own reader.
+            replayerArchiveReader = archiveReader(outboundStreamId, NO_FILTER);
+            final Replayer replayer = newReplayer(replayPublication, replayerArchiveReader);
 
             archiverSubscription(inboundArchiver, inboundStreamId);
             archiverSubscription(outboundArchiver, outboundStreamId);
+            indexerLag(inboundIndexer, inboundArchiver);
+            indexerLag(outboundIndexer, outboundArchiver);
 
             final List<Agent> agents = new ArrayList<>(archivers);
             agents.add(inboundIndexer);
             agents.add(outboundIndexer);
             agents.add(replayer);
 
-            archivingAgent = new CompositeAgent(agents);
+            archivingAgents(agents);
         }
         else
         {
@@ -119,10 +125,19 @@ class SoloContext extends EngineContext
                 nanoClock,
                 configuration.outboundMaxClaimAttempts());
 
-            archivingAgent = new GapFiller(
+            archivingAgents(Collections.singletonList(new GapFiller(
                 inboundLibraryStreams.subscription("replayer"),
                 replayGatewayPublication,
-                configuration.agentNamePrefix());
+                configuration.agentNamePrefix())));
+        }
+    }
+
+    // Archivers read the whole of the current term on each poll, so they're as far as the engine has read a stream.
+    private void indexerLag(final Indexer indexer, final Archiver archiver)
+    {
+        if (archiver != null)
+        {
+            indexer.lag(fixCounters.indexerLag(indexer.roleName()), archiver::imagePosition);
         }
     }
 
@@ -139,13 +154,13 @@ class SoloContext extends EngineContext
         if (configuration.logInboundMessages())
         {
             inboundArchiver = addArchiver(inboundStreamId, inboundCompletionPosition());
-            inboundArchiveReader = archiveReader(inboundStreamId);
+            inboundArchiveReader = archiveReader(inboundStreamId, NO_FILTER);
         }
 
         if (configuration.logOutboundMessages())
         {
             outboundArchiver = addArchiver(outboundStreamId, outboundLibraryCompletionPosition());
-            outboundArchiveReader = archiveReader(outboundStreamId);
+            outboundArchiveReader = archiveReader(outboundStreamId, NO_FILTER);
         }
     }
 
@@ -195,6 +210,6 @@ class SoloContext extends EngineContext
 
     public void close()
     {
-        Exceptions.closeAll(super::close, inboundArchiveReader, outboundArchiveReader);
+        Exceptions.closeAll(super::close, inboundArchiveReader, outboundArchiveReader, replayerArchiveReader);
     }
 }
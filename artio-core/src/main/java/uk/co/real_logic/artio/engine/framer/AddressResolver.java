@@ -0,0 +1,176 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.agrona.ErrorHandler;
+import org.agrona.concurrent.EpochClock;
+import org.agrona.concurrent.QueuedPipe;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Resolves the host names of initiated connections on a background thread, so that a slow DNS lookup doesn't
+ * stall the Framer and every session that it's handling.
+ * <p>
+ * Resolved addresses are cached for a time to live, and cached addresses are handed back straight away. Otherwise
+ * the result of the lookup is handed back to the Framer thread as an {@link AdminCommand}.
+ */
+class AddressResolver implements AutoCloseable
+{
+    private final Map<String, CachedAddress> hostToAddress = new ConcurrentHashMap<>();
+    private final QueuedPipe<AdminCommand> adminCommands;
+    private final EpochClock clock;
+    private final long cacheTtlInMs;
+    private final ErrorHandler errorHandler;
+    private final ExecutorService executor;
+
+    private volatile boolean closed = false;
+
+    AddressResolver(
+        final QueuedPipe<AdminCommand> adminCommands,
+        final EpochClock clock,
+        final long cacheTtlInMs,
+        final ErrorHandler errorHandler,
+        final String agentNamePrefix)
+    {
+        this.adminCommands = adminCommands;
+        this.clock = clock;
+        this.cacheTtlInMs = cacheTtlInMs;
+        this.errorHandler = errorHandler;
+
+        executor = Executors.newSingleThreadExecutor(
+            (runnable) ->
+            {
+                final Thread thread = new Thread(runnable, agentNamePrefix + "AddressResolver");
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+
+    /**
+     * Resolve the address of a host, only called on the Framer thread. The handler is also invoked on the Framer
+     * thread, either straight away if the address is cached or once it's been looked up.
+     *
+     * @param host the host name to resolve.
+     * @param port the port to connect to.
+     * @param handler the handler for the resolved address.
+     */
+    void resolve(final String host, final int port, final ResolvedAddressHandler handler)
+    {
+        final InetAddress cachedAddress = cachedAddress(host);
+        if (cachedAddress != null)
+        {
+            handler.onResolved(new InetSocketAddress(cachedAddress, port), null);
+            return;
+        }
+
+        executor.execute(() -> lookupAndReply(host, port, handler));
+    }
+
+    /**
+     * Look up the addresses of hosts that connections are going to be initiated to, so that they're cached
+     * before they're needed.
+     *
+     * @param hosts the host names to resolve.
+     */
+    void preResolve(final List<String> hosts)
+    {
+        for (final String host : hosts)
+        {
+            executor.execute(() ->
+            {
+                try
+                {
+                    lookup(host);
+                }
+                catch (final UnknownHostException ex)
+                {
+                    errorHandler.onError(ex);
+                }
+            });
+        }
+    }
+
+    public void close()
+    {
+        closed = true;
+        executor.shutdownNow();
+    }
+
+    private void lookupAndReply(final String host, final int port, final ResolvedAddressHandler handler)
+    {
+        try
+        {
+            final InetSocketAddress address = new InetSocketAddress(lookup(host), port);
+            reply((framer) -> handler.onResolved(address, null));
+        }
+        catch (final Exception ex)
+        {
+            reply((framer) -> handler.onResolved(null, ex));
+        }
+    }
+
+    private void reply(final AdminCommand command)
+    {
+        while (!closed && !adminCommands.offer(command))
+        {
+            Thread.yield();
+        }
+    }
+
+    private InetAddress lookup(final String host) throws UnknownHostException
+    {
+        final InetAddress address = InetAddress.getByName(host);
+        hostToAddress.put(host, new CachedAddress(address, clock.time() + cacheTtlInMs));
+        return address;
+    }
+
+    private InetAddress cachedAddress(final String host)
+    {
+        final CachedAddress cachedAddress = hostToAddress.get(host);
+        if (cachedAddress == null || clock.time() >= cachedAddress.expiryTimeInMs)
+        {
+            return null;
+        }
+
+        return cachedAddress.address;
+    }
+
+    @FunctionalInterface
+    interface ResolvedAddressHandler
+    {
+        void onResolved(InetSocketAddress address, Exception exception);
+    }
+
+    private static final class CachedAddress
+    {
+        private final InetAddress address;
+        private final long expiryTimeInMs;
+
+        private CachedAddress(final InetAddress address, final long expiryTimeInMs)
+        {
+            this.address = address;
+            this.expiryTimeInMs = expiryTimeInMs;
+        }
+    }
+}
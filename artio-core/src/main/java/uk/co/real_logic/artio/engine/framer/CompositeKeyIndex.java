@@ -0,0 +1,327 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.agrona.BitUtil;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.AtomicBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import uk.co.real_logic.artio.storage.messages.SessionIdDecoder;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.agrona.BitUtil.SIZE_OF_INT;
+import static uk.co.real_logic.artio.storage.messages.SessionIdDecoder.BLOCK_LENGTH;
+
+/**
+ * An open addressing hash index from the encoded bytes of a composite key to the position of its record in the
+ * session ids file.
+ * <p>
+ * Each slot holds the hash of the key and the position of its record, off heap. Keys aren't copied into the
+ * index: they are compared against the key bytes of the record itself, so looking up or adding a key doesn't
+ * allocate unless the index has to grow.
+ */
+final class CompositeKeyIndex
+{
+    static final int MISSING_POSITION = -1;
+
+    // Records can never start at position 0 as the file starts with a header, so it marks an empty slot.
+    private static final int EMPTY_POSITION = 0;
+
+    private static final int HASH_OFFSET = 0;
+    private static final int POSITION_OFFSET = SIZE_OF_INT;
+    private static final int SLOT_SIZE = 2 * SIZE_OF_INT;
+
+    private final SessionIdDecoder sessionIdDecoder = new SessionIdDecoder();
+    private final int actingBlockLength;
+    private final int actingVersion;
+
+    private AtomicBuffer file;
+    private UnsafeBuffer slots;
+    private int capacity;
+    private int mask;
+    private int size;
+
+    CompositeKeyIndex(
+        final AtomicBuffer file, final int initialCapacity, final int actingBlockLength, final int actingVersion)
+    {
+        this.file = file;
+        this.actingBlockLength = actingBlockLength;
+        this.actingVersion = actingVersion;
+        allocate(BitUtil.findNextPositivePowerOfTwo(initialCapacity));
+    }
+
+    /**
+     * Find the record of a key.
+     *
+     * @param keyBuffer the buffer holding the encoded key.
+     * @param keyOffset the offset of the encoded key within the buffer.
+     * @param keyLength the length of the encoded key.
+     * @return the position of the key's record or {@link #MISSING_POSITION} if the key hasn't been indexed.
+     */
+    int get(final DirectBuffer keyBuffer, final int keyOffset, final int keyLength)
+    {
+        final int hash = hash(keyBuffer, keyOffset, keyLength);
+        final UnsafeBuffer slots = this.slots;
+        final int mask = this.mask;
+
+        int index = hash & mask;
+        while (true)
+        {
+            final int slotOffset = index * SLOT_SIZE;
+            final int position = slots.getInt(slotOffset + POSITION_OFFSET);
+            if (position == EMPTY_POSITION)
+            {
+                return MISSING_POSITION;
+            }
+
+            if (slots.getInt(slotOffset + HASH_OFFSET) == hash && keyEquals(position, keyBuffer, keyOffset, keyLength))
+            {
+                return position;
+            }
+
+            index = (index + 1) & mask;
+        }
+    }
+
+    /**
+     * Index the record of a key, replacing any record that the key was previously indexed to.
+     *
+     * @param keyBuffer the buffer holding the encoded key.
+     * @param keyOffset the offset of the encoded key within the buffer.
+     * @param keyLength the length of the encoded key.
+     * @param position the position of the key's record.
+     * @return the position of the key's previous record or {@link #MISSING_POSITION} if it's a new key.
+     */
+    int put(final DirectBuffer keyBuffer, final int keyOffset, final int keyLength, final int position)
+    {
+        final int hash = hash(keyBuffer, keyOffset, keyLength);
+        final UnsafeBuffer slots = this.slots;
+        final int mask = this.mask;
+
+        int index = hash & mask;
+        while (true)
+        {
+            final int slotOffset = index * SLOT_SIZE;
+            final int slotPosition = slots.getInt(slotOffset + POSITION_OFFSET);
+            if (slotPosition == EMPTY_POSITION)
+            {
+                slots.putInt(slotOffset + HASH_OFFSET, hash);
+                slots.putInt(slotOffset + POSITION_OFFSET, position);
+                size++;
+                if (size > (capacity >> 1))
+                {
+                    rehash(capacity << 1);
+                }
+
+                return MISSING_POSITION;
+            }
+
+            if (slots.getInt(slotOffset + HASH_OFFSET) == hash &&
+                keyEquals(slotPosition, keyBuffer, keyOffset, keyLength))
+            {
+                slots.putInt(slotOffset + POSITION_OFFSET, position);
+                return slotPosition;
+            }
+
+            index = (index + 1) & mask;
+        }
+    }
+
+    /**
+     * Remove a key from the index.
+     *
+     * @param keyBuffer the buffer holding the encoded key.
+     * @param keyOffset the offset of the encoded key within the buffer.
+     * @param keyLength the length of the encoded key.
+     * @return the position of the key's record or {@link #MISSING_POSITION} if the key hasn't been indexed.
+     */
+    int remove(final DirectBuffer keyBuffer, final int keyOffset, final int keyLength)
+    {
+        final int hash = hash(keyBuffer, keyOffset, keyLength);
+        final UnsafeBuffer slots = this.slots;
+        final int mask = this.mask;
+
+        int index = hash & mask;
+        while (true)
+        {
+            final int slotOffset = index * SLOT_SIZE;
+            final int position = slots.getInt(slotOffset + POSITION_OFFSET);
+            if (position == EMPTY_POSITION)
+            {
+                return MISSING_POSITION;
+            }
+
+            if (slots.getInt(slotOffset + HASH_OFFSET) == hash && keyEquals(position, keyBuffer, keyOffset, keyLength))
+            {
+                compactChain(index);
+                size--;
+                return position;
+            }
+
+            index = (index + 1) & mask;
+        }
+    }
+
+    // Shifts back any later slots in the probe chain that would no longer be found once the removed slot is empty.
+    private void compactChain(final int removedIndex)
+    {
+        final UnsafeBuffer slots = this.slots;
+        final int mask = this.mask;
+
+        int emptyIndex = removedIndex;
+        int index = removedIndex;
+        while (true)
+        {
+            index = (index + 1) & mask;
+            final int slotOffset = index * SLOT_SIZE;
+            final int position = slots.getInt(slotOffset + POSITION_OFFSET);
+            if (position == EMPTY_POSITION)
+            {
+                break;
+            }
+
+            final int hash = slots.getInt(slotOffset + HASH_OFFSET);
+            final int idealIndex = hash & mask;
+            final boolean isReachable = emptyIndex <= index ?
+                emptyIndex < idealIndex && idealIndex <= index :
+                emptyIndex < idealIndex || idealIndex <= index;
+            if (!isReachable)
+            {
+                final int emptySlotOffset = emptyIndex * SLOT_SIZE;
+                slots.putInt(emptySlotOffset + HASH_OFFSET, hash);
+                slots.putInt(emptySlotOffset + POSITION_OFFSET, position);
+                emptyIndex = index;
+            }
+        }
+
+        final int emptySlotOffset = emptyIndex * SLOT_SIZE;
+        slots.putInt(emptySlotOffset + HASH_OFFSET, 0);
+        slots.putInt(emptySlotOffset + POSITION_OFFSET, EMPTY_POSITION);
+    }
+
+    /**
+     * Get the positions of every indexed record, in the order that they appear in the file.
+     *
+     * @return the positions of every indexed record.
+     */
+    int[] positions()
+    {
+        final int[] positions = new int[size];
+        int i = 0;
+        for (int slotOffset = 0; slotOffset < capacity * SLOT_SIZE; slotOffset += SLOT_SIZE)
+        {
+            final int position = slots.getInt(slotOffset + POSITION_OFFSET);
+            if (position != EMPTY_POSITION)
+            {
+                positions[i++] = position;
+            }
+        }
+
+        Arrays.sort(positions);
+        return positions;
+    }
+
+    int size()
+    {
+        return size;
+    }
+
+    void file(final AtomicBuffer file)
+    {
+        this.file = file;
+    }
+
+    void clear()
+    {
+        slots.setMemory(0, slots.capacity(), (byte)0);
+        size = 0;
+    }
+
+    int keyLength(final int position)
+    {
+        sessionIdDecoder.wrap(file, position, actingBlockLength, actingVersion);
+        return sessionIdDecoder.compositeKeyLength();
+    }
+
+    private boolean keyEquals(
+        final int position, final DirectBuffer keyBuffer, final int keyOffset, final int keyLength)
+    {
+        if (keyLength(position) != keyLength)
+        {
+            return false;
+        }
+
+        final AtomicBuffer file = this.file;
+        final int fileKeyOffset = position + BLOCK_LENGTH;
+        for (int i = 0; i < keyLength; i++)
+        {
+            if (file.getByte(fileKeyOffset + i) != keyBuffer.getByte(keyOffset + i))
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private void rehash(final int newCapacity)
+    {
+        final UnsafeBuffer oldSlots = slots;
+        final int oldCapacity = capacity;
+        allocate(newCapacity);
+
+        final UnsafeBuffer slots = this.slots;
+        final int mask = this.mask;
+        for (int oldSlotOffset = 0; oldSlotOffset < oldCapacity * SLOT_SIZE; oldSlotOffset += SLOT_SIZE)
+        {
+            final int position = oldSlots.getInt(oldSlotOffset + POSITION_OFFSET);
+            if (position != EMPTY_POSITION)
+            {
+                final int hash = oldSlots.getInt(oldSlotOffset + HASH_OFFSET);
+                int index = hash & mask;
+                while (slots.getInt(index * SLOT_SIZE + POSITION_OFFSET) != EMPTY_POSITION)
+                {
+                    index = (index + 1) & mask;
+                }
+
+                slots.putInt(index * SLOT_SIZE + HASH_OFFSET, hash);
+                slots.putInt(index * SLOT_SIZE + POSITION_OFFSET, position);
+                size++;
+            }
+        }
+    }
+
+    private void allocate(final int capacity)
+    {
+        this.capacity = capacity;
+        mask = capacity - 1;
+        size = 0;
+        slots = new UnsafeBuffer(ByteBuffer.allocateDirect(capacity * SLOT_SIZE));
+    }
+
+    private static int hash(final DirectBuffer buffer, final int offset, final int length)
+    {
+        int hash = 0;
+        for (int i = 0; i < length; i++)
+        {
+            hash = 31 * hash + buffer.getByte(offset + i);
+        }
+
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -18,12 +18,14 @@ package uk.co.real_logic.artio.engine.framer;
 import org.agrona.ErrorHandler;
 import org.agrona.collections.LongHashSet;
 import uk.co.real_logic.artio.FixCounters;
+import uk.co.real_logic.artio.LibraryCounters;
 import uk.co.real_logic.artio.engine.EngineConfiguration;
 import uk.co.real_logic.artio.engine.logger.SequenceNumberIndexReader;
 import uk.co.real_logic.artio.messages.ConnectionType;
 import uk.co.real_logic.artio.messages.SequenceNumberType;
 import uk.co.real_logic.artio.protocol.GatewayPublication;
 
+import java.io.File;
 import java.io.IOException;
 
 class EndPointFactory
@@ -38,6 +40,7 @@ class EndPointFactory
     private final GatewaySessions gatewaySessions;
 
     private SlowPeeker replaySlowPeeker;
+    private MessageTypeRouter messageTypeRouter;
 
     EndPointFactory(
         final EngineConfiguration configuration,
@@ -89,7 +92,8 @@ class EndPointFactory
             sequenceNumberType,
             connectionType,
             replicatedConnectionIds,
-            gatewaySessions
+            gatewaySessions,
+            messageTypeRouter
         );
     }
 
@@ -109,16 +113,45 @@ class EndPointFactory
             channel,
             fixCounters.bytesInBuffer(connectionId, remoteAddress),
             fixCounters.invalidLibraryAttempts(connectionId, remoteAddress),
+            fixCounters.messagesWritten(connectionId, remoteAddress),
+            fixCounters.slowConsumerTimeInMs(connectionId, remoteAddress),
             errorHandler,
             framer,
+            spillQueue(connectionId),
             configuration.senderMaxBytesInBuffer(),
             configuration.slowConsumerTimeoutInMs(),
-            System.currentTimeMillis()
+            System.currentTimeMillis(),
+            configuration.sessionThrottleStrategy(),
+            new SlidingWindowThrottle(configuration.throttleWindowInMs()),
+            fixCounters.throttledTimeInMs(connectionId, remoteAddress)
         );
     }
 
+    private SpillQueue spillQueue(final long connectionId)
+    {
+        if (!configuration.senderSpillQueue())
+        {
+            return null;
+        }
+
+        return new SpillQueue(
+            new File(configuration.logFileDir(), "spill-" + connectionId),
+            configuration.senderSpillInMemoryBytes(),
+            configuration.senderMaxBytesInBuffer());
+    }
+
+    LibraryCounters libraryCounters(final int libraryId)
+    {
+        return fixCounters.libraryCounters(libraryId);
+    }
+
     void replaySlowPeeker(final SlowPeeker replaySlowPeeker)
     {
         this.replaySlowPeeker = replaySlowPeeker;
     }
+
+    void messageTypeRouter(final MessageTypeRouter messageTypeRouter)
+    {
+        this.messageTypeRouter = messageTypeRouter;
+    }
 }
@@ -32,6 +32,7 @@ import org.agrona.concurrent.Agent;
 import org.agrona.concurrent.AgentInvoker;
 import org.agrona.concurrent.EpochClock;
 import org.agrona.concurrent.QueuedPipe;
+import org.agrona.concurrent.status.AtomicCounter;
 import uk.co.real_logic.artio.DebugLogger;
 import uk.co.real_logic.artio.LivenessDetector;
 import uk.co.real_logic.artio.Pressure;
@@ -72,6 +73,7 @@ import static io.aeron.logbuffer.ControlledFragmentHandler.Action.CONTINUE;
 import static java.nio.charset.StandardCharsets.US_ASCII;
 import static java.util.Collections.emptyList;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static org.agrona.collections.CollectionUtil.removeIf;
 import static uk.co.real_logic.artio.GatewayProcess.OUTBOUND_LIBRARY_STREAM;
 import static uk.co.real_logic.artio.LogTag.APPLICATION_HEARTBEAT;
@@ -146,6 +148,7 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
     private final BlockablePosition engineBlockablePosition;
     private final GatewayPublication inboundPublication;
     private final String agentNamePrefix;
+    private final AddressResolver addressResolver;
     private final CompletionPosition inboundCompletionPosition;
     private final CompletionPosition outboundLibraryCompletionPosition;
     private final CompletionPosition outboundClusterCompletionPosition;
@@ -170,8 +173,12 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
     private final Long2LongHashMap resendSlowStatus = new Long2LongHashMap(-1);
     private final Long2LongHashMap resendNotSlowStatus = new Long2LongHashMap(-1);
     private final AgentInvoker conductorAgentInvoker;
+    private final MessageTypeRouter messageTypeRouter;
+    private final AtomicCounter startupTimeInMs;
+    private final long startTimeInNs;
 
     private long nextConnectionId = (long)(Math.random() * Long.MAX_VALUE);
+    private boolean hasCompletedDutyCycle;
 
     Framer(
         final EpochClock clock,
@@ -203,7 +210,10 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
         final CompletionPosition outboundLibraryCompletionPosition,
         final CompletionPosition outboundClusterCompletionPosition,
         final FinalImagePositions finalImagePositions,
-        final AgentInvoker conductorAgentInvoker)
+        final AgentInvoker conductorAgentInvoker,
+        final AddressResolver addressResolver,
+        final AtomicCounter startupTimeInMs,
+        final long startTimeInNs)
     {
         this.clock = clock;
         this.outboundTimer = outboundTimer;
@@ -232,6 +242,9 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
         this.sentSequenceNumberIndex = sentSequenceNumberIndex;
         this.receivedSequenceNumberIndex = receivedSequenceNumberIndex;
         this.finalImagePositions = finalImagePositions;
+        this.addressResolver = addressResolver;
+        this.startupTimeInMs = startupTimeInMs;
+        this.startTimeInNs = startTimeInNs;
 
         this.librarySlowPeeker = new SubscriptionSlowPeeker(slowSubscription, librarySubscription);
 
@@ -242,6 +255,9 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
         this.replaySlowPeeker = new SlowPeeker(replaySlowImage, replayImage);
         endPointFactory.replaySlowPeeker(replaySlowPeeker);
 
+        this.messageTypeRouter = new MessageTypeRouter(configuration.messageTypeRoutes());
+        endPointFactory.messageTypeRouter(messageTypeRouter);
+
         if (isClustered())
         {
             clusterSlowPeeker = new ClusterSlowPeeker(clusterSubscription, clusterSlowSubscription);
@@ -286,7 +302,7 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
                 final MessageStatus status,
                 final long position)
             {
-                return senderEndPoints.onReplayMessage(connectionId, buffer, offset, length, position);
+                return senderEndPoints.onReplayMessage(connectionId, buffer, offset, length, messageType, position);
             }
 
             public Action onDisconnect(final int libraryId, final long connectionId, final DisconnectReason reason)
@@ -313,7 +329,7 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
                 final MessageStatus status,
                 final long position)
             {
-                return senderEndPoints.onSlowReplayMessage(connectionId, buffer, offset, length, position);
+                return senderEndPoints.onSlowReplayMessage(connectionId, buffer, offset, length, messageType, position);
             }
 
             public Action onDisconnect(final int libraryId, final long connectionId, final DisconnectReason reason)
@@ -366,9 +382,23 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
             pollNewConnections(timeInMs) +
             pollLibraries(timeInMs) +
             gatewaySessions.pollSessions(timeInMs) +
+            senderEndPoints.drainSpillQueues(timeInMs) +
             senderEndPoints.checkTimeouts(timeInMs) +
             adminCommands.drain(onAdminCommand) +
-            checkDutyCycle();
+            checkDutyCycle() +
+            checkStartupComplete();
+    }
+
+    // The engine is ready for a logon once the acceptor and libraries have been polled for the first time.
+    private int checkStartupComplete()
+    {
+        if (!hasCompletedDutyCycle)
+        {
+            hasCompletedDutyCycle = true;
+            startupTimeInMs.set(NANOSECONDS.toMillis(configuration.nanoClock().nanoTime() - startTimeInNs));
+        }
+
+        return 0;
     }
 
     private int checkDutyCycle()
@@ -434,9 +464,11 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
                 DebugLogger.log(CLUSTER_MANAGEMENT, "Timing out connection to library %s%n", library.libraryId());
 
                 iterator.remove();
+                messageTypeRouter.onLibraryTimeout(library.libraryId());
                 library.releaseSlowPeeker();
                 tryAcquireLibrarySessions(library);
                 saveLibraryTimeout(library);
+                library.closeCounters();
             }
         }
 
@@ -643,52 +675,64 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
             return CONTINUE;
         }
 
-        try
-        {
-            final InetSocketAddress address = new InetSocketAddress(host, port);
-            channelSupplier.open(address,
-                (channel, ex) ->
+        addressResolver.resolve(host, port,
+            (address, resolveEx) ->
+            {
+                if (resolveEx != null)
                 {
-                    if (ex != null)
-                    {
-                        sessionContexts.onDisconnect(sessionContext.sessionId());
-                        saveError(UNABLE_TO_CONNECT, libraryId, correlationId, ex);
-                        return;
-                    }
-
-                    onConnectionOpen(
-                        libraryId,
-                        senderCompId,
-                        senderSubId,
-                        senderLocationId,
-                        targetCompId,
-                        targetSubId,
-                        targetLocationId,
-                        sequenceNumberType,
-                        resetSequenceNumber,
-                        username,
-                        password,
-                        heartbeatIntervalInS,
-                        correlationId,
-                        header,
-                        library,
-                        address,
-                        channel,
-                        sessionContext,
-                        sessionKey);
-                });
-        }
-        catch (final Exception ex)
-        {
-            sessionContexts.onDisconnect(sessionContext.sessionId());
-            saveError(UNABLE_TO_CONNECT, libraryId, correlationId, ex);
+                    onUnableToConnect(libraryId, correlationId, sessionContext, resolveEx);
+                    return;
+                }
 
-            return CONTINUE;
-        }
+                try
+                {
+                    channelSupplier.open(address,
+                        (channel, ex) ->
+                        {
+                            if (ex != null)
+                            {
+                                onUnableToConnect(libraryId, correlationId, sessionContext, ex);
+                                return;
+                            }
+
+                            onConnectionOpen(
+                                libraryId,
+                                senderCompId,
+                                senderSubId,
+                                senderLocationId,
+                                targetCompId,
+                                targetSubId,
+                                targetLocationId,
+                                sequenceNumberType,
+                                resetSequenceNumber,
+                                username,
+                                password,
+                                heartbeatIntervalInS,
+                                correlationId,
+                                header,
+                                library,
+                                address,
+                                channel,
+                                sessionContext,
+                                sessionKey);
+                        });
+                }
+                catch (final Exception ex)
+                {
+                    onUnableToConnect(libraryId, correlationId, sessionContext, ex);
+                }
+            });
 
         return CONTINUE;
     }
 
+    private void onUnableToConnect(
+        final int libraryId, final long correlationId, final SessionContext sessionContext, final Exception ex)
+    {
+        sessionContexts.onDisconnect(sessionContext.sessionId());
+        saveError(UNABLE_TO_CONNECT, libraryId, correlationId, ex);
+    }
+
     private void onConnectionOpen(
         final int libraryId,
         final String senderCompId,
@@ -820,7 +864,7 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
             sessionContexts.onSentFollowerMessage(sessionId, sequenceIndex, messageType, buffer, offset, length);
         }
 
-        senderEndPoints.onMessage(libraryId, connectionId, buffer, offset, length, position);
+        senderEndPoints.onMessage(libraryId, connectionId, buffer, offset, length, messageType, position);
 
         sendTimer.recordSince(now);
 
@@ -948,8 +992,14 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
             }
 
             final LiveLibraryInfo library = new LiveLibraryInfo(
-                libraryId, libraryName, livenessDetector, aeronSessionId, librarySlowPeeker);
+                libraryId,
+                libraryName,
+                livenessDetector,
+                aeronSessionId,
+                librarySlowPeeker,
+                endPointFactory.libraryCounters(libraryId));
             idToLibrary.put(libraryId, library);
+            messageTypeRouter.onLibraryConnect(libraryId, libraryName);
 
             DebugLogger.log(CLUSTER_MANAGEMENT, "Library %s - %s connected %n", libraryId, libraryName);
 
@@ -1085,18 +1135,108 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
                 libraryId, SESSION_NOT_LOGGED_IN, correlationId));
         }
 
+        final long connectionId = gatewaySession.connectionId();
+        final int lastRecvSeqNum = session.lastReceivedMsgSeqNum();
+        final List<Continuation> continuations = new ArrayList<>();
+
+        handoverSession(libraryId, correlationId, libraryInfo, gatewaySession, continuations);
+
+        catchupSession(
+            continuations,
+            libraryId,
+            connectionId,
+            correlationId,
+            replayFromSequenceNumber,
+            replayFromSequenceIndex,
+            gatewaySession,
+            lastRecvSeqNum);
+
+        return retryManager.firstAttempt(correlationId, new UnitOfWork(continuations));
+    }
+
+    public Action onRequestSessions(
+        final int libraryId,
+        final long correlationId,
+        final RequestSessionsDecoder.SessionsDecoder sessionsDecoder)
+    {
+        final Action action = retryManager.retry(correlationId);
+        if (action != null)
+        {
+            return action;
+        }
+
+        final LiveLibraryInfo libraryInfo = idToLibrary.get(libraryId);
+        final int count = sessionsDecoder.count();
+        final long[] sessionIds = new long[count];
+        final SessionReplyStatus[] statuses = new SessionReplyStatus[count];
+        final List<GatewaySession> acquiredSessions = new ArrayList<>(count);
+        final List<Continuation> continuations = new ArrayList<>(count + 1);
+
+        for (int i = 0; i < count; i++)
+        {
+            final long sessionId = sessionsDecoder.next().sessionId();
+            sessionIds[i] = sessionId;
+
+            if (libraryInfo == null)
+            {
+                statuses[i] = SessionReplyStatus.UNKNOWN_LIBRARY;
+                continue;
+            }
+
+            final GatewaySession gatewaySession = gatewaySessions.sessionById(sessionId);
+            if (gatewaySession == null)
+            {
+                statuses[i] = SessionReplyStatus.UNKNOWN_SESSION;
+            }
+            else if (!gatewaySession.session().isActive())
+            {
+                statuses[i] = SESSION_NOT_LOGGED_IN;
+            }
+            else
+            {
+                gatewaySessions.releaseBySessionId(sessionId);
+                handoverSession(libraryId, correlationId, libraryInfo, gatewaySession, continuations);
+                acquiredSessions.add(gatewaySession);
+                statuses[i] = OK;
+            }
+        }
+
+        // Batched acquisition never replays messages, so sessions can resume as soon as the reply is out.
+        continuations.add(() ->
+        {
+            final long position = inboundPublication.saveRequestSessionsReply(
+                libraryId, correlationId, sessionIds, statuses, count);
+            if (position >= 0)
+            {
+                acquiredSessions.forEach(GatewaySession::play);
+            }
+
+            return position;
+        });
+
+        return retryManager.firstAttempt(correlationId, new UnitOfWork(continuations));
+    }
+
+    private void handoverSession(
+        final int libraryId,
+        final long correlationId,
+        final LiveLibraryInfo libraryInfo,
+        final GatewaySession gatewaySession,
+        final List<Continuation> continuations)
+    {
+        final Session session = gatewaySession.session();
+        final long sessionId = gatewaySession.sessionId();
         final long connectionId = gatewaySession.connectionId();
         final int lastSentSeqNum = session.lastSentMsgSeqNum();
         final int lastRecvSeqNum = session.lastReceivedMsgSeqNum();
         final SessionState sessionState = session.state();
         final long logonTime = session.logonTime();
+        final CompositeKey compositeKey = session.compositeKey();
         gatewaySession.handoverManagementTo(libraryId, libraryInfo.librarySlowPeeker());
         libraryInfo.addSession(gatewaySession);
 
         DebugLogger.log(CLUSTER_MANAGEMENT, "Handing control for session %s to library %s%n", sessionId, libraryId);
 
-        final List<Continuation> continuations = new ArrayList<>();
-
         continuations.add(() -> inboundPublication.saveManageSession(
             libraryId,
             connectionId,
@@ -1111,25 +1251,13 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
             gatewaySession.heartbeatIntervalInS(),
             correlationId,
             gatewaySession.sequenceIndex(),
-            session.compositeKey().localCompId(),
-            session.compositeKey().localSubId(),
-            session.compositeKey().localLocationId(),
-            session.compositeKey().remoteCompId(),
-            session.compositeKey().remoteSubId(),
-            session.compositeKey().remoteLocationId(),
+            compositeKey.localCompId(),
+            compositeKey.localSubId(),
+            compositeKey.localLocationId(),
+            compositeKey.remoteCompId(),
+            compositeKey.remoteSubId(),
+            compositeKey.remoteLocationId(),
             gatewaySession.address()));
-
-        catchupSession(
-            continuations,
-            libraryId,
-            connectionId,
-            correlationId,
-            replayFromSequenceNumber,
-            replayFromSequenceIndex,
-            gatewaySession,
-            lastRecvSeqNum);
-
-        return retryManager.firstAttempt(correlationId, new UnitOfWork(continuations));
     }
 
     private long saveManageSession(
@@ -1351,7 +1479,8 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
             inboundMessages,
             receiverEndPoints,
             senderEndPoints,
-            channelSupplier);
+            channelSupplier,
+            addressResolver);
     }
 
     private void quiesce()
@@ -1400,6 +1529,12 @@ class Framer implements Agent, EngineEndPointHandler, ProtocolHandler
     {
         if (hasBecomeSlow)
         {
+            final LiveLibraryInfo library = idToLibrary.get(libraryId);
+            if (library != null)
+            {
+                library.libraryCounters().slowConsumerEvents().increment();
+            }
+
             sendSlowStatus(libraryId, connectionId, resendNotSlowStatus, resendSlowStatus, SlowStatus.SLOW);
         }
         else
@@ -67,7 +67,8 @@ public class FramerContext
         final Image slowReplayImage,
         final EngineDescriptorStore engineDescriptorStore,
         final EngineTimers timers,
-        final AgentInvoker conductorAgentInvoker)
+        final AgentInvoker conductorAgentInvoker,
+        final long startTimeInNs)
     {
         this.conductorAgentInvoker = conductorAgentInvoker;
         final ClusterableStreams streams = engineContext.streams();
@@ -116,6 +117,10 @@ public class FramerContext
 
         final FinalImagePositions finalImagePositions = new FinalImagePositions();
 
+        final AddressResolver addressResolver = new AddressResolver(
+            adminCommands, clock, configuration.addressCacheTtlInMs(), errorHandler, configuration.agentNamePrefix());
+        addressResolver.preResolve(configuration.preResolvedHosts());
+
         framer = new Framer(
             clock,
             timers.outboundTimer(),
@@ -148,7 +153,10 @@ public class FramerContext
             engineContext.outboundLibraryCompletionPosition(),
             engineContext.outboundClusterCompletionPosition(),
             finalImagePositions,
-            conductorAgentInvoker);
+            conductorAgentInvoker,
+            addressResolver,
+            fixCounters.startupTimeInMs(),
+            startTimeInNs);
     }
 
     public Agent framer()
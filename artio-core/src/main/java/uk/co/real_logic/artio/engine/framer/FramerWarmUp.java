@@ -0,0 +1,166 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.agrona.ErrorHandler;
+import org.agrona.IoUtil;
+import org.agrona.LangUtil;
+import org.agrona.collections.LongHashSet;
+import org.agrona.concurrent.SystemEpochClock;
+import uk.co.real_logic.artio.WarmUp;
+import uk.co.real_logic.artio.engine.EngineConfiguration;
+import uk.co.real_logic.artio.engine.MappedFile;
+import uk.co.real_logic.artio.messages.ConnectionType;
+import uk.co.real_logic.artio.messages.SequenceNumberType;
+import uk.co.real_logic.artio.protocol.GatewayPublication;
+import uk.co.real_logic.artio.session.Session;
+import uk.co.real_logic.artio.session.SessionCustomisationStrategy;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.List;
+
+import static uk.co.real_logic.artio.engine.SectorFramer.OUT_OF_SPACE;
+import static uk.co.real_logic.artio.engine.SectorFramer.SECTOR_SIZE;
+
+/**
+ * Warms up the engine's inbound path: reading messages from a TCP connection, framing them and publishing
+ * them to the library that owns their session. Messages are read from an {@link InMemoryTcpChannel} and
+ * published to discarding publications.
+ */
+public final class FramerWarmUp extends WarmUp
+{
+    private static final long CONNECTION_ID = 1;
+    private static final long SESSION_ID = 1;
+    private static final int LIBRARY_ID = 1;
+    private static final int SESSION_ID_FILE_SIZE = 4 * SECTOR_SIZE;
+
+    private final File sessionIdFile;
+    private final MappedFile mappedSessionIdFile;
+    private final InMemoryTcpChannel channel;
+    private final ReceiverEndPoint receiverEndPoint;
+    private final int maxPollsPerRun;
+
+    public FramerWarmUp(final EngineConfiguration configuration, final ErrorHandler errorHandler)
+    {
+        sessionIdFile = newSessionIdFile();
+        mappedSessionIdFile = MappedFile.map(sessionIdFile, SESSION_ID_FILE_SIZE);
+        final SessionContexts sessionContexts = new SessionContexts(
+            mappedSessionIdFile, configuration.sessionIdStrategy(), errorHandler);
+        final GatewayPublication publication = newSinkPublication(
+            configuration, 2 * configuration.receiverBufferSize());
+        final GatewaySessions gatewaySessions = new GatewaySessions(
+            new SystemEpochClock(),
+            publication,
+            configuration.sessionIdStrategy(),
+            SessionCustomisationStrategy.none(),
+            null,
+            null,
+            null,
+            configuration.sessionBufferSize(),
+            configuration.sendingTimeWindowInMs(),
+            configuration.reasonableTransmissionTimeInMs(),
+            errorHandler,
+            sessionContexts,
+            null);
+
+        final List<byte[]> messages = configuration.warmUpMessages();
+        maxPollsPerRun = messages.size() + 1;
+        channel = new InMemoryTcpChannel(concatenate(messages));
+        receiverEndPoint = new ReceiverEndPoint(
+            channel,
+            configuration.receiverBufferSize(),
+            publication,
+            publication,
+            CONNECTION_ID,
+            SESSION_ID,
+            0,
+            sessionContexts,
+            null,
+            null,
+            newCounter("Warm up messages read"),
+            null,
+            errorHandler,
+            LIBRARY_ID,
+            SequenceNumberType.TRANSIENT,
+            ConnectionType.INITIATOR,
+            new LongHashSet(),
+            gatewaySessions,
+            new MessageTypeRouter(Collections.emptyMap()));
+
+        final SessionContext context = new SessionContext(
+            SESSION_ID, 0, Session.NO_LOGON_TIME, sessionContexts, OUT_OF_SPACE);
+        receiverEndPoint.gatewaySession(new GatewaySession(
+            CONNECTION_ID,
+            context,
+            channel.remoteAddress(),
+            ConnectionType.INITIATOR,
+            null,
+            receiverEndPoint,
+            null,
+            null));
+    }
+
+    protected void runMessages()
+    {
+        final InMemoryTcpChannel channel = this.channel;
+        channel.rewind();
+
+        for (int polls = 0; channel.hasRemaining() && polls < maxPollsPerRun; polls++)
+        {
+            receiverEndPoint.pollForData();
+        }
+    }
+
+    public void close()
+    {
+        mappedSessionIdFile.close();
+        IoUtil.deleteIfExists(sessionIdFile);
+    }
+
+    private static File newSessionIdFile()
+    {
+        try
+        {
+            return File.createTempFile("artio-warm-up", "session-ids");
+        }
+        catch (final IOException ex)
+        {
+            LangUtil.rethrowUnchecked(ex);
+            return null;
+        }
+    }
+
+    private static ByteBuffer concatenate(final List<byte[]> messages)
+    {
+        int length = 0;
+        for (final byte[] message : messages)
+        {
+            length += message.length;
+        }
+
+        final ByteBuffer readData = ByteBuffer.allocateDirect(length);
+        for (final byte[] message : messages)
+        {
+            readData.put(message);
+        }
+        readData.flip();
+
+        return readData;
+    }
+}
@@ -213,6 +213,7 @@ class GatewaySession implements SessionInfo
         this.context = context;
         this.sessionKey = sessionKey;
         onLogon(username, password, heartbeatIntervalInS);
+        senderEndPoint.configureThrottle(sessionKey);
     }
 
     public String username()
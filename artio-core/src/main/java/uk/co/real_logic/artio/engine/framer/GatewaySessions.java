@@ -134,6 +134,7 @@ class GatewaySessions
             0,
             reasonableTransmissionTimeInMs,
             asciiBuffer);
+        session.sessionCounters(fixCounters.sessionCounters(connectionId));
 
         final SessionParser sessionParser = new SessionParser(
             session,
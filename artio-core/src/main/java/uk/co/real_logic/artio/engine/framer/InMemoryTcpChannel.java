@@ -0,0 +1,77 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import uk.co.real_logic.artio.engine.ByteBufferUtil;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+
+/**
+ * A {@link TcpChannel} without a socket: reads are served from a fixed block of data and writes are all
+ * accepted and discarded, so that the framing code can be benchmarked, or warmed up, without the network.
+ */
+class InMemoryTcpChannel extends TcpChannel
+{
+    private final ByteBuffer readData;
+
+    InMemoryTcpChannel(final ByteBuffer readData)
+    {
+        super("in-memory");
+        this.readData = readData;
+    }
+
+    /**
+     * Makes the whole block of data available to read again.
+     */
+    void rewind()
+    {
+        readData.clear();
+    }
+
+    boolean hasRemaining()
+    {
+        return readData.hasRemaining();
+    }
+
+    public SelectionKey register(final Selector sel, final int ops, final Object att)
+    {
+        return null;
+    }
+
+    public int write(final ByteBuffer src)
+    {
+        final int remaining = src.remaining();
+        ByteBufferUtil.position(src, src.limit());
+        return remaining;
+    }
+
+    public int read(final ByteBuffer dst)
+    {
+        final ByteBuffer readData = this.readData;
+        final int length = Math.min(readData.remaining(), dst.remaining());
+        final int limit = readData.limit();
+        ByteBufferUtil.limit(readData, readData.position() + length);
+        dst.put(readData);
+        ByteBufferUtil.limit(readData, limit);
+        return length;
+    }
+
+    public void close()
+    {
+    }
+}
@@ -15,6 +15,7 @@
  */
 package uk.co.real_logic.artio.engine.framer;
 
+import uk.co.real_logic.artio.LibraryCounters;
 import uk.co.real_logic.artio.LivenessDetector;
 import uk.co.real_logic.artio.engine.SessionInfo;
 import uk.co.real_logic.artio.engine.framer.SubscriptionSlowPeeker.LibrarySlowPeeker;
@@ -31,6 +32,7 @@ final class LiveLibraryInfo implements LibraryInfo
     private final LivenessDetector livenessDetector;
     private final int aeronSessionId;
     private final LibrarySlowPeeker librarySlowPeeker;
+    private final LibraryCounters libraryCounters;
     private final List<GatewaySession> allSessions = new CopyOnWriteArrayList<>();
     private final List<SessionInfo> unmodifiableAllSessions = unmodifiableList(allSessions);
     private long acquireAtPosition;
@@ -40,13 +42,15 @@ final class LiveLibraryInfo implements LibraryInfo
         final String libraryName,
         final LivenessDetector livenessDetector,
         final int aeronSessionId,
-        final LibrarySlowPeeker librarySlowPeeker)
+        final LibrarySlowPeeker librarySlowPeeker,
+        final LibraryCounters libraryCounters)
     {
         this.libraryId = libraryId;
         this.libraryName = libraryName;
         this.livenessDetector = livenessDetector;
         this.aeronSessionId = aeronSessionId;
         this.librarySlowPeeker = librarySlowPeeker;
+        this.libraryCounters = libraryCounters;
     }
 
     public int libraryId()
@@ -100,11 +104,14 @@ final class LiveLibraryInfo implements LibraryInfo
     void addSession(final GatewaySession session)
     {
         allSessions.add(session);
+        libraryCounters.sessions().setOrdered(allSessions.size());
     }
 
     GatewaySession removeSession(final long connectionId)
     {
-        return GatewaySessions.removeSessionByConnectionId(connectionId, allSessions);
+        final GatewaySession session = GatewaySessions.removeSessionByConnectionId(connectionId, allSessions);
+        libraryCounters.sessions().setOrdered(allSessions.size());
+        return session;
     }
 
     void acquireAtPosition(final long libraryPosition)
@@ -122,6 +129,16 @@ final class LiveLibraryInfo implements LibraryInfo
         return librarySlowPeeker;
     }
 
+    LibraryCounters libraryCounters()
+    {
+        return libraryCounters;
+    }
+
+    void closeCounters()
+    {
+        libraryCounters.close();
+    }
+
     public boolean equals(final Object o)
     {
         if (this == o)
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.agrona.collections.Int2IntHashMap;
+import org.agrona.collections.Int2ObjectHashMap;
+import uk.co.real_logic.artio.dictionary.generation.GenerationUtil;
+
+import java.util.Map;
+
+import static uk.co.real_logic.artio.engine.FixEngine.ENGINE_LIBRARY_ID;
+
+/**
+ * Routes inbound messages by their message type to connected libraries, as configured by
+ * {@link uk.co.real_logic.artio.engine.EngineConfiguration#routeMessageType(String, String)}.
+ *
+ * Routes name libraries, so they only take effect whilst a library of that name is connected.
+ */
+final class MessageTypeRouter
+{
+    static final int NO_ROUTE = ENGINE_LIBRARY_ID;
+
+    private final Int2ObjectHashMap<String> messageTypeToLibraryName = new Int2ObjectHashMap<>();
+    private final Int2IntHashMap messageTypeToLibraryId = new Int2IntHashMap(NO_ROUTE);
+
+    MessageTypeRouter(final Map<String, String> messageTypeRoutes)
+    {
+        messageTypeRoutes.forEach((messageType, libraryName) ->
+            messageTypeToLibraryName.put(GenerationUtil.packMessageType(messageType), libraryName));
+    }
+
+    void onLibraryConnect(final int libraryId, final String libraryName)
+    {
+        messageTypeToLibraryName.forEach((messageType, routedLibraryName) ->
+        {
+            if (routedLibraryName.equals(libraryName))
+            {
+                messageTypeToLibraryId.put(messageType, libraryId);
+            }
+        });
+    }
+
+    void onLibraryTimeout(final int libraryId)
+    {
+        messageTypeToLibraryName.keySet().forEach((messageType) ->
+        {
+            if (messageTypeToLibraryId.get(messageType) == libraryId)
+            {
+                messageTypeToLibraryId.remove(messageType);
+            }
+        });
+    }
+
+    /**
+     * Lookup the library that a message type is routed to.
+     *
+     * @param messageType the FIX msgType field, encoded as an int.
+     * @return the id of the library that the message type is routed to, or {@link #NO_ROUTE}.
+     */
+    int route(final int messageType)
+    {
+        return messageTypeToLibraryId.get(messageType);
+    }
+}
@@ -89,6 +89,7 @@ class ReceiverEndPoint
     private final ByteBuffer byteBuffer;
     private final LongHashSet replicatedConnectionIds;
     private final GatewaySessions gatewaySessions;
+    private final MessageTypeRouter messageTypeRouter;
 
     private GatewayPublication publication;
     private int libraryId;
@@ -118,12 +119,14 @@ class ReceiverEndPoint
         final SequenceNumberType sequenceNumberType,
         final ConnectionType connectionType,
         final LongHashSet replicatedConnectionIds,
-        final GatewaySessions gatewaySessions)
+        final GatewaySessions gatewaySessions,
+        final MessageTypeRouter messageTypeRouter)
     {
         Objects.requireNonNull(clusterablePublication, "clusterablePublication");
         Objects.requireNonNull(libraryPublication, "libraryPublication");
         Objects.requireNonNull(sessionContexts, "sessionContexts");
         Objects.requireNonNull(gatewaySessions, "gatewaySessions");
+        Objects.requireNonNull(messageTypeRouter, "messageTypeRouter");
 
         this.channel = channel;
         this.clusterablePublication = clusterablePublication;
@@ -140,6 +143,7 @@ class ReceiverEndPoint
         this.libraryId = libraryId;
         this.replicatedConnectionIds = replicatedConnectionIds;
         this.gatewaySessions = gatewaySessions;
+        this.messageTypeRouter = messageTypeRouter;
 
         byteBuffer = ByteBuffer.allocateDirect(bufferSize);
         buffer = new MutableAsciiBuffer(byteBuffer);
@@ -372,15 +376,20 @@ class ReceiverEndPoint
 
     private boolean saveMessage(final int offset, final int messageType, final int length)
     {
+        // Routed messages are only published once, for the library they're routed to, and the library that
+        // owns the session picks up their sequence numbers from the same message.
+        final int routedLibraryId = messageTypeRouter.route(messageType);
+        final boolean isRouted = routedLibraryId != MessageTypeRouter.NO_ROUTE && routedLibraryId != libraryId;
+
         final long position = publication.saveMessage(buffer,
             offset,
             length,
-            libraryId,
+            isRouted ? routedLibraryId : libraryId,
             messageType,
             sessionId,
             sequenceIndex,
             connectionId,
-            OK);
+            isRouted ? ROUTED : OK);
 
         if (Pressure.isBackPressured(position))
         {
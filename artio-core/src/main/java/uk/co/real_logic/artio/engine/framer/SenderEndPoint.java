@@ -18,12 +18,23 @@ package uk.co.real_logic.artio.engine.framer;
 import io.aeron.logbuffer.ControlledFragmentHandler.Action;
 import io.aeron.protocol.DataHeaderFlyweight;
 import org.agrona.DirectBuffer;
+import org.agrona.CloseHelper;
 import org.agrona.ErrorHandler;
+import org.agrona.collections.IntHashSet;
 import org.agrona.concurrent.status.AtomicCounter;
 import uk.co.real_logic.artio.DebugLogger;
+import uk.co.real_logic.artio.FixGatewayException;
+import uk.co.real_logic.artio.decoder.HeartbeatDecoder;
+import uk.co.real_logic.artio.decoder.LogonDecoder;
+import uk.co.real_logic.artio.decoder.LogoutDecoder;
+import uk.co.real_logic.artio.decoder.ResendRequestDecoder;
+import uk.co.real_logic.artio.decoder.SequenceResetDecoder;
+import uk.co.real_logic.artio.decoder.TestRequestDecoder;
 import uk.co.real_logic.artio.engine.ByteBufferUtil;
+import uk.co.real_logic.artio.engine.SessionThrottleStrategy;
 import uk.co.real_logic.artio.engine.logger.ArchiveDescriptor;
 import uk.co.real_logic.artio.messages.DisconnectReason;
+import uk.co.real_logic.artio.session.CompositeKey;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
@@ -37,14 +48,34 @@ import static uk.co.real_logic.artio.protocol.GatewayPublication.FRAME_SIZE;
 
 class SenderEndPoint implements AutoCloseable
 {
+    // Session level messages aren't throttled: heartbeats, logouts and resend replies have to go out promptly
+    // for the session to stay up, and counterparties' rate limits are on application messages.
+    private static final IntHashSet UNTHROTTLED_MESSAGE_TYPES = new IntHashSet();
+
+    static
+    {
+        UNTHROTTLED_MESSAGE_TYPES.add(LogonDecoder.MESSAGE_TYPE);
+        UNTHROTTLED_MESSAGE_TYPES.add(LogoutDecoder.MESSAGE_TYPE);
+        UNTHROTTLED_MESSAGE_TYPES.add(ResendRequestDecoder.MESSAGE_TYPE);
+        UNTHROTTLED_MESSAGE_TYPES.add(HeartbeatDecoder.MESSAGE_TYPE);
+        UNTHROTTLED_MESSAGE_TYPES.add(TestRequestDecoder.MESSAGE_TYPE);
+        UNTHROTTLED_MESSAGE_TYPES.add(SequenceResetDecoder.MESSAGE_TYPE);
+    }
+
     private final long connectionId;
     private final TcpChannel channel;
     private final AtomicCounter bytesInBuffer;
     private final AtomicCounter invalidLibraryAttempts;
+    private final AtomicCounter messagesWritten;
+    private final AtomicCounter slowConsumerTimeInMs;
+    private final AtomicCounter throttledTimeInMs;
     private final ErrorHandler errorHandler;
     private final Framer framer;
+    private final SpillQueue spillQueue;
     private final int maxBytesInBuffer;
     private final long slowConsumerTimeoutInMs;
+    private final SessionThrottleStrategy throttleStrategy;
+    private final SlidingWindowThrottle throttle;
 
     private final StreamTracker outboundTracker;
     private final StreamTracker replayTracker;
@@ -52,6 +83,9 @@ class SenderEndPoint implements AutoCloseable
     private int libraryId;
     private long sessionId;
     private long sendingTimeoutTimeInMs;
+    private long slowSinceTimeInMs;
+    private boolean throttled;
+    private long throttledSinceTimeInMs;
 
     SenderEndPoint(
         final long connectionId,
@@ -61,21 +95,33 @@ class SenderEndPoint implements AutoCloseable
         final TcpChannel channel,
         final AtomicCounter bytesInBuffer,
         final AtomicCounter invalidLibraryAttempts,
+        final AtomicCounter messagesWritten,
+        final AtomicCounter slowConsumerTimeInMs,
         final ErrorHandler errorHandler,
         final Framer framer,
+        final SpillQueue spillQueue,
         final int maxBytesInBuffer,
         final long slowConsumerTimeoutInMs,
-        final long timeInMs)
+        final long timeInMs,
+        final SessionThrottleStrategy throttleStrategy,
+        final SlidingWindowThrottle throttle,
+        final AtomicCounter throttledTimeInMs)
     {
         this.connectionId = connectionId;
         this.libraryId = libraryId;
         this.channel = channel;
         this.bytesInBuffer = bytesInBuffer;
         this.invalidLibraryAttempts = invalidLibraryAttempts;
+        this.messagesWritten = messagesWritten;
+        this.slowConsumerTimeInMs = slowConsumerTimeInMs;
         this.errorHandler = errorHandler;
         this.framer = framer;
+        this.spillQueue = spillQueue;
         this.maxBytesInBuffer = maxBytesInBuffer;
         this.slowConsumerTimeoutInMs = slowConsumerTimeoutInMs;
+        this.throttleStrategy = throttleStrategy;
+        this.throttle = throttle;
+        this.throttledTimeInMs = throttledTimeInMs;
 
         outboundTracker = new StreamTracker(outboundBlockablePosition);
         replayTracker = new StreamTracker(replayBlockablePosition);
@@ -88,6 +134,7 @@ class SenderEndPoint implements AutoCloseable
         final DirectBuffer directBuffer,
         final int offset,
         final int bodyLength,
+        final int messageType,
         final long position,
         final long timeInMs)
     {
@@ -97,17 +144,18 @@ class SenderEndPoint implements AutoCloseable
             return;
         }
 
-        attemptFramedMessage(directBuffer, offset, bodyLength, timeInMs, position, outboundTracker);
+        attemptFramedMessage(directBuffer, offset, bodyLength, messageType, timeInMs, position, outboundTracker);
     }
 
     Action onReplayMessage(
         final DirectBuffer directBuffer,
         final int offset,
         final int bodyLength,
+        final int messageType,
         final long timeInMs,
         final long position)
     {
-        attemptFramedMessage(directBuffer, offset, bodyLength, timeInMs, position, replayTracker);
+        attemptFramedMessage(directBuffer, offset, bodyLength, messageType, timeInMs, position, replayTracker);
 
         return CONTINUE;
     }
@@ -116,25 +164,34 @@ class SenderEndPoint implements AutoCloseable
         final DirectBuffer buffer,
         final int offset,
         final int bodyLength,
+        final int messageType,
         final long timeInMs,
         final long position)
     {
         final int offsetAfterHeader = offset - FRAME_SIZE;
         final int length = bodyLength + FRAME_SIZE;
 
-        return attemptSlowMessage(buffer, offsetAfterHeader, length, position, bodyLength, timeInMs, replayTracker);
+        return attemptSlowMessage(
+            buffer, offsetAfterHeader, length, position, bodyLength, messageType, timeInMs, replayTracker);
     }
 
     private void attemptFramedMessage(
         final DirectBuffer directBuffer,
         final int offset,
         final int bodyLength,
+        final int messageType,
         final long timeInMs,
         final long position,
         final StreamTracker tracker)
     {
         if (isSlowConsumer())
         {
+            if (spillQueue != null)
+            {
+                spill(directBuffer, offset, bodyLength, position, tracker);
+                return;
+            }
+
             final long bytesInBuffer = bytesInBufferWeak() + bodyLength;
             if (bytesInBuffer > maxBytesInBuffer)
             {
@@ -146,17 +203,34 @@ class SenderEndPoint implements AutoCloseable
             return;
         }
 
+        if (!tryAcquire(messageType, timeInMs))
+        {
+            // Held back messages are sent from the slow consumer stream once the throttle has room.
+            onThrottled(timeInMs);
+            becomeSlowConsumer(0, bodyLength, position, tracker, timeInMs);
+            return;
+        }
+        tracker.acquiredPosition = position;
+
         try
         {
             final int written = writeFramedMessage(directBuffer, offset, bodyLength, timeInMs);
 
             if (written != bodyLength)
             {
-                becomeSlowConsumer(written, bodyLength, position, tracker);
+                if (spillQueue != null)
+                {
+                    startSpilling(directBuffer, offset, written, bodyLength, position, tracker, timeInMs);
+                }
+                else
+                {
+                    becomeSlowConsumer(written, bodyLength, position, tracker, timeInMs);
+                }
             }
             else
             {
                 tracker.sentPosition = position;
+                messagesWritten.increment();
             }
         }
         catch (final IOException ex)
@@ -199,17 +273,80 @@ class SenderEndPoint implements AutoCloseable
     }
 
     private void becomeSlowConsumer(
-        final int written, final int bodyLength, final long position, final StreamTracker tracker)
+        final int written, final int bodyLength, final long position, final StreamTracker tracker, final long timeInMs)
     {
         final int remainingBytes = bodyLength - written;
         bytesInBuffer.setOrdered(remainingBytes);
+        slowSinceTimeInMs = timeInMs;
         sendSlowStatus(true);
         tracker.sentPosition = position - remainingBytes;
         tracker.partiallySentMessage = true;
     }
 
-    private void becomeNormalConsumer()
+    private void startSpilling(
+        final DirectBuffer directBuffer,
+        final int offset,
+        final int written,
+        final int bodyLength,
+        final long position,
+        final StreamTracker tracker,
+        final long timeInMs)
+    {
+        slowSinceTimeInMs = timeInMs;
+        sendSlowStatus(true);
+        spill(directBuffer, offset + written, bodyLength - written, position, tracker);
+    }
+
+    // The message is done with as far as the stream is concerned, so its position is never held back.
+    private void spill(
+        final DirectBuffer directBuffer,
+        final int offset,
+        final int length,
+        final long position,
+        final StreamTracker tracker)
+    {
+        if (!spillQueue.offer(directBuffer, offset, length))
+        {
+            removeEndpoint(SLOW_CONSUMER);
+            return;
+        }
+
+        bytesInBuffer.setOrdered(spillQueue.size());
+        tracker.sentPosition = position;
+        messagesWritten.increment();
+    }
+
+    int drainSpillQueue(final long timeInMs)
+    {
+        if (spillQueue == null || !isSlowConsumer())
+        {
+            return 0;
+        }
+
+        try
+        {
+            final int written = spillQueue.drain(channel);
+            updateSendingTimeoutTimeInMs(timeInMs, written);
+
+            final int remainingBytes = spillQueue.size();
+            bytesInBuffer.setOrdered(remainingBytes);
+            if (remainingBytes == 0)
+            {
+                becomeNormalConsumer(timeInMs);
+            }
+
+            return written > 0 ? 1 : 0;
+        }
+        catch (final IOException ex)
+        {
+            onError(ex);
+            return 1;
+        }
+    }
+
+    private void becomeNormalConsumer(final long timeInMs)
     {
+        slowConsumerTimeInMs.getAndAddOrdered(timeInMs - slowSinceTimeInMs);
         sendSlowStatus(false);
     }
 
@@ -243,6 +380,10 @@ class SenderEndPoint implements AutoCloseable
     {
         bytesInBuffer.close();
         invalidLibraryAttempts.close();
+        messagesWritten.close();
+        slowConsumerTimeInMs.close();
+        throttledTimeInMs.close();
+        CloseHelper.close(spillQueue);
     }
 
     Action onSlowOutboundMessage(
@@ -251,6 +392,7 @@ class SenderEndPoint implements AutoCloseable
         final int length,
         final long position,
         final int bodyLength,
+        final int messageType,
         final int libraryId,
         final long timeInMs)
     {
@@ -261,7 +403,7 @@ class SenderEndPoint implements AutoCloseable
         }
 
         return attemptSlowMessage(
-            directBuffer, offsetAfterHeader, length, position, bodyLength, timeInMs, outboundTracker);
+            directBuffer, offsetAfterHeader, length, position, bodyLength, messageType, timeInMs, outboundTracker);
     }
 
     private Action attemptSlowMessage(
@@ -270,10 +412,12 @@ class SenderEndPoint implements AutoCloseable
         final int length,
         final long position,
         final int bodyLength,
+        final int messageType,
         final long timeInMs,
         final StreamTracker tracker)
     {
-        if (!isSlowConsumer())
+        // Spilled messages have already been taken off the stream.
+        if (spillQueue != null || !isSlowConsumer())
         {
             return CONTINUE;
         }
@@ -317,6 +461,19 @@ class SenderEndPoint implements AutoCloseable
                 bytesPreviouslySent = bodyLength - remainingLength;
             }
 
+            // A message only counts towards the throttle once, however many attempts it takes to write.
+            if (position > tracker.acquiredPosition)
+            {
+                if (!tryAcquire(messageType, timeInMs))
+                {
+                    onThrottled(timeInMs);
+                    return blockPosition(position, length, tracker);
+                }
+
+                tracker.acquiredPosition = position;
+                onThrottleReleased(timeInMs);
+            }
+
             final int dataOffset = offsetAfterHeader + FRAME_SIZE + bytesPreviouslySent;
             final ByteBuffer buffer = directBuffer.byteBuffer();
 
@@ -338,10 +495,11 @@ class SenderEndPoint implements AutoCloseable
                 tracker.sentPosition = position;
                 tracker.partiallySentMessage = false;
                 tracker.skipPosition = Long.MAX_VALUE;
+                messagesWritten.increment();
 
                 if (!isSlowConsumer())
                 {
-                    becomeNormalConsumer();
+                    becomeNormalConsumer(timeInMs);
                 }
             }
         }
@@ -353,6 +511,32 @@ class SenderEndPoint implements AutoCloseable
         return CONTINUE;
     }
 
+    // Unthrottled messages are still sent in order, so they wait behind any messages that are held back.
+    private boolean tryAcquire(final int messageType, final long timeInMs)
+    {
+        return UNTHROTTLED_MESSAGE_TYPES.contains(messageType) || throttle.tryAcquire(timeInMs);
+    }
+
+    private void onThrottled(final long timeInMs)
+    {
+        if (!throttled)
+        {
+            throttled = true;
+            throttledSinceTimeInMs = timeInMs;
+        }
+    }
+
+    private void onThrottleReleased(final long timeInMs)
+    {
+        if (throttled)
+        {
+            throttled = false;
+            throttledTimeInMs.getAndAddOrdered(timeInMs - throttledSinceTimeInMs);
+            // Time held back by the throttle doesn't count towards the slow consumer timeout.
+            sendingTimeoutTimeInMs = timeInMs + slowConsumerTimeoutInMs;
+        }
+    }
+
     private Action blockPosition(final long position, final int length, final StreamTracker tracker)
     {
         final int alignedLength = ArchiveDescriptor.alignTerm(length);
@@ -403,9 +587,28 @@ class SenderEndPoint implements AutoCloseable
         return sessionId;
     }
 
+    void configureThrottle(final CompositeKey sessionKey)
+    {
+        int messageLimit;
+        try
+        {
+            messageLimit = throttleStrategy.messageLimit(sessionKey);
+        }
+        catch (final Throwable throwable)
+        {
+            errorHandler.onError(new FixGatewayException(String.format(
+                "Exception thrown by throttle strategy for sessionId=%d,connectionId=%d, defaulted to no limit",
+                sessionId,
+                connectionId), throwable));
+            messageLimit = SessionThrottleStrategy.NO_LIMIT;
+        }
+
+        throttle.messageLimit(messageLimit);
+    }
+
     boolean checkTimeouts(final long timeInMs)
     {
-        if (isSlowConsumer() && timeInMs > sendingTimeoutTimeInMs)
+        if (isSlowConsumer() && !throttled && timeInMs > sendingTimeoutTimeInMs)
         {
             errorHandler.onError(new IllegalStateException(String.format(
                 "Slow Consumer Disconnected conn=%d,sess=%d @ time %d, Due to not being able to write since %d",
@@ -426,6 +629,7 @@ class SenderEndPoint implements AutoCloseable
     {
         private long sentPosition;
         private long skipPosition = Long.MAX_VALUE;
+        private long acquiredPosition;
         private boolean partiallySentMessage = false;
         private BlockablePosition blockablePosition;
 
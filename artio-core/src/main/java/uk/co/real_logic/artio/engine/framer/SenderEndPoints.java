@@ -80,22 +80,28 @@ class SenderEndPoints implements AutoCloseable, ControlledFragmentHandler, Clust
         final DirectBuffer buffer,
         final int offset,
         final int length,
+        final int messageType,
         final long position)
     {
         final SenderEndPoint endPoint = connectionIdToSenderEndpoint.get(connectionId);
         if (endPoint != null)
         {
-            endPoint.onOutboundMessage(libraryId, buffer, offset, length, position, timeInMs);
+            endPoint.onOutboundMessage(libraryId, buffer, offset, length, messageType, position, timeInMs);
         }
     }
 
     Action onReplayMessage(
-        final long connectionId, final DirectBuffer buffer, final int offset, final int length, final long position)
+        final long connectionId,
+        final DirectBuffer buffer,
+        final int offset,
+        final int length,
+        final int messageType,
+        final long position)
     {
         final SenderEndPoint endPoint = connectionIdToSenderEndpoint.get(connectionId);
         if (endPoint != null)
         {
-            return endPoint.onReplayMessage(buffer, offset, length, timeInMs, position);
+            return endPoint.onReplayMessage(buffer, offset, length, messageType, timeInMs, position);
         }
         else
         {
@@ -106,12 +112,17 @@ class SenderEndPoints implements AutoCloseable, ControlledFragmentHandler, Clust
     }
 
     Action onSlowReplayMessage(
-        final long connectionId, final DirectBuffer buffer, final int offset, final int length, final long position)
+        final long connectionId,
+        final DirectBuffer buffer,
+        final int offset,
+        final int length,
+        final int messageType,
+        final long position)
     {
         final SenderEndPoint endPoint = connectionIdToSenderEndpoint.get(connectionId);
         if (endPoint != null)
         {
-            return endPoint.onSlowReplayMessage(buffer, offset, length, timeInMs, position);
+            return endPoint.onSlowReplayMessage(buffer, offset, length, messageType, timeInMs, position);
         }
         else
         {
@@ -160,8 +171,9 @@ class SenderEndPoints implements AutoCloseable, ControlledFragmentHandler, Clust
             {
                 final int bodyLength = fixMessage.bodyLength();
                 final int libraryId = fixMessage.libraryId();
+                final int messageType = fixMessage.messageType();
                 return senderEndPoint.onSlowOutboundMessage(
-                    buffer, offset, length - HEADER_LENGTH, position, bodyLength, libraryId, timeInMs);
+                    buffer, offset, length - HEADER_LENGTH, position, bodyLength, messageType, libraryId, timeInMs);
             }
         }
 
@@ -194,6 +206,17 @@ class SenderEndPoints implements AutoCloseable, ControlledFragmentHandler, Clust
         return count;
     }
 
+    int drainSpillQueues(final long timeInMs)
+    {
+        int count = 0;
+        for (final SenderEndPoint senderEndPoint : connectionIdToSenderEndpoint.values())
+        {
+            count += senderEndPoint.drainSpillQueue(timeInMs);
+        }
+
+        return count;
+    }
+
     public LongToIntFunction libraryLookup()
     {
         return libraryLookup;
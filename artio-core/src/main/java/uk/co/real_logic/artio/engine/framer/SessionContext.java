@@ -26,7 +26,7 @@ class SessionContext
 
     private final long sessionId;
     private final SessionContexts sessionContexts;
-    private final int filePosition;
+    private int filePosition;
 
     // onSequenceReset() will be called upon logon or not depending upon whether this is a persistent
     // session or not.
@@ -86,6 +86,16 @@ class SessionContext
         return sessionId;
     }
 
+    int filePosition()
+    {
+        return filePosition;
+    }
+
+    void filePosition(final int filePosition)
+    {
+        this.filePosition = filePosition;
+    }
+
     public boolean equals(final Object o)
     {
         if (this == o)
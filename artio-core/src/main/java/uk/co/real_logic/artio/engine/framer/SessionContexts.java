@@ -17,6 +17,7 @@ package uk.co.real_logic.artio.engine.framer;
 
 import org.agrona.DirectBuffer;
 import org.agrona.ErrorHandler;
+import org.agrona.collections.Long2ObjectHashMap;
 import org.agrona.collections.LongHashSet;
 import org.agrona.concurrent.AtomicBuffer;
 import org.agrona.concurrent.UnsafeBuffer;
@@ -40,10 +41,10 @@ import java.io.File;
 import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.function.Function;
 import java.util.zip.CRC32;
 
 import static uk.co.real_logic.artio.engine.SectorFramer.*;
+import static uk.co.real_logic.artio.engine.framer.CompositeKeyIndex.MISSING_POSITION;
 import static uk.co.real_logic.artio.session.SessionIdStrategy.INSUFFICIENT_SPACE;
 import static uk.co.real_logic.artio.storage.messages.SessionIdEncoder.BLOCK_LENGTH;
 
@@ -53,6 +54,13 @@ import static uk.co.real_logic.artio.storage.messages.SessionIdEncoder.BLOCK_LEN
  * The session ids table is saved into a file. Records are written out using the {@link SessionIdEncoder}
  * and aren't allowed to span sectors. Each sector has a CRC32 checksum and each checksum is updated after writing
  * each session id record.
+ * <p>
+ * Sessions are looked up by the encoded bytes of their composite key using an off heap {@link CompositeKeyIndex}
+ * over the records in the file. When a composite key is assigned a new session id its old record is dead, and if
+ * the file fills up then it is compacted to reclaim the space used by dead records.
+ * <p>
+ * Compaction writes the live records out to a separate writable file which is then swapped in using a passing
+ * place, so a crash part way through compacting leaves either the old or the compacted file to load on restart.
  */
 public class SessionContexts
 {
@@ -67,6 +75,7 @@ public class SessionContexts
     static final long LOWEST_VALID_SESSION_ID = 1L;
 
     private static final int HEADER_SIZE = MessageHeaderDecoder.ENCODED_LENGTH;
+    private static final int INITIAL_INDEX_CAPACITY = 1024;
 
     private static final int ENCODING_BUFFER_SIZE = SECTOR_SIZE - CHECKSUM_SIZE;
     private final UnsafeBuffer compositeKeyBuffer = new UnsafeBuffer(new byte[ENCODING_BUFFER_SIZE]);
@@ -74,26 +83,33 @@ public class SessionContexts
     private final MessageHeaderDecoder headerDecoder = new MessageHeaderDecoder();
     private final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
     private final SessionIdEncoder sessionIdEncoder = new SessionIdEncoder();
+    private final SessionIdDecoder sessionIdDecoder = new SessionIdDecoder();
     private final AsciiBuffer asciiBuffer = new MutableAsciiBuffer();
     private final LogonDecoder logonDecoder = new LogonDecoder();
     private final int actingBlockLength = sessionIdEncoder.sbeBlockLength();
     private final int actingVersion = sessionIdEncoder.sbeSchemaVersion();
 
-    private final Function<CompositeKey, SessionContext> onNewLogonFunc = this::onNewLogon;
     private final LongHashSet currentlyAuthenticatedSessionIds = new LongHashSet();
     private final LongHashSet recordedSessions = new LongHashSet();
-    private final Map<CompositeKey, SessionContext> compositeToContext = new HashMap<>();
+    private final Long2ObjectHashMap<SessionContext> sessionIdToContext = new Long2ObjectHashMap<>();
+    // Keys that couldn't be saved to the file aren't in the index.
+    private final Map<CompositeKey, SessionContext> unsavedCompositeToContext = new HashMap<>();
 
     private final CRC32 crc32 = new CRC32();
     private final SectorFramer sectorFramer;
-    private final ByteBuffer byteBuffer;
-
-    private final AtomicBuffer buffer;
     private final SessionIdStrategy idStrategy;
     private final ErrorHandler errorHandler;
     private final MappedFile mappedFile;
+    private final File indexPath;
+    private final File writablePath;
+    private final File passingPlacePath;
+    private final CompositeKeyIndex compositeKeyIndex;
+
+    private ByteBuffer byteBuffer;
+    private AtomicBuffer buffer;
 
     private int filePosition;
+    private int deadRecordBytes;
     private long counter = LOWEST_VALID_SESSION_ID;
 
     public SessionContexts(
@@ -102,19 +118,22 @@ public class SessionContexts
         this.mappedFile = mappedFile;
         this.buffer = mappedFile.buffer();
         this.byteBuffer = this.buffer.byteBuffer();
+        indexPath = mappedFile.file();
+        writablePath = new File(indexPath.getPath() + "-writable");
+        passingPlacePath = new File(indexPath.getPath() + "-passing");
         sectorFramer = new SectorFramer(buffer.capacity());
         this.idStrategy = idStrategy;
         this.errorHandler = errorHandler;
+        compositeKeyIndex = new CompositeKeyIndex(buffer, INITIAL_INDEX_CAPACITY, actingBlockLength, actingVersion);
         loadBuffer();
     }
 
     private void loadBuffer()
     {
         checkByteBuffer();
+        recoverPassingPlace();
         initialiseBuffer();
 
-        final SessionIdDecoder sessionIdDecoder = new SessionIdDecoder();
-
         int sectorEnd = 0;
         filePosition = HEADER_SIZE;
         final int lastRecordStart = buffer.capacity() - BLOCK_LENGTH;
@@ -150,7 +169,10 @@ public class SessionContexts
                 return;
             }
 
-            compositeToContext.put(compositeKey,
+            index(
+                buffer,
+                filePosition + BLOCK_LENGTH,
+                compositeKeyLength,
                 new SessionContext(sessionId, sequenceIndex, logonTime, this, filePosition));
             recordedSessions.add(sessionId);
             counter = Math.max(counter, sessionId + 1);
@@ -173,6 +195,34 @@ public class SessionContexts
         }
     }
 
+    private void recoverPassingPlace()
+    {
+        headerDecoder.wrap(buffer, 0);
+        if (headerDecoder.blockLength() == 0 && passingPlacePath.exists())
+        {
+            // Crashed whilst compacting, after the old file had been moved out of the way.
+            if (passingPlacePath.renameTo(indexPath))
+            {
+                mappedFile.remap();
+                onRemapped();
+            }
+            else
+            {
+                errorHandler.onError(new IllegalStateException(String.format(
+                    "Unable to recover session ids file from %s to %s due to rename failure",
+                    passingPlacePath,
+                    indexPath)));
+            }
+        }
+    }
+
+    private void onRemapped()
+    {
+        buffer = mappedFile.buffer();
+        byteBuffer = buffer.byteBuffer();
+        compositeKeyIndex.file(buffer);
+    }
+
     private void initialiseBuffer()
     {
         if (LoggerUtil.initialiseBuffer(
@@ -213,7 +263,11 @@ public class SessionContexts
 
     public SessionContext onLogon(final CompositeKey compositeKey)
     {
-        final SessionContext sessionContext = compositeToContext.computeIfAbsent(compositeKey, onNewLogonFunc);
+        SessionContext sessionContext = lookup(compositeKey);
+        if (sessionContext == null)
+        {
+            sessionContext = onNewLogon(compositeKey);
+        }
 
         if (!currentlyAuthenticatedSessionIds.add(sessionContext.sessionId()))
         {
@@ -229,12 +283,26 @@ public class SessionContexts
         return assignSessionId(compositeKey, sessionId, SessionContext.UNKNOWN_SEQUENCE_INDEX);
     }
 
+    private SessionContext lookup(final CompositeKey compositeKey)
+    {
+        final int compositeKeyLength = idStrategy.save(compositeKey, compositeKeyBuffer, 0);
+        if (compositeKeyLength != INSUFFICIENT_SPACE)
+        {
+            final int position = compositeKeyIndex.get(compositeKeyBuffer, 0, compositeKeyLength);
+            if (position != MISSING_POSITION)
+            {
+                return sessionIdToContext.get(sessionIdAt(position));
+            }
+        }
+
+        return unsavedCompositeToContext.isEmpty() ? null : unsavedCompositeToContext.get(compositeKey);
+    }
+
     private SessionContext assignSessionId(
         final CompositeKey compositeKey,
         final long sessionId,
         final int sequenceIndex)
     {
-        int keyPosition = OUT_OF_SPACE;
         final int compositeKeyLength = idStrategy.save(compositeKey, compositeKeyBuffer, 0);
         if (compositeKeyLength == INSUFFICIENT_SPACE)
         {
@@ -242,53 +310,197 @@ public class SessionContexts
                 "Unable to save record session id %d for %s, because the buffer is too small",
                 sessionId,
                 compositeKey)));
-            return new SessionContext(sessionId, sequenceIndex, Session.NO_LOGON_TIME, this, OUT_OF_SPACE);
+            return unsaved(
+                compositeKey, new SessionContext(sessionId, sequenceIndex, Session.NO_LOGON_TIME, this, OUT_OF_SPACE));
         }
         else
         {
-            if (filePosition != OUT_OF_SPACE)
+            final int recordLength = BLOCK_LENGTH + compositeKeyLength;
+            final int keyPosition = claim(recordLength);
+            if (keyPosition == OUT_OF_SPACE)
             {
-                filePosition = sectorFramer.claim(filePosition, BLOCK_LENGTH + compositeKeyLength);
-                keyPosition = filePosition;
-                if (filePosition == OUT_OF_SPACE)
-                {
-                    errorHandler.onError(new IllegalStateException(
-                        "Run out of space when storing: " + compositeKey));
-                }
-                else
-                {
-                    sessionIdEncoder
-                        .wrap(buffer, filePosition)
-                        .sessionId(sessionId)
-                        .sequenceIndex(sequenceIndex)
-                        .logonTime(Session.NO_LOGON_TIME)
-                        .compositeKeyLength(compositeKeyLength);
-                    filePosition += BLOCK_LENGTH;
-
-                    buffer.putBytes(filePosition, compositeKeyBuffer, 0, compositeKeyLength);
-                    filePosition += compositeKeyLength;
-
-                    updateChecksum(sectorFramer.sectorStart(), sectorFramer.checksumOffset());
-                    mappedFile.force();
-                }
+                errorHandler.onError(new IllegalStateException(
+                    "Run out of space when storing: " + compositeKey));
+                // The key's saved record, if any, is now stale and mustn't shadow the unsaved session id.
+                final int previousPosition = compositeKeyIndex.remove(compositeKeyBuffer, 0, compositeKeyLength);
+                onDeadRecord(previousPosition);
+                return unsaved(
+                    compositeKey,
+                    new SessionContext(sessionId, sequenceIndex, Session.NO_LOGON_TIME, this, OUT_OF_SPACE));
             }
 
-            return new SessionContext(sessionId, sequenceIndex, Session.NO_LOGON_TIME, this, keyPosition);
+            sessionIdEncoder
+                .wrap(buffer, keyPosition)
+                .sessionId(sessionId)
+                .sequenceIndex(sequenceIndex)
+                .logonTime(Session.NO_LOGON_TIME)
+                .compositeKeyLength(compositeKeyLength);
+
+            buffer.putBytes(keyPosition + BLOCK_LENGTH, compositeKeyBuffer, 0, compositeKeyLength);
+            filePosition = keyPosition + recordLength;
+
+            updateChecksum(sectorFramer.sectorStart(), sectorFramer.checksumOffset());
+            mappedFile.force();
+
+            final SessionContext sessionContext = new SessionContext(
+                sessionId, sequenceIndex, Session.NO_LOGON_TIME, this, keyPosition);
+            index(compositeKeyBuffer, 0, compositeKeyLength, sessionContext);
+            return sessionContext;
         }
     }
 
+    private int claim(final int recordLength)
+    {
+        final int position = sectorFramer.claim(filePosition, recordLength);
+        if (position == OUT_OF_SPACE && deadRecordBytes > 0)
+        {
+            compact();
+            return sectorFramer.claim(filePosition, recordLength);
+        }
+
+        return position;
+    }
+
+    private void index(
+        final DirectBuffer keyBuffer, final int keyOffset, final int keyLength, final SessionContext sessionContext)
+    {
+        final int previousPosition = compositeKeyIndex.put(
+            keyBuffer, keyOffset, keyLength, sessionContext.filePosition());
+        onDeadRecord(previousPosition);
+        sessionIdToContext.put(sessionContext.sessionId(), sessionContext);
+    }
+
+    private void onDeadRecord(final int previousPosition)
+    {
+        if (previousPosition != MISSING_POSITION)
+        {
+            // The key has been assigned a new session id, so its previous record is dead.
+            sessionIdToContext.remove(sessionIdAt(previousPosition));
+            deadRecordBytes += BLOCK_LENGTH + compositeKeyIndex.keyLength(previousPosition);
+        }
+    }
+
+    private SessionContext unsaved(final CompositeKey compositeKey, final SessionContext sessionContext)
+    {
+        final SessionContext previousContext = unsavedCompositeToContext.put(compositeKey, sessionContext);
+        if (previousContext != null)
+        {
+            sessionIdToContext.remove(previousContext.sessionId());
+        }
+
+        sessionIdToContext.put(sessionContext.sessionId(), sessionContext);
+        return sessionContext;
+    }
+
+    /**
+     * Write the live records from the start of a new file, in the same order, dropping any dead records. The new
+     * file then replaces the current one.
+     */
+    private void compact()
+    {
+        final int capacity = buffer.capacity();
+        final int[] positions = compositeKeyIndex.positions();
+        final int[] compactedPositions = new int[positions.length];
+
+        deleteIfExists(writablePath);
+        deleteIfExists(passingPlacePath);
+        final MappedFile writableFile = MappedFile.map(writablePath, capacity);
+        final AtomicBuffer compactedBuffer = writableFile.buffer();
+        compactedBuffer.putBytes(0, buffer, 0, HEADER_SIZE);
+
+        int compactedPosition = HEADER_SIZE;
+        for (int i = 0; i < positions.length; i++)
+        {
+            final int position = positions[i];
+            final int recordLength = BLOCK_LENGTH + compositeKeyIndex.keyLength(position);
+            compactedPosition = sectorFramer.claim(compactedPosition, recordLength);
+            compactedBuffer.putBytes(compactedPosition, buffer, position, recordLength);
+            compactedPositions[i] = compactedPosition;
+            compactedPosition += recordLength;
+        }
+
+        for (int sectorStart = 0; sectorStart < capacity; sectorStart += SECTOR_SIZE)
+        {
+            updateChecksum(compactedBuffer, sectorStart, sectorStart + SECTOR_DATA_LENGTH);
+        }
+        writableFile.force();
+        writableFile.close();
+
+        mappedFile.close();
+        final boolean swapsFiles = rename(indexPath, passingPlacePath) && swapInWritableFile();
+        mappedFile.map();
+        onRemapped();
+        if (!swapsFiles)
+        {
+            return;
+        }
+
+        compositeKeyIndex.clear();
+        for (final int position : compactedPositions)
+        {
+            sessionIdToContext.get(sessionIdAt(position)).filePosition(position);
+            compositeKeyIndex.put(
+                buffer, position + BLOCK_LENGTH, compositeKeyIndex.keyLength(position), position);
+        }
+        filePosition = compactedPosition;
+        deadRecordBytes = 0;
+    }
+
+    private boolean swapInWritableFile()
+    {
+        if (rename(writablePath, indexPath))
+        {
+            deleteIfExists(passingPlacePath);
+            return true;
+        }
+
+        // Put the old file back so that the engine carries on with it.
+        rename(passingPlacePath, indexPath);
+        return false;
+    }
+
+    private boolean rename(final File src, final File dest)
+    {
+        if (src.renameTo(dest))
+        {
+            return true;
+        }
+
+        errorHandler.onError(new IllegalStateException("unable to rename " + src + " to " + dest));
+        return false;
+    }
+
+    private void deleteIfExists(final File file)
+    {
+        if (file.exists() && !file.delete())
+        {
+            errorHandler.onError(new IllegalStateException("unable to delete " + file));
+        }
+    }
+
+    private long sessionIdAt(final int position)
+    {
+        return wrap(sessionIdDecoder, position);
+    }
+
     void sequenceReset(final long sessionId)
     {
-        compositeToContext
-            .values()
-            .stream()
-            .filter(context -> context.sessionId() == sessionId)
-            .forEach(SessionContext::onSequenceReset);
+        final SessionContext sessionContext = sessionIdToContext.get(sessionId);
+        if (sessionContext != null)
+        {
+            sessionContext.onSequenceReset();
+        }
     }
 
     // TODO: optimisation, more efficient checksumming, only checksum new data
     private void updateChecksum(final int start, final int checksumOffset)
     {
+        updateChecksum(buffer, start, checksumOffset);
+    }
+
+    private void updateChecksum(final AtomicBuffer buffer, final int start, final int checksumOffset)
+    {
+        final ByteBuffer byteBuffer = buffer.byteBuffer();
         final int endOfData = checksumOffset;
         byteBuffer.clear();
         ByteBufferUtil.position(byteBuffer, start);
@@ -314,7 +526,11 @@ public class SessionContexts
 
         counter = LOWEST_VALID_SESSION_ID;
         currentlyAuthenticatedSessionIds.clear();
-        compositeToContext.clear();
+        sessionIdToContext.clear();
+        unsavedCompositeToContext.clear();
+        compositeKeyIndex.clear();
+        filePosition = HEADER_SIZE;
+        deadRecordBytes = 0;
 
         if (backupLocation != null)
         {
@@ -357,12 +573,16 @@ public class SessionContexts
             header.targetSubIDAsString(),
             header.targetLocationIDAsString());
 
-        final SessionContext sessionContext = assignSessionId(compositeKey, sessionId, sequenceIndex);
-        compositeToContext.put(compositeKey, sessionContext);
+        assignSessionId(compositeKey, sessionId, sequenceIndex);
     }
 
     void updateSavedData(final int filePosition, final int sequenceIndex, final long logonTime)
     {
+        if (filePosition == OUT_OF_SPACE)
+        {
+            return;
+        }
+
         sessionIdEncoder
             .wrap(buffer, filePosition)
             .sequenceIndex(sequenceIndex)
@@ -377,7 +597,7 @@ public class SessionContexts
 
     long lookupSessionId(final CompositeKey compositeKey)
     {
-        final SessionContext sessionContext = compositeToContext.get(compositeKey);
+        final SessionContext sessionContext = lookup(compositeKey);
         if (sessionContext == null)
         {
             return Session.UNKNOWN;
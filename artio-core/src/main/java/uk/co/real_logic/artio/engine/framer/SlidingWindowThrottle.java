@@ -0,0 +1,90 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import java.util.Arrays;
+
+import static uk.co.real_logic.artio.engine.SessionThrottleStrategy.NO_LIMIT;
+
+/**
+ * Sliding window throttle that lets at most the message limit through within any window of time.
+ * <p>
+ * It keeps the send times of the last limit's worth of messages in a ring, so a message can be sent once the
+ * oldest of those has dropped out of the window. Unlike a token bucket, a burst at the end of one window can't be
+ * followed by another full burst at the start of the next.
+ */
+class SlidingWindowThrottle
+{
+    private static final long NEVER_SENT = Long.MIN_VALUE / 2;
+
+    private final long windowInMs;
+
+    private int messageLimit = NO_LIMIT;
+    private long[] sendTimesInMs = new long[0];
+    private int oldestIndex;
+
+    SlidingWindowThrottle(final long windowInMs)
+    {
+        this.windowInMs = windowInMs;
+    }
+
+    /**
+     * Sets the limit, forgetting any messages already sent.
+     *
+     * @param messageLimit the maximum number of messages within any window, or {@link
+     *                     uk.co.real_logic.artio.engine.SessionThrottleStrategy#NO_LIMIT}.
+     */
+    void messageLimit(final int messageLimit)
+    {
+        this.messageLimit = messageLimit;
+        if (sendTimesInMs.length != messageLimit)
+        {
+            sendTimesInMs = new long[messageLimit];
+        }
+        Arrays.fill(sendTimesInMs, NEVER_SENT);
+        oldestIndex = 0;
+    }
+
+    boolean isLimited()
+    {
+        return messageLimit != NO_LIMIT;
+    }
+
+    /**
+     * Record the send of a message if the window has room for it.
+     *
+     * @param timeInMs the current time.
+     * @return true if the message can be sent, false if it should be held back until a later time.
+     */
+    boolean tryAcquire(final long timeInMs)
+    {
+        if (messageLimit == NO_LIMIT)
+        {
+            return true;
+        }
+
+        final long[] sendTimesInMs = this.sendTimesInMs;
+        final int oldestIndex = this.oldestIndex;
+        if (timeInMs - sendTimesInMs[oldestIndex] < windowInMs)
+        {
+            return false;
+        }
+
+        sendTimesInMs[oldestIndex] = timeInMs;
+        this.oldestIndex = oldestIndex + 1 == sendTimesInMs.length ? 0 : oldestIndex + 1;
+        return true;
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.agrona.DirectBuffer;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+import uk.co.real_logic.artio.engine.ByteBufferUtil;
+import uk.co.real_logic.artio.engine.logger.LoggerUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+
+/**
+ * Queue of the bytes that couldn't yet be written to a slow connection, so that they don't have to be held back
+ * on the shared outbound stream.
+ * <p>
+ * The bytes are held in a direct buffer, allocated when something is first spilled, that doubles in size up to
+ * the in memory limit. Beyond that the queue moves into a file mapped at its maximum size, which is deleted when
+ * the queue is closed.
+ */
+final class SpillQueue implements AutoCloseable
+{
+    private static final int INITIAL_CAPACITY = 64 * 1024;
+
+    private final UnsafeBuffer buffer = new UnsafeBuffer(new byte[0]);
+    private final File file;
+    private final int inMemoryBytes;
+    private final int maxBytes;
+
+    private ByteBuffer byteBuffer;
+    private MappedByteBuffer mappedBuffer;
+    private int head;
+    private int tail;
+
+    SpillQueue(final File file, final int inMemoryBytes, final int maxBytes)
+    {
+        this.file = file;
+        this.inMemoryBytes = inMemoryBytes;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Add bytes to the end of the queue.
+     *
+     * @param srcBuffer the buffer holding the bytes.
+     * @param srcOffset the offset of the bytes within the buffer.
+     * @param length the number of bytes.
+     * @return false if the bytes would take the queue over its maximum size, true otherwise.
+     */
+    boolean offer(final DirectBuffer srcBuffer, final int srcOffset, final int length)
+    {
+        final int size = size();
+        if (size + length > maxBytes)
+        {
+            return false;
+        }
+
+        if (tail + length > buffer.capacity())
+        {
+            makeRoom(size + length);
+        }
+
+        buffer.putBytes(tail, srcBuffer, srcOffset, length);
+        tail += length;
+
+        return true;
+    }
+
+    /**
+     * Write as many bytes from the start of the queue as the channel will take.
+     *
+     * @param channel the channel to write to.
+     * @return the number of bytes written.
+     * @throws IOException if the channel fails to write.
+     */
+    int drain(final TcpChannel channel) throws IOException
+    {
+        if (head == tail)
+        {
+            return 0;
+        }
+
+        final ByteBuffer byteBuffer = this.byteBuffer;
+        ByteBufferUtil.limit(byteBuffer, tail);
+        ByteBufferUtil.position(byteBuffer, head);
+
+        final int written = channel.write(byteBuffer);
+        head += written;
+        if (head == tail)
+        {
+            head = 0;
+            tail = 0;
+        }
+
+        return written;
+    }
+
+    int size()
+    {
+        return tail - head;
+    }
+
+    boolean isMapped()
+    {
+        return mappedBuffer != null;
+    }
+
+    public void close()
+    {
+        if (mappedBuffer != null)
+        {
+            IoUtil.unmap(mappedBuffer);
+            mappedBuffer = null;
+            IoUtil.deleteIfExists(file);
+        }
+    }
+
+    private void makeRoom(final int requiredCapacity)
+    {
+        final int size = size();
+        if (requiredCapacity <= buffer.capacity())
+        {
+            buffer.putBytes(0, buffer, head, size);
+        }
+        else
+        {
+            int newCapacity = Math.max(INITIAL_CAPACITY, buffer.capacity());
+            while (newCapacity < requiredCapacity)
+            {
+                newCapacity <<= 1;
+            }
+
+            final ByteBuffer newByteBuffer;
+            if (newCapacity > inMemoryBytes && inMemoryBytes < maxBytes)
+            {
+                mappedBuffer = LoggerUtil.mapNewFile(file, maxBytes);
+                newByteBuffer = mappedBuffer;
+            }
+            else
+            {
+                newByteBuffer = ByteBuffer.allocateDirect(Math.min(newCapacity, maxBytes));
+            }
+
+            final UnsafeBuffer newBuffer = new UnsafeBuffer(newByteBuffer);
+            if (size > 0)
+            {
+                newBuffer.putBytes(0, buffer, head, size);
+            }
+
+            byteBuffer = newByteBuffer;
+            buffer.wrap(newByteBuffer);
+        }
+
+        head = 0;
+        tail = size;
+    }
+}
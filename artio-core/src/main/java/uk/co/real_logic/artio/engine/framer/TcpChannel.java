@@ -35,6 +35,13 @@ public class TcpChannel implements AutoCloseable
         remoteAddress = socketChannel.getRemoteAddress().toString();
     }
 
+    // For channels that aren't backed by a socket, these override the methods that use it.
+    TcpChannel(final String remoteAddress)
+    {
+        this.socketChannel = null;
+        this.remoteAddress = remoteAddress;
+    }
+
     public String remoteAddress()
     {
         return remoteAddress;
@@ -32,7 +32,9 @@ import static uk.co.real_logic.artio.messages.MessageHeaderDecoder.ENCODED_LENGT
 public class ArchiveMetaData implements AutoCloseable
 {
     private static final int META_DATA_FILE_SIZE = 8 + ArchiveMetaDataDecoder.BLOCK_LENGTH;
-    private static final int MINIMUM_BUFFER_SIZE = ENCODED_LENGTH + ArchiveMetaDataDecoder.BLOCK_LENGTH;
+    // Meta data written before the checksum algorithm was recorded ends where the algorithm would start.
+    private static final int MINIMUM_BUFFER_SIZE =
+        ENCODED_LENGTH + ArchiveMetaDataDecoder.checksumAlgorithmEncodingOffset();
 
     private final MessageHeaderDecoder headerDecoder = new MessageHeaderDecoder();
     private final MessageHeaderEncoder headerEncoder = new MessageHeaderEncoder();
@@ -63,6 +65,16 @@ public class ArchiveMetaData implements AutoCloseable
         final int sessionId,
         final int initialTermId,
         final int termBufferLength)
+    {
+        write(streamId, sessionId, initialTermId, termBufferLength, ChecksumAlgorithm.CRC32);
+    }
+
+    public void write(
+        final StreamIdentifier streamId,
+        final int sessionId,
+        final int initialTermId,
+        final int termBufferLength,
+        final ChecksumAlgorithm checksumAlgorithm)
     {
         ensureBufferNotMapped();
         final File metaDataFile = directoryDescriptor.metaDataLogFile(streamId, sessionId);
@@ -73,7 +85,8 @@ public class ArchiveMetaData implements AutoCloseable
             metaDataEncoder
                 .wrapAndApplyHeader(metaDataBuffer, 0, headerEncoder)
                 .initialTermId(initialTermId)
-                .termBufferLength(termBufferLength);
+                .termBufferLength(termBufferLength)
+                .checksumAlgorithm((short)checksumAlgorithm.code());
         }
     }
 
@@ -104,6 +117,23 @@ public class ArchiveMetaData implements AutoCloseable
         return decoder;
     }
 
+    /**
+     * Get the algorithm that a session's archive is checksummed with.
+     *
+     * @param decoder the meta data of the session's archive.
+     * @return the algorithm that the session's archive is checksummed with, CRC-32 if it isn't recorded.
+     */
+    public static ChecksumAlgorithm checksumAlgorithm(final ArchiveMetaDataDecoder decoder)
+    {
+        final short code = decoder.checksumAlgorithm();
+        if (code == ArchiveMetaDataDecoder.checksumAlgorithmNullValue())
+        {
+            return ChecksumAlgorithm.CRC32;
+        }
+
+        return ChecksumAlgorithm.get(code);
+    }
+
     private void ensureBufferNotMapped()
     {
         final ByteBuffer buffer = metaDataBuffer.byteBuffer();
@@ -20,8 +20,6 @@ import io.aeron.logbuffer.ControlledFragmentHandler;
 import io.aeron.logbuffer.ControlledFragmentHandler.Action;
 import io.aeron.logbuffer.Header;
 import io.aeron.logbuffer.LogBufferDescriptor;
-import org.agrona.IoUtil;
-import org.agrona.collections.Int2ObjectCache;
 import org.agrona.collections.Int2ObjectHashMap;
 import org.agrona.concurrent.UnsafeBuffer;
 import uk.co.real_logic.artio.engine.ByteBufferUtil;
@@ -31,19 +29,20 @@ import uk.co.real_logic.artio.storage.messages.ArchiveMetaDataDecoder;
 
 import java.io.File;
 import java.nio.ByteBuffer;
-import java.nio.MappedByteBuffer;
 import java.util.function.IntFunction;
-import java.util.zip.CRC32;
 
 import static io.aeron.logbuffer.ControlledFragmentHandler.Action.ABORT;
 import static io.aeron.logbuffer.ControlledFragmentHandler.Action.BREAK;
 import static io.aeron.protocol.DataHeaderFlyweight.END_FLAG;
 import static io.aeron.protocol.DataHeaderFlyweight.HEADER_LENGTH;
+import static io.aeron.protocol.HeaderFlyweight.HDR_TYPE_PAD;
 import static java.lang.Integer.numberOfTrailingZeros;
 import static uk.co.real_logic.artio.engine.logger.ArchiveDescriptor.nextTerm;
 
 public class ArchiveReader implements AutoCloseable
 {
+    private static final int PAGE_SIZE = 4096;
+
     private final IntFunction<SessionReader> newSessionReader = this::newSessionReader;
 
     /**
@@ -71,10 +70,13 @@ public class ArchiveReader implements AutoCloseable
     private final ArchiveMetaData metaData;
     private final StreamIdentifier streamId;
     private final LogDirectoryDescriptor directoryDescriptor;
-    private final int cacheNumSets;
-    private final int cacheSetSize;
+    private final TermBufferPool termBufferPool;
+    private final int readAheadBytes;
     private final int reservedValueFilter;
-    private final CRC32 checksum = new CRC32();
+
+    private ChecksumAlgorithm checksumAlgorithm = ChecksumAlgorithm.CRC32;
+    private FrameChecksum checksum = checksumAlgorithm.newChecksum();
+    private boolean validateOnce = false;
 
     /**
      * Create a new ArchiveReader.
@@ -92,8 +94,27 @@ public class ArchiveReader implements AutoCloseable
         final StreamIdentifier streamId,
         final int reservedValueFilter)
     {
-        this.cacheNumSets = cacheNumSets;
-        this.cacheSetSize = cacheSetSize;
+        this(metaData, new TermBufferPool(cacheNumSets * cacheSetSize, null, null), 0, streamId, reservedValueFilter);
+    }
+
+    /**
+     * Create a new ArchiveReader that maps term files from a pool that can be shared with other readers.
+     *
+     * @param metaData
+     * @param termBufferPool the pool of term file mappings, only shared with readers used on the same thread.
+     * @param readAheadBytes how far ahead of a sequential read to touch the pages of a term, or 0 to not read ahead.
+     * @param streamId
+     * @param reservedValueFilter bitmask for the non-checksum reserved value, or 0 if you don't want to filter.
+     */
+    public ArchiveReader(
+        final ArchiveMetaData metaData,
+        final TermBufferPool termBufferPool,
+        final int readAheadBytes,
+        final StreamIdentifier streamId,
+        final int reservedValueFilter)
+    {
+        this.termBufferPool = termBufferPool;
+        this.readAheadBytes = readAheadBytes;
         this.reservedValueFilter = reservedValueFilter;
         archiveBufferFactory = LoggerUtil::mapExistingFile;
         this.metaData = metaData;
@@ -102,6 +123,37 @@ public class ArchiveReader implements AutoCloseable
         aeronSessionIdToReader = new Int2ObjectHashMap<>();
     }
 
+    /**
+     * Set the algorithm that archived frames are checksummed with, CRC-32 by default. A session whose archive meta
+     * data records a different algorithm is read with the recorded algorithm instead.
+     *
+     * @param checksumAlgorithm the algorithm that archived frames are checksummed with.
+     * @return this
+     */
+    public ArchiveReader checksumAlgorithm(final ChecksumAlgorithm checksumAlgorithm)
+    {
+        this.checksumAlgorithm = checksumAlgorithm;
+        this.checksum = checksumAlgorithm.newChecksum();
+        return this;
+    }
+
+    /**
+     * Set whether frames are only validated against their checksum the first time that they're read from a mapping
+     * of their term. Each session tracks the range of its current term that it has validated, and skips validating
+     * frames within it until the term is unmapped.
+     * <p>
+     * Cold data is still validated when it's first read, but corruption of a frame after it has been read once
+     * won't be detected until its term is mapped again.
+     *
+     * @param validateOnce true to only validate each frame once per mapping.
+     * @return this
+     */
+    public ArchiveReader validateOnce(final boolean validateOnce)
+    {
+        this.validateOnce = validateOnce;
+        return this;
+    }
+
     public void close()
     {
         metaData.close();
@@ -182,7 +234,12 @@ public class ArchiveReader implements AutoCloseable
             return null;
         }
 
-        return new SessionReader(sessionId, streamMetaData.initialTermId(), streamMetaData.termBufferLength());
+        final ChecksumAlgorithm archivedAlgorithm = ArchiveMetaData.checksumAlgorithm(streamMetaData);
+        return new SessionReader(
+            sessionId,
+            streamMetaData.initialTermId(),
+            streamMetaData.termBufferLength(),
+            archivedAlgorithm == checksumAlgorithm ? checksum : archivedAlgorithm.newChecksum());
     }
 
     public StreamIdentifier fullStreamId()
@@ -194,16 +251,25 @@ public class ArchiveReader implements AutoCloseable
     {
         private final IntFunction<ByteBuffer> newBuffer = this::newBuffer;
         private final int sessionId;
-        private final Int2ObjectCache<ByteBuffer> termIdToBuffer =
-            new Int2ObjectCache<>(cacheNumSets, cacheSetSize, this::closeBuffer);
+        private final TermBufferPool.Mappings termIdToBuffer = termBufferPool.newMappings();
         private final UnsafeBuffer buffer = new UnsafeBuffer(0, 0);
         private final int initialTermId;
         private final int positionBitsToShift;
         private final Header header;
+        private final FrameChecksum checksum;
+
+        private ByteBuffer validatedBuffer;
+        private int validatedFrom;
+        private int validatedUpTo;
+        private int readAheadTermId;
+        private int readAheadLimit = -1;
+        private byte touched;
 
-        SessionReader(final int sessionId, final int initialTermId, final int termBufferLength)
+        SessionReader(
+            final int sessionId, final int initialTermId, final int termBufferLength, final FrameChecksum checksum)
         {
             this.sessionId = sessionId;
+            this.checksum = checksum;
             this.initialTermId = initialTermId;
             positionBitsToShift = numberOfTrailingZeros(termBufferLength);
             header = new Header(this.initialTermId, termBufferLength);
@@ -262,6 +328,38 @@ public class ArchiveReader implements AutoCloseable
         }
 
         private boolean validateChecksum(final int termOffset, final int frameLength)
+        {
+            if (!validateOnce)
+            {
+                return checksumMatches(termOffset, frameLength);
+            }
+
+            final ByteBuffer termBuffer = buffer.byteBuffer();
+            final int frameOffset = termOffset - HEADER_LENGTH;
+            final int frameEnd = frameOffset + ArchiveDescriptor.alignTerm(frameLength);
+            final boolean isCurrentTerm = termBuffer == validatedBuffer;
+            if (isCurrentTerm && frameOffset >= validatedFrom && frameEnd <= validatedUpTo)
+            {
+                return true;
+            }
+
+            if (!checksumMatches(termOffset, frameLength))
+            {
+                return false;
+            }
+
+            // Only a contiguous range is tracked, so a read elsewhere in the term starts a new range.
+            if (!isCurrentTerm || frameOffset != validatedUpTo)
+            {
+                validatedBuffer = termBuffer;
+                validatedFrom = frameOffset;
+            }
+            validatedUpTo = frameEnd;
+
+            return true;
+        }
+
+        private boolean checksumMatches(final int termOffset, final int frameLength)
         {
             final int expectedChecksum = ReservedValue.checksum(header.reservedValue());
             final int calculatedChecksum = calculateChecksum(termOffset, frameLength);
@@ -282,9 +380,7 @@ public class ArchiveReader implements AutoCloseable
             ByteBufferUtil.limit(byteBuffer, limit);
             ByteBufferUtil.position(byteBuffer, messageOffset);
 
-            checksum.reset();
-            checksum.update(byteBuffer);
-            return (int)checksum.getValue();
+            return checksum.checksum(byteBuffer);
         }
 
         /**
@@ -366,7 +462,7 @@ public class ArchiveReader implements AutoCloseable
         {
             final int reservedValueFilter = ArchiveReader.this.reservedValueFilter;
             final int termId = computeTermIdFromPosition(position);
-            final ByteBuffer termBuffer = termIdToBuffer.computeIfAbsent(termId, newBuffer);
+            final ByteBuffer termBuffer = termIdToBuffer.get(termId, newBuffer);
             if (termBuffer == null)
             {
                 return false;
@@ -405,6 +501,68 @@ public class ArchiveReader implements AutoCloseable
             return true;
         }
 
+        /**
+         * Reads a block of whole frames out of this session's log archive, headers included, so that it can be
+         * patched into another copy of the log. The block stops before any frame that would take it beyond the
+         * maximum length or the end of the term, so a block that reaches the end of a term is followed by one
+         * that starts at the first message of the next term.
+         *
+         * @param position  the log position of the first message to read, which is just after its frame header.
+         * @param maxLength the maximum length of the block to read
+         * @param handler   the handler to pass the data into, starting at the first message's frame header.
+         * @return the length of the block that has been read, or 0 if nothing could be read.
+         */
+        public int readBlockUpTo(final long position, final int maxLength, final BlockHandler handler)
+        {
+            final int reservedValueFilter = ArchiveReader.this.reservedValueFilter;
+            final int termId = computeTermIdFromPosition(position);
+            final ByteBuffer termBuffer = termIdToBuffer.get(termId, newBuffer);
+            if (termBuffer == null)
+            {
+                return 0;
+            }
+
+            buffer.wrap(termBuffer);
+            final int termOffset = computeTermOffsetFromPosition(position);
+            final int frameOffset = termOffset - HEADER_LENGTH;
+            final int limit = frameOffset + Math.min(maxLength, termBuffer.capacity() - frameOffset);
+            header.buffer(buffer);
+
+            int messageOffset = termOffset;
+            while (messageOffset <= limit)
+            {
+                final int headerOffset = messageOffset - HEADER_LENGTH;
+                header.offset(headerOffset);
+                final int frameLength = header.frameLength();
+                final int nextMessageOffset = nextTerm(messageOffset, frameLength);
+                if (frameLength <= 0 || nextMessageOffset - HEADER_LENGTH > limit)
+                {
+                    break;
+                }
+
+                // Padding at the end of a term is sent as is, so that the copy's terms line up with this one.
+                if (header.type() != HDR_TYPE_PAD)
+                {
+                    final long reservedValue = header.reservedValue();
+                    if ((reservedValue & reservedValueFilter) != reservedValueFilter ||
+                        !validateChecksum(messageOffset, frameLength))
+                    {
+                        break;
+                    }
+                }
+
+                messageOffset = nextMessageOffset;
+            }
+
+            final int length = messageOffset - termOffset;
+            if (length > 0)
+            {
+                handler.onBlock(buffer, frameOffset, length, sessionId, termId);
+            }
+
+            return length;
+        }
+
         private ByteBuffer newBuffer(final int termId)
         {
             final File logFile = directoryDescriptor.logFile(streamId, sessionId, termId);
@@ -419,7 +577,7 @@ public class ArchiveReader implements AutoCloseable
         private int scan(final long position)
         {
             final int termId = computeTermIdFromPosition(position);
-            final ByteBuffer termBuffer = termIdToBuffer.computeIfAbsent(termId, newBuffer);
+            final ByteBuffer termBuffer = termIdToBuffer.get(termId, newBuffer);
             if (termBuffer == null)
             {
                 return UNKNOWN_TERM;
@@ -431,9 +589,50 @@ public class ArchiveReader implements AutoCloseable
             header.buffer(buffer);
             header.offset(headerOffset);
 
+            if (readAheadBytes > 0)
+            {
+                readAhead(termId, termBuffer, termOffset);
+            }
+
             return termOffset;
         }
 
+        // Touches the pages ahead of a sequential read so that the reads themselves don't page fault, and maps the
+        // next term once the read gets near to the end of this one.
+        private void readAhead(final int termId, final ByteBuffer termBuffer, final int termOffset)
+        {
+            final int readAheadBytes = ArchiveReader.this.readAheadBytes;
+            int readAheadLimit = this.readAheadLimit;
+            final boolean isSequential = termId == readAheadTermId &&
+                termOffset <= readAheadLimit && termOffset >= readAheadLimit - readAheadBytes;
+            if (!isSequential)
+            {
+                readAheadTermId = termId;
+                readAheadLimit = termOffset;
+            }
+
+            final int capacity = termBuffer.capacity();
+            if (readAheadLimit < capacity && readAheadLimit - termOffset < readAheadBytes / 2)
+            {
+                final int limit = Math.min(termOffset + readAheadBytes, capacity);
+                byte touched = this.touched;
+                for (int offset = readAheadLimit - (readAheadLimit % PAGE_SIZE); offset < limit; offset += PAGE_SIZE)
+                {
+                    touched += termBuffer.get(offset);
+                }
+                this.touched = touched;
+                readAheadLimit = limit;
+
+                // The current term must stay mapped whilst it's being read.
+                if (limit == capacity && termBufferPool.maxMappings() > 1)
+                {
+                    termIdToBuffer.get(termId + 1, newBuffer);
+                }
+            }
+
+            this.readAheadLimit = readAheadLimit;
+        }
+
         private int computeTermOffsetFromPosition(final long position)
         {
             return LogBufferDescriptor.computeTermOffsetFromPosition(position, positionBitsToShift);
@@ -449,17 +648,20 @@ public class ArchiveReader implements AutoCloseable
             termIdToBuffer.clear();
         }
 
-        private void closeBuffer(final ByteBuffer buffer)
+        public int sessionId()
         {
-            if (buffer instanceof MappedByteBuffer)
-            {
-                IoUtil.unmap((MappedByteBuffer)buffer);
-            }
+            return sessionId;
         }
 
-        public int sessionId()
+        /**
+         * Get the position of the end of one of this session's terms.
+         *
+         * @param termId the id of the term.
+         * @return the position of the end of the term.
+         */
+        public long termEndPosition(final int termId)
         {
-            return sessionId;
+            return LogBufferDescriptor.computePosition(termId + 1, 0, positionBitsToShift, initialTermId);
         }
 
         public int reservedValueFilter()
@@ -0,0 +1,273 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.IoUtil;
+import org.agrona.collections.Long2LongHashMap;
+import org.agrona.concurrent.EpochClock;
+import org.agrona.concurrent.UnsafeBuffer;
+import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
+import uk.co.real_logic.artio.storage.messages.ReplayIndexRecordDecoder;
+
+import java.io.File;
+import java.nio.MappedByteBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static uk.co.real_logic.artio.engine.logger.ReplayIndexDescriptor.*;
+
+/**
+ * Removes whole term files of an archived stream while the engine is running, so that the archive directory stays
+ * bounded. Terms are removed once they're older than a maximum age, or oldest first once the stream's term files
+ * take up more than a maximum number of bytes.
+ * <p>
+ * A term is only ever removed once every index of the stream has indexed beyond its end, so the archiver's current
+ * term and anything that still needs to be indexed are kept. Optionally the terms holding the most recent messages
+ * of each FIX session, according to the replay index, are kept as well so that they can still be replayed.
+ * <p>
+ * Runs periodically on the thread of the stream's {@link Indexer}.
+ */
+public class ArchiveRetention
+{
+    public static final long NO_LIMIT = 0;
+
+    private static final long UNKNOWN_POSITION = -1;
+    private static final String REPLAY_INDEX_PREFIX = "replay-index-";
+
+    private final MessageHeaderDecoder messageHeader = new MessageHeaderDecoder();
+    private final ReplayIndexRecordDecoder indexRecord = new ReplayIndexRecordDecoder();
+    private final Long2LongHashMap sessionToFloor = new Long2LongHashMap(UNKNOWN_POSITION);
+    private final Long2LongHashMap sessionToIndexCount = new Long2LongHashMap(0);
+    private final LogDirectoryDescriptor directoryDescriptor;
+    private final File logFileDir;
+    private final int replayIndexStreamId;
+    private final EpochClock clock;
+    private final long intervalInMs;
+    private final long maxAgeInMs;
+    private final long maxBytes;
+    private final int minMessagesPerSession;
+
+    private long nextRetentionTimeInMs;
+
+    /**
+     * Create a retention policy for a stream.
+     *
+     * @param logFileDir the directory of the archive.
+     * @param replayIndexStreamId the stream id that the stream's replay index files are named with.
+     * @param clock the clock to time removals by.
+     * @param intervalInMs the interval between checks for term files to remove.
+     * @param maxAgeInMs the age after which term files are removed, or {@link #NO_LIMIT}.
+     * @param maxBytes the size of the stream's term files above which the oldest are removed, or {@link #NO_LIMIT}.
+     * @param minMessagesPerSession the number of the most recent messages of each FIX session whose terms are kept.
+     */
+    public ArchiveRetention(
+        final String logFileDir,
+        final int replayIndexStreamId,
+        final EpochClock clock,
+        final long intervalInMs,
+        final long maxAgeInMs,
+        final long maxBytes,
+        final int minMessagesPerSession)
+    {
+        this.directoryDescriptor = new LogDirectoryDescriptor(logFileDir);
+        this.logFileDir = new File(logFileDir);
+        this.replayIndexStreamId = replayIndexStreamId;
+        this.clock = clock;
+        this.intervalInMs = intervalInMs;
+        this.maxAgeInMs = maxAgeInMs;
+        this.maxBytes = maxBytes;
+        this.minMessagesPerSession = minMessagesPerSession;
+        nextRetentionTimeInMs = clock.time() + intervalInMs;
+    }
+
+    /**
+     * Remove any term files that are due to be removed, if the interval has elapsed.
+     *
+     * @param indices the indices of the stream.
+     * @param archiveReader the reader of the stream's archive.
+     * @return the number of term files removed.
+     */
+    public int doWork(final List<Index> indices, final ArchiveReader archiveReader)
+    {
+        final long timeInMs = clock.time();
+        if (timeInMs < nextRetentionTimeInMs)
+        {
+            return 0;
+        }
+
+        nextRetentionTimeInMs = timeInMs + intervalInMs;
+
+        return removeTerms(indices, archiveReader, timeInMs);
+    }
+
+    int removeTerms(final List<Index> indices, final ArchiveReader archiveReader, final long timeInMs)
+    {
+        findIndexedPositions(indices);
+        if (minMessagesPerSession > 0)
+        {
+            keepRecentMessages();
+        }
+
+        final List<File> logFiles = directoryDescriptor.listLogFiles(archiveReader.fullStreamId());
+        final List<File> removableFiles = new ArrayList<>();
+        long totalBytes = 0;
+        for (final File logFile : logFiles)
+        {
+            totalBytes += logFile.length();
+            if (isRemovable(logFile, archiveReader))
+            {
+                removableFiles.add(logFile);
+            }
+        }
+
+        removableFiles.sort(Comparator.comparingLong(File::lastModified));
+
+        int removed = 0;
+        for (final File logFile : removableFiles)
+        {
+            final boolean isTooOld = maxAgeInMs != NO_LIMIT && logFile.lastModified() < timeInMs - maxAgeInMs;
+            final boolean isTooLarge = maxBytes != NO_LIMIT && totalBytes > maxBytes;
+            if (!isTooOld && !isTooLarge)
+            {
+                break;
+            }
+
+            final long length = logFile.length();
+            // Fails on some platforms whilst a reader still has the term mapped, so is retried next time.
+            if (logFile.delete())
+            {
+                totalBytes -= length;
+                removed++;
+            }
+        }
+
+        return removed;
+    }
+
+    private void findIndexedPositions(final List<Index> indices)
+    {
+        final Long2LongHashMap sessionToFloor = this.sessionToFloor;
+        final Long2LongHashMap sessionToIndexCount = this.sessionToIndexCount;
+        sessionToFloor.clear();
+        sessionToIndexCount.clear();
+
+        for (final Index index : indices)
+        {
+            index.readLastPosition((aeronSessionId, endPosition) ->
+            {
+                lowerFloor(aeronSessionId, endPosition);
+                sessionToIndexCount.put(aeronSessionId, sessionToIndexCount.get(aeronSessionId) + 1);
+            });
+        }
+
+        // A session that an index hasn't indexed anything for could still need all of its terms to be indexed.
+        final int indexCount = indices.size();
+        sessionToIndexCount.longForEach((aeronSessionId, count) ->
+        {
+            if (count < indexCount)
+            {
+                sessionToFloor.remove(aeronSessionId);
+            }
+        });
+    }
+
+    private void keepRecentMessages()
+    {
+        final String suffix = "-" + replayIndexStreamId;
+        final File[] replayIndexFiles = logFileDir.listFiles(
+            (file) -> file.getName().startsWith(REPLAY_INDEX_PREFIX) && file.getName().endsWith(suffix));
+        if (replayIndexFiles == null)
+        {
+            return;
+        }
+
+        for (final File replayIndexFile : replayIndexFiles)
+        {
+            final MappedByteBuffer mappedBuffer = LoggerUtil.mapExistingFile(replayIndexFile);
+            try
+            {
+                keepRecentMessages(new UnsafeBuffer(mappedBuffer));
+            }
+            finally
+            {
+                IoUtil.unmap(mappedBuffer);
+            }
+        }
+    }
+
+    // Walks backwards from the most recent record of the session's replay index.
+    private void keepRecentMessages(final UnsafeBuffer buffer)
+    {
+        messageHeader.wrap(buffer, 0);
+        final int actingBlockLength = messageHeader.blockLength();
+        final int actingVersion = messageHeader.version();
+        final int capacity = recordCapacity(buffer.capacity());
+        final int records = Math.min(minMessagesPerSession, capacity / RECORD_LENGTH);
+        final long lastChangePosition = beginChangeVolatile(buffer);
+
+        for (int i = 1; i <= records; i++)
+        {
+            final int offset = offset(lastChangePosition - (long)i * RECORD_LENGTH, capacity);
+            indexRecord.wrap(buffer, offset, actingBlockLength, actingVersion);
+            final long position = indexRecord.position();
+            if (position == 0)
+            {
+                break;
+            }
+
+            lowerExistingFloor(indexRecord.aeronSessionId(), position);
+        }
+    }
+
+    private void lowerFloor(final long aeronSessionId, final long position)
+    {
+        final long floor = sessionToFloor.get(aeronSessionId);
+        if (floor == UNKNOWN_POSITION || position < floor)
+        {
+            sessionToFloor.put(aeronSessionId, position);
+        }
+    }
+
+    // Recent messages only ever keep more terms, so a session without a floor is left without one.
+    private void lowerExistingFloor(final long aeronSessionId, final long position)
+    {
+        final long floor = sessionToFloor.get(aeronSessionId);
+        if (floor != UNKNOWN_POSITION && position < floor)
+        {
+            sessionToFloor.put(aeronSessionId, position);
+        }
+    }
+
+    private boolean isRemovable(final File logFile, final ArchiveReader archiveReader)
+    {
+        final int aeronSessionId = LogDirectoryDescriptor.computeSessionId(logFile);
+        final long floor = sessionToFloor.get(aeronSessionId);
+        if (floor == UNKNOWN_POSITION)
+        {
+            return false;
+        }
+
+        final ArchiveReader.SessionReader sessionReader = archiveReader.session(aeronSessionId);
+        if (sessionReader == null)
+        {
+            return false;
+        }
+
+        final int termId = LogDirectoryDescriptor.computeTermId(logFile);
+        return sessionReader.termEndPosition(termId) <= floor;
+    }
+}
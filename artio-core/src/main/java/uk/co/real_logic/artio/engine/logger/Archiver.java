@@ -36,8 +36,8 @@ import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.util.concurrent.Future;
 import java.util.function.IntFunction;
-import java.util.zip.CRC32;
 
 import static io.aeron.driver.Configuration.TERM_BUFFER_LENGTH_DEFAULT;
 import static io.aeron.logbuffer.LogBufferDescriptor.computePosition;
@@ -61,10 +61,12 @@ public class Archiver implements Agent, RawBlockHandler
     private final String agentNamePrefix;
     private final CompletionPosition completionPosition;
     private final LogDirectoryDescriptor directoryDescriptor;
-    private final CRC32 checksum = new CRC32();
+    private ChecksumAlgorithm checksumAlgorithm = ChecksumAlgorithm.CRC32;
+    private FrameChecksum checksum = checksumAlgorithm.newChecksum();
     private final DataHeaderFlyweight header = new DataHeaderFlyweight();
 
     private ArchivedPositionHandler positionHandler = (aeronSessionId, endPosition, length) -> {};
+    private TermFilePreAllocator preAllocator;
 
     private boolean isClosed = false;
     private Subscription subscription;
@@ -91,6 +93,32 @@ public class Archiver implements Agent, RawBlockHandler
         return this;
     }
 
+    /**
+     * Create the next term file of each session ahead of time, rather than when the archiver rolls onto it.
+     *
+     * @param preAllocator the pre-allocator that creates term files, it's closed when this archiver is closed.
+     * @return this
+     */
+    public Archiver preAllocator(final TermFilePreAllocator preAllocator)
+    {
+        this.preAllocator = preAllocator;
+        return this;
+    }
+
+    /**
+     * Set the algorithm that archived frames are checksummed with, CRC-32 by default. It's recorded in the meta data
+     * of each new session's archive. A session that already has an archive keeps the algorithm recorded for it.
+     *
+     * @param checksumAlgorithm the algorithm that archived frames are checksummed with.
+     * @return this
+     */
+    public Archiver checksumAlgorithm(final ChecksumAlgorithm checksumAlgorithm)
+    {
+        this.checksumAlgorithm = checksumAlgorithm;
+        this.checksum = checksumAlgorithm.newChecksum();
+        return this;
+    }
+
     public Archiver subscription(final Subscription subscription)
     {
         // Clear to ensure not holding references to old subscription objects
@@ -119,13 +147,17 @@ public class Archiver implements Agent, RawBlockHandler
 
         final int initialTermId = image.initialTermId();
         final int termBufferLength = image.termBufferLength();
-        metaData.write(streamId, sessionId, initialTermId, termBufferLength);
-        return new SessionArchiver(sessionId, image);
+        metaData.write(streamId, sessionId, initialTermId, termBufferLength, checksumAlgorithm);
+        final ChecksumAlgorithm archivedAlgorithm = ArchiveMetaData.checksumAlgorithm(
+            metaData.read(streamId, sessionId));
+        final FrameChecksum sessionChecksum =
+            archivedAlgorithm == checksumAlgorithm ? checksum : archivedAlgorithm.newChecksum();
+        return new SessionArchiver(sessionId, image, sessionChecksum);
     }
 
     public String roleName()
     {
-        return agentNamePrefix + "Archiver";
+        return agentNamePrefix + "Archiver-" + streamId.streamId();
     }
 
     public void onBlock(
@@ -141,6 +173,25 @@ public class Archiver implements Agent, RawBlockHandler
             fileChannel, fileOffset, termBuffer, termOffset, length, aeronSessionId, termId);
     }
 
+    /**
+     * Get the position that a session's image has been read up to. Unlike {@link #positionOf(int)} this can be
+     * called from other threads once the subscription has been set, since it only reads the image's position.
+     *
+     * @param aeronSessionId the Aeron session id of the image.
+     * @return the position of the image, or a negative value if there isn't an image for the session.
+     */
+    public long imagePosition(final int aeronSessionId)
+    {
+        final Subscription subscription = this.subscription;
+        if (subscription == null)
+        {
+            return UNKNOWN_POSITION;
+        }
+
+        final Image image = subscription.imageBySessionId(aeronSessionId);
+        return image == null ? UNKNOWN_POSITION : image.position();
+    }
+
     public long positionOf(final int aeronSessionId)
     {
         final SessionArchiver archive = session(aeronSessionId);
@@ -176,6 +227,7 @@ public class Archiver implements Agent, RawBlockHandler
             sessionIdToArchive.clear();
             metaData.close();
             CloseHelper.close(subscription);
+            CloseHelper.close(preAllocator);
 
             isClosed = true;
         }
@@ -221,15 +273,19 @@ public class Archiver implements Agent, RawBlockHandler
         private final int termBufferLength;
         private final int positionBitsToShift;
         private final int initialTermId;
+        private final FrameChecksum checksum;
 
         private int currentTermId = UNKNOWN;
         private RandomAccessFile currentLogFile;
         private FileChannel currentLogChannel;
+        private int nextTermId = UNKNOWN;
+        private Future<RandomAccessFile> nextLogFile;
 
-        protected SessionArchiver(final int sessionId, final Image image)
+        protected SessionArchiver(final int sessionId, final Image image, final FrameChecksum checksum)
         {
             this.sessionId = sessionId;
             this.image = image;
+            this.checksum = checksum;
             termBufferLength = image.termBufferLength();
             positionBitsToShift = Integer.numberOfTrailingZeros(termBufferLength);
             initialTermId = image.initialTermId();
@@ -253,11 +309,11 @@ public class Archiver implements Agent, RawBlockHandler
             {
                 if (termId != currentTermId)
                 {
-                    close();
-                    final File location = logFile(termId);
-                    currentLogFile = openFile(location);
+                    CloseHelper.close(currentLogChannel);
+                    currentLogFile = rollTo(termId);
                     currentLogChannel = currentLogFile.getChannel();
                     currentTermId = termId;
+                    preAllocate(termId + 1);
                 }
 
                 writeChecksumForBlock(termBuffer, termOffset, length);
@@ -295,7 +351,7 @@ public class Archiver implements Agent, RawBlockHandler
                 header.wrap(termBuffer, offset, remaining);
                 final int frameLength = header.frameLength();
                 final int messageOffset = offset + HEADER_LENGTH;
-                checksum.reset();
+                final int checksumValue;
 
                 if (byteBuffer != null)
                 {
@@ -308,17 +364,17 @@ public class Archiver implements Agent, RawBlockHandler
                     ByteBufferUtil.limit(byteBuffer, limit);
                     ByteBufferUtil.position(byteBuffer, messageOffset);
 
-                    checksum.update(byteBuffer);
+                    checksumValue = checksum.checksum(byteBuffer);
                 }
                 else
                 {
                     final int messageLength = frameLength - HEADER_LENGTH;
                     final byte[] bytes = termBuffer.byteArray();
 
-                    checksum.update(bytes, messageOffset, messageLength);
+                    checksumValue = checksum.checksum(bytes, messageOffset, messageLength);
                 }
 
-                writeChecksum(header);
+                writeChecksum(header, checksumValue);
 
                 final int alignedFrameLength = ArchiveDescriptor.alignTerm(frameLength);
                 offset += alignedFrameLength;
@@ -388,13 +444,43 @@ public class Archiver implements Agent, RawBlockHandler
         public void close()
         {
             CloseHelper.close(currentLogChannel);
+
+            if (nextLogFile != null)
+            {
+                preAllocator.discard(nextLogFile);
+                nextLogFile = null;
+            }
+        }
+
+        private RandomAccessFile rollTo(final int termId) throws IOException
+        {
+            final Future<RandomAccessFile> nextLogFile = this.nextLogFile;
+            if (nextLogFile != null)
+            {
+                this.nextLogFile = null;
+                if (termId == nextTermId)
+                {
+                    return preAllocator.take(nextLogFile);
+                }
+
+                preAllocator.discard(nextLogFile);
+            }
+
+            return openFile(logFile(termId));
+        }
+
+        private void preAllocate(final int termId)
+        {
+            if (preAllocator != null)
+            {
+                nextTermId = termId;
+                nextLogFile = preAllocator.preAllocate(logFile(termId), termBufferLength);
+            }
         }
 
         private RandomAccessFile openFile(final File location) throws IOException
         {
-            final RandomAccessFile file = new RandomAccessFile(location, "rwd");
-            file.setLength(termBufferLength);
-            return file;
+            return TermFilePreAllocator.open(location, termBufferLength);
         }
 
         private File logFile(final int termId)
@@ -419,8 +505,6 @@ public class Archiver implements Agent, RawBlockHandler
             final FileChannel patchTermLogChannel,
             final RandomAccessFile patchTermLogFile) throws IOException
         {
-            checksum.reset();
-
             final int messageOffset = readOffset + HEADER_LENGTH;
             final ByteBuffer byteBuffer = bodyBuffer.byteBuffer();
             if (byteBuffer != null)
@@ -429,8 +513,7 @@ public class Archiver implements Agent, RawBlockHandler
                 final int limit = readOffset + bodyLength;
                 ByteBufferUtil.limit(byteBuffer, limit);
                 ByteBufferUtil.position(byteBuffer, messageOffset);
-                checksum.update(byteBuffer);
-                writeChecksum(header);
+                writeChecksum(header, checksum.checksum(byteBuffer));
 
                 // Write patch
                 ByteBufferUtil.limit(byteBuffer, limit);
@@ -444,9 +527,7 @@ public class Archiver implements Agent, RawBlockHandler
             {
                 // Update Checksum
                 final byte[] bytes = bodyBuffer.byteArray();
-                checksum.update(bytes, messageOffset, bodyLength - HEADER_LENGTH);
-
-                writeChecksum(header);
+                writeChecksum(header, checksum.checksum(bytes, messageOffset, bodyLength - HEADER_LENGTH));
 
                 // Write patch
                 patchTermLogFile.seek(termWriteOffset);
@@ -454,10 +535,9 @@ public class Archiver implements Agent, RawBlockHandler
             }
         }
 
-        private void writeChecksum(final DataHeaderFlyweight header)
+        private void writeChecksum(final DataHeaderFlyweight header, final int checksumValue)
         {
             final int clusterStreamId = ReservedValue.clusterStreamId(header.reservedValue());
-            final int checksumValue = (int)checksum.getValue();
             header.reservedValue(ReservedValue.of(clusterStreamId, checksumValue));
         }
 
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.LangUtil;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+import java.util.zip.Checksum;
+
+import static java.lang.invoke.MethodType.methodType;
+
+/**
+ * The algorithm that each archived frame is checksummed with. The checksum is stored in the frame's reserved value
+ * when it's archived and validated when it's read back. The algorithm is recorded in the {@link ArchiveMetaData} of
+ * each session's archive, so that it's read back with the algorithm that it was written with.
+ */
+public enum ChecksumAlgorithm
+{
+    /**
+     * CRC-32, available on all JVMs.
+     */
+    CRC32(0)
+    {
+        public FrameChecksum newChecksum()
+        {
+            return new Crc32FrameChecksum();
+        }
+    },
+
+    /**
+     * CRC-32C, which is computed with hardware instructions on most modern CPUs. It's only available on Java 9
+     * or later, on earlier JVMs {@link #newChecksum()} throws an {@link IllegalStateException}.
+     */
+    CRC32C(1)
+    {
+        public FrameChecksum newChecksum()
+        {
+            if (Crc32cFrameChecksum.CRC32C_CLASS == null)
+            {
+                throw new IllegalStateException("CRC32C checksums need java.util.zip.CRC32C, from Java 9 onwards");
+            }
+
+            return new Crc32cFrameChecksum();
+        }
+    };
+
+    private final int code;
+
+    ChecksumAlgorithm(final int code)
+    {
+        this.code = code;
+    }
+
+    int code()
+    {
+        return code;
+    }
+
+    static ChecksumAlgorithm get(final int code)
+    {
+        for (final ChecksumAlgorithm algorithm : values())
+        {
+            if (algorithm.code == code)
+            {
+                return algorithm;
+            }
+        }
+
+        throw new IllegalArgumentException("Unknown archive checksum algorithm: " + code);
+    }
+
+    /**
+     * Create a new instance of the checksum.
+     *
+     * @return a new instance of the checksum.
+     */
+    public abstract FrameChecksum newChecksum();
+
+    private static final class Crc32FrameChecksum implements FrameChecksum
+    {
+        private final CRC32 crc32 = new CRC32();
+
+        public int checksum(final ByteBuffer buffer)
+        {
+            crc32.reset();
+            crc32.update(buffer);
+            return (int)crc32.getValue();
+        }
+
+        public int checksum(final byte[] bytes, final int offset, final int length)
+        {
+            crc32.reset();
+            crc32.update(bytes, offset, length);
+            return (int)crc32.getValue();
+        }
+    }
+
+    private static final class Crc32cFrameChecksum implements FrameChecksum
+    {
+        private static final Class<?> CRC32C_CLASS;
+        private static final MethodHandle UPDATE_BYTE_BUFFER;
+
+        static
+        {
+            Class<?> crc32cClass = null;
+            MethodHandle updateByteBuffer = null;
+            try
+            {
+                crc32cClass = Class.forName("java.util.zip.CRC32C");
+                updateByteBuffer = MethodHandles.publicLookup()
+                    .findVirtual(crc32cClass, "update", methodType(void.class, ByteBuffer.class))
+                    .asType(methodType(void.class, Checksum.class, ByteBuffer.class));
+            }
+            catch (final ReflectiveOperationException ignore)
+            {
+                // Running on Java 8, so CRC32C isn't available.
+                crc32cClass = null;
+            }
+
+            CRC32C_CLASS = crc32cClass;
+            UPDATE_BYTE_BUFFER = updateByteBuffer;
+        }
+
+        private final Checksum crc32c;
+
+        private Crc32cFrameChecksum()
+        {
+            Checksum crc32c = null;
+            try
+            {
+                crc32c = (Checksum)CRC32C_CLASS.newInstance();
+            }
+            catch (final ReflectiveOperationException ex)
+            {
+                LangUtil.rethrowUnchecked(ex);
+            }
+
+            this.crc32c = crc32c;
+        }
+
+        public int checksum(final ByteBuffer buffer)
+        {
+            crc32c.reset();
+            try
+            {
+                UPDATE_BYTE_BUFFER.invokeExact(crc32c, buffer);
+            }
+            catch (final Throwable ex)
+            {
+                LangUtil.rethrowUnchecked(ex);
+            }
+
+            return (int)crc32c.getValue();
+        }
+
+        public int checksum(final byte[] bytes, final int offset, final int length)
+        {
+            crc32c.reset();
+            crc32c.update(bytes, offset, length);
+            return (int)crc32c.getValue();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Calculates the checksum of a single archived frame's body. Instances are stateful and not thread safe.
+ *
+ * @see ChecksumAlgorithm
+ */
+public interface FrameChecksum
+{
+    /**
+     * Calculate the checksum of the remaining bytes of a buffer, between its position and limit.
+     *
+     * @param buffer the buffer to checksum.
+     * @return the checksum.
+     */
+    int checksum(ByteBuffer buffer);
+
+    /**
+     * Calculate the checksum of a range of bytes.
+     *
+     * @param bytes the bytes to checksum.
+     * @param offset the offset within the bytes to start at.
+     * @param length the number of bytes to checksum.
+     * @return the checksum.
+     */
+    int checksum(byte[] bytes, int offset, int length);
+}
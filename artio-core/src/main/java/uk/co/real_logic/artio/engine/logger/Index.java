@@ -66,6 +66,24 @@ public interface Index extends ControlledFragmentHandler, AutoCloseable
 
     void close();
 
+    /**
+     * Invoked before a batch of records that have been polled together is passed to
+     * {@link #indexRecord(DirectBuffer, int, int, int, int, long)}. Indices can defer per record work, such as
+     * publishing their indexed positions or updating checksums, until {@link #endBatch()}.
+     *
+     * Records may also be indexed outside of a batch, in which case that work should be done for each record.
+     */
+    default void beginBatch()
+    {
+    }
+
+    /**
+     * Invoked after the last record of a batch has been indexed.
+     */
+    default void endBatch()
+    {
+    }
+
     /**
      * Reads the last position that has been indexed.
      *
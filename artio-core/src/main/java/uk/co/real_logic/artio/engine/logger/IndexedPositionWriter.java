@@ -25,6 +25,7 @@ import uk.co.real_logic.artio.storage.messages.IndexedPositionDecoder;
 import uk.co.real_logic.artio.storage.messages.IndexedPositionEncoder;
 
 import static uk.co.real_logic.artio.engine.SectorFramer.OUT_OF_SPACE;
+import static uk.co.real_logic.artio.engine.SectorFramer.nextSectorStart;
 
 /**
  * Writes out a log of the stream positions that we have indexed up to.
@@ -47,6 +48,11 @@ class IndexedPositionWriter
     private final ErrorHandler errorHandler;
     private final ChecksumFramer checksumFramer;
 
+    private int usedLength = HEADER_LENGTH;
+    private boolean hasPendingPosition;
+    private int pendingAeronSessionId;
+    private long pendingPosition;
+
     IndexedPositionWriter(
         final AtomicBuffer buffer,
         final ErrorHandler errorHandler,
@@ -114,6 +120,7 @@ class IndexedPositionWriter
                         .sessionId(aeronSessionId);
 
                     recordOffsets.put(aeronSessionId, offset);
+                    usedLength = Math.max(usedLength, offset + RECORD_LENGTH);
                     putPosition(position, buffer, offset);
                     return;
                 }
@@ -127,16 +134,74 @@ class IndexedPositionWriter
         }
     }
 
+    /**
+     * Record an indexed position, but only write it out when another session's position is recorded or
+     * {@link #flushIndexedPositions()} is called, so that a batch of records from the same session only writes
+     * its last position. Checksum updates flush any pending position first.
+     *
+     * @param aeronSessionId the aeron session id that has been indexed.
+     * @param position the position up to which it has been indexed.
+     */
+    void deferIndexedUpTo(final int aeronSessionId, final long position)
+    {
+        if (hasPendingPosition && pendingAeronSessionId != aeronSessionId)
+        {
+            indexedUpTo(pendingAeronSessionId, pendingPosition);
+        }
+
+        hasPendingPosition = true;
+        pendingAeronSessionId = aeronSessionId;
+        pendingPosition = position;
+    }
+
+    void flushIndexedPositions()
+    {
+        if (hasPendingPosition)
+        {
+            hasPendingPosition = false;
+            indexedUpTo(pendingAeronSessionId, pendingPosition);
+        }
+    }
+
+    /**
+     * Checksum any sectors whose positions have changed since their last checksum update, so that a cleanly
+     * closed buffer validates when it's loaded again, however often the checksums are otherwise updated.
+     */
     void close()
     {
-        updateChecksums();
+        updateDirtyChecksums();
     }
 
     void updateChecksums()
     {
+        flushIndexedPositions();
         checksumFramer.updateChecksums();
     }
 
+    /**
+     * Update the checksums of only those sectors whose positions have changed since they were last checksummed.
+     *
+     * @return the number of sectors whose checksums were updated.
+     */
+    int updateDirtyChecksums()
+    {
+        flushIndexedPositions();
+        return checksumFramer.updateDirtyChecksums();
+    }
+
+    /**
+     * Update the checksums of those sectors that contain modified position records.
+     *
+     * @return the sector aligned length of the buffer that contains position records.
+     */
+    int updateUsedChecksums()
+    {
+        flushIndexedPositions();
+        checksumFramer.updateDirtyChecksums();
+
+        return Math.min(nextSectorStart(usedLength - 1), buffer.capacity());
+    }
+
     AtomicBuffer buffer()
     {
         return buffer;
@@ -145,5 +210,6 @@ class IndexedPositionWriter
     private void putPosition(final long position, final AtomicBuffer buffer, final int offset)
     {
         buffer.putLongVolatile(offset + POSITION_OFFSET, position);
+        checksumFramer.markDirty(offset);
     }
 }
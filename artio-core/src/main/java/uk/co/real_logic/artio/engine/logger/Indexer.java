@@ -15,10 +15,14 @@
  */
 package uk.co.real_logic.artio.engine.logger;
 
+import io.aeron.logbuffer.ControlledFragmentHandler;
 import io.aeron.logbuffer.ControlledFragmentHandler.Action;
 import org.agrona.DirectBuffer;
 import org.agrona.collections.CollectionUtil;
+import org.agrona.collections.Int2ObjectHashMap;
+import org.agrona.collections.Long2LongHashMap;
 import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.status.AtomicCounter;
 import uk.co.real_logic.artio.DebugLogger;
 import uk.co.real_logic.artio.LogTag;
 import uk.co.real_logic.artio.dictionary.generation.Exceptions;
@@ -27,7 +31,9 @@ import uk.co.real_logic.artio.replication.ClusterFragmentHandler;
 import uk.co.real_logic.artio.replication.ClusterHeader;
 import uk.co.real_logic.artio.replication.ClusterableSubscription;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.IntToLongFunction;
 
 import static io.aeron.logbuffer.ControlledFragmentHandler.Action.CONTINUE;
 import static io.aeron.protocol.DataHeaderFlyweight.HEADER_LENGTH;
@@ -35,56 +41,204 @@ import static uk.co.real_logic.artio.engine.logger.ArchiveDescriptor.alignTerm;
 
 /**
  * Incrementally builds indexes by polling a subscription.
+ *
+ * Each poll of the subscription is passed to the indices as a single batch, so that they can update their
+ * indexed positions and checksums once per poll rather than once per record.
  */
 public class Indexer implements Agent, ClusterFragmentHandler
 {
     private static final int LIMIT = 20;
+    private static final long NOT_INDEXED = -1;
 
     private final List<Index> indices;
     private final ArchiveReader archiveReader;
     private final ClusterableSubscription subscription;
+    private final int streamId;
     private final String agentNamePrefix;
     private final CompletionPosition completionPosition;
+    private final Long2LongHashMap sessionToIndexedPosition = new Long2LongHashMap(NOT_INDEXED);
+
+    private ArchiveRetention retention;
+    private AtomicCounter lag;
+    private IntToLongFunction archivedPosition;
 
     public Indexer(
         final List<Index> indices,
         final ArchiveReader archiveReader,
         final ClusterableSubscription subscription,
+        final int streamId,
         final String agentNamePrefix,
         final CompletionPosition completionPosition)
     {
         this.indices = indices;
         this.archiveReader = archiveReader;
         this.subscription = subscription;
+        this.streamId = streamId;
         this.agentNamePrefix = agentNamePrefix;
         this.completionPosition = completionPosition;
         catchIndexUp();
     }
 
+    /**
+     * Remove term files of the indexed stream according to a retention policy. The policy is checked on this
+     * indexer's thread, so that it sees the indices' latest positions.
+     *
+     * @param retention the retention policy for the stream.
+     * @return this
+     */
+    public Indexer retention(final ArchiveRetention retention)
+    {
+        this.retention = retention;
+        return this;
+    }
+
+    /**
+     * Count how many bytes of the stream have been archived but not yet indexed, summed over its sessions. It's
+     * updated after each poll.
+     *
+     * @param lag the counter to set to the number of bytes behind the archive.
+     * @param archivedPosition the position that each Aeron session has been archived up to, or a negative
+     *                         value if it isn't known. It's called on this indexer's thread.
+     * @return this
+     */
+    public Indexer lag(final AtomicCounter lag, final IntToLongFunction archivedPosition)
+    {
+        this.lag = lag;
+        this.archivedPosition = archivedPosition;
+        return this;
+    }
+
     public int doWork() throws Exception
     {
-        return subscription.poll(this, LIMIT) + CollectionUtil.sum(indices, Index::doWork);
+        beginBatch();
+        final int work;
+        try
+        {
+            work = subscription.poll(this, LIMIT);
+        }
+        finally
+        {
+            endBatch();
+        }
+
+        final int retentionWork = retention == null ? 0 : retention.doWork(indices, archiveReader);
+
+        if (lag != null)
+        {
+            updateLag();
+        }
+
+        return work + retentionWork + CollectionUtil.sum(indices, Index::doWork);
+    }
+
+    private void updateLag()
+    {
+        long lagInBytes = 0;
+        final Long2LongHashMap.KeyIterator sessionIds = sessionToIndexedPosition.keySet().iterator();
+        while (sessionIds.hasNext())
+        {
+            final long aeronSessionId = sessionIds.nextValue();
+            final long archivedPosition = this.archivedPosition.applyAsLong((int)aeronSessionId);
+            lagInBytes += Math.max(0, archivedPosition - sessionToIndexedPosition.get(aeronSessionId));
+        }
+
+        lag.setOrdered(lagInBytes);
+    }
+
+    private void beginBatch()
+    {
+        final List<Index> indices = this.indices;
+        for (int i = 0, size = indices.size(); i < size; i++)
+        {
+            indices.get(i).beginBatch();
+        }
+    }
+
+    private void endBatch()
+    {
+        final List<Index> indices = this.indices;
+        for (int i = 0, size = indices.size(); i < size; i++)
+        {
+            indices.get(i).endBatch();
+        }
     }
 
+    // Each index's last position is a snapshot of what it has indexed, so only the tail of the archive after
+    // it needs to be replayed. The tail of each session is read once for all of the indices, starting from the
+    // lowest of their positions, rather than once for each index.
     private void catchIndexUp()
     {
-        for (final Index index : indices)
+        final List<Index> indices = this.indices;
+        final int indexCount = indices.size();
+        final Int2ObjectHashMap<long[]> sessionToPositions = new Int2ObjectHashMap<>();
+        for (int i = 0; i < indexCount; i++)
         {
-            index.readLastPosition((aeronSessionId, endOfLastMessageposition) ->
+            final int indexNumber = i;
+            indices.get(i).readLastPosition((aeronSessionId, endOfLastMessagePosition) ->
             {
-                final ArchiveReader.SessionReader sessionReader = archiveReader.session(aeronSessionId);
-                if (sessionReader != null)
+                long[] positions = sessionToPositions.get(aeronSessionId);
+                if (positions == null)
                 {
-                    do
-                    {
-
-                        final long nextMessagePosition = alignTerm(endOfLastMessageposition) + HEADER_LENGTH;
-                        endOfLastMessageposition = sessionReader.read(nextMessagePosition, index);
-                    }
-                    while (endOfLastMessageposition > 0);
+                    positions = new long[indexCount];
+                    Arrays.fill(positions, NOT_INDEXED);
+                    sessionToPositions.put(aeronSessionId, positions);
                 }
+
+                positions[indexNumber] = Math.max(positions[indexNumber], endOfLastMessagePosition);
             });
         }
+
+        beginBatch();
+        try
+        {
+            sessionToPositions.forEach(this::catchSessionUp);
+        }
+        finally
+        {
+            endBatch();
+        }
+    }
+
+    private void catchSessionUp(final int aeronSessionId, final long[] positions)
+    {
+        final ArchiveReader.SessionReader sessionReader = archiveReader.session(aeronSessionId);
+        if (sessionReader == null)
+        {
+            return;
+        }
+
+        long endOfLastMessagePosition = Long.MAX_VALUE;
+        for (final long position : positions)
+        {
+            if (position != NOT_INDEXED)
+            {
+                endOfLastMessagePosition = Math.min(endOfLastMessagePosition, position);
+            }
+        }
+
+        final List<Index> indices = this.indices;
+        final ControlledFragmentHandler handler = (buffer, offset, length, header) ->
+        {
+            final long position = header.position();
+            for (int i = 0, size = positions.length; i < size; i++)
+            {
+                final long indexedPosition = positions[i];
+                if (indexedPosition != NOT_INDEXED && position > indexedPosition)
+                {
+                    indices.get(i).indexRecord(
+                        buffer, offset, length, header.streamId(), header.sessionId(), position);
+                }
+            }
+
+            return CONTINUE;
+        };
+
+        do
+        {
+            final long nextMessagePosition = alignTerm(endOfLastMessagePosition) + HEADER_LENGTH;
+            endOfLastMessagePosition = sessionReader.read(nextMessagePosition, handler);
+        }
+        while (endOfLastMessagePosition > 0);
     }
 
     public Action onFragment(final DirectBuffer buffer, final int offset, final int length, final ClusterHeader header)
@@ -98,9 +252,15 @@ public class Indexer implements Agent, ClusterFragmentHandler
             position,
             streamId,
             aeronSessionId);
-        for (final Index index : indices)
+        final List<Index> indices = this.indices;
+        for (int i = 0, size = indices.size(); i < size; i++)
+        {
+            indices.get(i).indexRecord(buffer, offset, length, streamId, aeronSessionId, position);
+        }
+
+        if (lag != null)
         {
-            index.indexRecord(buffer, offset, length, streamId, aeronSessionId, position);
+            sessionToIndexedPosition.put(aeronSessionId, position);
         }
 
         return CONTINUE;
@@ -126,7 +286,15 @@ public class Indexer implements Agent, ClusterFragmentHandler
         }
 
         // We know that any remaining data to quiesce at this point must be in the subscription.
-        subscription.poll(this::quiesceFragment, Integer.MAX_VALUE);
+        beginBatch();
+        try
+        {
+            subscription.poll(this::quiesceFragment, Integer.MAX_VALUE);
+        }
+        finally
+        {
+            endBatch();
+        }
     }
 
     private Action quiesceFragment(
@@ -147,6 +315,6 @@ public class Indexer implements Agent, ClusterFragmentHandler
 
     public String roleName()
     {
-        return agentNamePrefix + "Indexer";
+        return agentNamePrefix + "Indexer-" + streamId;
     }
 }
@@ -22,6 +22,8 @@ import org.agrona.ErrorHandler;
 import org.agrona.IoUtil;
 import org.agrona.collections.Long2ObjectCache;
 import org.agrona.concurrent.AtomicBuffer;
+import org.agrona.concurrent.EpochClock;
+import org.agrona.concurrent.SystemEpochClock;
 import org.agrona.concurrent.UnsafeBuffer;
 import uk.co.real_logic.artio.decoder.HeaderDecoder;
 import uk.co.real_logic.artio.messages.FixMessageDecoder;
@@ -54,6 +56,11 @@ import static uk.co.real_logic.artio.messages.MessageStatus.OK;
  */
 public class ReplayIndex implements Index
 {
+    /**
+     * Checksum interval that updates the checksums of the indexed positions after each batch of records is indexed.
+     */
+    public static final long CHECKSUM_EVERY_BATCH = 0;
+
     private final LongFunction<SessionIndex> newSessionIndex = SessionIndex::new;
     private final AsciiBuffer asciiBuffer = new MutableAsciiBuffer();
     private final MessageHeaderDecoder frameHeaderDecoder = new MessageHeaderDecoder();
@@ -71,6 +78,11 @@ public class ReplayIndex implements Index
     private final int indexFileSize;
     private final BufferFactory bufferFactory;
     private final AtomicBuffer positionBuffer;
+    private final EpochClock clock;
+    private final long checksumIntervalInMs;
+
+    private long nextChecksumTimeInMs;
+    private boolean inBatch;
 
     public ReplayIndex(
         final String logFileDir,
@@ -81,6 +93,31 @@ public class ReplayIndex implements Index
         final BufferFactory bufferFactory,
         final AtomicBuffer positionBuffer,
         final ErrorHandler errorHandler)
+    {
+        this(
+            logFileDir,
+            requiredStreamId,
+            indexFileSize,
+            cacheNumSets,
+            cacheSetSize,
+            bufferFactory,
+            positionBuffer,
+            errorHandler,
+            new SystemEpochClock(),
+            CHECKSUM_EVERY_BATCH);
+    }
+
+    public ReplayIndex(
+        final String logFileDir,
+        final int requiredStreamId,
+        final int indexFileSize,
+        final int cacheNumSets,
+        final int cacheSetSize,
+        final BufferFactory bufferFactory,
+        final AtomicBuffer positionBuffer,
+        final ErrorHandler errorHandler,
+        final EpochClock clock,
+        final long checksumIntervalInMs)
     {
         this.logFileDir = logFileDir;
         this.requiredStreamId = requiredStreamId;
@@ -88,6 +125,8 @@ public class ReplayIndex implements Index
         checkIndexFileSize(indexFileSize);
         this.bufferFactory = bufferFactory;
         this.positionBuffer = positionBuffer;
+        this.clock = clock;
+        this.checksumIntervalInMs = checksumIntervalInMs;
         fixSessionIdToIndex = new Long2ObjectCache<>(cacheNumSets, cacheSetSize, SessionIndex::close);
         final String replayPositionPath = replayPositionPath(logFileDir, requiredStreamId);
         positionWriter = new IndexedPositionWriter(
@@ -137,6 +176,44 @@ public class ReplayIndex implements Index
         }
     }
 
+    public void beginBatch()
+    {
+        inBatch = true;
+    }
+
+    public void endBatch()
+    {
+        inBatch = false;
+        updatePositions();
+    }
+
+    private void updatePositions()
+    {
+        if (checksumIntervalInMs == CHECKSUM_EVERY_BATCH)
+        {
+            positionWriter.updateDirtyChecksums();
+        }
+        else
+        {
+            positionWriter.flushIndexedPositions();
+        }
+    }
+
+    public int doWork()
+    {
+        if (checksumIntervalInMs != CHECKSUM_EVERY_BATCH)
+        {
+            final long timeInMs = clock.time();
+            if (timeInMs >= nextChecksumTimeInMs)
+            {
+                nextChecksumTimeInMs = timeInMs + checksumIntervalInMs;
+                return positionWriter.updateDirtyChecksums();
+            }
+        }
+
+        return 0;
+    }
+
     public void close()
     {
         positionWriter.close();
@@ -205,8 +282,11 @@ public class ReplayIndex implements Index
                 .sequenceNumber(sequenceNumber)
                 .sequenceIndex(sequenceIndex);
 
-            positionWriter.indexedUpTo(aeronSessionId, endPosition);
-            positionWriter.updateChecksums();
+            positionWriter.deferIndexedUpTo(aeronSessionId, endPosition);
+            if (!inBatch)
+            {
+                updatePositions();
+            }
 
             endChangeOrdered(buffer, changePosition);
         }
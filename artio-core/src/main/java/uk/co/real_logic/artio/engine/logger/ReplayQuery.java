@@ -28,6 +28,7 @@ import java.nio.MappedByteBuffer;
 import java.util.function.LongFunction;
 
 import static org.agrona.UnsafeAccess.UNSAFE;
+import static uk.co.real_logic.artio.engine.logger.ArchiveReader.UNKNOWN_TERM;
 import static uk.co.real_logic.artio.engine.logger.ReplayIndexDescriptor.*;
 import static uk.co.real_logic.artio.engine.logger.Replayer.MOST_RECENT_MESSAGE;
 
@@ -185,12 +186,16 @@ public class ReplayQuery implements AutoCloseable
                     if (startOk && endOk && streamId == requiredStreamId)
                     {
                         final long readTo = sessionReader.read(position, handler);
-                        if (readTo < 0 || readTo == position)
+                        // Messages in terms removed by archive retention are skipped rather than ending the replay.
+                        if (readTo != UNKNOWN_TERM)
                         {
-                            break;
-                        }
+                            if (readTo < 0 || readTo == position)
+                            {
+                                break;
+                            }
 
-                        count++;
+                            count++;
+                        }
                     }
                     iteratorPosition += RECORD_LENGTH;
                 }
@@ -20,6 +20,8 @@ import org.agrona.DirectBuffer;
 import org.agrona.ErrorHandler;
 import org.agrona.collections.Long2LongHashMap;
 import org.agrona.concurrent.AtomicBuffer;
+import org.agrona.concurrent.EpochClock;
+import org.agrona.concurrent.SystemEpochClock;
 import uk.co.real_logic.artio.decoder.HeaderDecoder;
 import uk.co.real_logic.artio.engine.ChecksumFramer;
 import uk.co.real_logic.artio.engine.MappedFile;
@@ -30,6 +32,7 @@ import uk.co.real_logic.artio.util.AsciiBuffer;
 import uk.co.real_logic.artio.util.MutableAsciiBuffer;
 
 import java.io.File;
+import java.util.function.IntConsumer;
 
 import static uk.co.real_logic.artio.engine.SectorFramer.*;
 import static uk.co.real_logic.artio.engine.logger.SequenceNumberIndexDescriptor.*;
@@ -38,6 +41,12 @@ import static uk.co.real_logic.artio.storage.messages.LastKnownSequenceNumberEnc
 /**
  * Writes updates into an in-memory buffer. This buffer is then flushed down to disk. A passing place
  * file is used to ensure that there's a recoverable option if it fails.
+ * <p>
+ * If a flush interval is configured then the passing place isn't used: instead the sectors that have changed since
+ * the last flush, or term roll, are checksummed and written in place into the index file. Records are forced to
+ * disk before the indexed positions that cover them, so on restart the {@link Indexer} only needs to replay the
+ * archive beyond the last flushed position. An in place write doesn't have the passing place's atomicity: a crash
+ * part way through one can tear a sector, which is reported as a checksum error on restart.
  */
 public class SequenceNumberIndexWriter implements Index
 {
@@ -45,6 +54,7 @@ public class SequenceNumberIndexWriter implements Index
 
     private static final long MISSING_RECORD = -1L;
     private static final long UNINITIALISED = -1;
+    static final long NO_INCREMENTAL_FLUSH = 0;
     static final int SEQUENCE_NUMBER_OFFSET = 8;
 
     private final MessageHeaderDecoder messageHeader = new MessageHeaderDecoder();
@@ -69,21 +79,40 @@ public class SequenceNumberIndexWriter implements Index
     private final int streamId;
     private final int indexedPositionsOffset;
     private final IndexedPositionWriter positions;
+    private final EpochClock clock;
+    private final long flushIntervalInMs;
+    private final IntConsumer copySectorToIndexFile = this::copySectorToIndexFile;
 
     private MappedFile writableFile;
     private MappedFile indexFile;
     private long nextRollPosition = UNINITIALISED;
+    private boolean positionsDirty = true;
+    private boolean inBatch;
+    private long nextFlushTimeInMs;
 
     public SequenceNumberIndexWriter(
         final AtomicBuffer inMemoryBuffer,
         final MappedFile indexFile,
         final ErrorHandler errorHandler,
         final int streamId)
+    {
+        this(inMemoryBuffer, indexFile, errorHandler, streamId, new SystemEpochClock(), NO_INCREMENTAL_FLUSH);
+    }
+
+    public SequenceNumberIndexWriter(
+        final AtomicBuffer inMemoryBuffer,
+        final MappedFile indexFile,
+        final ErrorHandler errorHandler,
+        final int streamId,
+        final EpochClock clock,
+        final long flushIntervalInMs)
     {
         this.inMemoryBuffer = inMemoryBuffer;
         this.indexFile = indexFile;
         this.errorHandler = errorHandler;
         this.streamId = streamId;
+        this.clock = clock;
+        this.flushIntervalInMs = flushIntervalInMs;
         this.fileCapacity = indexFile.buffer().capacity();
 
         final String indexFilePath = indexFile.file().getAbsolutePath();
@@ -165,7 +194,39 @@ public class SequenceNumberIndexWriter implements Index
         }
 
         checkTermRoll(buffer, srcOffset, endPosition, length);
-        positions.indexedUpTo(aeronSessionId, endPosition);
+        positions.deferIndexedUpTo(aeronSessionId, endPosition);
+        positionsDirty = true;
+
+        if (!inBatch)
+        {
+            positions.flushIndexedPositions();
+        }
+    }
+
+    public void beginBatch()
+    {
+        inBatch = true;
+    }
+
+    public void endBatch()
+    {
+        inBatch = false;
+        positions.flushIndexedPositions();
+    }
+
+    public int doWork()
+    {
+        if (flushIntervalInMs != NO_INCREMENTAL_FLUSH)
+        {
+            final long timeInMs = clock.time();
+            if (timeInMs >= nextFlushTimeInMs)
+            {
+                nextFlushTimeInMs = timeInMs + flushIntervalInMs;
+                return flushDirtySectors();
+            }
+        }
+
+        return 0;
     }
 
     void resetSequenceNumbers()
@@ -185,7 +246,14 @@ public class SequenceNumberIndexWriter implements Index
         else if (endPosition > nextRollPosition)
         {
             nextRollPosition += termBufferLength;
-            updateFile();
+            if (flushIntervalInMs == NO_INCREMENTAL_FLUSH)
+            {
+                updateFile();
+            }
+            else
+            {
+                flushDirtySectors();
+            }
         }
     }
 
@@ -195,6 +263,39 @@ public class SequenceNumberIndexWriter implements Index
         positions.updateChecksums();
         saveFile();
         flipFiles();
+        positionsDirty = false;
+    }
+
+    private int flushDirtySectors()
+    {
+        final int dirtySectorCount = checksumFramer.updateDirtyChecksums(copySectorToIndexFile);
+        if (dirtySectorCount == 0 && !positionsDirty)
+        {
+            return 0;
+        }
+
+        // Records must be durable before any indexed position that covers them.
+        indexFile.force();
+
+        final int positionsLength = positions.updateUsedChecksums();
+        indexFile.buffer().putBytes(indexedPositionsOffset, inMemoryBuffer, indexedPositionsOffset, positionsLength);
+        indexFile.force();
+        positionsDirty = false;
+
+        return dirtySectorCount + 1;
+    }
+
+    private void copySectorToIndexFile(final int sectorStart)
+    {
+        indexFile.buffer().putBytes(sectorStart, inMemoryBuffer, sectorStart, SECTOR_SIZE);
+    }
+
+    private void markAllRecordSectorsDirty()
+    {
+        for (int sectorStart = 0; sectorStart < indexedPositionsOffset; sectorStart += SECTOR_SIZE)
+        {
+            checksumFramer.markDirty(sectorStart);
+        }
     }
 
     private void saveFile()
@@ -256,7 +357,14 @@ public class SequenceNumberIndexWriter implements Index
         {
             if (isOpen())
             {
-                updateFile();
+                if (flushIntervalInMs == NO_INCREMENTAL_FLUSH)
+                {
+                    updateFile();
+                }
+                else
+                {
+                    flushDirtySectors();
+                }
             }
         }
         finally
@@ -353,6 +461,7 @@ public class SequenceNumberIndexWriter implements Index
 
     private void initialiseBlankBuffer()
     {
+        markAllRecordSectorsDirty();
         LoggerUtil.initialiseBuffer(
             inMemoryBuffer,
             fileHeaderEncoder,
@@ -406,5 +515,6 @@ public class SequenceNumberIndexWriter implements Index
         final int value)
     {
         inMemoryBuffer.putIntOrdered(recordOffset + SEQUENCE_NUMBER_OFFSET, value);
+        checksumFramer.markDirty(recordOffset);
     }
 }
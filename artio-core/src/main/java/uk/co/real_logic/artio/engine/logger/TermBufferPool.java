@@ -0,0 +1,189 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.IoUtil;
+import org.agrona.collections.Int2ObjectHashMap;
+import org.agrona.concurrent.status.AtomicCounter;
+
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.util.function.IntFunction;
+
+/**
+ * A size bounded pool of the mapped term files of the archive, shared between the sessions that an
+ * {@link ArchiveReader} reads. Once the pool is full the least recently used mapping is unmapped, whichever session it
+ * belongs to, so a replay that spans terms or several sessions replaying at once don't keep unmapping the terms
+ * that each other are reading.
+ * <p>
+ * Not thread safe: mappings are unmapped when they're evicted, so readers on different threads must not share a pool.
+ * The engine gives each of its readers its own pool, so its bound on mapped terms is per reader.
+ */
+public class TermBufferPool
+{
+    private final Entry head = new Entry(null, 0, null);
+    private final int maxMappings;
+    private final AtomicCounter hits;
+    private final AtomicCounter misses;
+
+    private int size = 0;
+
+    /**
+     * Create a pool.
+     *
+     * @param maxMappings the maximum number of term files that are mapped at once.
+     * @param hits counts lookups of terms that were already mapped, or null to not count them.
+     * @param misses counts lookups of terms that weren't already mapped, or null to not count them.
+     */
+    public TermBufferPool(final int maxMappings, final AtomicCounter hits, final AtomicCounter misses)
+    {
+        if (maxMappings < 1)
+        {
+            throw new IllegalArgumentException("maxMappings must be positive, but was " + maxMappings);
+        }
+
+        this.maxMappings = maxMappings;
+        this.hits = hits;
+        this.misses = misses;
+        head.previous = head;
+        head.next = head;
+    }
+
+    public int maxMappings()
+    {
+        return maxMappings;
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    Mappings newMappings()
+    {
+        return new Mappings();
+    }
+
+    private void moveToFront(final Entry entry)
+    {
+        unlink(entry);
+        addToFront(entry);
+    }
+
+    private void addToFront(final Entry entry)
+    {
+        entry.previous = head;
+        entry.next = head.next;
+        head.next.previous = entry;
+        head.next = entry;
+    }
+
+    private void unlink(final Entry entry)
+    {
+        entry.previous.next = entry.next;
+        entry.next.previous = entry.previous;
+    }
+
+    private void remove(final Entry entry)
+    {
+        unlink(entry);
+        size--;
+
+        final ByteBuffer buffer = entry.buffer;
+        if (buffer instanceof MappedByteBuffer)
+        {
+            IoUtil.unmap((MappedByteBuffer)buffer);
+        }
+    }
+
+    private static void increment(final AtomicCounter counter)
+    {
+        if (counter != null)
+        {
+            counter.increment();
+        }
+    }
+
+    /**
+     * The mappings of a single session's term files within the pool.
+     */
+    final class Mappings
+    {
+        private final Int2ObjectHashMap<Entry> termIdToEntry = new Int2ObjectHashMap<>();
+
+        /**
+         * Get the mapping of a term, mapping it if it isn't already mapped.
+         *
+         * @param termId the term to get.
+         * @param mapper maps the term, returning null if the term doesn't exist.
+         * @return the mapping of the term, or null if the term doesn't exist.
+         */
+        ByteBuffer get(final int termId, final IntFunction<ByteBuffer> mapper)
+        {
+            Entry entry = termIdToEntry.get(termId);
+            if (entry != null)
+            {
+                increment(hits);
+                moveToFront(entry);
+                return entry.buffer;
+            }
+
+            increment(misses);
+            final ByteBuffer buffer = mapper.apply(termId);
+            if (buffer == null)
+            {
+                return null;
+            }
+
+            if (size == maxMappings)
+            {
+                final Entry leastRecentlyUsed = head.previous;
+                leastRecentlyUsed.mappings.termIdToEntry.remove(leastRecentlyUsed.termId);
+                remove(leastRecentlyUsed);
+            }
+
+            entry = new Entry(this, termId, buffer);
+            termIdToEntry.put(termId, entry);
+            addToFront(entry);
+            size++;
+
+            return buffer;
+        }
+
+        void clear()
+        {
+            termIdToEntry.values().forEach(TermBufferPool.this::remove);
+            termIdToEntry.clear();
+        }
+    }
+
+    private static final class Entry
+    {
+        private final Mappings mappings;
+        private final int termId;
+        private final ByteBuffer buffer;
+
+        private Entry previous;
+        private Entry next;
+
+        private Entry(final Mappings mappings, final int termId, final ByteBuffer buffer)
+        {
+            this.mappings = mappings;
+            this.termId = termId;
+            this.buffer = buffer;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.IoUtil;
+import org.agrona.LangUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Creates and sizes the archive's term files on a background thread ahead of the archiver needing them, so that
+ * rolling onto a new term doesn't pay for creating the file on the archiver thread.
+ * <p>
+ * Files are sized under a temporary name and then renamed into place, so an {@link ArchiveReader} never maps a
+ * partially sized term file. If pre-touching is enabled then every page of the new file is also written to, so
+ * that its blocks are allocated and it's in the page cache before the first message is archived into it.
+ */
+public class TermFilePreAllocator implements AutoCloseable
+{
+    private static final int PAGE_SIZE = 4096;
+    private static final String TEMPORARY_PREFIX = "pre-allocating_";
+
+    private final boolean preTouch;
+    private final ExecutorService executor;
+
+    public TermFilePreAllocator(final boolean preTouch, final String agentNamePrefix)
+    {
+        this.preTouch = preTouch;
+
+        executor = Executors.newSingleThreadExecutor(
+            (runnable) ->
+            {
+                final Thread thread = new Thread(runnable, agentNamePrefix + "TermFilePreAllocator");
+                thread.setDaemon(true);
+                return thread;
+            });
+    }
+
+    /**
+     * Start creating a term file in the background.
+     *
+     * @param location the location of the term file.
+     * @param termBufferLength the length to size the file to.
+     * @return a future that completes with the opened file.
+     */
+    Future<RandomAccessFile> preAllocate(final File location, final int termBufferLength)
+    {
+        return executor.submit(() -> allocate(location, termBufferLength));
+    }
+
+    /**
+     * Hand over a pre-allocated file, waiting for it to be finished if it's still being created.
+     *
+     * @param preAllocatedFile the future returned from {@link #preAllocate(File, int)}.
+     * @return the opened file.
+     * @throws IOException if the file couldn't be created.
+     */
+    RandomAccessFile take(final Future<RandomAccessFile> preAllocatedFile) throws IOException
+    {
+        try
+        {
+            return preAllocatedFile.get();
+        }
+        catch (final InterruptedException ex)
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException(ex);
+        }
+        catch (final ExecutionException ex)
+        {
+            final Throwable cause = ex.getCause();
+            if (cause instanceof IOException)
+            {
+                throw (IOException)cause;
+            }
+
+            LangUtil.rethrowUnchecked(cause);
+            return null;
+        }
+    }
+
+    /**
+     * Close a pre-allocated file that isn't going to be used. The file itself is left in place, like a term file
+     * that has been rolled onto but not yet written to.
+     *
+     * @param preAllocatedFile the future returned from {@link #preAllocate(File, int)}.
+     */
+    void discard(final Future<RandomAccessFile> preAllocatedFile)
+    {
+        if (!preAllocatedFile.cancel(false))
+        {
+            try
+            {
+                take(preAllocatedFile).close();
+            }
+            catch (final Exception ignore)
+            {
+                // The file isn't being used, so failing to create or close it doesn't matter.
+            }
+        }
+    }
+
+    public void close()
+    {
+        executor.shutdown();
+    }
+
+    static RandomAccessFile open(final File location, final int termBufferLength) throws IOException
+    {
+        final RandomAccessFile file = new RandomAccessFile(location, "rwd");
+        file.setLength(termBufferLength);
+        return file;
+    }
+
+    private RandomAccessFile allocate(final File location, final int termBufferLength) throws IOException
+    {
+        if (!location.exists())
+        {
+            final File temporaryFile = new File(location.getParentFile(), TEMPORARY_PREFIX + location.getName());
+            try (RandomAccessFile file = new RandomAccessFile(temporaryFile, "rw"))
+            {
+                file.setLength(termBufferLength);
+            }
+
+            if (preTouch)
+            {
+                preTouch(temporaryFile, termBufferLength);
+            }
+
+            if (!temporaryFile.renameTo(location))
+            {
+                temporaryFile.delete();
+                if (!location.exists())
+                {
+                    throw new IOException("Unable to rename " + temporaryFile + " to " + location);
+                }
+            }
+        }
+
+        return open(location, termBufferLength);
+    }
+
+    private static void preTouch(final File file, final int termBufferLength)
+    {
+        final MappedByteBuffer buffer = IoUtil.mapExistingFile(file, file.getName());
+        try
+        {
+            for (int offset = 0; offset < termBufferLength; offset += PAGE_SIZE)
+            {
+                buffer.put(offset, (byte)0);
+            }
+        }
+        finally
+        {
+            IoUtil.unmap(buffer);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.library;
+
+import uk.co.real_logic.artio.FixGatewayException;
+import uk.co.real_logic.artio.messages.GatewayError;
+
+/**
+ * Completes once the library has connected to an engine, driven by the library's normal duty cycle rather
+ * than by the caller spinning on {@link FixLibrary#isConnected()}.
+ */
+class ConnectLibraryReply extends LibraryReply<FixLibrary>
+{
+    private final FixLibrary fixLibrary;
+
+    ConnectLibraryReply(
+        final LibraryPoller libraryPoller,
+        final long latestReplyArrivalTime,
+        final FixLibrary fixLibrary)
+    {
+        super(libraryPoller, latestReplyArrivalTime);
+        this.fixLibrary = fixLibrary;
+        checkConnected();
+    }
+
+    private void checkConnected()
+    {
+        if (libraryPoller.isConnected())
+        {
+            onComplete(fixLibrary);
+        }
+    }
+
+    void onError(final GatewayError errorType, final String errorMessage)
+    {
+        onError(new FixGatewayException(String.format("%s: %s", errorType, errorMessage)));
+    }
+
+    boolean poll(final long timeInMs)
+    {
+        if (isExecuting())
+        {
+            checkConnected();
+        }
+
+        if (!isExecuting())
+        {
+            return true;
+        }
+
+        return super.poll(timeInMs);
+    }
+}
@@ -18,19 +18,23 @@ package uk.co.real_logic.artio.library;
 import io.aeron.Aeron;
 import org.agrona.CloseHelper;
 import org.agrona.ErrorHandler;
+import org.agrona.collections.ArrayUtil;
 import org.agrona.collections.Int2ObjectHashMap;
 import org.agrona.concurrent.Agent;
 import org.agrona.concurrent.AgentRunner;
-import org.agrona.concurrent.DynamicCompositeAgent;
+import org.agrona.concurrent.ManyToOneConcurrentLinkedQueue;
 
-import static org.agrona.concurrent.DynamicCompositeAgent.Status.ACTIVE;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Share the monitoring thread over multiple instances of a library.
+ *
+ * Launching a library never waits for the monitoring thread: its agents are queued and picked up on the
+ * thread's next duty cycle, so many libraries can be started without spinning the calling thread.
  */
 public class DynamicLibraryScheduler implements LibraryScheduler
 {
-    private final DynamicCompositeAgent dynamicAgent = new DynamicCompositeAgent("Monitoring+ClientConductor");
+    private final LibrariesAgent librariesAgent = new LibrariesAgent();
 
     // GuardedBy synchronized launch + close
     private final Int2ObjectHashMap<Agent> libraryIdToDelegateAgent = new Int2ObjectHashMap<>();
@@ -47,30 +51,15 @@ public class DynamicLibraryScheduler implements LibraryScheduler
         {
             // We shouldn't reach this default error handler because we catch exceptions in the CombinedAgent below.
             runner = new AgentRunner(
-                configuration.monitoringThreadIdleStrategy(), Throwable::printStackTrace, null, dynamicAgent);
+                configuration.monitoringThreadIdleStrategy(), Throwable::printStackTrace, null, librariesAgent);
             AgentRunner.startOnThread(runner);
-
-            // Wait for it to start
-            while (dynamicAgent.status() != ACTIVE)
-            {
-                Thread.yield();
-            }
         }
 
         final int libraryId = configuration.libraryId();
         final Agent combinedAgent = new CombinedAgent(libraryId, monitoringAgent, conductorAgent, errorHandler);
 
         libraryIdToDelegateAgent.put(libraryId, combinedAgent);
-
-        while (!dynamicAgent.tryAdd(combinedAgent))
-        {
-            Thread.yield();
-        }
-
-        while (!dynamicAgent.hasAddAgentCompleted())
-        {
-            Thread.yield();
-        }
+        librariesAgent.add(combinedAgent);
     }
 
     public synchronized void close(final int libraryId)
@@ -79,12 +68,8 @@ public class DynamicLibraryScheduler implements LibraryScheduler
 
         if (agentToRemove != null)
         {
-            while (!dynamicAgent.tryRemove(agentToRemove))
-            {
-                Thread.yield();
-            }
-
-            while (!dynamicAgent.hasRemoveAgentCompleted())
+            final long removal = librariesAgent.remove(agentToRemove);
+            while (!librariesAgent.hasRemoveCompleted(removal))
             {
                 Thread.yield();
             }
@@ -103,6 +88,84 @@ public class DynamicLibraryScheduler implements LibraryScheduler
             .useConductorAgentInvoker(true);
     }
 
+    private static final class LibrariesAgent implements Agent
+    {
+        private final ManyToOneConcurrentLinkedQueue<Agent> agentsToAdd = new ManyToOneConcurrentLinkedQueue<>();
+        private final ManyToOneConcurrentLinkedQueue<Agent> agentsToRemove = new ManyToOneConcurrentLinkedQueue<>();
+        private final AtomicLong removalsRequested = new AtomicLong();
+        private final AtomicLong removalsCompleted = new AtomicLong();
+
+        private Agent[] agents = new Agent[0];
+
+        void add(final Agent agent)
+        {
+            agentsToAdd.offer(agent);
+        }
+
+        long remove(final Agent agent)
+        {
+            agentsToRemove.offer(agent);
+            return removalsRequested.incrementAndGet();
+        }
+
+        boolean hasRemoveCompleted(final long removal)
+        {
+            return removalsCompleted.get() >= removal;
+        }
+
+        public int doWork() throws Exception
+        {
+            int count = updateAgents();
+
+            final Agent[] agents = this.agents;
+            for (final Agent agent : agents)
+            {
+                count += agent.doWork();
+            }
+
+            return count;
+        }
+
+        private int updateAgents()
+        {
+            int count = 0;
+
+            Agent agent;
+            while ((agent = agentsToAdd.poll()) != null)
+            {
+                agent.onStart();
+                agents = ArrayUtil.add(agents, agent);
+                count++;
+            }
+
+            // Removals are only acknowledged after pending adds have been applied, so an agent that is
+            // added and quickly removed is never left running.
+            while ((agent = agentsToRemove.poll()) != null)
+            {
+                agents = ArrayUtil.remove(agents, agent);
+                agent.onClose();
+                removalsCompleted.incrementAndGet();
+                count++;
+            }
+
+            return count;
+        }
+
+        public void onClose()
+        {
+            for (final Agent agent : agents)
+            {
+                agent.onClose();
+            }
+            agents = new Agent[0];
+        }
+
+        public String roleName()
+        {
+            return "Monitoring+ClientConductor";
+        }
+    }
+
     private static final class CombinedAgent implements Agent
     {
         private final Agent monitoringAgent;
@@ -103,6 +103,7 @@ public class FixLibrary extends GatewayProcess
 
     private FixLibrary connect()
     {
+        warmUp(() -> new LibraryWarmUp(configuration));
         poller.startConnecting();
         final ErrorHandler remoteThreadErrorHandler = createRemoteThreadErrorHandler(errorHandler);
         scheduler.launch(configuration, remoteThreadErrorHandler, monitoringAgent, conductorAgent());
@@ -145,7 +146,8 @@ public class FixLibrary extends GatewayProcess
      *
      * You should call {@link #poll(int)} on a regular duty cycle until the connection completes.
      * {@link #isConnected()} can be polled in order to determine whether library is connected. Also the
-     * {@link LibraryConnectHandler#onConnect(FixLibrary)} method will be invoked.
+     * {@link LibraryConnectHandler#onConnect(FixLibrary)} method will be invoked. Alternatively
+     * {@link #connectReply(long)} returns a reply that completes once the library has connected.
      *
      * @param configuration the configuration for this library instance.
      * @return the library instance.
@@ -157,6 +159,20 @@ public class FixLibrary extends GatewayProcess
         return new FixLibrary(configuration).connect();
     }
 
+    /**
+     * Get a reply that completes with this library once it has connected to an engine. Like all other replies
+     * this is non-blocking: it makes progress as you call {@link #poll(int)}, so many libraries can be
+     * connected concurrently from a single thread.
+     *
+     * @param timeoutInMs the timeout for this operation
+     * @return the reply object representing the connection of this library.
+     */
+    public Reply<FixLibrary> connectReply(final long timeoutInMs)
+    {
+        CommonConfiguration.validateTimeout(timeoutInMs);
+        return poller.connectReply(timeoutInMs);
+    }
+
     /**
      * Poll the library all of its component sessions to process any messages
      * and events that have received from or should be sent to the engine.
@@ -329,6 +345,26 @@ public class FixLibrary extends GatewayProcess
         return poller.requestSession(sessionId, lastReceivedSequenceNumber, sequenceIndex, timeoutInMs);
     }
 
+    /**
+     * Request a batch of sessions be acquired from the Gateway in a single round trip. This is equivalent to calling
+     * {@link #requestSession(long, int, int, long)} with {@link FixLibrary#NO_MESSAGE_REPLAY} for each session
+     * id, but without waiting on the engine once per session, so a library can claim thousands of sessions
+     * quickly.
+     *
+     * Your {@link SessionAcquireHandler} receives a callback for each session that is acquired. The
+     * reply's result holds a status for each requested session, in the same order as the
+     * <code>sessionIds</code>, with the same meanings as {@link #requestSession(long, int, int, long)}.
+     *
+     * @param sessionIds the ids of the sessions to acquire.
+     * @param timeoutInMs the timeout for this operation
+     * @return the reply object representing the result of the request.
+     */
+    public Reply<SessionReplyStatus[]> requestSessions(final long[] sessionIds, final long timeoutInMs)
+    {
+        CommonConfiguration.validateTimeout(timeoutInMs);
+        return poller.requestSessions(sessionIds, timeoutInMs);
+    }
+
     public String currentAeronChannel()
     {
         return poller.currentAeronChannel();
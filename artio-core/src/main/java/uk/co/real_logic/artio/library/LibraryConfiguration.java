@@ -40,6 +40,9 @@ public final class LibraryConfiguration extends CommonConfiguration
     public static final GatewayErrorHandler DEFAULT_GATEWAY_ERROR_HANDLER =
         (errorType, libraryId, message) -> CONTINUE;
     public static final SentPositionHandler DEFAULT_SENT_POSITION_HANDLER = position -> CONTINUE;
+    public static final RoutedMessageHandler DEFAULT_ROUTED_MESSAGE_HANDLER =
+        (buffer, offset, length, libraryId, connectionId, sessionId, messageType, timestampInNs, position) ->
+        CONTINUE;
     public static final SessionExistsHandler DEFAULT_SESSION_EXISTS_HANDLER =
         (library,
         sessionId,
@@ -78,6 +81,7 @@ public final class LibraryConfiguration extends CommonConfiguration
     private SessionExistsHandler sessionExistsHandler = DEFAULT_SESSION_EXISTS_HANDLER;
     private GatewayErrorHandler gatewayErrorHandler = DEFAULT_GATEWAY_ERROR_HANDLER;
     private SentPositionHandler sentPositionHandler = DEFAULT_SENT_POSITION_HANDLER;
+    private RoutedMessageHandler routedMessageHandler = DEFAULT_ROUTED_MESSAGE_HANDLER;
     private List<String> libraryAeronChannels = new ArrayList<>();
     private LibraryConnectHandler libraryConnectHandler = DEFAULT_LIBRARY_CONNECT_HANDLER;
     private LibraryScheduler scheduler = new DefaultLibraryScheduler();
@@ -128,6 +132,21 @@ public final class LibraryConfiguration extends CommonConfiguration
         return this;
     }
 
+    /**
+     * Sets the handler for messages that the engine routes to this library by their message type. The engine
+     * routes messages to libraries by the name that they're configured with.
+     *
+     * @param routedMessageHandler the handler for routed messages.
+     * @return this
+     * @see uk.co.real_logic.artio.engine.EngineConfiguration#routeMessageType(String, String)
+     * @see #libraryName(String)
+     */
+    public LibraryConfiguration routedMessageHandler(final RoutedMessageHandler routedMessageHandler)
+    {
+        this.routedMessageHandler = routedMessageHandler;
+        return this;
+    }
+
     public LibraryConfiguration libraryConnectHandler(final LibraryConnectHandler libraryConnectHandler)
     {
         this.libraryConnectHandler = libraryConnectHandler;
@@ -165,6 +184,11 @@ public final class LibraryConfiguration extends CommonConfiguration
         return sentPositionHandler;
     }
 
+    public RoutedMessageHandler routedMessageHandler()
+    {
+        return routedMessageHandler;
+    }
+
     public LibraryConnectHandler libraryConnectHandler()
     {
         return libraryConnectHandler;
@@ -107,6 +107,7 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
     private final Timer receiveTimer;
     private final SessionExistsHandler sessionExistsHandler;
     private final SentPositionHandler sentPositionHandler;
+    private final RoutedMessageHandler routedMessageHandler;
     private final boolean enginesAreClustered;
     private final FixCounters fixCounters;
 
@@ -156,6 +157,7 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
         this.sessionIdStrategy = configuration.sessionIdStrategy();
         this.sessionExistsHandler = configuration.sessionExistsHandler();
         this.sentPositionHandler = configuration.sentPositionHandler();
+        this.routedMessageHandler = configuration.routedMessageHandler();
         this.clock = clock;
         this.enginesAreClustered = configuration.libraryAeronChannels().size() > 1;
     }
@@ -209,6 +211,18 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
             this, timeInMs() + timeoutInMs, sessionId, lastReceivedSequenceNumber, sequenceIndex);
     }
 
+    Reply<SessionReplyStatus[]> requestSessions(final long[] sessionIds, final long timeoutInMs)
+    {
+        requireNonNull(sessionIds, "sessionIds");
+
+        return new RequestSessionsReply(this, timeInMs() + timeoutInMs, sessionIds);
+    }
+
+    Reply<FixLibrary> connectReply(final long timeoutInMs)
+    {
+        return new ConnectLibraryReply(this, timeInMs() + timeoutInMs, fixLibrary);
+    }
+
     void disableSession(final Session session)
     {
         sessions = ArrayUtil.remove(sessions, session);
@@ -271,6 +285,23 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
             libraryId, sessionId, correlationId, lastReceivedSequenceNumber, sequenceIndex);
     }
 
+    long saveRequestSessions(
+        final long correlationId,
+        final long[] sessionIds,
+        final int sessionIdsOffset,
+        final int sessionIdsCount)
+    {
+        checkState();
+
+        return outboundPublication.saveRequestSessions(
+            libraryId, correlationId, sessionIds, sessionIdsOffset, sessionIdsCount);
+    }
+
+    int maxSessionsPerRequest()
+    {
+        return outboundPublication.maxSessionsPerRequest();
+    }
+
     int poll(final int fragmentLimit)
     {
         final long timeInMs = timeInMs();
@@ -707,6 +738,39 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
                     status,
                     position);
             }
+
+            if (status == MessageStatus.ROUTED)
+            {
+                return routedMessageHandler.onMessage(
+                    buffer,
+                    offset,
+                    length,
+                    libraryId,
+                    connectionId,
+                    sessionId,
+                    messageType,
+                    timestamp,
+                    position);
+            }
+        }
+        else if (status == MessageStatus.ROUTED)
+        {
+            // Messages routed to another library still carry the sequence numbers of the session that we own.
+            final SessionSubscriber subscriber = connectionIdToSession.get(connectionId);
+            if (subscriber != null)
+            {
+                return subscriber.onMessage(
+                    buffer,
+                    offset,
+                    length,
+                    libraryId,
+                    sessionId,
+                    sequenceIndex,
+                    messageType,
+                    timestamp,
+                    status,
+                    position);
+            }
         }
 
         return CONTINUE;
@@ -753,7 +817,7 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
             final LibraryReply<?> reply = correlationIdToReply.remove(replyToId);
             if (reply != null)
             {
-                reply.onError(errorType, errorMessage);
+                reply.onError(errorType, message);
             }
             else
             {
@@ -806,6 +870,21 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
         return CONTINUE;
     }
 
+    public Action onRequestSessionsReply(
+        final int libraryId, final long replyToId, final RequestSessionsReplyDecoder.SessionsDecoder sessions)
+    {
+        if (libraryId == this.libraryId)
+        {
+            final LibraryReply<?> reply = correlationIdToReply.remove(replyToId);
+            if (reply instanceof RequestSessionsReply)
+            {
+                ((RequestSessionsReply)reply).onChunkComplete(replyToId, sessions);
+            }
+        }
+
+        return CONTINUE;
+    }
+
     public Action onNewSentPosition(final int libraryId, final long position)
     {
         if (this.libraryId == libraryId)
@@ -993,7 +1072,8 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
             sessionConfiguration != null && sessionConfiguration.resetSeqNum(),
             configuration.reasonableTransmissionTimeInMs(),
             asciiBuffer)
-            .lastReceivedMsgSeqNum(initiatorNewSequenceNumber(sessionConfiguration, lastReceivedSequenceNumber) - 1);
+            .lastReceivedMsgSeqNum(initiatorNewSequenceNumber(sessionConfiguration, lastReceivedSequenceNumber) - 1)
+            .sessionCounters(fixCounters.sessionCounters(connectionId));
 
         if (sessionConfiguration != null)
         {
@@ -1069,7 +1149,10 @@ final class LibraryPoller implements LibraryEndPointHandler, ProtocolHandler, Au
             sequenceIndex,
             state,
             configuration.reasonableTransmissionTimeInMs(),
-            asciiBuffer).address(host, port).logonTime(logonTime);
+            asciiBuffer)
+            .address(host, port)
+            .logonTime(logonTime)
+            .sessionCounters(fixCounters.sessionCounters(connectionId));
     }
 
     private SessionProxy sessionProxy(final long connectionId, final MutableAsciiBuffer asciiBuffer)
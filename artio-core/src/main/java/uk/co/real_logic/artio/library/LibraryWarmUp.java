@@ -0,0 +1,128 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.library;
+
+import org.agrona.concurrent.EpochClock;
+import org.agrona.concurrent.SystemEpochClock;
+import org.agrona.concurrent.UnsafeBuffer;
+import uk.co.real_logic.artio.WarmUp;
+import uk.co.real_logic.artio.builder.TestRequestEncoder;
+import uk.co.real_logic.artio.decoder.HeaderDecoder;
+import uk.co.real_logic.artio.messages.SessionState;
+import uk.co.real_logic.artio.protocol.GatewayPublication;
+import uk.co.real_logic.artio.session.*;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
+import uk.co.real_logic.artio.validation.MessageValidationStrategy;
+
+import java.util.List;
+
+import static uk.co.real_logic.artio.dictionary.generation.GenerationUtil.packMessageType;
+
+/**
+ * Warms up the library's session path: parsing and validating the messages that the engine passes on, the
+ * session's handling of them, including any replies, and sending messages on the session. Messages are
+ * received by a session that isn't connected to the engine and sent to a discarding publication.
+ */
+final class LibraryWarmUp extends WarmUp
+{
+    private static final long CONNECTION_ID = 1;
+    private static final long SESSION_ID = 1;
+    private static final int LIBRARY_ID = 1;
+
+    // The corpus' sending times are fixed when it's created, so they should never be rejected.
+    private static final long SENDING_TIME_WINDOW_IN_MS = Long.MAX_VALUE / 2;
+
+    private final TestRequestEncoder testRequest = new TestRequestEncoder();
+    private final Session session;
+    private final SessionParser parser;
+    private final UnsafeBuffer[] messages;
+    private final int[] msgSeqNums;
+    private final int[] messageTypes;
+
+    LibraryWarmUp(final LibraryConfiguration configuration)
+    {
+        final EpochClock clock = new SystemEpochClock();
+        final SessionIdStrategy sessionIdStrategy = configuration.sessionIdStrategy();
+        final GatewayPublication publication = newSinkPublication(
+            configuration, 2 * configuration.sessionBufferSize());
+        final MutableAsciiBuffer asciiBuffer = new MutableAsciiBuffer(new byte[configuration.sessionBufferSize()]);
+        final SessionProxy sessionProxy = new SessionProxy(
+            asciiBuffer,
+            publication,
+            sessionIdStrategy,
+            SessionCustomisationStrategy.none(),
+            clock,
+            CONNECTION_ID,
+            LIBRARY_ID);
+
+        session = new AcceptorSession(
+            configuration.defaultHeartbeatIntervalInS(),
+            CONNECTION_ID,
+            clock,
+            sessionProxy,
+            publication,
+            sessionIdStrategy,
+            SENDING_TIME_WINDOW_IN_MS,
+            newCounter("Warm up received sequence number"),
+            newCounter("Warm up sent sequence number"),
+            LIBRARY_ID,
+            1,
+            0,
+            SessionState.ACTIVE,
+            configuration.reasonableTransmissionTimeInMs(),
+            asciiBuffer);
+        session.setupSession(
+            SESSION_ID, sessionIdStrategy.onInitiateLogon(TARGET_COMP_ID, "", "", SENDER_COMP_ID, "", ""));
+        parser = new SessionParser(session, sessionIdStrategy, MessageValidationStrategy.none(), null);
+        testRequest.testReqID("warmUp");
+
+        final List<byte[]> corpus = configuration.warmUpMessages();
+        final int size = corpus.size();
+        final HeaderDecoder header = new HeaderDecoder();
+        messages = new UnsafeBuffer[size];
+        msgSeqNums = new int[size];
+        messageTypes = new int[size];
+        for (int i = 0; i < size; i++)
+        {
+            final byte[] message = corpus.get(i);
+            messages[i] = new UnsafeBuffer(message);
+            header.reset();
+            header.decode(new MutableAsciiBuffer(message), 0, message.length);
+            msgSeqNums[i] = header.msgSeqNum();
+            messageTypes[i] = packMessageType(new String(header.msgType(), 0, header.msgTypeLength()));
+        }
+    }
+
+    protected void runMessages()
+    {
+        final Session session = this.session;
+        final SessionParser parser = this.parser;
+        final UnsafeBuffer[] messages = this.messages;
+        for (int i = 0; i < messages.length; i++)
+        {
+            final UnsafeBuffer message = messages[i];
+            session.lastReceivedMsgSeqNum(msgSeqNums[i] - 1);
+            parser.onMessage(message, 0, message.capacity(), messageTypes[i], SESSION_ID);
+        }
+
+        session.send(testRequest);
+    }
+
+    Session session()
+    {
+        return session;
+    }
+}
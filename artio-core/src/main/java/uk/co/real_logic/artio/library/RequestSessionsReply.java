@@ -0,0 +1,141 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.library;
+
+import uk.co.real_logic.artio.FixGatewayException;
+import uk.co.real_logic.artio.messages.GatewayError;
+import uk.co.real_logic.artio.messages.RequestSessionsReplyDecoder.SessionsDecoder;
+import uk.co.real_logic.artio.messages.SessionReplyStatus;
+
+/**
+ * Requests a batch of gateway owned sessions. The batch is split into as few RequestSessions messages as
+ * will fit into the library's publication, each with its own correlation id, and completes once the engine
+ * has replied to every one of them.
+ */
+class RequestSessionsReply extends LibraryReply<SessionReplyStatus[]>
+{
+    private final long[] sessionIds;
+    private final SessionReplyStatus[] statuses;
+    private final long[] chunkCorrelationIds;
+    private final int chunkSize;
+
+    private int nextChunkToSend;
+    private int remainingChunks;
+
+    RequestSessionsReply(
+        final LibraryPoller libraryPoller,
+        final long latestReplyArrivalTime,
+        final long[] sessionIds)
+    {
+        super(libraryPoller, latestReplyArrivalTime);
+        this.sessionIds = sessionIds;
+        this.statuses = new SessionReplyStatus[sessionIds.length];
+        this.chunkSize = libraryPoller.maxSessionsPerRequest();
+
+        final int chunkCount = (sessionIds.length + chunkSize - 1) / chunkSize;
+        remainingChunks = chunkCount;
+        chunkCorrelationIds = new long[chunkCount];
+        if (chunkCount > 0)
+        {
+            chunkCorrelationIds[0] = correlationId;
+            for (int i = 1; i < chunkCount; i++)
+            {
+                chunkCorrelationIds[i] = libraryPoller.register(this);
+            }
+
+            sendChunks();
+        }
+        else
+        {
+            onComplete(statuses);
+        }
+    }
+
+    private void sendChunks()
+    {
+        final int chunkCount = chunkCorrelationIds.length;
+        while (nextChunkToSend < chunkCount)
+        {
+            final int offset = nextChunkToSend * chunkSize;
+            final int count = Math.min(chunkSize, sessionIds.length - offset);
+            final long position = libraryPoller.saveRequestSessions(
+                chunkCorrelationIds[nextChunkToSend], sessionIds, offset, count);
+
+            if (position < 0)
+            {
+                return;
+            }
+
+            nextChunkToSend++;
+        }
+    }
+
+    void onChunkComplete(final long replyToId, final SessionsDecoder sessions)
+    {
+        final int chunk = chunkIndex(replyToId);
+        if (chunk < 0 || !isExecuting())
+        {
+            return;
+        }
+
+        int index = chunk * chunkSize;
+        while (sessions.hasNext())
+        {
+            statuses[index] = sessions.next().status();
+            index++;
+        }
+
+        remainingChunks--;
+        if (remainingChunks == 0)
+        {
+            onComplete(statuses);
+        }
+    }
+
+    private int chunkIndex(final long replyToId)
+    {
+        final long[] chunkCorrelationIds = this.chunkCorrelationIds;
+        for (int i = 0, size = chunkCorrelationIds.length; i < size; i++)
+        {
+            if (chunkCorrelationIds[i] == replyToId)
+            {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    void onError(final GatewayError errorType, final String errorMessage)
+    {
+        if (isExecuting())
+        {
+            onError(new FixGatewayException(String.format("%s: %s", errorType, errorMessage)));
+        }
+    }
+
+    boolean poll(final long timeInMs)
+    {
+        if (!isExecuting())
+        {
+            return true;
+        }
+
+        sendChunks();
+
+        return super.poll(timeInMs);
+    }
+}
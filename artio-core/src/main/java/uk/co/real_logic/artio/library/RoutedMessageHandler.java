@@ -0,0 +1,55 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.library;
+
+import io.aeron.logbuffer.ControlledFragmentHandler.Action;
+import org.agrona.DirectBuffer;
+
+/**
+ * Callback handler for messages that the engine has routed to this library by their message type, from sessions
+ * that are owned by other libraries. The owning library still handles the session's sequence numbers and session
+ * level messages, so these messages are purely for the application to consume.
+ *
+ * @see uk.co.real_logic.artio.engine.EngineConfiguration#routeMessageType(String, String)
+ */
+@FunctionalInterface
+public interface RoutedMessageHandler
+{
+    /**
+     * Event to indicate that a fix message has been routed to this library.
+     *
+     * @param buffer the buffer containing the fix message.
+     * @param offset the offset in the buffer where the message starts.
+     * @param length the length of the message within the buffer.
+     * @param libraryId the id of library which has received this message.
+     * @param connectionId the id of the connection that the message was received on.
+     * @param sessionId the id of the session that the message was received on.
+     * @param messageType the FIX msgType field, encoded as an int.
+     * @param timestampInNs the time of the message in nanoseconds.
+     * @param position the position in the Aeron stream at the end of the message.
+     * @return an action to indicate the correct back pressure behaviour.
+     */
+    Action onMessage(
+        DirectBuffer buffer,
+        int offset,
+        int length,
+        int libraryId,
+        long connectionId,
+        long sessionId,
+        int messageType,
+        long timestampInNs,
+        long position);
+}
@@ -100,6 +100,11 @@ class SessionSubscriber implements AutoCloseable
                         timestamp,
                         position);
 
+                case ROUTED:
+                    // Only application messages are routed, so the parser just decodes their header to keep the
+                    // session's sequence numbers. The library they're routed to handles them.
+                    return parser.onMessage(buffer, offset, length, messageType, sessionId);
+
                 default:
                     return CONTINUE;
             }
@@ -18,6 +18,7 @@ package uk.co.real_logic.artio.protocol;
 import io.aeron.logbuffer.ControlledFragmentHandler.Action;
 import io.aeron.logbuffer.Header;
 import uk.co.real_logic.artio.messages.DisconnectReason;
+import uk.co.real_logic.artio.messages.RequestSessionsDecoder;
 import uk.co.real_logic.artio.messages.SequenceNumberType;
 import uk.co.real_logic.artio.messages.SessionState;
 
@@ -71,4 +72,9 @@ public interface EngineEndPointHandler
         long correlationId,
         int lastReceivedSequenceNumber,
         int sequenceIndex);
+
+    Action onRequestSessions(
+        int libraryId,
+        long correlationId,
+        RequestSessionsDecoder.SessionsDecoder sessions);
 }
@@ -31,6 +31,7 @@ public final class EngineProtocolSubscription implements ControlledFragmentHandl
     private final LibraryConnectDecoder libraryConnect = new LibraryConnectDecoder();
     private final ReleaseSessionDecoder releaseSession = new ReleaseSessionDecoder();
     private final RequestSessionDecoder requestSession = new RequestSessionDecoder();
+    private final RequestSessionsDecoder requestSessions = new RequestSessionsDecoder();
 
     private final EngineEndPointHandler handler;
 
@@ -79,6 +80,11 @@ public final class EngineProtocolSubscription implements ControlledFragmentHandl
             {
                 return onRequestSession(buffer, offset, blockLength, version, header);
             }
+
+            case RequestSessionsDecoder.TEMPLATE_ID:
+            {
+                return onRequestSessions(buffer, offset, blockLength, version, header);
+            }
         }
 
         return CONTINUE;
@@ -165,6 +171,27 @@ public final class EngineProtocolSubscription implements ControlledFragmentHandl
             requestSession.sequenceIndex());
     }
 
+    private Action onRequestSessions(
+        final DirectBuffer buffer,
+        final int offset,
+        final int blockLength,
+        final int version,
+        final Header header)
+    {
+        requestSessions.wrap(buffer, offset, blockLength, version);
+        final int libraryId = requestSessions.libraryId();
+        final Action action = handler.onApplicationHeartbeat(libraryId, header.sessionId());
+        if (action != null)
+        {
+            return action; // Continue processing messages but not this message.
+        }
+
+        return handler.onRequestSessions(
+            libraryId,
+            requestSessions.correlationId(),
+            requestSessions.sessions());
+    }
+
     private Action onInitiateConnection(
         final DirectBuffer buffer,
         final int offset,
@@ -71,6 +71,11 @@ public class GatewayPublication extends ClaimablePublication
         InitiateConnectionEncoder.BLOCK_LENGTH + InitiateConnectionDecoder.hostHeaderLength() * 9;
     private static final int CONTROL_NOTIFICATION_LENGTH = HEADER_LENGTH + ControlNotificationEncoder.BLOCK_LENGTH +
         GroupSizeEncodingEncoder.ENCODED_LENGTH;
+    private static final int REQUEST_SESSIONS_LENGTH = HEADER_LENGTH + RequestSessionsEncoder.BLOCK_LENGTH +
+        GroupSizeEncodingEncoder.ENCODED_LENGTH;
+    private static final int REQUEST_SESSIONS_REPLY_LENGTH = HEADER_LENGTH + RequestSessionsReplyEncoder.BLOCK_LENGTH +
+        GroupSizeEncodingEncoder.ENCODED_LENGTH;
+    private static final int MAX_GROUP_SIZE = 255;
 
     private final ManageSessionEncoder manageSessionEncoder = new ManageSessionEncoder();
     private final InitiateConnectionEncoder initiateConnection = new InitiateConnectionEncoder();
@@ -82,6 +87,8 @@ public class GatewayPublication extends ClaimablePublication
     private final LibraryConnectEncoder libraryConnect = new LibraryConnectEncoder();
     private final RequestSessionEncoder requestSession = new RequestSessionEncoder();
     private final RequestSessionReplyEncoder requestSessionReply = new RequestSessionReplyEncoder();
+    private final RequestSessionsEncoder requestSessions = new RequestSessionsEncoder();
+    private final RequestSessionsReplyEncoder requestSessionsReply = new RequestSessionsReplyEncoder();
     private final ReleaseSessionEncoder releaseSession = new ReleaseSessionEncoder();
     private final ReleaseSessionReplyEncoder releaseSessionReply = new ReleaseSessionReplyEncoder();
     private final ConnectEncoder connect = new ConnectEncoder();
@@ -654,6 +661,76 @@ public class GatewayPublication extends ClaimablePublication
         return position;
     }
 
+    public long saveRequestSessions(
+        final int libraryId,
+        final long correlationId,
+        final long[] sessionIds,
+        final int sessionIdsOffset,
+        final int sessionIdsCount)
+    {
+        final long position = claim(REQUEST_SESSIONS_LENGTH +
+            sessionIdsCount * RequestSessionsEncoder.SessionsEncoder.sbeBlockLength());
+        if (position < 0)
+        {
+            return position;
+        }
+
+        final MutableDirectBuffer buffer = bufferClaim.buffer();
+        final int offset = bufferClaim.offset();
+
+        requestSessions
+            .wrapAndApplyHeader(buffer, offset, header)
+            .libraryId(libraryId)
+            .correlationId(correlationId);
+
+        final RequestSessionsEncoder.SessionsEncoder sessionsEncoder = requestSessions.sessionsCount(sessionIdsCount);
+        for (int i = sessionIdsOffset, end = sessionIdsOffset + sessionIdsCount; i < end; i++)
+        {
+            sessionsEncoder.next().sessionId(sessionIds[i]);
+        }
+
+        bufferClaim.commit();
+
+        logSbeMessage(GATEWAY_MESSAGE, requestSessions);
+
+        return position;
+    }
+
+    public long saveRequestSessionsReply(
+        final int libraryId,
+        final long replyToId,
+        final long[] sessionIds,
+        final SessionReplyStatus[] statuses,
+        final int count)
+    {
+        final long position = claim(REQUEST_SESSIONS_REPLY_LENGTH +
+            count * RequestSessionsReplyEncoder.SessionsEncoder.sbeBlockLength());
+        if (position < 0)
+        {
+            return position;
+        }
+
+        final MutableDirectBuffer buffer = bufferClaim.buffer();
+        final int offset = bufferClaim.offset();
+
+        requestSessionsReply
+            .wrapAndApplyHeader(buffer, offset, header)
+            .libraryId(libraryId)
+            .replyToId(replyToId);
+
+        final RequestSessionsReplyEncoder.SessionsEncoder sessionsEncoder = requestSessionsReply.sessionsCount(count);
+        for (int i = 0; i < count; i++)
+        {
+            sessionsEncoder.next().sessionId(sessionIds[i]).status(statuses[i]);
+        }
+
+        bufferClaim.commit();
+
+        logSbeMessage(GATEWAY_MESSAGE, requestSessionsReply);
+
+        return position;
+    }
+
     public long saveNotLeader(final int libraryId, final long replyToId, final DirectBuffer channel)
     {
         final int channelLength = (channel == null ? 0 : channel.capacity());
@@ -800,4 +877,17 @@ public class GatewayPublication extends ClaimablePublication
     {
         return maxPayloadLength;
     }
+
+    /**
+     * Gets the maximum number of sessions that can be requested in a single RequestSessions message, sized so
+     * that both the request and its reply fit within a single unfragmented message.
+     *
+     * @return the maximum number of sessions that can be requested in a single RequestSessions message.
+     */
+    public int maxSessionsPerRequest()
+    {
+        final int replyEntryLength = RequestSessionsReplyEncoder.SessionsEncoder.sbeBlockLength();
+        final int sessionsThatFit = (maxPayloadLength - REQUEST_SESSIONS_REPLY_LENGTH) / replyEntryLength;
+        return Math.max(1, Math.min(MAX_GROUP_SIZE, sessionsThatFit));
+    }
 }
@@ -30,6 +30,7 @@ public final class LibraryProtocolSubscription implements ControlledFragmentHand
     private final ApplicationHeartbeatDecoder applicationHeartbeat = new ApplicationHeartbeatDecoder();
     private final ReleaseSessionReplyDecoder releaseSessionReply = new ReleaseSessionReplyDecoder();
     private final RequestSessionReplyDecoder requestSessionReply = new RequestSessionReplyDecoder();
+    private final RequestSessionsReplyDecoder requestSessionsReply = new RequestSessionsReplyDecoder();
     private final NewSentPositionDecoder newSentPosition = new NewSentPositionDecoder();
     private final NotLeaderDecoder libraryConnect = new NotLeaderDecoder();
     private final ControlNotificationDecoder controlNotification = new ControlNotificationDecoder();
@@ -86,6 +87,11 @@ public final class LibraryProtocolSubscription implements ControlledFragmentHand
                 return onRequestSessionReply(buffer, offset, blockLength, version);
             }
 
+            case RequestSessionsReplyDecoder.TEMPLATE_ID:
+            {
+                return onRequestSessionsReply(buffer, offset, blockLength, version);
+            }
+
             case NotLeaderDecoder.TEMPLATE_ID:
             {
                 return onNotLeader(buffer, offset, blockLength, version);
@@ -228,6 +234,23 @@ public final class LibraryProtocolSubscription implements ControlledFragmentHand
             requestSessionReply.status());
     }
 
+    private Action onRequestSessionsReply(
+        final DirectBuffer buffer, final int offset, final int blockLength, final int version)
+    {
+        requestSessionsReply.wrap(buffer, offset, blockLength, version);
+        final int libraryId = requestSessionsReply.libraryId();
+        final Action action = handler.onApplicationHeartbeat(libraryId);
+        if (action == ABORT)
+        {
+            return action;
+        }
+
+        return handler.onRequestSessionsReply(
+            libraryId,
+            requestSessionsReply.replyToId(),
+            requestSessionsReply.sessions());
+    }
+
     private Action onError(
         final DirectBuffer buffer, final int offset, final int blockLength, final int version)
     {
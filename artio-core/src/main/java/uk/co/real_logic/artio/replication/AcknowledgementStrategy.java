@@ -15,13 +15,15 @@
  */
 package uk.co.real_logic.artio.replication;
 
+import org.agrona.collections.Int2IntHashMap;
 import org.agrona.collections.Long2LongHashMap;
 
 /**
  * Implement this to determine what position to acknowledge. Most
  * systems should use a Quorum based acknowledgement. Some systems
  * may want to ensure that the entire cluster has acknowledged a
- * position. You can also implement a custom strategy.
+ * position. Weighted, zone aware and fastest k-of-n strategies let
+ * commit latency follow nearby nodes. You can also implement a custom strategy.
  */
 public interface AcknowledgementStrategy
 {
@@ -35,7 +37,58 @@ public interface AcknowledgementStrategy
         return new EntireClusterAcknowledgementStrategy();
     }
 
+    /**
+     * Acknowledge a position once nodes holding more than half of the cluster's total weight have it.
+     *
+     * @param nodeIdToWeight the weight of each node, nodes that aren't in the map have a weight of 1.
+     * @return the acknowledgement strategy.
+     */
+    static AcknowledgementStrategy weightedQuorum(final Int2IntHashMap nodeIdToWeight)
+    {
+        return new WeightedQuorumAcknowledgementStrategy(nodeIdToWeight);
+    }
+
+    /**
+     * Acknowledge a position once a quorum of nodes have it and they span at least <code>minimumZones</code>
+     * zones.
+     *
+     * @param nodeIdToZone the zone, from 0 to 63, of each node, nodes that aren't in the map are in zone 0.
+     * @param minimumZones the minimum number of zones that a position must be acknowledged in.
+     * @return the acknowledgement strategy.
+     */
+    static AcknowledgementStrategy zoneAware(final Int2IntHashMap nodeIdToZone, final int minimumZones)
+    {
+        return new ZoneAwareAcknowledgementStrategy(nodeIdToZone, minimumZones);
+    }
+
+    /**
+     * Acknowledge a position once the fastest <code>count</code> nodes have it.
+     *
+     * @param count the number of nodes that must have a position.
+     * @return the acknowledgement strategy.
+     */
+    static AcknowledgementStrategy fastest(final int count)
+    {
+        return new FastestAcknowledgementStrategy(count);
+    }
+
     long findAckedTerm(Long2LongHashMap sessionIdToPosition);
 
+    /**
+     * Invoked when the position of a single node changes. Strategies can override this in order to maintain
+     * the acknowledged position incrementally, rather than recalculating it from every node's position.
+     *
+     * @param nodeId the id of the node whose position has changed.
+     * @param previousPosition the previous position of the node, or the missing value of the map if it is new.
+     * @param position the new position of the node.
+     * @param nodeToPosition the positions of all nodes, including this update.
+     * @return the acknowledged position.
+     */
+    default long onPositionChange(
+        final long nodeId, final long previousPosition, final long position, final Long2LongHashMap nodeToPosition)
+    {
+        return findAckedTerm(nodeToPosition);
+    }
+
     boolean isElected(int receivedVotes, int clusterSize);
 }
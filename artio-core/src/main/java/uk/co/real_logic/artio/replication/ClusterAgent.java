@@ -119,7 +119,9 @@ public class ClusterAgent implements Agent
             termState,
             raftArchiver,
             nodeState,
-            nodeStateHandler);
+            nodeStateHandler)
+            .acknowledgementCoalescing(
+                configuration.acknowledgementBatchSize(), configuration.acknowledgementIntervalInMs());
 
         transport.initialiseRoles(leader, candidate, follower);
 
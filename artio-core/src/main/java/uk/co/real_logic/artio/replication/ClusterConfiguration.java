@@ -34,6 +34,10 @@ public class ClusterConfiguration
     public static final int DEFAULT_CONTROL_STREAM_ID = 1;
     public static final int DEFAULT_DATA_STREAM_ID = 2;
     public static final int DEFAULT_ACKNOWLEDGEMENT_STREAM_ID = 3;
+    public static final int DEFAULT_CATCH_UP_STREAM_ID = 4;
+    public static final int DEFAULT_CATCH_UP_CHUNK_SIZE = 64 * 1024;
+    public static final int DEFAULT_ACKNOWLEDGEMENT_BATCH_SIZE = 0;
+    public static final long DEFAULT_ACKNOWLEDGEMENT_INTERVAL_IN_MS = 1;
     public static final RoleHandler DEFAULT_NODE_HANDLER = new RoleHandler()
     {
         public void onTransitionToLeader(final int leadershipTerm)
@@ -57,9 +61,15 @@ public class ClusterConfiguration
     private StreamIdentifier controlStream;
     private StreamIdentifier dataStream;
     private StreamIdentifier acknowledgementStream;
+    private StreamIdentifier catchUpStream;
     private IdleStrategy idleStrategy;
     private AcknowledgementStrategy acknowledgementStrategy;
     private int maxClaimAttempts = DEFAULT_MAX_CLAIM_ATTEMPTS;
+    private int acknowledgementBatchSize = DEFAULT_ACKNOWLEDGEMENT_BATCH_SIZE;
+    private long acknowledgementIntervalInMs = DEFAULT_ACKNOWLEDGEMENT_INTERVAL_IN_MS;
+    private int catchUpChunkSize = DEFAULT_CATCH_UP_CHUNK_SIZE;
+    private AtomicCounter catchUpBytesSentCounter;
+    private AtomicCounter catchUpBytesRemainingCounter;
     private AtomicCounter failCounter;
     private Supplier<ArchiveReader> archiveReaderSupplier;
     private Archiver archiver;
@@ -104,6 +114,40 @@ public class ClusterConfiguration
         return this;
     }
 
+    /**
+     * Sets the stream that a leader uses to stream archived data to followers that have fallen behind.
+     * If this isn't set then the data is sent over the control stream.
+     *
+     * @param catchUpStream the stream used to catch up followers.
+     * @return this
+     */
+    public ClusterConfiguration catchUpStream(final StreamIdentifier catchUpStream)
+    {
+        this.catchUpStream = catchUpStream;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of bytes of archived data that a leader sends to a follower that has
+     * fallen behind in a single message. This is capped to the maximum payload of the catch up stream.
+     *
+     * @param catchUpChunkSize the maximum number of bytes sent in a single message.
+     * @return this
+     */
+    public ClusterConfiguration catchUpChunkSize(final int catchUpChunkSize)
+    {
+        this.catchUpChunkSize = catchUpChunkSize;
+        return this;
+    }
+
+    public ClusterConfiguration catchUpCounters(
+        final AtomicCounter catchUpBytesSentCounter, final AtomicCounter catchUpBytesRemainingCounter)
+    {
+        this.catchUpBytesSentCounter = catchUpBytesSentCounter;
+        this.catchUpBytesRemainingCounter = catchUpBytesRemainingCounter;
+        return this;
+    }
+
     public ClusterConfiguration nodeId(final short nodeId)
     {
         this.nodeId = nodeId;
@@ -128,6 +172,33 @@ public class ClusterConfiguration
         return this;
     }
 
+    /**
+     * Sets the number of bytes that a follower can receive before it must acknowledge them. Acknowledgements
+     * are otherwise coalesced until the data stream has been drained or the acknowledgement interval elapses,
+     * reducing the rate of acknowledgements under load.
+     *
+     * @param acknowledgementBatchSize the number of bytes, or 0 to acknowledge every read.
+     * @return this
+     */
+    public ClusterConfiguration acknowledgementBatchSize(final int acknowledgementBatchSize)
+    {
+        this.acknowledgementBatchSize = acknowledgementBatchSize;
+        return this;
+    }
+
+    /**
+     * Sets the maximum interval that a follower coalesces acknowledgements for.
+     *
+     * @param acknowledgementIntervalInMs the maximum interval between acknowledgements.
+     * @return this
+     * @see #acknowledgementBatchSize(int)
+     */
+    public ClusterConfiguration acknowledgementIntervalInMs(final long acknowledgementIntervalInMs)
+    {
+        this.acknowledgementIntervalInMs = acknowledgementIntervalInMs;
+        return this;
+    }
+
     public ClusterConfiguration aeron(final Aeron aeron)
     {
         this.aeron = aeron;
@@ -221,6 +292,26 @@ public class ClusterConfiguration
         return acknowledgementStream;
     }
 
+    public StreamIdentifier catchUpStream()
+    {
+        return catchUpStream;
+    }
+
+    public int catchUpChunkSize()
+    {
+        return catchUpChunkSize;
+    }
+
+    public AtomicCounter catchUpBytesSentCounter()
+    {
+        return catchUpBytesSentCounter;
+    }
+
+    public AtomicCounter catchUpBytesRemainingCounter()
+    {
+        return catchUpBytesRemainingCounter;
+    }
+
     public short nodeId()
     {
         return nodeId;
@@ -241,6 +332,16 @@ public class ClusterConfiguration
         return acknowledgementStrategy;
     }
 
+    public int acknowledgementBatchSize()
+    {
+        return acknowledgementBatchSize;
+    }
+
+    public long acknowledgementIntervalInMs()
+    {
+        return acknowledgementIntervalInMs;
+    }
+
     public Aeron aeron()
     {
         return aeron;
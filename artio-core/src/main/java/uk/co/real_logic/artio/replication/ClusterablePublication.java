@@ -37,6 +37,11 @@ public abstract class ClusterablePublication implements Closeable
         return new SoloPublication(dataPublication);
     }
 
+    public static ClusterablePublication sink(final int maxPayloadLength)
+    {
+        return new SinkPublication(maxPayloadLength);
+    }
+
     public abstract long tryClaim(int length, ExclusiveBufferClaim bufferClaim);
 
     public abstract void close();
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.replication;
+
+/**
+ * A leaderShipTerm is acknowledged once the fastest <code>count</code> cluster members acknowledge it,
+ * regardless of how big the cluster is.
+ *
+ * With a count below a majority of the cluster, acknowledged positions can be lost if those nodes fail,
+ * so this trades durability for latency. Elections still require a majority of nodes.
+ */
+class FastestAcknowledgementStrategy extends SortedPositionsAcknowledgementStrategy
+{
+    private final int count;
+
+    FastestAcknowledgementStrategy(final int count)
+    {
+        if (count < 1)
+        {
+            throw new IllegalArgumentException("count must be at least 1, but was " + count);
+        }
+        this.count = count;
+    }
+
+    long ackedPosition(final long[] positions, final long[] nodeIds, final int size)
+    {
+        return positions[size - Math.min(count, size)];
+    }
+
+    public boolean isElected(final int receivedVotes, final int clusterSize)
+    {
+        return receivedVotes > clusterSize / 2;
+    }
+}
@@ -51,9 +51,17 @@ class Follower implements Role, RaftHandler
     private RaftPublication controlPublication;
 
     private Subscription controlSubscription;
+    private Subscription catchUpSubscription;
     private long missingAckedPosition;
     private boolean requiresAcknowledgementResend = false;
 
+    // Acknowledgements are coalesced until this many bytes have been received, the interval has elapsed,
+    // or the data stream has been drained. A batch size of 0 acknowledges every poll that reads data.
+    private int acknowledgementBatchSize = ClusterConfiguration.DEFAULT_ACKNOWLEDGEMENT_BATCH_SIZE;
+    private long acknowledgementIntervalInMs = ClusterConfiguration.DEFAULT_ACKNOWLEDGEMENT_INTERVAL_IN_MS;
+    private int unacknowledgedBytes;
+    private long nextAcknowledgementTimeInMs;
+
     private short votedFor = NO_ONE;
     private long timeInMs;
 
@@ -82,7 +90,12 @@ class Follower implements Role, RaftHandler
     {
         this.timeInMs = timeInMs;
 
-        final int read = controlSubscription.controlledPoll(raftSubscription, fragmentLimit);
+        int read = controlSubscription.controlledPoll(raftSubscription, fragmentLimit);
+        if (catchUpSubscription != null)
+        {
+            read += catchUpSubscription.controlledPoll(raftSubscription, fragmentLimit);
+        }
+
         if (read > 0)
         {
             onReplyKeepAlive(this.timeInMs);
@@ -124,15 +137,31 @@ class Follower implements Role, RaftHandler
         }
 
         final int bytesRead = raftArchiver.poll();
-        if (bytesRead > 0 || requiresAcknowledgementResend)
+        if (bytesRead > 0)
         {
             termState.moveReceivedPosition(bytesRead);
+            unacknowledgedBytes += bytesRead;
+        }
+
+        if (requiresAcknowledgementResend || shouldAcknowledge(bytesRead))
+        {
             saveOkAcknowledgement();
         }
 
         return bytesRead;
     }
 
+    // At low load a poll drains the stream so every read gets acknowledged promptly, under sustained
+    // load acknowledgements are only sent once per batch or interval.
+    private boolean shouldAcknowledge(final int bytesRead)
+    {
+        final int unacknowledgedBytes = this.unacknowledgedBytes;
+        return unacknowledgedBytes > 0 && (
+            unacknowledgedBytes >= acknowledgementBatchSize ||
+            bytesRead == 0 ||
+            timeInMs >= nextAcknowledgementTimeInMs);
+    }
+
     private long saveMessageAcknowledgement(final AcknowledgementStatus status)
     {
         return acknowledgementPublication.saveMessageAcknowledgement(termState.receivedPosition(), nodeId, status);
@@ -271,6 +300,8 @@ class Follower implements Role, RaftHandler
         requiresAcknowledgementResend = saveMessageAcknowledgement(OK) < 0;
         if (!requiresAcknowledgementResend)
         {
+            unacknowledgedBytes = 0;
+            nextAcknowledgementTimeInMs = timeInMs + acknowledgementIntervalInMs;
             onReplyKeepAlive(timeInMs);
         }
     }
@@ -286,6 +317,7 @@ class Follower implements Role, RaftHandler
     {
         onReplyKeepAlive(timeInMs);
         votedFor = NO_ONE;
+        nextAcknowledgementTimeInMs = timeInMs + acknowledgementIntervalInMs;
         readTermState();
         return this;
     }
@@ -294,6 +326,7 @@ class Follower implements Role, RaftHandler
     {
         checkLeaderChange();
         missingAckedPosition = 0;
+        unacknowledgedBytes = 0;
     }
 
     private void checkLeaderChange()
@@ -328,12 +361,25 @@ class Follower implements Role, RaftHandler
         return this;
     }
 
+    Follower catchUpSubscription(final Subscription catchUpSubscription)
+    {
+        this.catchUpSubscription = catchUpSubscription;
+        return this;
+    }
+
     Follower dataSubscription(final Subscription dataSubscription)
     {
         raftArchiver.dataSubscription(dataSubscription);
         return this;
     }
 
+    Follower acknowledgementCoalescing(final int acknowledgementBatchSize, final long acknowledgementIntervalInMs)
+    {
+        this.acknowledgementBatchSize = acknowledgementBatchSize;
+        this.acknowledgementIntervalInMs = acknowledgementIntervalInMs;
+        return this;
+    }
+
     Follower votedFor(final short votedFor)
     {
         this.votedFor = votedFor;
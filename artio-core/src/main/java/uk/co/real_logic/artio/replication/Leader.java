@@ -19,10 +19,10 @@ import io.aeron.Subscription;
 import io.aeron.logbuffer.BlockHandler;
 import io.aeron.logbuffer.ControlledFragmentHandler.Action;
 import org.agrona.DirectBuffer;
-import org.agrona.collections.CollectionUtil;
 import org.agrona.collections.IntHashSet;
 import org.agrona.collections.Long2LongHashMap;
 import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.status.AtomicCounter;
 import uk.co.real_logic.artio.engine.logger.ArchiveReader;
 import uk.co.real_logic.artio.replication.messages.AcknowledgementStatus;
 import uk.co.real_logic.artio.replication.messages.Vote;
@@ -34,6 +34,7 @@ import java.util.concurrent.atomic.AtomicLong;
 import static io.aeron.logbuffer.ControlledFragmentHandler.Action.*;
 import static io.aeron.protocol.DataHeaderFlyweight.HEADER_LENGTH;
 import static uk.co.real_logic.artio.replication.PositionTranslations.replicatedToTransport;
+import static uk.co.real_logic.artio.replication.PositionTranslations.transportToReplicated;
 import static uk.co.real_logic.artio.replication.messages.AcknowledgementStatus.MISSING_LOG_ENTRIES;
 import static uk.co.real_logic.artio.replication.messages.AcknowledgementStatus.OK;
 
@@ -43,6 +44,9 @@ class Leader implements Role, RaftHandler
 
     private static final int NO_SESSION_ID = -1;
 
+    // The number of chunks that can be sent to a follower that is catching up before it acknowledges them
+    private static final int CATCH_UP_WINDOW_IN_CHUNKS = 8;
+
     private final TermState termState;
     private final int ourSessionId;
     private final short nodeId;
@@ -54,10 +58,14 @@ class Leader implements Role, RaftHandler
 
     // Counts of how many acknowledgements
     private final Long2LongHashMap nodeToPosition = new Long2LongHashMap(NO_SESSION_ID);
-    private final List<ResendHandler> resendHandlers = new ArrayList<>();
+    private final List<CatchUp> catchUps = new ArrayList<>();
 
     private ArchiveReader.SessionReader ourArchiveReader;
     private RaftPublication controlPublication;
+    private RaftPublication catchUpPublication;
+    private int catchUpChunkSize = ClusterConfiguration.DEFAULT_CATCH_UP_CHUNK_SIZE;
+    private AtomicCounter catchUpBytesSent;
+    private AtomicCounter catchUpBytesRemaining;
     private Subscription acknowledgementSubscription;
     private Subscription dataSubscription;
     private Subscription controlSubscription;
@@ -84,6 +92,7 @@ class Leader implements Role, RaftHandler
 
     private long nextHeartbeatTimeInMs;
     private long timeInMs;
+    private long ackedPosition;
 
     Leader(
         final short nodeId,
@@ -111,7 +120,7 @@ class Leader implements Role, RaftHandler
         this.nodeState = nodeState;
         this.nodeStateHandler = nodeStateHandler;
 
-        followers.forEach(follower -> nodeToPosition.put(follower, 0));
+        followers.forEach(follower -> updatePosition(follower, 0));
         updateNextHeartbeatTime(timeInMs);
         raftSubscription = new RaftSubscription(DebugRaftHandler.wrap(nodeId, this));
     }
@@ -130,7 +139,7 @@ class Leader implements Role, RaftHandler
         {
             final long transportPosition = raftArchiver.archivedTransportPosition();
             final long replicatedPosition = transportPosition + transportPositionDelta;
-            nodeToPosition.put(nodeId, replicatedPosition);
+            updatePosition(nodeId, replicatedPosition);
         }
 
         return bytesRead;
@@ -138,8 +147,8 @@ class Leader implements Role, RaftHandler
 
     public int checkConditions(final long timeInMs)
     {
-        final int resends = CollectionUtil.removeIf(resendHandlers, ResendHandler::reAttemptResend);
-        final long newPosition = acknowledgementStrategy.findAckedTerm(nodeToPosition);
+        final int resends = catchUp();
+        final long newPosition = ackedPosition;
         final int delta = (int)(newPosition - consensusPosition.get());
         if (delta > 0)
         {
@@ -214,28 +223,18 @@ class Leader implements Role, RaftHandler
     {
         if (status == OK)
         {
-            nodeToPosition.put(nodeId, position);
+            updatePosition(nodeId, position);
         }
 
         if (status == MISSING_LOG_ENTRIES)
         {
-            final long transportPosition = replicatedToTransport(position, transportPositionDelta);
-            final int length = (int)(raftArchiver.archivedTransportPosition() - transportPosition);
             if (validateReader())
             {
-                final ResendHandler resendHandler = new ResendHandler();
-                resendHandler.messageAcknowledgementPosition = position;
-                resendHandler.messageAcknowledgementTransportPosition = transportPosition;
-                final long readPosition = Math.max(transportPosition, HEADER_LENGTH);
-                if (!ourArchiveReader.readBlock(readPosition, length, resendHandler))
-                {
-                    resendHandler.emptyResend();
-                }
-
-                if (!resendHandler.resendIsComplete())
-                {
-                    resendHandlers.add(resendHandler);
-                }
+                final long transportPosition = replicatedToTransport(position, transportPositionDelta);
+                final CatchUp catchUp = catchUpFor(nodeId);
+                catchUp.start(transportPosition, raftArchiver.archivedTransportPosition());
+                catchUp.sendChunk();
+                updateCatchUpRemaining();
             }
             else
             {
@@ -246,6 +245,69 @@ class Leader implements Role, RaftHandler
         return CONTINUE;
     }
 
+    private CatchUp catchUpFor(final short nodeId)
+    {
+        final List<CatchUp> catchUps = this.catchUps;
+        for (int i = 0, size = catchUps.size(); i < size; i++)
+        {
+            final CatchUp catchUp = catchUps.get(i);
+            if (catchUp.followerId == nodeId)
+            {
+                return catchUp;
+            }
+        }
+
+        final CatchUp catchUp = new CatchUp(nodeId);
+        catchUps.add(catchUp);
+        return catchUp;
+    }
+
+    private int catchUp()
+    {
+        final List<CatchUp> catchUps = this.catchUps;
+        int chunksSent = 0;
+        for (int i = 0, size = catchUps.size(); i < size; i++)
+        {
+            final CatchUp catchUp = catchUps.get(i);
+            if (catchUp.isActive() && catchUp.sendChunk())
+            {
+                chunksSent++;
+            }
+        }
+
+        if (chunksSent > 0)
+        {
+            updateCatchUpRemaining();
+        }
+
+        return chunksSent;
+    }
+
+    private void updateCatchUpRemaining()
+    {
+        if (catchUpBytesRemaining != null)
+        {
+            long remaining = 0;
+            final List<CatchUp> catchUps = this.catchUps;
+            for (int i = 0, size = catchUps.size(); i < size; i++)
+            {
+                remaining += catchUps.get(i).remaining();
+            }
+
+            catchUpBytesRemaining.setOrdered(remaining);
+        }
+    }
+
+    private void updatePosition(final long nodeId, final long position)
+    {
+        final long previousPosition = nodeToPosition.put(nodeId, position);
+        if (previousPosition != position)
+        {
+            ackedPosition = acknowledgementStrategy.onPositionChange(
+                nodeId, previousPosition, position, nodeToPosition);
+        }
+    }
+
     private boolean validateReader()
     {
         if (ourArchiveReader == null)
@@ -361,7 +423,7 @@ class Leader implements Role, RaftHandler
 
         final long currentPosition = consensusPosition.get();
         transportPositionDelta = currentPosition - transportPosition;
-        nodeToPosition.put(nodeId, currentPosition);
+        updatePosition(nodeId, currentPosition);
 
         termState
             .transportPositionDelta(transportPositionDelta)
@@ -401,63 +463,140 @@ class Leader implements Role, RaftHandler
         return this;
     }
 
-    class ResendHandler implements BlockHandler
+    Leader catchUpPublication(final RaftPublication catchUpPublication, final int catchUpChunkSize)
     {
-        private long messageAcknowledgementPosition;
-        private long messageAcknowledgementTransportPosition;
+        this.catchUpPublication = catchUpPublication;
+        this.catchUpChunkSize = catchUpChunkSize;
+        return this;
+    }
 
-        // retry a resend when it gets back pressured
-        private DirectBuffer repeatResendBuffer;
-        private int repeatResendOffset;
-        private int repeatResendLength;
+    Leader catchUpCounters(final AtomicCounter catchUpBytesSent, final AtomicCounter catchUpBytesRemaining)
+    {
+        this.catchUpBytesSent = catchUpBytesSent;
+        this.catchUpBytesRemaining = catchUpBytesRemaining;
+        return this;
+    }
 
-        public void onBlock(
-            final DirectBuffer buffer, final int offset, final int length, final int sessionId, final int termId)
+    private RaftPublication catchUpPublication()
+    {
+        return catchUpPublication == null ? controlPublication : catchUpPublication;
+    }
+
+    /**
+     * Streams archived data to a follower that has fallen behind, one chunk per duty cycle, alongside normal
+     * replication. A chunk that gets back pressured is read again from the archive and retried on the next
+     * duty cycle, and no more than a window of chunks are sent ahead of the follower's acknowledged position.
+     */
+    private final class CatchUp implements BlockHandler
+    {
+        private final short followerId;
+
+        private long transportPosition;
+        private long endTransportPosition;
+        private boolean hasSentChunk;
+        private boolean chunkSent;
+        private boolean respondWithEmptyResend;
+
+        private CatchUp(final short followerId)
         {
-            saveResend(buffer, offset, length);
+            this.followerId = followerId;
         }
 
-        private void saveResend(final DirectBuffer buffer, final int offset, final int length)
+        void start(final long transportPosition, final long endTransportPosition)
         {
-            if (controlPublication.saveResend(
-                ourSessionId,
-                termState.leadershipTerm(),
-                messageAcknowledgementPosition,
-                messageAcknowledgementTransportPosition,
-                buffer,
-                offset,
-                length) < 0)
+            // If we're already catching this follower up from behind this position then chunks are in flight,
+            // so just carry on to the new end position.
+            if (!isActive() || transportPosition > this.transportPosition)
             {
-                repeatResendBuffer = buffer;
-                repeatResendOffset = offset;
-                repeatResendLength = length;
+                this.transportPosition = transportPosition;
+                hasSentChunk = false;
             }
-            else
+
+            this.endTransportPosition = endTransportPosition;
+            respondWithEmptyResend = false;
+        }
+
+        boolean isActive()
+        {
+            return respondWithEmptyResend || transportPosition < endTransportPosition;
+        }
+
+        long remaining()
+        {
+            return Math.max(0, endTransportPosition - transportPosition);
+        }
+
+        boolean sendChunk()
+        {
+            chunkSent = false;
+            if (respondWithEmptyResend)
             {
-                repeatResendBuffer = null;
-                repeatResendOffset = 0;
-                repeatResendLength = 0;
+                saveResend(transportPosition, EMPTY_BUFFER, 0, 0);
+                respondWithEmptyResend = !chunkSent;
+                return chunkSent;
             }
+
+            if (isWindowFull())
+            {
+                return false;
+            }
+
+            // The transport position is the start of a frame, but the archive is read from the message after it.
+            final int length = (int)Math.min(catchUpChunkSize, endTransportPosition - transportPosition);
+            if (length <= 0 || ourArchiveReader.readBlockUpTo(transportPosition + HEADER_LENGTH, length, this) == 0)
+            {
+                // Nothing more can be read from the archive
+                endTransportPosition = transportPosition;
+                if (!hasSentChunk)
+                {
+                    // Let the follower know that there's nothing that can be sent to it
+                    respondWithEmptyResend = true;
+                    return sendChunk();
+                }
+            }
+
+            return chunkSent;
         }
 
-        boolean reAttemptResend()
+        private boolean isWindowFull()
         {
-            final boolean resendIsComplete = resendIsComplete();
-            if (!resendIsComplete)
+            final long ackedPosition = nodeToPosition.get(followerId);
+            if (ackedPosition == NO_SESSION_ID)
             {
-                saveResend(repeatResendBuffer, repeatResendOffset, repeatResendLength);
+                return false;
             }
-            return resendIsComplete;
+
+            final long ackedTransportPosition = replicatedToTransport(ackedPosition, transportPositionDelta);
+            return transportPosition - ackedTransportPosition > (long)catchUpChunkSize * CATCH_UP_WINDOW_IN_CHUNKS;
         }
 
-        boolean resendIsComplete()
+        public void onBlock(
+            final DirectBuffer buffer, final int offset, final int length, final int sessionId, final int termId)
         {
-            return repeatResendBuffer == null;
+            saveResend(transportPosition, buffer, offset, length);
         }
 
-        void emptyResend()
+        private void saveResend(
+            final long startPosition, final DirectBuffer buffer, final int offset, final int length)
         {
-            saveResend(EMPTY_BUFFER, 0, 0);
+            if (catchUpPublication().saveResend(
+                ourSessionId,
+                termState.leadershipTerm(),
+                transportToReplicated(startPosition, transportPositionDelta),
+                startPosition,
+                buffer,
+                offset,
+                length) >= 0)
+            {
+                transportPosition = startPosition + length;
+                hasSentChunk = true;
+                chunkSent = true;
+
+                if (catchUpBytesSent != null)
+                {
+                    catchUpBytesSent.getAndAdd(length);
+                }
+            }
         }
     }
 }
@@ -15,58 +15,23 @@
  */
 package uk.co.real_logic.artio.replication;
 
-import org.agrona.collections.Long2LongHashMap;
-
-import java.util.Arrays;
-
 /**
- * A leaderShipTerm is acknowledged if a quorum of cluster members acknowledge it
+ * A leaderShipTerm is acknowledged if a quorum of cluster members acknowledge it.
  */
-class QuorumAcknowledgementStrategy implements AcknowledgementStrategy
+class QuorumAcknowledgementStrategy extends SortedPositionsAcknowledgementStrategy
 {
-    private long[] positions = new long[0];
-
-    public long findAckedTerm(final Long2LongHashMap sessionIdToPosition)
+    long ackedPosition(final long[] positions, final long[] nodeIds, final int size)
     {
-        final int size = sessionIdToPosition.size();
-        if (size == 0)
-        {
-            return 0;
-        }
-
-        if (size == 1)
-        {
-            return sessionIdToPosition.values().iterator().next();
-        }
-
-        final long[] positions = copyPositions(sessionIdToPosition, size);
-
-        Arrays.sort(positions);
-
-        final int quorumPoint = (size % 2 == 0) ? size / 2 - 1 : size / 2;
-
-        return positions[quorumPoint];
+        return positions[quorumPoint(size)];
     }
 
-    public boolean isElected(final int receivedVotes, final int clusterSize)
+    static int quorumPoint(final int size)
     {
-        return receivedVotes > clusterSize / 2;
+        return (size % 2 == 0) ? size / 2 - 1 : size / 2;
     }
 
-    private long[] copyPositions(final Long2LongHashMap sessionIdToPosition, final int size)
+    public boolean isElected(final int receivedVotes, final int clusterSize)
     {
-        long[] positions = this.positions;
-        if (positions.length != size)
-        {
-            this.positions = positions = new long[size];
-        }
-
-        final Long2LongHashMap.Values values = sessionIdToPosition.values();
-        final Long2LongHashMap.ValueIterator it = values.iterator();
-        for (int i = 0; i < size; i++)
-        {
-            positions[i] = it.nextValue();
-        }
-        return positions;
+        return receivedVotes > clusterSize / 2;
     }
 }
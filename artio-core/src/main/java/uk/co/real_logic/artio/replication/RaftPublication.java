@@ -250,6 +250,11 @@ class RaftPublication
         return position;
     }
 
+    int maxResendBodyLength()
+    {
+        return dataPublication.maxPayloadLength() - RESEND_BLOCK_LENGTH;
+    }
+
     private long claim(final int framedLength)
     {
         long position;
@@ -36,9 +36,29 @@ class RaftTransport
         final RaftPublication controlPublication = raftPublication(controlStream, "controlStream");
         final Subscription controlSubscription = controlSubscription();
 
+        final StreamIdentifier catchUpStream = configuration.catchUpStream();
+        final RaftPublication catchUpPublication;
+        final Subscription catchUpSubscription;
+        if (catchUpStream == null)
+        {
+            catchUpPublication = controlPublication;
+            catchUpSubscription = null;
+        }
+        else
+        {
+            catchUpPublication = raftPublication(catchUpStream, "catchUpPublication");
+            catchUpSubscription = subscription(
+                catchUpStream.channel(), catchUpStream.streamId(), "catchUpSubscription");
+        }
+
         leader
             .controlPublication(controlPublication)
-            .controlSubscription(controlSubscription);
+            .controlSubscription(controlSubscription)
+            .catchUpPublication(
+                catchUpPublication,
+                Math.min(configuration.catchUpChunkSize(), catchUpPublication.maxResendBodyLength()))
+            .catchUpCounters(
+                configuration.catchUpBytesSentCounter(), configuration.catchUpBytesRemainingCounter());
 
         candidate
             .controlPublication(controlPublication)
@@ -47,7 +67,8 @@ class RaftTransport
         follower
             .controlPublication(controlPublication)
             .acknowledgementPublication(acknowledgementPublication)
-            .controlSubscription(controlSubscription);
+            .controlSubscription(controlSubscription)
+            .catchUpSubscription(catchUpSubscription);
     }
 
     void injectLeaderSubscriptions(final Leader leader)
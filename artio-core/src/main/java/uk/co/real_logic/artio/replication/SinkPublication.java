@@ -0,0 +1,67 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.replication;
+
+import io.aeron.logbuffer.ExclusiveBufferClaim;
+import org.agrona.concurrent.UnsafeBuffer;
+
+import static io.aeron.logbuffer.FrameDescriptor.FRAME_ALIGNMENT;
+import static io.aeron.protocol.DataHeaderFlyweight.HEADER_LENGTH;
+import static org.agrona.BitUtil.align;
+
+/**
+ * A publication that accepts every claim into a single buffer and then discards it, so that the code which
+ * encodes messages can be run without a stream.
+ */
+class SinkPublication extends ClusterablePublication
+{
+    private final UnsafeBuffer buffer;
+    private final int maxPayloadLength;
+
+    private long position = 0;
+
+    SinkPublication(final int maxPayloadLength)
+    {
+        this.maxPayloadLength = maxPayloadLength;
+        buffer = new UnsafeBuffer(new byte[HEADER_LENGTH + maxPayloadLength]);
+    }
+
+    public long tryClaim(final int length, final ExclusiveBufferClaim bufferClaim)
+    {
+        bufferClaim.wrap(buffer, 0, HEADER_LENGTH + length);
+        position += align(HEADER_LENGTH + length, FRAME_ALIGNMENT);
+        return position;
+    }
+
+    public void close()
+    {
+    }
+
+    public int id()
+    {
+        return 0;
+    }
+
+    public long position()
+    {
+        return position;
+    }
+
+    public int maxPayloadLength()
+    {
+        return maxPayloadLength;
+    }
+}
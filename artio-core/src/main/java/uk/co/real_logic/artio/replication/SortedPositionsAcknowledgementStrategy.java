@@ -0,0 +1,178 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.replication;
+
+import org.agrona.collections.Long2LongHashMap;
+
+/**
+ * Base for strategies that pick the acknowledged position from the positions of all nodes in ascending order.
+ *
+ * The positions, and the ids of the nodes that they belong to, are kept sorted between calls. A single node's
+ * position changing only needs it to be moved to its new place rather than sorting every node's position again,
+ * and nothing is allocated once the cluster's size is stable.
+ */
+abstract class SortedPositionsAcknowledgementStrategy implements AcknowledgementStrategy
+{
+    private long[] positions = new long[0];
+    private long[] nodeIds = new long[0];
+
+    public long findAckedTerm(final Long2LongHashMap nodeToPosition)
+    {
+        final int size = nodeToPosition.size();
+        if (size == 0)
+        {
+            return 0;
+        }
+
+        copyPositions(nodeToPosition, size);
+        sort(size);
+
+        return ackedPosition(positions, nodeIds, size);
+    }
+
+    public long onPositionChange(
+        final long nodeId, final long previousPosition, final long position, final Long2LongHashMap nodeToPosition)
+    {
+        final long[] positions = this.positions;
+        final long[] nodeIds = this.nodeIds;
+        final int size = positions.length;
+        if (size != nodeToPosition.size())
+        {
+            // Nodes have been added to the cluster
+            return findAckedTerm(nodeToPosition);
+        }
+
+        int index = indexOf(nodeId, previousPosition, size);
+        if (index < 0)
+        {
+            return findAckedTerm(nodeToPosition);
+        }
+
+        while (index > 0 && positions[index - 1] > position)
+        {
+            positions[index] = positions[index - 1];
+            nodeIds[index] = nodeIds[index - 1];
+            index--;
+        }
+
+        while (index < size - 1 && positions[index + 1] < position)
+        {
+            positions[index] = positions[index + 1];
+            nodeIds[index] = nodeIds[index + 1];
+            index++;
+        }
+
+        positions[index] = position;
+        nodeIds[index] = nodeId;
+
+        return ackedPosition(positions, nodeIds, size);
+    }
+
+    /**
+     * Pick the acknowledged position.
+     *
+     * @param positions the positions of each node, in ascending order.
+     * @param nodeIds the id of the node for the position at the same index.
+     * @param size the number of nodes.
+     * @return the acknowledged position.
+     */
+    abstract long ackedPosition(long[] positions, long[] nodeIds, int size);
+
+    private int indexOf(final long nodeId, final long position, final int size)
+    {
+        final long[] positions = this.positions;
+        final long[] nodeIds = this.nodeIds;
+
+        int low = 0;
+        int high = size - 1;
+        while (low <= high)
+        {
+            final int mid = (low + high) >>> 1;
+            final long midPosition = positions[mid];
+            if (midPosition < position)
+            {
+                low = mid + 1;
+            }
+            else if (midPosition > position)
+            {
+                high = mid - 1;
+            }
+            else
+            {
+                // Several nodes can be at the same position, so search around it for this node.
+                for (int i = mid; i >= 0 && positions[i] == position; i--)
+                {
+                    if (nodeIds[i] == nodeId)
+                    {
+                        return i;
+                    }
+                }
+
+                for (int i = mid + 1; i < size && positions[i] == position; i++)
+                {
+                    if (nodeIds[i] == nodeId)
+                    {
+                        return i;
+                    }
+                }
+
+                return -1;
+            }
+        }
+
+        return -1;
+    }
+
+    private void copyPositions(final Long2LongHashMap nodeToPosition, final int size)
+    {
+        if (positions.length != size)
+        {
+            positions = new long[size];
+            nodeIds = new long[size];
+        }
+
+        final long[] positions = this.positions;
+        final long[] nodeIds = this.nodeIds;
+        final Long2LongHashMap.KeyIterator it = nodeToPosition.keySet().iterator();
+        for (int i = 0; i < size; i++)
+        {
+            final long nodeId = it.nextValue();
+            nodeIds[i] = nodeId;
+            positions[i] = nodeToPosition.get(nodeId);
+        }
+    }
+
+    // Clusters are small, so an insertion sort of both arrays is enough.
+    private void sort(final int size)
+    {
+        final long[] positions = this.positions;
+        final long[] nodeIds = this.nodeIds;
+        for (int i = 1; i < size; i++)
+        {
+            final long position = positions[i];
+            final long nodeId = nodeIds[i];
+            int j = i - 1;
+            while (j >= 0 && positions[j] > position)
+            {
+                positions[j + 1] = positions[j];
+                nodeIds[j + 1] = nodeIds[j];
+                j--;
+            }
+            positions[j + 1] = position;
+            nodeIds[j + 1] = nodeId;
+        }
+    }
+}
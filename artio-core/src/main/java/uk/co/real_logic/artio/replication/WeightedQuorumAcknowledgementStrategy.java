@@ -0,0 +1,78 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.replication;
+
+import org.agrona.collections.Int2IntHashMap;
+import org.agrona.collections.Long2LongHashMap;
+
+/**
+ * A leaderShipTerm is acknowledged if cluster members holding more than half of the total weight acknowledge it.
+ *
+ * This lets commit latency follow a nearby group of nodes, for example ones in the same rack as each other,
+ * whilst still needing acknowledgements from more than one node. Nodes without a configured weight
+ * have a weight of {@link #DEFAULT_WEIGHT}. Elections still require a majority of nodes.
+ */
+class WeightedQuorumAcknowledgementStrategy extends SortedPositionsAcknowledgementStrategy
+{
+    static final int DEFAULT_WEIGHT = 1;
+
+    private final Long2LongHashMap nodeIdToWeight = new Long2LongHashMap(DEFAULT_WEIGHT);
+
+    WeightedQuorumAcknowledgementStrategy(final Int2IntHashMap nodeIdToWeight)
+    {
+        final Int2IntHashMap.KeyIterator it = nodeIdToWeight.keySet().iterator();
+        while (it.hasNext())
+        {
+            final int nodeId = it.nextValue();
+            final int weight = nodeIdToWeight.get(nodeId);
+            if (weight < 0)
+            {
+                throw new IllegalArgumentException(String.format(
+                    "Weight for node %d must not be negative, but was %d", nodeId, weight));
+            }
+            this.nodeIdToWeight.put(nodeId, weight);
+        }
+    }
+
+    long ackedPosition(final long[] positions, final long[] nodeIds, final int size)
+    {
+        final Long2LongHashMap nodeIdToWeight = this.nodeIdToWeight;
+
+        long totalWeight = 0;
+        for (int i = 0; i < size; i++)
+        {
+            totalWeight += nodeIdToWeight.get(nodeIds[i]);
+        }
+
+        long acknowledgedWeight = 0;
+        for (int i = size - 1; i >= 0; i--)
+        {
+            acknowledgedWeight += nodeIdToWeight.get(nodeIds[i]);
+            if (2 * acknowledgedWeight > totalWeight)
+            {
+                return positions[i];
+            }
+        }
+
+        // Only reachable if every node has a weight of 0.
+        return positions[0];
+    }
+
+    public boolean isElected(final int receivedVotes, final int clusterSize)
+    {
+        return receivedVotes > clusterSize / 2;
+    }
+}
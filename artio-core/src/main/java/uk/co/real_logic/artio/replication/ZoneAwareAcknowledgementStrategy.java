@@ -0,0 +1,88 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.replication;
+
+import org.agrona.collections.Int2IntHashMap;
+import org.agrona.collections.Long2LongHashMap;
+
+/**
+ * A leaderShipTerm is acknowledged if a quorum of cluster members acknowledge it and those members span
+ * at least a minimum number of zones, for example racks or data centres.
+ *
+ * If fewer zones than the minimum have nodes in the cluster then the position needs to be acknowledged
+ * in all of them. Zones are numbered from 0 to {@link #MAX_ZONE}. Nodes without a configured zone are in
+ * zone {@link #DEFAULT_ZONE}.
+ */
+class ZoneAwareAcknowledgementStrategy extends SortedPositionsAcknowledgementStrategy
+{
+    static final int DEFAULT_ZONE = 0;
+    static final int MAX_ZONE = Long.SIZE - 1;
+
+    private final Long2LongHashMap nodeIdToZone = new Long2LongHashMap(DEFAULT_ZONE);
+    private final int minimumZones;
+
+    ZoneAwareAcknowledgementStrategy(final Int2IntHashMap nodeIdToZone, final int minimumZones)
+    {
+        if (minimumZones < 1)
+        {
+            throw new IllegalArgumentException("minimumZones must be at least 1, but was " + minimumZones);
+        }
+        this.minimumZones = minimumZones;
+
+        final Int2IntHashMap.KeyIterator it = nodeIdToZone.keySet().iterator();
+        while (it.hasNext())
+        {
+            final int nodeId = it.nextValue();
+            final int zone = nodeIdToZone.get(nodeId);
+            if (zone < 0 || zone > MAX_ZONE)
+            {
+                throw new IllegalArgumentException(String.format(
+                    "Zone for node %d must be between 0 and %d, but was %d", nodeId, MAX_ZONE, zone));
+            }
+            this.nodeIdToZone.put(nodeId, zone);
+        }
+    }
+
+    long ackedPosition(final long[] positions, final long[] nodeIds, final int size)
+    {
+        final Long2LongHashMap nodeIdToZone = this.nodeIdToZone;
+
+        long allZones = 0;
+        for (int i = 0; i < size; i++)
+        {
+            allZones |= 1L << nodeIdToZone.get(nodeIds[i]);
+        }
+        final int requiredZones = Math.min(minimumZones, Long.bitCount(allZones));
+        final int quorumSize = size - QuorumAcknowledgementStrategy.quorumPoint(size);
+
+        long acknowledgedZones = 0;
+        for (int i = size - 1; i >= 0; i--)
+        {
+            acknowledgedZones |= 1L << nodeIdToZone.get(nodeIds[i]);
+            if (size - i >= quorumSize && Long.bitCount(acknowledgedZones) >= requiredZones)
+            {
+                return positions[i];
+            }
+        }
+
+        return positions[0];
+    }
+
+    public boolean isElected(final int receivedVotes, final int clusterSize)
+    {
+        return receivedVotes > clusterSize / 2;
+    }
+}
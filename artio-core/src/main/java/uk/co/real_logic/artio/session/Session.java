@@ -16,12 +16,14 @@
 package uk.co.real_logic.artio.session;
 
 import io.aeron.logbuffer.ControlledFragmentHandler.Action;
+import org.agrona.CloseHelper;
 import org.agrona.DirectBuffer;
 import org.agrona.Verify;
 import org.agrona.concurrent.EpochClock;
 import org.agrona.concurrent.status.AtomicCounter;
 import uk.co.real_logic.artio.CommonConfiguration;
 import uk.co.real_logic.artio.Pressure;
+import uk.co.real_logic.artio.SessionCounters;
 import uk.co.real_logic.artio.builder.Encoder;
 import uk.co.real_logic.artio.builder.HeaderEncoder;
 import uk.co.real_logic.artio.decoder.*;
@@ -133,6 +135,7 @@ public class Session implements AutoCloseable
 
     private String username;
     private String password;
+    private SessionCounters counters;
     private String connectedHost;
     private int connectedPort;
     private long logonTime = NO_LOGON_TIME;
@@ -619,6 +622,7 @@ public class Session implements AutoCloseable
     {
         sentMsgSeqNo.close();
         receivedMsgSeqNo.close();
+        CloseHelper.close(counters);
     }
 
     // ---------- Event Handlers & Logic ----------
@@ -727,8 +731,7 @@ public class Session implements AutoCloseable
             else if (expectedSeqNo < msgSeqNo)
             {
                 state(AWAITING_RESEND);
-                return checkPosition(
-                    proxy.resendRequest(newSentSeqNum(), expectedSeqNo, 0, sequenceIndex()));
+                return resendRequest(expectedSeqNo);
             }
             else if (expectedSeqNo > msgSeqNo && !isPossDupOrResend)
             {
@@ -1026,20 +1029,54 @@ public class Session implements AutoCloseable
 
     Action onSequenceReset(final int msgSeqNo, final int newSeqNo, final boolean gapFillFlag, final boolean possDupFlag)
     {
+        final Action action;
         if (!gapFillFlag)
         {
-            return applySequenceReset(msgSeqNo, newSeqNo);
+            action = applySequenceReset(msgSeqNo, newSeqNo);
         }
         else if (newSeqNo > msgSeqNo)
         {
-            return gapFill(msgSeqNo, newSeqNo, possDupFlag);
+            action = gapFill(msgSeqNo, newSeqNo, possDupFlag);
         }
         else
         {
-            return applySequenceReset(msgSeqNo, newSeqNo);
+            action = applySequenceReset(msgSeqNo, newSeqNo);
+        }
+
+        if (counters != null && action != ABORT)
+        {
+            if (gapFillFlag)
+            {
+                counters.gapFillsReceived().increment();
+            }
+            else
+            {
+                counters.sequenceResetsReceived().increment();
+            }
+        }
+
+        return action;
+    }
+
+    void onResendRequest()
+    {
+        if (counters != null)
+        {
+            counters.resendRequestsReceived().increment();
         }
     }
 
+    private Action resendRequest(final int beginSeqNo)
+    {
+        final Action action = checkPosition(proxy.resendRequest(newSentSeqNum(), beginSeqNo, 0, sequenceIndex()));
+        if (counters != null && action != ABORT)
+        {
+            counters.resendRequestsSent().increment();
+        }
+
+        return action;
+    }
+
     private Action applySequenceReset(final int receivedMsgSeqNo, final int newSeqNo)
     {
         final int expectedMsgSeqNo = expectedReceivedSeqNum();
@@ -1067,8 +1104,7 @@ public class Session implements AutoCloseable
         final int expectedMsgSeqNo = expectedReceivedSeqNum();
         if (receivedMsgSeqNo > expectedMsgSeqNo)
         {
-            final Action action = checkPosition(
-                proxy.resendRequest(newSentSeqNum(), expectedMsgSeqNo, 0, sequenceIndex()));
+            final Action action = resendRequest(expectedMsgSeqNo);
             if (action != ABORT)
             {
                 lastReceivedMsgSeqNum(newSeqNo - 1);
@@ -1249,6 +1285,21 @@ public class Session implements AutoCloseable
         return this;
     }
 
+    /**
+     * Set the counters that record resends and sequence resets for this session, they're closed along with the
+     * session.
+     * <p>
+     * API users should never have to call this method.
+     *
+     * @param counters the counters for this session.
+     * @return this session.
+     */
+    public Session sessionCounters(final SessionCounters counters)
+    {
+        this.counters = counters;
+        return this;
+    }
+
     public long logonTime()
     {
         return this.logonTime;
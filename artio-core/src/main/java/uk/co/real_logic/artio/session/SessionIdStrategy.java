@@ -86,7 +86,8 @@ public interface SessionIdStrategy
     void setupSession(CompositeKey compositeKey, HeaderEncoder headerEncoder);
 
     /**
-     * Saves the given composite key to a buffer.
+     * Saves the given composite key to a buffer. Keys that are equal must be saved as the same bytes, as the engine
+     * looks sessions up by their saved key.
      *
      * @param compositeKey the key to save
      * @param buffer the buffer to save it to
@@ -31,6 +31,7 @@ import uk.co.real_logic.artio.validation.MessageValidationStrategy;
 
 import java.util.stream.Stream;
 
+import static io.aeron.logbuffer.ControlledFragmentHandler.Action.ABORT;
 import static io.aeron.logbuffer.ControlledFragmentHandler.Action.CONTINUE;
 import static uk.co.real_logic.artio.builder.Validation.CODEC_VALIDATION_ENABLED;
 import static uk.co.real_logic.artio.builder.Validation.isValidMsgType;
@@ -121,6 +122,9 @@ public class SessionParser
             case SequenceResetDecoder.MESSAGE_TYPE:
                 return onSequenceReset(offset, length);
 
+            case ResendRequestDecoder.MESSAGE_TYPE:
+                return onResendRequest(offset, length);
+
             default:
                 return onAnyOtherMessage(offset, length);
         }
@@ -166,6 +170,17 @@ public class SessionParser
             MISSING_LONG;
     }
 
+    private Action onResendRequest(final int offset, final int length)
+    {
+        // Resends are performed by the engine, the session only counts them.
+        final Action action = onAnyOtherMessage(offset, length);
+        if (action != ABORT)
+        {
+            session.onResendRequest();
+        }
+        return action;
+    }
+
     private Action onAnyOtherMessage(final int offset, final int length)
     {
         final HeaderDecoder header = this.header;
@@ -28,7 +28,10 @@ import java.nio.file.Paths;
 
 import static java.nio.file.StandardOpenOption.*;
 
-class HistogramLogWriter implements HistogramHandler
+/**
+ * Writes histograms to a log file that can be read by the {@link HistogramLogReader}.
+ */
+public class HistogramLogWriter implements HistogramHandler
 {
     private static final int BUFFER_SIZE = 1024 * 1024;
 
@@ -36,7 +39,7 @@ class HistogramLogWriter implements HistogramHandler
     private final ByteBuffer buffer;
     private final ErrorHandler errorHandler;
 
-    HistogramLogWriter(final int numberOfTimers, final String logFile, final ErrorHandler errorHandler)
+    public HistogramLogWriter(final int numberOfTimers, final String logFile, final ErrorHandler errorHandler)
     {
         this.errorHandler = errorHandler;
         buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio;
+
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static uk.co.real_logic.artio.LogTag.CATCHUP;
+import static uk.co.real_logic.artio.LogTag.FIX_MESSAGE;
+
+public class BinaryDebugLogTest
+{
+    private static final int BUFFER_LENGTH = 64 * 1024;
+    private static final String MESSAGE = "8=FIX.4.4\u00019=0079\u000135=A\u0001";
+
+    private final File file = new File(CommonConfiguration.optimalTmpDirName(), "binary-debug-log-test.log");
+    private final BinaryDebugLog log = new BinaryDebugLog(BUFFER_LENGTH);
+    private final BinaryDebugLogAgent agent = new BinaryDebugLogAgent(log, file);
+
+    @After
+    public void tearDown()
+    {
+        file.delete();
+    }
+
+    @Test
+    public void shouldFormatEventsWhenRead() throws IOException
+    {
+        final UnsafeBuffer buffer = new UnsafeBuffer(MESSAGE.getBytes(US_ASCII));
+
+        log.event(FIX_MESSAGE, "(%d) Received %s %n")
+            .longArgument(3)
+            .asciiArgument(buffer, 0, MESSAGE.length())
+            .commit();
+        log.event(CATCHUP, "Querying for %d, currently at (%d, %s)%n")
+            .longArgument(1)
+            .longArgument(2)
+            .objectArgument("three")
+            .commit();
+        log.message(CATCHUP).objectArgument("a message").commit();
+
+        final List<String> events = readEvents();
+
+        assertEquals(3, events.size());
+        assertThat(events.get(0), containsString("[FIX_MESSAGE] : (3) Received " + MESSAGE));
+        assertThat(events.get(1), containsString("[CATCHUP] : Querying for 1, currently at (2, three)"));
+        assertThat(events.get(2), containsString("[CATCHUP] : a message"));
+        assertThat(events.get(0), containsString(Thread.currentThread().getName() + "[FIX_MESSAGE]"));
+    }
+
+    @Test
+    public void shouldFormatEventsFromMultipleThreads() throws Exception
+    {
+        final Thread thread = new Thread(
+            () -> log.event(FIX_MESSAGE, "Other thread %s%n").booleanArgument(true).commit(), "other-thread");
+        thread.start();
+        thread.join();
+
+        log.event(FIX_MESSAGE, "This thread %s%n").booleanArgument(false).commit();
+
+        final List<String> events = readEvents();
+
+        assertEquals(2, events.size());
+        assertThat(events.get(0), containsString("other-thread[FIX_MESSAGE] : Other thread true"));
+        assertThat(events.get(1), containsString("[FIX_MESSAGE] : This thread false"));
+    }
+
+    @Test
+    public void shouldTruncateMessagesThatDoNotFit() throws IOException
+    {
+        final byte[] largeMessage = new byte[BUFFER_LENGTH];
+        final UnsafeBuffer buffer = new UnsafeBuffer(largeMessage);
+        buffer.setMemory(0, largeMessage.length, (byte)'X');
+
+        log.event(FIX_MESSAGE, "Read %s%n").asciiArgument(buffer, 0, largeMessage.length).commit();
+
+        final List<String> events = readEvents();
+
+        assertEquals(1, events.size());
+        assertThat(events.get(0), endsWith("XXX" + System.lineSeparator()));
+    }
+
+    @Test
+    public void shouldRecordDroppedEvents() throws IOException
+    {
+        final UnsafeBuffer buffer = new UnsafeBuffer(MESSAGE.getBytes(US_ASCII));
+        final int attempts = BUFFER_LENGTH / MESSAGE.length();
+        for (int i = 0; i < attempts; i++)
+        {
+            log.event(FIX_MESSAGE, "Read %s%n").asciiArgument(buffer, 0, MESSAGE.length()).commit();
+        }
+
+        final long droppedEvents = log.droppedEvents();
+        final List<String> events = readEvents();
+
+        assertThat(droppedEvents, greaterThan(0L));
+        assertEquals(attempts - droppedEvents, events.size() - 1);
+        assertTrue(events.stream().anyMatch((event) -> event.startsWith(droppedEvents + " events dropped")));
+    }
+
+    private List<String> readEvents() throws IOException
+    {
+        agent.onClose();
+
+        final List<String> events = new ArrayList<>();
+        new BinaryDebugLogReader().read(new UnsafeBuffer(Files.readAllBytes(file.toPath())), events::add);
+        return events;
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine;
+
+import org.agrona.ErrorHandler;
+import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.BusySpinIdleStrategy;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static uk.co.real_logic.artio.Timing.assertEventuallyTrue;
+
+public class GroupingEngineSchedulerTest
+{
+    private final Set<String> indexerThreads = ConcurrentHashMap.newKeySet();
+    private final Set<String> archiverThreads = ConcurrentHashMap.newKeySet();
+    private final Set<String> replayerThreads = ConcurrentHashMap.newKeySet();
+
+    private Agent framer = mock(Agent.class);
+    private Agent monitoringAgent = mock(Agent.class);
+    private EngineConfiguration configuration = mock(EngineConfiguration.class);
+    private ErrorHandler mockErrorHandler = mock(ErrorHandler.class);
+
+    @Test
+    public void shouldRunEachArchivingAgentOnItsOwnThread() throws Exception
+    {
+        try (EngineScheduler scheduler = new GroupingEngineScheduler())
+        {
+            launch(scheduler);
+
+            assertEventuallyTrue("Failed to run archiving agents", this::allAgentsHaveRun);
+
+            assertNotEquals(indexerThreads, archiverThreads);
+            assertNotEquals(indexerThreads, replayerThreads);
+            assertNotEquals(archiverThreads, replayerThreads);
+        }
+    }
+
+    @Test
+    public void shouldRunGroupedArchivingAgentsOnTheSameThread() throws Exception
+    {
+        try (EngineScheduler scheduler = new GroupingEngineScheduler(
+            roleName -> roleName.equals("Replayer") ? "replay" : "archive",
+            BusySpinIdleStrategy::new))
+        {
+            launch(scheduler);
+
+            assertEventuallyTrue("Failed to run archiving agents", this::allAgentsHaveRun);
+
+            assertEquals(indexerThreads, archiverThreads);
+            assertNotEquals(indexerThreads, replayerThreads);
+        }
+    }
+
+    private void launch(final EngineScheduler scheduler)
+    {
+        when(configuration.framerIdleStrategy()).thenReturn(new BusySpinIdleStrategy());
+
+        scheduler.launch(
+            configuration,
+            mockErrorHandler,
+            framer,
+            Arrays.asList(
+                new RecordingAgent("Indexer", indexerThreads),
+                new RecordingAgent("Archiver", archiverThreads),
+                new RecordingAgent("Replayer", replayerThreads)),
+            monitoringAgent,
+            null);
+    }
+
+    private boolean allAgentsHaveRun()
+    {
+        return !indexerThreads.isEmpty() && !archiverThreads.isEmpty() && !replayerThreads.isEmpty();
+    }
+
+    private static final class RecordingAgent implements Agent
+    {
+        private final String roleName;
+        private final Set<String> threads;
+
+        private RecordingAgent(final String roleName, final Set<String> threads)
+        {
+            this.roleName = roleName;
+            this.threads = threads;
+        }
+
+        public int doWork()
+        {
+            threads.add(Thread.currentThread().getName());
+            return 0;
+        }
+
+        public void onClose()
+        {
+        }
+
+        public String roleName()
+        {
+            return roleName;
+        }
+    }
+}
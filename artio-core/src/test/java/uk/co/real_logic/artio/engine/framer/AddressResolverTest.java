@@ -0,0 +1,109 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.agrona.ErrorHandler;
+import org.agrona.concurrent.ManyToOneConcurrentArrayQueue;
+import org.agrona.concurrent.QueuedPipe;
+import org.junit.After;
+import org.junit.Test;
+import uk.co.real_logic.artio.engine.framer.AddressResolver.ResolvedAddressHandler;
+
+import java.net.InetSocketAddress;
+
+import static java.util.Collections.singletonList;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+import static uk.co.real_logic.artio.Timing.assertEventuallyTrue;
+
+public class AddressResolverTest
+{
+    private static final String HOST = "localhost";
+    private static final int PORT = 9998;
+    private static final long CACHE_TTL_IN_MS = 1000;
+
+    private final QueuedPipe<AdminCommand> adminCommands = new ManyToOneConcurrentArrayQueue<>(16);
+    private final FakeEpochClock clock = new FakeEpochClock();
+    private final ErrorHandler errorHandler = mock(ErrorHandler.class);
+    private final ResolvedAddressHandler handler = mock(ResolvedAddressHandler.class);
+    private final AddressResolver addressResolver = new AddressResolver(
+        adminCommands, clock, CACHE_TTL_IN_MS, errorHandler, "");
+
+    @After
+    public void close()
+    {
+        addressResolver.close();
+        verifyNoMoreInteractions(errorHandler);
+    }
+
+    @Test
+    public void shouldHandResolvedAddressBackAsAdminCommand()
+    {
+        addressResolver.resolve(HOST, PORT, handler);
+
+        assertResolvedThroughAdminCommand();
+    }
+
+    @Test
+    public void shouldResolveCachedAddressStraightAway()
+    {
+        addressResolver.resolve(HOST, PORT, handler);
+        assertResolvedThroughAdminCommand();
+        reset(handler);
+
+        addressResolver.resolve(HOST, PORT, handler);
+
+        verify(handler).onResolved(any(InetSocketAddress.class), isNull());
+    }
+
+    @Test
+    public void shouldResolveAgainOnceCachedAddressExpires()
+    {
+        addressResolver.resolve(HOST, PORT, handler);
+        assertResolvedThroughAdminCommand();
+        reset(handler);
+
+        clock.advanceMilliSeconds(CACHE_TTL_IN_MS);
+        addressResolver.resolve(HOST, PORT, handler);
+
+        verify(handler, never()).onResolved(any(), any());
+        assertResolvedThroughAdminCommand();
+    }
+
+    @Test
+    public void shouldPreResolveHosts()
+    {
+        addressResolver.preResolve(singletonList(HOST));
+
+        assertEventuallyTrue("Host never resolved", () ->
+        {
+            addressResolver.resolve(HOST, PORT, handler);
+            adminCommands.drain((command) -> command.execute(null));
+            verify(handler, atLeastOnce()).onResolved(any(InetSocketAddress.class), isNull());
+        });
+    }
+
+    private void assertResolvedThroughAdminCommand()
+    {
+        verify(handler, never()).onResolved(any(), any());
+
+        assertEventuallyTrue(
+            "Address never resolved", () -> adminCommands.drain((command) -> command.execute(null)) > 0);
+
+        verify(handler).onResolved(new InetSocketAddress(HOST, PORT), null);
+    }
+}
@@ -24,6 +24,7 @@ import org.agrona.LangUtil;
 import org.agrona.collections.LongHashSet;
 import org.agrona.concurrent.AgentInvoker;
 import org.agrona.concurrent.QueuedPipe;
+import org.agrona.concurrent.status.AtomicCounter;
 import org.hamcrest.Matcher;
 import org.hamcrest.Matchers;
 import org.junit.After;
@@ -31,6 +32,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.verification.VerificationMode;
+import uk.co.real_logic.artio.LibraryCounters;
 import uk.co.real_logic.artio.Timing;
 import uk.co.real_logic.artio.engine.CompletionPosition;
 import uk.co.real_logic.artio.engine.EngineConfiguration;
@@ -98,6 +100,9 @@ public class FramerTest
     private final SenderEndPoint mockSenderEndPoint = mock(SenderEndPoint.class);
     private final ReceiverEndPoint mockReceiverEndPoint = mock(ReceiverEndPoint.class);
     private final EndPointFactory mockEndPointFactory = mock(EndPointFactory.class);
+    private final AddressResolver addressResolver = mock(AddressResolver.class);
+    private final AtomicCounter startupTimeInMs = mock(AtomicCounter.class);
+    private final LibraryCounters libraryCounters = mock(LibraryCounters.class, RETURNS_DEEP_STUBS);
     private final GatewayPublication inboundPublication = mock(GatewayPublication.class);
     private final SessionIdStrategy mockSessionIdStrategy = mock(SessionIdStrategy.class);
     private final Header header = mock(Header.class);
@@ -155,6 +160,16 @@ public class FramerTest
         when(mockEndPointFactory.senderEndPoint(any(), anyLong(), anyInt(), any(), any()))
             .thenReturn(mockSenderEndPoint);
 
+        when(mockEndPointFactory.libraryCounters(anyInt())).thenReturn(libraryCounters);
+
+        doAnswer(
+            (inv) ->
+            {
+                final AddressResolver.ResolvedAddressHandler handler = inv.getArgument(2);
+                handler.onResolved(new InetSocketAddress((String)inv.getArgument(0), inv.getArgument(1)), null);
+                return null;
+            }).when(addressResolver).resolve(anyString(), anyInt(), any());
+
         when(mockReceiverEndPoint.connectionId()).then((inv) -> connectionId.getValue());
 
         when(mockSenderEndPoint.connectionId()).then((inv) -> connectionId.getValue());
@@ -198,7 +213,10 @@ public class FramerTest
             mock(CompletionPosition.class),
             mock(CompletionPosition.class),
             finalImagePositions,
-            mock(AgentInvoker.class));
+            mock(AgentInvoker.class),
+            addressResolver,
+            startupTimeInMs,
+            engineConfiguration.nanoClock().nanoTime());
 
         when(sessionContexts.onLogon(any())).thenReturn(new SessionContext(SESSION_ID,
             SessionContext.UNKNOWN_SEQUENCE_INDEX,
@@ -251,6 +269,17 @@ public class FramerTest
             });
     }
 
+    @Test
+    public void shouldRecordStartupTimeOnceAfterFirstDutyCycle() throws Exception
+    {
+        verify(startupTimeInMs, never()).set(anyLong());
+
+        framer.doWork();
+        framer.doWork();
+
+        verify(startupTimeInMs, times(1)).set(anyLong());
+    }
+
     @Test
     public void shouldPassDataToEndPointWhenSent() throws Exception
     {
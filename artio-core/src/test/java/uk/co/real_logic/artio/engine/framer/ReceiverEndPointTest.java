@@ -40,6 +40,7 @@ import java.nio.channels.ClosedChannelException;
 import java.util.function.ToIntFunction;
 
 import static io.aeron.Publication.BACK_PRESSURED;
+import static java.util.Collections.singletonMap;
 import static org.hamcrest.Matchers.hasSize;
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
@@ -59,6 +60,8 @@ public class ReceiverEndPointTest
     private static final long POSITION = 1024L;
     private static final int BUFFER_SIZE = 16 * 1024;
     private static final int SEQUENCE_INDEX = 0;
+    private static final int ROUTED_LIBRARY_ID = 3;
+    private static final String ROUTED_LIBRARY_NAME = "orders";
 
     private TcpChannel mockChannel = mock(TcpChannel.class);
     private GatewayPublication libraryPublication = mock(GatewayPublication.class);
@@ -72,6 +75,8 @@ public class ReceiverEndPointTest
     private GatewaySession gatewaySession = mock(GatewaySession.class);
     private Session session = mock(Session.class);
     private final LongHashSet replicatedConnectionIds = new LongHashSet();
+    private final MessageTypeRouter messageTypeRouter =
+        new MessageTypeRouter(singletonMap("D", ROUTED_LIBRARY_NAME));
     private final AuthenticationResult authenticationResult = AuthenticationResult.authenticatedSession(
         gatewaySession, 1, 1);
     private GatewaySessions mockGatewaySessions = mock(GatewaySessions.class);
@@ -83,7 +88,8 @@ public class ReceiverEndPointTest
         mockChannel, BUFFER_SIZE, libraryPublication, clusterablePublication,
         CONNECTION_ID, UNKNOWN, SEQUENCE_INDEX, mockSessionContexts,
         sentSequenceNumbers, receivedSequenceNumbers, messagesRead, framer, errorHandler, LIBRARY_ID,
-        DETERMINE_AT_LOGON, ConnectionType.ACCEPTOR, replicatedConnectionIds, mockGatewaySessions);
+        DETERMINE_AT_LOGON, ConnectionType.ACCEPTOR, replicatedConnectionIds, mockGatewaySessions,
+        messageTypeRouter);
 
     @Before
     public void setUp()
@@ -154,6 +160,54 @@ public class ReceiverEndPointTest
         sessionReceivesOneMessage();
     }
 
+    @Test
+    public void shouldRouteMessageToLibraryByMessageType()
+    {
+        messageTypeRouter.onLibraryConnect(ROUTED_LIBRARY_ID, ROUTED_LIBRARY_NAME);
+
+        theEndpointReceivesACompleteMessage();
+
+        pollsData(2 * MSG_LEN);
+
+        savesRoutedMessages(1);
+        savesFramedMessages(0, OK, MSG_LEN);
+        sessionReceivesOneMessage();
+    }
+
+    @Test
+    public void shouldRetryRoutedMessageWhenBackPressured()
+    {
+        messageTypeRouter.onLibraryConnect(ROUTED_LIBRARY_ID, ROUTED_LIBRARY_NAME);
+        when(libraryPublication.saveMessage(
+            anyBuffer(), anyInt(), anyInt(), eq(ROUTED_LIBRARY_ID), anyInt(), anyLong(), anyInt(), anyLong(),
+            eq(ROUTED)))
+            .thenReturn(BACK_PRESSURED, POSITION);
+
+        theEndpointReceivesACompleteMessage();
+        pollsData(MSG_LEN);
+
+        theEndpointReceivesNothing();
+        pollsData(MSG_LEN);
+
+        savesRoutedMessages(2);
+        savesFramedMessages(0, OK, MSG_LEN);
+        sessionReceivesOneMessage();
+    }
+
+    @Test
+    public void shouldNotRouteMessagesToTimedOutLibrary()
+    {
+        messageTypeRouter.onLibraryConnect(ROUTED_LIBRARY_ID, ROUTED_LIBRARY_NAME);
+        messageTypeRouter.onLibraryTimeout(ROUTED_LIBRARY_ID);
+
+        theEndpointReceivesACompleteMessage();
+
+        pollsData(2 * MSG_LEN);
+
+        savesRoutedMessages(0);
+        savesAFramedMessage();
+    }
+
     @Test
     public void shouldIgnoreGarbledMessages() throws IOException
     {
@@ -427,6 +481,14 @@ public class ReceiverEndPointTest
             eq(status));
     }
 
+    private void savesRoutedMessages(final int numberOfMessages)
+    {
+        verify(libraryPublication, times(numberOfMessages)).saveMessage(
+            anyBuffer(), eq(0), eq(MSG_LEN), eq(ROUTED_LIBRARY_ID),
+            eq(MESSAGE_TYPE), eq(SESSION_ID), eq(SEQUENCE_INDEX), eq(CONNECTION_ID),
+            eq(ROUTED));
+    }
+
     private void savesTwoFramedMessages(final int firstMessageSaveAttempts)
     {
         final InOrder inOrder = Mockito.inOrder(libraryPublication);
@@ -17,20 +17,26 @@ package uk.co.real_logic.artio.engine.framer;
 
 import io.aeron.logbuffer.ControlledFragmentHandler.Action;
 import org.agrona.ErrorHandler;
+import org.agrona.IoUtil;
 import org.agrona.LangUtil;
 import org.agrona.concurrent.UnsafeBuffer;
 import org.agrona.concurrent.status.AtomicCounter;
 import org.junit.Test;
 import org.mockito.stubbing.Answer;
 import org.mockito.verification.VerificationMode;
+import uk.co.real_logic.artio.decoder.HeartbeatDecoder;
+import uk.co.real_logic.artio.engine.SessionThrottleStrategy;
 import uk.co.real_logic.artio.messages.MessageHeaderDecoder;
 
+import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.concurrent.atomic.AtomicLong;
 
 import static io.aeron.logbuffer.ControlledFragmentHandler.Action.CONTINUE;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 import static uk.co.real_logic.artio.engine.EngineConfiguration.DEFAULT_SLOW_CONSUMER_TIMEOUT_IN_MS;
@@ -50,10 +56,16 @@ public class SenderEndPointTest
     private static final int FRAGMENT_LENGTH = alignTerm(HEADER_LENGTH + FRAME_SIZE + BODY_LENGTH);
     private static final long BEGIN_POSITION = POSITION - FRAGMENT_LENGTH;
     private static final int MAX_BYTES_IN_BUFFER = 3 * BODY_LENGTH;
+    private static final int THROTTLE_LIMIT = 2;
+    private static final long THROTTLE_WINDOW_IN_MS = 100;
+    private static final int MESSAGE_TYPE = 'D';
 
     private TcpChannel tcpChannel = mock(TcpChannel.class);
     private AtomicCounter bytesInBuffer = fakeCounter();
     private AtomicCounter invalidLibraryAttempts = mock(AtomicCounter.class);
+    private AtomicCounter messagesWritten = fakeCounter();
+    private AtomicCounter slowConsumerTimeInMs = fakeCounter();
+    private AtomicCounter throttledTimeInMs = fakeCounter();
     private ErrorHandler errorHandler = mock(ErrorHandler.class);
     private Framer framer = mock(Framer.class);
     private ByteBuffer byteBuffer = ByteBuffer.allocate(1024);
@@ -69,11 +81,17 @@ public class SenderEndPointTest
         tcpChannel,
         bytesInBuffer,
         invalidLibraryAttempts,
+        messagesWritten,
+        slowConsumerTimeInMs,
         errorHandler,
         framer,
+        null,
         MAX_BYTES_IN_BUFFER,
         DEFAULT_SLOW_CONSUMER_TIMEOUT_IN_MS,
-        0);
+        0,
+        SessionThrottleStrategy.limitAll(THROTTLE_LIMIT),
+        new SlidingWindowThrottle(THROTTLE_WINDOW_IN_MS),
+        throttledTimeInMs);
 
     @Test
     public void shouldRetrySlowConsumerMessage() throws IOException
@@ -88,6 +106,19 @@ public class SenderEndPointTest
         verifyDoesNotBlockLibrary();
     }
 
+    @Test
+    public void shouldCountTimeSpentAsSlowConsumer() throws IOException
+    {
+        becomeSlowConsumer();
+        assertEquals(0, messagesWritten.get());
+
+        channelWillWrite(BODY_LENGTH);
+        onSlowOutboundMessage(100);
+
+        assertEquals(1, messagesWritten.get());
+        assertEquals(100, slowConsumerTimeInMs.get());
+    }
+
     @Test
     public void shouldBeAbleToFragmentSlowConsumerRetries() throws IOException
     {
@@ -380,6 +411,201 @@ public class SenderEndPointTest
         verifyNoMoreErrors();
     }
 
+    @Test
+    public void shouldSpillUnsentBytesWithoutBlockingLibrary() throws IOException
+    {
+        final int firstWrites = 41;
+        final int remaining = BODY_LENGTH - firstWrites;
+        final SpillQueue spillQueue = new SpillQueue(spillFile(), MAX_BYTES_IN_BUFFER, MAX_BYTES_IN_BUFFER);
+        endPoint = spillingEndPoint(spillQueue);
+
+        channelWillWrite(firstWrites);
+        onOutboundMessage(0, POSITION);
+        assertBytesInBuffer(remaining);
+        verify(framer).slowStatus(LIBRARY_ID, CONNECTION_ID, true);
+
+        onOutboundMessage(0, POSITION + FRAGMENT_LENGTH);
+        byteBufferWritten();
+        assertBytesInBuffer(remaining + BODY_LENGTH);
+
+        onSlowOutboundMessage();
+        byteBufferNotWritten();
+        verifyDoesNotBlockLibrary();
+
+        when(tcpChannel.write(any(ByteBuffer.class))).thenReturn(remaining + BODY_LENGTH);
+        assertEquals(1, endPoint.drainSpillQueue(100));
+        assertBytesInBuffer(0);
+        verify(framer).slowStatus(LIBRARY_ID, CONNECTION_ID, false);
+        assertEquals(2, messagesWritten.get());
+        assertEquals(100, slowConsumerTimeInMs.get());
+        verifyNoMoreErrors();
+    }
+
+    @Test
+    public void shouldDisconnectWhenSpillQueueIsFull()
+    {
+        endPoint = spillingEndPoint(new SpillQueue(spillFile(), MAX_BYTES_IN_BUFFER, MAX_BYTES_IN_BUFFER));
+
+        long position = POSITION;
+        channelWillWrite(0);
+        for (int i = 0; i < 4; i++)
+        {
+            onOutboundMessage(0, position);
+            position += FRAGMENT_LENGTH;
+        }
+
+        verifySlowConsumerDisconnect(times(1));
+        assertBytesInBuffer(MAX_BYTES_IN_BUFFER);
+    }
+
+    @Test
+    public void shouldMapSpillQueueToFileBeyondInMemoryLimit()
+    {
+        final File spillFile = spillFile();
+        final SpillQueue spillQueue = new SpillQueue(spillFile, BODY_LENGTH, MAX_BYTES_IN_BUFFER);
+        endPoint = spillingEndPoint(spillQueue);
+
+        channelWillWrite(0);
+        onOutboundMessage(0, POSITION);
+
+        assertTrue(spillQueue.isMapped());
+        assertTrue(spillFile.exists());
+
+        endPoint.close();
+        assertFalse(spillFile.exists());
+    }
+
+    @Test
+    public void shouldHoldBackMessagesBeyondThrottleLimit()
+    {
+        endPoint.configureThrottle(null);
+
+        long position = POSITION;
+        for (int i = 0; i < THROTTLE_LIMIT; i++)
+        {
+            channelWillWrite(BODY_LENGTH);
+            onOutboundMessage(0, position);
+            byteBufferWritten();
+            position += FRAGMENT_LENGTH;
+        }
+
+        onOutboundMessage(0, position);
+        byteBufferNotWritten();
+        assertBytesInBuffer(BODY_LENGTH);
+        assertEquals(THROTTLE_LIMIT, messagesWritten.get());
+        verify(framer).slowStatus(LIBRARY_ID, CONNECTION_ID, true);
+
+        onSlowOutboundMessage(0, position);
+        byteBufferNotWritten();
+        verifyBlocksLibraryAt(position - FRAGMENT_LENGTH);
+
+        onSlowOutboundMessage(THROTTLE_WINDOW_IN_MS - 1, position);
+        byteBufferNotWritten();
+
+        final long refillTimeInMs = THROTTLE_WINDOW_IN_MS;
+        channelWillWrite(BODY_LENGTH);
+        onSlowOutboundMessage(refillTimeInMs, position);
+        byteBufferWritten();
+        verifyDoesNotBlockLibrary();
+        assertBytesInBuffer(0);
+        assertEquals(THROTTLE_LIMIT + 1, messagesWritten.get());
+        assertEquals(refillTimeInMs, throttledTimeInMs.get());
+        verify(framer).slowStatus(LIBRARY_ID, CONNECTION_ID, false);
+        verifyNoMoreErrors();
+    }
+
+    @Test
+    public void shouldNotDisconnectThrottledSessionAsSlowConsumer()
+    {
+        endPoint.configureThrottle(null);
+        channelWillWrite(BODY_LENGTH);
+
+        long position = POSITION;
+        for (int i = 0; i <= THROTTLE_LIMIT; i++)
+        {
+            onOutboundMessage(0, position);
+            position += FRAGMENT_LENGTH;
+        }
+
+        endPoint.checkTimeouts(DEFAULT_SLOW_CONSUMER_TIMEOUT_IN_MS + 1);
+
+        verifySlowConsumerDisconnect(never());
+        verifyNoMoreErrors();
+    }
+
+    @Test
+    public void shouldNotThrottleSessionLevelMessages()
+    {
+        endPoint.configureThrottle(null);
+
+        long position = POSITION;
+        for (int i = 0; i < THROTTLE_LIMIT; i++)
+        {
+            channelWillWrite(BODY_LENGTH);
+            onOutboundMessage(0, position);
+            position += FRAGMENT_LENGTH;
+        }
+
+        channelWillWrite(BODY_LENGTH);
+        endPoint.onOutboundMessage(
+            LIBRARY_ID, buffer, 0, BODY_LENGTH, HeartbeatDecoder.MESSAGE_TYPE, position, 0);
+
+        assertBytesInBuffer(0);
+        assertEquals(THROTTLE_LIMIT + 1, messagesWritten.get());
+        verify(framer, never()).slowStatus(LIBRARY_ID, CONNECTION_ID, true);
+        verifyNoMoreErrors();
+    }
+
+    @Test
+    public void shouldOnlyThrottleMessageThatTakesSeveralWritesOnce()
+    {
+        endPoint.configureThrottle(null);
+
+        final int firstWrites = 41;
+        channelWillWrite(firstWrites);
+        onOutboundMessage(0, POSITION);
+        assertBytesInBuffer(BODY_LENGTH - firstWrites);
+
+        channelWillWrite(BODY_LENGTH - firstWrites);
+        onSlowOutboundMessage(0);
+        assertBytesInBuffer(0);
+
+        channelWillWrite(BODY_LENGTH);
+        onOutboundMessage(0, POSITION + FRAGMENT_LENGTH);
+        assertEquals(2, messagesWritten.get());
+        verifyNoMoreErrors();
+    }
+
+    private SenderEndPoint spillingEndPoint(final SpillQueue spillQueue)
+    {
+        return new SenderEndPoint(
+            CONNECTION_ID,
+            LIBRARY_ID,
+            libraryBlockablePosition,
+            replayBlockablePosition,
+            tcpChannel,
+            bytesInBuffer,
+            invalidLibraryAttempts,
+            messagesWritten,
+            slowConsumerTimeInMs,
+            errorHandler,
+            framer,
+            spillQueue,
+            MAX_BYTES_IN_BUFFER,
+            DEFAULT_SLOW_CONSUMER_TIMEOUT_IN_MS,
+            0,
+            SessionThrottleStrategy.none(),
+            new SlidingWindowThrottle(THROTTLE_WINDOW_IN_MS),
+            throttledTimeInMs);
+    }
+
+    private File spillFile()
+    {
+        final File spillFile = new File(IoUtil.tmpDirName(), "spill-" + CONNECTION_ID);
+        IoUtil.deleteIfExists(spillFile);
+        return spillFile;
+    }
+
     private void byteBufferNotWritten()
     {
         byteBufferWritten(never());
@@ -397,17 +623,17 @@ public class SenderEndPointTest
 
     private void onOutboundMessage(final long timeInMs, final long position)
     {
-        endPoint.onOutboundMessage(LIBRARY_ID, buffer, 0, BODY_LENGTH, position, timeInMs);
+        endPoint.onOutboundMessage(LIBRARY_ID, buffer, 0, BODY_LENGTH, MESSAGE_TYPE, position, timeInMs);
     }
 
     private void onReplayMessage(final long timeInMs, final long position)
     {
-        endPoint.onReplayMessage(buffer, 0, BODY_LENGTH, timeInMs, position);
+        endPoint.onReplayMessage(buffer, 0, BODY_LENGTH, MESSAGE_TYPE, timeInMs, position);
     }
 
     private void onSlowReplayMessage(final long timeInMs, final long position)
     {
-        endPoint.onSlowReplayMessage(buffer, 0, BODY_LENGTH, timeInMs, position);
+        endPoint.onSlowReplayMessage(buffer, 0, BODY_LENGTH, MESSAGE_TYPE, timeInMs, position);
     }
 
     private void verifySlowConsumerDisconnect(final VerificationMode times)
@@ -444,13 +670,19 @@ public class SenderEndPointTest
     }
 
     private void onSlowOutboundMessage(final long timeInMs)
+    {
+        onSlowOutboundMessage(timeInMs, POSITION);
+    }
+
+    private void onSlowOutboundMessage(final long timeInMs, final long position)
     {
         final Action action = endPoint.onSlowOutboundMessage(
             buffer,
             HEADER_LENGTH,
             LENGTH,
-            POSITION,
+            position,
             BODY_LENGTH,
+            MESSAGE_TYPE,
             LIBRARY_ID,
             timeInMs);
         assertEquals(CONTINUE, action);
@@ -497,6 +729,7 @@ public class SenderEndPointTest
 
         when(atomicCounter.getAndAdd(anyLong())).then(add);
         when(atomicCounter.getAndAddOrdered(anyLong())).then(add);
+        when(atomicCounter.increment()).then((inv) -> value.getAndIncrement());
 
         return atomicCounter;
     }
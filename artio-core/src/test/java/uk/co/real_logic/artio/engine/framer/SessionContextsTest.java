@@ -45,6 +45,7 @@ public class SessionContextsTest
     private static final int SEQUENCE_INDEX = 1;
     private static final int FILE_POSITION = 0;
 
+    private File sessionIdsFile = new File(IoUtil.tmpDirName(), "SessionContextsTest-sessionIds");
     private ErrorHandler errorHandler = mock(ErrorHandler.class);
     private AtomicBuffer buffer = new UnsafeBuffer(ByteBuffer.allocate(BUFFER_SIZE));
     private MappedFile mappedFile = mock(MappedFile.class);
@@ -219,6 +220,132 @@ public class SessionContextsTest
             new SessionContext(sessionId, SEQUENCE_INDEX, Session.NO_LOGON_TIME, sessionContexts, FILE_POSITION));
     }
 
+    @Test
+    public void indexesManySessions()
+    {
+        final List<CompositeKey> keys = IntStream
+            .range(0, 5000)
+            .mapToObj((i) -> idStrategy.onInitiateLogon("b" + i, null, null, "a" + i, null, null))
+            .collect(toList());
+
+        final AtomicBuffer buffer = new UnsafeBuffer(ByteBuffer.allocate(64 * BUFFER_SIZE));
+        final SessionContexts sessionContexts = newSessionContexts(buffer);
+        final List<SessionContext> contexts = keys.stream().map(sessionContexts::onLogon).collect(toList());
+
+        IntStream
+            .range(0, keys.size())
+            .forEach((i) -> assertEquals(contexts.get(i).sessionId(), sessionContexts.lookupSessionId(keys.get(i))));
+        verifyNoMoreInteractions(errorHandler);
+    }
+
+    @Test
+    public void compactsDeadRecordsWhenOutOfSpace()
+    {
+        final File writableFile = new File(sessionIdsFile.getPath() + "-writable");
+        final File passingPlaceFile = new File(sessionIdsFile.getPath() + "-passing");
+        deleteSessionIdsFiles();
+        try
+        {
+            MappedFile sessionIdsMappedFile = MappedFile.map(sessionIdsFile, BUFFER_SIZE);
+            final SessionContexts sessionContexts = new SessionContexts(sessionIdsMappedFile, idStrategy, errorHandler);
+            final HeaderDecoder header = aSessionHeader();
+
+            final SessionContext bContext = sessionContexts.onLogon(bSession);
+            bContext.onSequenceReset();
+
+            // Each new session id for the same key leaves a dead record behind, more than fit in the file.
+            final long lastSessionId = 1000;
+            for (long sessionId = 100; sessionId <= lastSessionId; sessionId++)
+            {
+                sessionContexts.onSentFollowerLogon(header, sessionId, SEQUENCE_INDEX);
+            }
+
+            final SessionContext cContext = sessionContexts.onLogon(cSession);
+            verifyNoMoreInteractions(errorHandler);
+
+            assertEquals(lastSessionId, sessionContexts.lookupSessionId(aSession));
+            bContext.onSequenceReset();
+            assertFalse(writableFile.exists());
+            assertFalse(passingPlaceFile.exists());
+
+            sessionIdsMappedFile.close();
+            sessionIdsMappedFile = MappedFile.map(sessionIdsFile, BUFFER_SIZE);
+            final SessionContexts sessionContextsAfterRestart = new SessionContexts(
+                sessionIdsMappedFile, idStrategy, errorHandler);
+            assertEquals(lastSessionId, sessionContextsAfterRestart.lookupSessionId(aSession));
+            assertValuesEqual(bContext, sessionContextsAfterRestart.onLogon(bSession));
+            assertValuesEqual(cContext, sessionContextsAfterRestart.onLogon(cSession));
+            verifyNoMoreInteractions(errorHandler);
+            sessionIdsMappedFile.close();
+        }
+        finally
+        {
+            deleteSessionIdsFiles();
+        }
+    }
+
+    @Test
+    public void recoversFromPassingPlaceWhenCrashingWhilstCompacting()
+    {
+        final File passingPlaceFile = new File(sessionIdsFile.getPath() + "-passing");
+        deleteSessionIdsFiles();
+        try
+        {
+            MappedFile sessionIdsMappedFile = MappedFile.map(sessionIdsFile, BUFFER_SIZE);
+            final SessionContext aContext = new SessionContexts(sessionIdsMappedFile, idStrategy, errorHandler)
+                .onLogon(aSession);
+            sessionIdsMappedFile.close();
+
+            // The old file has been moved out of the way, but the compacted file hasn't been moved into place.
+            assertTrue(sessionIdsFile.renameTo(passingPlaceFile));
+
+            sessionIdsMappedFile = MappedFile.map(sessionIdsFile, BUFFER_SIZE);
+            final SessionContexts sessionContextsAfterRestart = new SessionContexts(
+                sessionIdsMappedFile, idStrategy, errorHandler);
+            assertEquals(aContext.sessionId(), sessionContextsAfterRestart.lookupSessionId(aSession));
+            assertFalse(passingPlaceFile.exists());
+            verifyNoMoreInteractions(errorHandler);
+            sessionIdsMappedFile.close();
+        }
+        finally
+        {
+            deleteSessionIdsFiles();
+        }
+    }
+
+    @Test
+    public void looksUpReassignedSessionIdThatCouldNotBeSaved()
+    {
+        sessionContexts.onLogon(aSession);
+
+        // Fill the file with live records, so there's nothing to compact.
+        IntStream
+            .range(0, 1000)
+            .mapToObj((i) -> idStrategy.onInitiateLogon("b" + i, null, null, "a" + i, null, null))
+            .forEach(sessionContexts::onLogon);
+        verify(errorHandler, atLeastOnce()).onError(any(IllegalStateException.class));
+
+        final long sessionId = 5000;
+        sessionContexts.onSentFollowerLogon(aSessionHeader(), sessionId, SEQUENCE_INDEX);
+
+        assertEquals(sessionId, sessionContexts.lookupSessionId(aSession));
+    }
+
+    private HeaderDecoder aSessionHeader()
+    {
+        final HeaderDecoder header = mock(HeaderDecoder.class);
+        when(header.senderCompIDAsString()).thenReturn(aSession.localCompId());
+        when(header.targetCompIDAsString()).thenReturn(aSession.remoteCompId());
+        return header;
+    }
+
+    private void deleteSessionIdsFiles()
+    {
+        IoUtil.deleteIfExists(sessionIdsFile);
+        IoUtil.deleteIfExists(new File(sessionIdsFile.getPath() + "-writable"));
+        IoUtil.deleteIfExists(new File(sessionIdsFile.getPath() + "-passing"));
+    }
+
     private void verifyNoBackUp()
     {
         verify(mappedFile, never()).transferTo(any());
@@ -242,6 +369,7 @@ public class SessionContextsTest
     private SessionContexts newSessionContexts(final AtomicBuffer buffer)
     {
         when(mappedFile.buffer()).thenReturn(buffer);
+        when(mappedFile.file()).thenReturn(sessionIdsFile);
         return new SessionContexts(mappedFile, idStrategy, errorHandler);
     }
 
@@ -0,0 +1,125 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static uk.co.real_logic.artio.engine.SessionThrottleStrategy.NO_LIMIT;
+
+public class SlidingWindowThrottleTest
+{
+    private static final long WINDOW_IN_MS = 100;
+    private static final int MESSAGE_LIMIT = 3;
+
+    private final SlidingWindowThrottle throttle = new SlidingWindowThrottle(WINDOW_IN_MS);
+
+    @Test
+    public void shouldNotLimitWithoutMessageLimit()
+    {
+        throttle.messageLimit(NO_LIMIT);
+
+        assertFalse(throttle.isLimited());
+        for (int i = 0; i < 1000; i++)
+        {
+            assertTrue(throttle.tryAcquire(0));
+        }
+    }
+
+    @Test
+    public void shouldAllowBurstUpToLimit()
+    {
+        throttle.messageLimit(MESSAGE_LIMIT);
+
+        assertTrue(throttle.isLimited());
+        assertAcquires(MESSAGE_LIMIT, 0);
+        assertFalse(throttle.tryAcquire(0));
+        assertFalse(throttle.tryAcquire(WINDOW_IN_MS - 1));
+    }
+
+    @Test
+    public void shouldNotAllowSecondBurstWithinWindowOfFirst()
+    {
+        throttle.messageLimit(MESSAGE_LIMIT);
+
+        assertAcquires(MESSAGE_LIMIT, WINDOW_IN_MS - 1);
+
+        // A token bucket would have refilled by the start of the next window.
+        assertFalse(throttle.tryAcquire(WINDOW_IN_MS));
+        assertFalse(throttle.tryAcquire(2 * WINDOW_IN_MS - 2));
+
+        assertAcquires(MESSAGE_LIMIT, 2 * WINDOW_IN_MS - 1);
+        assertFalse(throttle.tryAcquire(2 * WINDOW_IN_MS - 1));
+    }
+
+    @Test
+    public void shouldAllowMessagesAsOldestLeaveWindow()
+    {
+        throttle.messageLimit(MESSAGE_LIMIT);
+
+        assertTrue(throttle.tryAcquire(0));
+        assertTrue(throttle.tryAcquire(10));
+        assertTrue(throttle.tryAcquire(20));
+        assertFalse(throttle.tryAcquire(99));
+
+        assertTrue(throttle.tryAcquire(100));
+        assertFalse(throttle.tryAcquire(109));
+        assertTrue(throttle.tryAcquire(110));
+        assertTrue(throttle.tryAcquire(120));
+        assertFalse(throttle.tryAcquire(199));
+    }
+
+    @Test
+    public void shouldNeverAllowMoreThanLimitWithinAnyWindow()
+    {
+        throttle.messageLimit(MESSAGE_LIMIT);
+
+        final long[] acquiredTimesInMs = new long[100];
+        int acquired = 0;
+        for (long timeInMs = 0; acquired < acquiredTimesInMs.length; timeInMs += 7)
+        {
+            while (acquired < acquiredTimesInMs.length && throttle.tryAcquire(timeInMs))
+            {
+                acquiredTimesInMs[acquired++] = timeInMs;
+            }
+        }
+
+        for (int i = MESSAGE_LIMIT; i < acquired; i++)
+        {
+            assertTrue(acquiredTimesInMs[i] - acquiredTimesInMs[i - MESSAGE_LIMIT] >= WINDOW_IN_MS);
+        }
+    }
+
+    @Test
+    public void shouldForgetSentMessagesWhenLimitChanges()
+    {
+        throttle.messageLimit(MESSAGE_LIMIT);
+        assertAcquires(MESSAGE_LIMIT, 0);
+
+        throttle.messageLimit(MESSAGE_LIMIT + 1);
+        assertAcquires(MESSAGE_LIMIT + 1, 0);
+        assertFalse(throttle.tryAcquire(0));
+    }
+
+    private void assertAcquires(final int messages, final long timeInMs)
+    {
+        for (int i = 0; i < messages; i++)
+        {
+            assertTrue(throttle.tryAcquire(timeInMs));
+        }
+    }
+}
@@ -16,14 +16,18 @@
 package uk.co.real_logic.artio.engine.logger;
 
 import org.agrona.IoUtil;
+import org.agrona.concurrent.UnsafeBuffer;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import uk.co.real_logic.artio.replication.StreamIdentifier;
 import uk.co.real_logic.artio.storage.messages.ArchiveMetaDataDecoder;
+import uk.co.real_logic.artio.storage.messages.ArchiveMetaDataEncoder;
+import uk.co.real_logic.artio.storage.messages.MessageHeaderEncoder;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.MappedByteBuffer;
 
 import static io.aeron.CommonContext.IPC_CHANNEL;
 import static org.junit.Assert.assertEquals;
@@ -91,6 +95,38 @@ public class ArchiveMetaDataTest
         assertEquals(TERM_BUFFER_LENGTH, decoder.termBufferLength());
     }
 
+    @Test
+    public void shouldStoreChecksumAlgorithm()
+    {
+        archiveMetaData.write(STREAM_ID, SESSION_ID, INITIAL_TERM_ID, TERM_BUFFER_LENGTH, ChecksumAlgorithm.CRC32C);
+
+        final ArchiveMetaDataDecoder decoder = archiveMetaData.read(STREAM_ID, SESSION_ID);
+        assertEquals(ChecksumAlgorithm.CRC32C, ArchiveMetaData.checksumAlgorithm(decoder));
+    }
+
+    @Test
+    public void shouldReadMetaDataWithoutChecksumAlgorithmAsCrc32()
+    {
+        final File metaDataFile = directory.metaDataLogFile(STREAM_ID, SESSION_ID);
+        final MappedByteBuffer mappedBuffer =
+            LoggerUtil.mapNewFile(metaDataFile, MessageHeaderEncoder.ENCODED_LENGTH + 8);
+        final UnsafeBuffer buffer = new UnsafeBuffer(mappedBuffer);
+        new MessageHeaderEncoder()
+            .wrap(buffer, 0)
+            .blockLength(8)
+            .templateId(ArchiveMetaDataEncoder.TEMPLATE_ID)
+            .schemaId(ArchiveMetaDataEncoder.SCHEMA_ID)
+            .version(0);
+        buffer.putInt(MessageHeaderEncoder.ENCODED_LENGTH, INITIAL_TERM_ID);
+        buffer.putInt(MessageHeaderEncoder.ENCODED_LENGTH + 4, TERM_BUFFER_LENGTH);
+        IoUtil.unmap(mappedBuffer);
+
+        final ArchiveMetaDataDecoder decoder = archiveMetaData.read(STREAM_ID, SESSION_ID);
+        assertEquals(INITIAL_TERM_ID, decoder.initialTermId());
+        assertEquals(TERM_BUFFER_LENGTH, decoder.termBufferLength());
+        assertEquals(ChecksumAlgorithm.CRC32, ArchiveMetaData.checksumAlgorithm(decoder));
+    }
+
     private ArchiveMetaData newArchiveMetaData()
     {
         return new ArchiveMetaData(directory, LoggerUtil::mapExistingFile, LoggerUtil::mapNewFile);
@@ -0,0 +1,240 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.IoUtil;
+import org.agrona.concurrent.EpochClock;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import uk.co.real_logic.artio.messages.MessageHeaderEncoder;
+import uk.co.real_logic.artio.replication.StreamIdentifier;
+import uk.co.real_logic.artio.storage.messages.ReplayIndexRecordEncoder;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static io.aeron.CommonContext.IPC_CHANNEL;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static uk.co.real_logic.artio.engine.EngineConfiguration.DEFAULT_LOGGER_CACHE_NUM_SETS;
+import static uk.co.real_logic.artio.engine.EngineConfiguration.DEFAULT_LOGGER_CACHE_SET_SIZE;
+import static uk.co.real_logic.artio.engine.logger.ArchiveRetention.NO_LIMIT;
+import static uk.co.real_logic.artio.engine.logger.ReplayIndexDescriptor.*;
+import static uk.co.real_logic.artio.replication.ReservedValue.NO_FILTER;
+
+public class ArchiveRetentionTest
+{
+    private static final StreamIdentifier STREAM_ID = new StreamIdentifier(IPC_CHANNEL, 1);
+    private static final int SESSION_ID = 2;
+    private static final long FIX_SESSION_ID = 3;
+    private static final int TERM_BUFFER_LENGTH = 64 * 1024;
+    private static final long INTERVAL_IN_MS = 1000;
+
+    private final String tempDir = IoUtil.tmpDirName() + File.separator + "art";
+    private final LogDirectoryDescriptor directory = new LogDirectoryDescriptor(tempDir);
+    private final EpochClock clock = mock(EpochClock.class);
+    private final Index index = mock(Index.class);
+    private final List<Index> indices = Collections.singletonList(index);
+
+    private ArchiveReader archiveReader;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        ensureTempDirDoesNotExist();
+
+        final ArchiveMetaData metaData = new ArchiveMetaData(directory);
+        metaData.write(STREAM_ID, SESSION_ID, 0, TERM_BUFFER_LENGTH);
+        archiveReader = new ArchiveReader(
+            metaData, DEFAULT_LOGGER_CACHE_NUM_SETS, DEFAULT_LOGGER_CACHE_SET_SIZE, STREAM_ID, NO_FILTER);
+
+        for (int termId = 0; termId < 3; termId++)
+        {
+            try (RandomAccessFile file = new RandomAccessFile(termFile(termId), "rw"))
+            {
+                file.setLength(TERM_BUFFER_LENGTH);
+            }
+        }
+    }
+
+    @After
+    public void tearDown()
+    {
+        archiveReader.close();
+        ensureTempDirDoesNotExist();
+    }
+
+    @Test
+    public void shouldRemoveOldestTermsAboveMaximumSize()
+    {
+        indexedUpTo(2L * TERM_BUFFER_LENGTH + 100);
+
+        removeTerms(NO_LIMIT, TERM_BUFFER_LENGTH, 0);
+
+        assertTermsExist(false, false, true);
+    }
+
+    @Test
+    public void shouldNotRemoveTermsThatHaveNotBeenIndexed()
+    {
+        indexedUpTo(TERM_BUFFER_LENGTH - 100);
+
+        removeTerms(NO_LIMIT, TERM_BUFFER_LENGTH, 0);
+
+        assertTermsExist(true, true, true);
+    }
+
+    @Test
+    public void shouldNotRemoveTermsOfSessionsWithoutAnIndexedPosition()
+    {
+        removeTerms(NO_LIMIT, TERM_BUFFER_LENGTH, 0);
+
+        assertTermsExist(true, true, true);
+    }
+
+    @Test
+    public void shouldNotRemoveTermsOfSessionsThatAnIndexHasNoPositionFor() throws IOException
+    {
+        indexedUpTo(2L * TERM_BUFFER_LENGTH + 100);
+        replayIndexContains(2L * TERM_BUFFER_LENGTH + 50);
+        final List<Index> indices = Arrays.asList(index, mock(Index.class));
+
+        newRetention(NO_LIMIT, TERM_BUFFER_LENGTH, 1).removeTerms(indices, archiveReader, 0);
+
+        assertTermsExist(true, true, true);
+    }
+
+    @Test
+    public void shouldKeepTermsOfRecentMessages() throws IOException
+    {
+        indexedUpTo(2L * TERM_BUFFER_LENGTH + 100);
+        replayIndexContains(TERM_BUFFER_LENGTH + 50);
+
+        newRetention(NO_LIMIT, TERM_BUFFER_LENGTH, 1).removeTerms(indices, archiveReader, 0);
+
+        assertTermsExist(false, true, true);
+    }
+
+    @Test
+    public void shouldRemoveTermsOlderThanMaximumAge()
+    {
+        indexedUpTo(2L * TERM_BUFFER_LENGTH + 100);
+        final long now = System.currentTimeMillis();
+        assertTrue(termFile(0).setLastModified(now - 20_000));
+
+        removeTerms(10_000, NO_LIMIT, now);
+
+        assertTermsExist(false, true, true);
+    }
+
+    @Test
+    public void shouldOnlyCheckRetentionEachInterval()
+    {
+        indexedUpTo(2L * TERM_BUFFER_LENGTH + 100);
+        final ArchiveRetention retention = newRetention(NO_LIMIT, TERM_BUFFER_LENGTH);
+
+        assertEquals(0, retention.doWork(indices, archiveReader));
+
+        when(clock.time()).thenReturn(INTERVAL_IN_MS);
+        assertEquals(2, retention.doWork(indices, archiveReader));
+    }
+
+    private void removeTerms(final long maxAgeInMs, final long maxBytes, final long timeInMs)
+    {
+        newRetention(maxAgeInMs, maxBytes).removeTerms(indices, archiveReader, timeInMs);
+    }
+
+    private ArchiveRetention newRetention(final long maxAgeInMs, final long maxBytes)
+    {
+        return newRetention(maxAgeInMs, maxBytes, 0);
+    }
+
+    private ArchiveRetention newRetention(final long maxAgeInMs, final long maxBytes, final int minMessages)
+    {
+        return new ArchiveRetention(
+            tempDir, STREAM_ID.streamId(), clock, INTERVAL_IN_MS, maxAgeInMs, maxBytes, minMessages);
+    }
+
+    private void replayIndexContains(final long position) throws IOException
+    {
+        final ReplayIndexRecordEncoder record = new ReplayIndexRecordEncoder();
+        final int capacity = 1024;
+        final UnsafeBuffer buffer = new UnsafeBuffer(new byte[INITIAL_RECORD_OFFSET + capacity]);
+        new MessageHeaderEncoder()
+            .wrap(buffer, 0)
+            .blockLength(record.sbeBlockLength())
+            .templateId(record.sbeTemplateId())
+            .schemaId(record.sbeSchemaId())
+            .version(record.sbeSchemaVersion());
+        record
+            .wrap(buffer, offset(0, capacity))
+            .streamId(STREAM_ID.streamId())
+            .aeronSessionId(SESSION_ID)
+            .position(position)
+            .sequenceNumber(1)
+            .sequenceIndex(0);
+        beginChangeOrdered(buffer, RECORD_LENGTH);
+        endChangeOrdered(buffer, RECORD_LENGTH);
+
+        try (RandomAccessFile file = new RandomAccessFile(logFile(tempDir, FIX_SESSION_ID, STREAM_ID.streamId()), "rw"))
+        {
+            file.write(buffer.byteArray());
+        }
+    }
+
+    private void indexedUpTo(final long position)
+    {
+        doAnswer((inv) ->
+        {
+            final IndexedPositionConsumer consumer = inv.getArgument(0);
+            consumer.accept(SESSION_ID, position);
+            return null;
+        }).when(index).readLastPosition(any());
+    }
+
+    private void assertTermsExist(final boolean... exists)
+    {
+        for (int termId = 0; termId < exists.length; termId++)
+        {
+            assertEquals("Term " + termId, exists[termId], termFile(termId).exists());
+        }
+    }
+
+    private File termFile(final int termId)
+    {
+        return directory.logFile(STREAM_ID, SESSION_ID, termId);
+    }
+
+    private void ensureTempDirDoesNotExist()
+    {
+        final File dir = new File(tempDir);
+        if (dir.exists())
+        {
+            IoUtil.delete(dir, false);
+        }
+    }
+}
@@ -60,6 +60,7 @@ import static java.lang.Integer.min;
 import static java.lang.Integer.numberOfTrailingZeros;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
 import static org.mockito.Mockito.*;
 import static uk.co.real_logic.artio.CommonConfiguration.DEFAULT_NAME_PREFIX;
 import static uk.co.real_logic.artio.TestFixtures.cleanupMediaDriver;
@@ -257,6 +258,36 @@ public class ArchiverTest
         assertNothingRead(readPosition, CORRUPT_LOG);
     }
 
+    @Test
+    public void shouldNotReadDataThatWasCorruptedBeforeItWasFirstValidated() throws IOException
+    {
+        archiveReader.validateOnce(true);
+        writeAndArchiveBuffer(INITIAL_VALUE);
+
+        corruptLogFile();
+
+        final long position = read((long)HEADER_LENGTH);
+
+        assertNothingRead(position, CORRUPT_LOG);
+    }
+
+    @Test
+    public void shouldReadArchiveWithTheChecksumAlgorithmThatItWasWrittenWith()
+    {
+        try
+        {
+            archiveReader.checksumAlgorithm(ChecksumAlgorithm.CRC32C);
+        }
+        catch (final IllegalStateException e)
+        {
+            assumeTrue("CRC32C isn't available on this JVM", false);
+        }
+
+        final long endPosition = writeAndArchiveBuffer(INITIAL_VALUE);
+
+        assertReadsInitialValue(HEADER_LENGTH, endPosition);
+    }
+
     private int sessionId()
     {
         return publication.sessionId();
@@ -303,6 +334,17 @@ public class ArchiverTest
         assertReadsValueAt(lastArchivedValue, TERM_LENGTH + HEADER_LENGTH, endPosition);
     }
 
+    @Test
+    public void shouldSupportRotatingPreAllocatedFilesAtEndOfTerm()
+    {
+        archiver.preAllocator(new TermFilePreAllocator(true, DEFAULT_NAME_PREFIX));
+
+        final long endPosition = archiveBeyondEndOfTerm();
+
+        assertReadsValueAt(lastArchivedValue, TERM_LENGTH + HEADER_LENGTH, endPosition);
+        logFiles().forEach((file) -> assertEquals(file.toString(), TERM_LENGTH, file.length()));
+    }
+
     @Test
     public void shouldReadFragmentsUpToAPosition()
     {
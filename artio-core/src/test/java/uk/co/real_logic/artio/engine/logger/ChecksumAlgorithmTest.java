@@ -0,0 +1,94 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assume.assumeTrue;
+
+@RunWith(Parameterized.class)
+public class ChecksumAlgorithmTest
+{
+    private static final byte[] BODY = "8=FIX.4.4\0019=5\00135=0\00110=000\001".getBytes(US_ASCII);
+
+    @Parameters(name = "{0}")
+    public static Collection<Object[]> data()
+    {
+        return Arrays.asList(new Object[][]{ { ChecksumAlgorithm.CRC32 }, { ChecksumAlgorithm.CRC32C } });
+    }
+
+    private final ChecksumAlgorithm algorithm;
+
+    public ChecksumAlgorithmTest(final ChecksumAlgorithm algorithm)
+    {
+        this.algorithm = algorithm;
+    }
+
+    @Test
+    public void shouldCalculateTheSameChecksumForBuffersAndArrays()
+    {
+        final FrameChecksum checksum = newChecksum();
+
+        final ByteBuffer heapBuffer = ByteBuffer.wrap(BODY);
+        final ByteBuffer directBuffer = ByteBuffer.allocateDirect(BODY.length);
+        directBuffer.put(BODY).flip();
+
+        final int expected = checksum.checksum(BODY, 0, BODY.length);
+        assertEquals(expected, checksum.checksum(heapBuffer));
+        assertEquals(expected, checksum.checksum(directBuffer));
+    }
+
+    @Test
+    public void shouldResetBetweenChecksums()
+    {
+        final FrameChecksum checksum = newChecksum();
+
+        final int first = checksum.checksum(BODY, 0, BODY.length);
+        final int second = checksum.checksum(BODY, 0, BODY.length);
+
+        assertEquals(first, second);
+        assertNotEquals(first, checksum.checksum(BODY, 1, BODY.length - 1));
+    }
+
+    @Test
+    public void shouldLookUpAlgorithmByItsCode()
+    {
+        assertEquals(algorithm, ChecksumAlgorithm.get(algorithm.code()));
+    }
+
+    private FrameChecksum newChecksum()
+    {
+        try
+        {
+            return algorithm.newChecksum();
+        }
+        catch (final IllegalStateException e)
+        {
+            assumeTrue("Checksum algorithm not available on this JVM: " + algorithm, false);
+            return null;
+        }
+    }
+}
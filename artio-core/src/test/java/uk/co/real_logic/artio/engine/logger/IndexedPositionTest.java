@@ -90,6 +90,24 @@ public class IndexedPositionTest
         hasPosition(otherPosition, OTHER_SESSION_ID);
     }
 
+    @Test
+    public void shouldWriteDeferredPositionsWhenFlushed()
+    {
+        writer.deferIndexedUpTo(SESSION_ID, 10);
+        writer.deferIndexedUpTo(SESSION_ID, 20);
+
+        hasPosition(UNKNOWN_POSITION, SESSION_ID);
+
+        writer.deferIndexedUpTo(OTHER_SESSION_ID, 5);
+
+        hasPosition(20, SESSION_ID);
+        hasPosition(UNKNOWN_POSITION, OTHER_SESSION_ID);
+
+        writer.flushIndexedPositions();
+
+        hasPosition(5, OTHER_SESSION_ID);
+    }
+
     @Test
     public void shouldNotReadMissingPosition()
     {
@@ -125,6 +143,35 @@ public class IndexedPositionTest
         verify(errorHandler, times(1), FileSystemCorruptionException.class);
     }
 
+    @Test
+    public void shouldValidateDirtyChecksums()
+    {
+        final int position = 10;
+
+        indexed(position, SESSION_ID);
+        indexed(position, OTHER_SESSION_ID);
+
+        assertEquals(1, writer.updateDirtyChecksums());
+        assertEquals(0, writer.updateDirtyChecksums());
+
+        newWriter();
+        assertEquals(position, new IndexedPositionReader(buffer).indexedPosition(SESSION_ID));
+        assertEquals(position, new IndexedPositionReader(buffer).indexedPosition(OTHER_SESSION_ID));
+    }
+
+    @Test
+    public void shouldDetectUnchecksummedPositions()
+    {
+        indexed(10, SESSION_ID);
+        writer.updateDirtyChecksums();
+
+        indexed(20, SESSION_ID);
+
+        newWriter();
+
+        verify(errorHandler, times(1), FileSystemCorruptionException.class);
+    }
+
     @Test
     public void shouldNotReportFileSystemCorruptionWithNoWrittenRecords()
     {
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import io.aeron.logbuffer.ControlledFragmentHandler;
+import io.aeron.logbuffer.Header;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.status.AtomicCounter;
+import org.junit.Test;
+import uk.co.real_logic.artio.engine.CompletionPosition;
+import uk.co.real_logic.artio.replication.ClusterHeader;
+import uk.co.real_logic.artio.replication.ClusterableSubscription;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static uk.co.real_logic.artio.engine.logger.ArchiveReader.NO_MESSAGE;
+
+public class IndexerTest
+{
+    private static final int STREAM_ID = 1;
+    private static final int SESSION_ID = 2;
+    private static final int LENGTH = 10;
+    private static final long BEHIND_POSITION = 100;
+    private static final long AHEAD_POSITION = 200;
+    private static final long FIRST_TAIL_POSITION = 150;
+    private static final long SECOND_TAIL_POSITION = 250;
+
+    private final DirectBuffer buffer = new UnsafeBuffer(new byte[LENGTH]);
+    private final Index behindIndex = mock(Index.class);
+    private final Index aheadIndex = mock(Index.class);
+    private final ArchiveReader archiveReader = mock(ArchiveReader.class);
+    private final ArchiveReader.SessionReader sessionReader = mock(ArchiveReader.SessionReader.class);
+    private final ClusterableSubscription subscription = mock(ClusterableSubscription.class);
+    private final AtomicCounter lag = mock(AtomicCounter.class);
+
+    @Test
+    public void shouldReadTailOfArchiveOnceForAllIndicesWhenCatchingUp()
+    {
+        lastPosition(behindIndex, BEHIND_POSITION);
+        lastPosition(aheadIndex, AHEAD_POSITION);
+        when(archiveReader.session(SESSION_ID)).thenReturn(sessionReader);
+        when(sessionReader.read(anyLong(), any()))
+            .then((inv) -> onFragment(inv.getArgument(1), FIRST_TAIL_POSITION))
+            .then((inv) -> onFragment(inv.getArgument(1), SECOND_TAIL_POSITION))
+            .thenReturn(NO_MESSAGE);
+
+        newIndexer();
+
+        verify(sessionReader, times(3)).read(anyLong(), any());
+        verifyIndexed(behindIndex, FIRST_TAIL_POSITION);
+        verifyIndexed(behindIndex, SECOND_TAIL_POSITION);
+        verifyIndexed(aheadIndex, SECOND_TAIL_POSITION);
+        verify(aheadIndex, never()).indexRecord(
+            any(), anyInt(), anyInt(), anyInt(), anyInt(), eq(FIRST_TAIL_POSITION));
+    }
+
+    @Test
+    public void shouldNotCatchUpIndexWithoutPositionForSession()
+    {
+        lastPosition(behindIndex, BEHIND_POSITION);
+        when(archiveReader.session(SESSION_ID)).thenReturn(sessionReader);
+        when(sessionReader.read(anyLong(), any()))
+            .then((inv) -> onFragment(inv.getArgument(1), FIRST_TAIL_POSITION))
+            .thenReturn(NO_MESSAGE);
+
+        newIndexer();
+
+        verifyIndexed(behindIndex, FIRST_TAIL_POSITION);
+        verify(aheadIndex, never()).indexRecord(any(), anyInt(), anyInt(), anyInt(), anyInt(), anyLong());
+    }
+
+    @Test
+    public void shouldCountBytesArchivedButNotIndexed() throws Exception
+    {
+        final Indexer indexer = newIndexer()
+            .lag(lag, (aeronSessionId) -> aeronSessionId == SESSION_ID ? SECOND_TAIL_POSITION : -1);
+        when(subscription.poll(any(), anyInt()))
+            .then((inv) -> pollFragment(indexer, FIRST_TAIL_POSITION))
+            .then((inv) -> pollFragment(indexer, SECOND_TAIL_POSITION));
+
+        indexer.doWork();
+        verify(lag).setOrdered(SECOND_TAIL_POSITION - FIRST_TAIL_POSITION);
+
+        indexer.doWork();
+        verify(lag).setOrdered(0);
+    }
+
+    @Test
+    public void shouldHaveRoleNameForEachStream()
+    {
+        assertEquals("Indexer-" + STREAM_ID, newIndexer().roleName());
+    }
+
+    private Indexer newIndexer()
+    {
+        return new Indexer(
+            Arrays.asList(behindIndex, aheadIndex),
+            archiveReader,
+            subscription,
+            STREAM_ID,
+            "",
+            mock(CompletionPosition.class));
+    }
+
+    private int pollFragment(final Indexer indexer, final long position)
+    {
+        final ClusterHeader header = mock(ClusterHeader.class);
+        when(header.position()).thenReturn(position);
+        when(header.streamId()).thenReturn(STREAM_ID);
+        when(header.sessionId()).thenReturn(SESSION_ID);
+
+        indexer.onFragment(buffer, 0, LENGTH, header);
+
+        return 1;
+    }
+
+    private void lastPosition(final Index index, final long position)
+    {
+        doAnswer((inv) ->
+        {
+            final IndexedPositionConsumer consumer = inv.getArgument(0);
+            consumer.accept(SESSION_ID, position);
+            return null;
+        }).when(index).readLastPosition(any());
+    }
+
+    private long onFragment(final ControlledFragmentHandler handler, final long position)
+    {
+        final Header header = mock(Header.class);
+        when(header.position()).thenReturn(position);
+        when(header.streamId()).thenReturn(STREAM_ID);
+        when(header.sessionId()).thenReturn(SESSION_ID);
+
+        handler.onFragment(buffer, 0, LENGTH, header);
+
+        return position;
+    }
+
+    private void verifyIndexed(final Index index, final long position)
+    {
+        verify(index).indexRecord(buffer, 0, LENGTH, STREAM_ID, SESSION_ID, position);
+    }
+}
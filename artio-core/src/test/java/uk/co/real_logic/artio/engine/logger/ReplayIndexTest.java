@@ -18,6 +18,7 @@ package uk.co.real_logic.artio.engine.logger;
 import io.aeron.logbuffer.ControlledFragmentHandler;
 import org.agrona.ErrorHandler;
 import org.agrona.IoUtil;
+import org.agrona.concurrent.EpochClock;
 import org.agrona.concurrent.NoOpIdleStrategy;
 import org.agrona.concurrent.UnsafeBuffer;
 import org.junit.After;
@@ -305,6 +306,100 @@ public class ReplayIndexTest extends AbstractLogTest
         verify(positionConsumer, times(1)).accept(AERON_SESSION_ID, alignedEndPosition());
     }
 
+    @Test
+    public void shouldUpdatePositionAtEndOfBatch()
+    {
+        replayIndex.beginBatch();
+        indexExampleMessage();
+
+        positionReader.readLastPosition(positionConsumer);
+        verifyNoMoreInteractions(positionConsumer);
+        assertPositionChecksumsValid(true);
+
+        replayIndex.endBatch();
+
+        positionReader.readLastPosition(positionConsumer);
+        verify(positionConsumer, times(1)).accept(AERON_SESSION_ID, alignedEndPosition());
+        assertPositionChecksumsValid(true);
+    }
+
+    @Test
+    public void shouldUpdatePositionChecksumsAtInterval()
+    {
+        final EpochClock clock = mock(EpochClock.class);
+        when(clock.time()).thenReturn(1L);
+        replayIndex.close();
+        replayIndex = newReplayIndex(clock, 10);
+        assertEquals(0, replayIndex.doWork());
+
+        indexExampleMessage();
+        assertPositionChecksumsValid(false);
+
+        when(clock.time()).thenReturn(5L);
+        assertEquals(0, replayIndex.doWork());
+
+        when(clock.time()).thenReturn(11L);
+        assertEquals(1, replayIndex.doWork());
+        assertPositionChecksumsValid(true);
+    }
+
+    @Test
+    public void shouldValidatePositionChecksumsOnRestartAfterClosingWhenUpdatedAtInterval()
+    {
+        final EpochClock clock = mock(EpochClock.class);
+        replayIndex.close();
+        replayIndex = newReplayIndex(clock, 10);
+
+        indexExampleMessage();
+        assertPositionChecksumsValid(false);
+
+        replayIndex.close();
+        assertPositionChecksumsValid(true);
+
+        replayIndex = newReplayIndex(clock, 10);
+
+        verify(errorHandler, never()).onError(any());
+        positionReader.readLastPosition(positionConsumer);
+        verify(positionConsumer, times(1)).accept(AERON_SESSION_ID, alignedEndPosition());
+    }
+
+    @Test
+    public void shouldReportPositionsIndexedSinceLastChecksumUpdateOnRestartWhenUpdatedAtInterval()
+    {
+        final EpochClock clock = mock(EpochClock.class);
+        replayIndex.close();
+        replayIndex = newReplayIndex(clock, 10);
+
+        indexExampleMessage();
+
+        // Restart without closing the index, as if the engine had stopped before the checksums were updated.
+        replayIndex = newReplayIndex(clock, 10);
+
+        verify(errorHandler, times(1)).onError(any());
+    }
+
+    private ReplayIndex newReplayIndex(final EpochClock clock, final long checksumIntervalInMs)
+    {
+        return new ReplayIndex(
+            DEFAULT_LOG_FILE_DIR,
+            STREAM_ID,
+            DEFAULT_REPLAY_INDEX_FILE_SIZE,
+            DEFAULT_LOGGER_CACHE_NUM_SETS,
+            DEFAULT_LOGGER_CACHE_SET_SIZE,
+            newBufferFactory,
+            replayPositionBuffer,
+            errorHandler,
+            clock,
+            checksumIntervalInMs);
+    }
+
+    private void assertPositionChecksumsValid(final boolean valid)
+    {
+        final ErrorHandler validationErrorHandler = mock(ErrorHandler.class);
+        new IndexedPositionWriter(replayPositionBuffer, validationErrorHandler, 0, "replayPositions");
+        verify(validationErrorHandler, times(valid ? 0 : 1)).onError(any());
+    }
+
     @Test
     public void shouldOnlyMapSessionFileOnce()
     {
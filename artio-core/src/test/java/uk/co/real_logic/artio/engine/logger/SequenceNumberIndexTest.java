@@ -45,12 +45,14 @@ public class SequenceNumberIndexTest extends AbstractLogTest
 {
     private static final int BUFFER_SIZE = 16 * 1024;
     private static final String INDEX_FILE_PATH = IoUtil.tmpDirName() + "/SequenceNumberIndex";
+    private static final long FLUSH_INTERVAL_IN_MS = 100;
 
     private AtomicBuffer inMemoryBuffer = newBuffer();
 
     private ErrorHandler errorHandler = mock(ErrorHandler.class);
     private SequenceNumberIndexWriter writer;
     private SequenceNumberIndexReader reader;
+    private long timeInMs = 0;
 
     @Before
     public void setUp()
@@ -246,6 +248,96 @@ public class SequenceNumberIndexTest extends AbstractLogTest
         assertUnknownSession();
     }
 
+    @Test
+    public void shouldFlushChangedSectorsIncrementally()
+    {
+        useIncrementalWriter();
+
+        indexFixMessage();
+        writer.doWork();
+
+        assertIndexFileContains(SEQUENCE_NUMBER);
+    }
+
+    @Test
+    public void shouldOnlyFlushIncrementallyOnceIntervalHasElapsed()
+    {
+        useIncrementalWriter();
+
+        indexFixMessage();
+        writer.doWork();
+
+        final int updatedSequenceNumber = SEQUENCE_NUMBER + 1;
+        bufferContainsExampleMessage(true, SESSION_ID, updatedSequenceNumber, SEQUENCE_INDEX);
+        indexRecord(alignedEndPosition() + fragmentLength());
+
+        timeInMs += FLUSH_INTERVAL_IN_MS - 1;
+        assertEquals(0, writer.doWork());
+        assertIndexFileContains(SEQUENCE_NUMBER);
+
+        timeInMs++;
+        writer.doWork();
+        assertIndexFileContains(updatedSequenceNumber);
+    }
+
+    @Test
+    public void shouldRecoverIndexedPositionAfterIncrementalFlush()
+    {
+        useIncrementalWriter();
+
+        indexFixMessage();
+
+        writer.close();
+
+        final SequenceNumberIndexReader newReader = newInstanceAfterRestart();
+        assertLastKnownSequenceNumberIs(SESSION_ID, SEQUENCE_NUMBER, newReader);
+        assertEquals(alignedEndPosition(), newReader.indexedPosition(AERON_SESSION_ID));
+    }
+
+    @Test
+    public void shouldFlushChangedSectorsOnTermRollWhenFlushingIncrementally()
+    {
+        useIncrementalWriter();
+
+        indexFixMessage();
+        indexRecord(alignedEndPosition() + buffer.capacity());
+
+        assertIndexFileContains(SEQUENCE_NUMBER);
+        assertWritableFileNotWritten();
+    }
+
+    private void assertWritableFileNotWritten()
+    {
+        final MappedFile writableFile = MappedFile.map(writablePath(INDEX_FILE_PATH), BUFFER_SIZE);
+        try
+        {
+            assertEquals(0L, writableFile.buffer().getLong(0));
+        }
+        finally
+        {
+            writableFile.close();
+        }
+    }
+
+    private void useIncrementalWriter()
+    {
+        writer.close();
+        deleteFiles();
+        writer = new SequenceNumberIndexWriter(
+            inMemoryBuffer, newIndexFile(), errorHandler, STREAM_ID, () -> timeInMs, FLUSH_INTERVAL_IN_MS);
+    }
+
+    private void assertIndexFileContains(final int expectedSequenceNumber)
+    {
+        try (MappedFile mappedFile = newIndexFile())
+        {
+            final SequenceNumberIndexReader newReader = new SequenceNumberIndexReader(
+                mappedFile.buffer(), errorHandler);
+
+            assertLastKnownSequenceNumberIs(SESSION_ID, expectedSequenceNumber, newReader);
+        }
+    }
+
     @After
     public void verifyNoErrors()
     {
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.concurrent.status.AtomicCounter;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.function.IntFunction;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class TermBufferPoolTest
+{
+    private final AtomicCounter hits = mock(AtomicCounter.class);
+    private final AtomicCounter misses = mock(AtomicCounter.class);
+    private final TermBufferPool pool = new TermBufferPool(2, hits, misses);
+    private final TermBufferPool.Mappings session = pool.newMappings();
+    private final TermBufferPool.Mappings otherSession = pool.newMappings();
+
+    @SuppressWarnings("unchecked")
+    private final IntFunction<ByteBuffer> mapper = mock(IntFunction.class);
+
+    @Test
+    public void shouldMapTermOnce()
+    {
+        when(mapper.apply(1)).thenReturn(ByteBuffer.allocate(8));
+
+        final ByteBuffer buffer = session.get(1, mapper);
+
+        assertSame(buffer, session.get(1, mapper));
+        verify(mapper, times(1)).apply(1);
+        verify(misses, times(1)).increment();
+        verify(hits, times(1)).increment();
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedTermAcrossSessions()
+    {
+        when(mapper.apply(anyInt())).then((inv) -> ByteBuffer.allocate(8));
+
+        session.get(1, mapper);
+        otherSession.get(1, mapper);
+        session.get(1, mapper);
+        otherSession.get(2, mapper);
+
+        assertEquals(2, pool.size());
+
+        session.get(1, mapper);
+        verify(mapper, times(2)).apply(1);
+        verify(hits, times(2)).increment();
+
+        otherSession.get(1, mapper);
+        verify(mapper, times(3)).apply(1);
+    }
+
+    @Test
+    public void shouldNotPoolMissingTerms()
+    {
+        assertNull(session.get(1, mapper));
+
+        assertEquals(0, pool.size());
+        verify(misses, times(1)).increment();
+    }
+
+    @Test
+    public void shouldReleaseMappingsOfClearedSession()
+    {
+        when(mapper.apply(anyInt())).then((inv) -> ByteBuffer.allocate(8));
+
+        session.get(1, mapper);
+        otherSession.get(1, mapper);
+
+        session.clear();
+
+        assertEquals(1, pool.size());
+        otherSession.get(1, mapper);
+        verify(hits, times(1)).increment();
+    }
+}
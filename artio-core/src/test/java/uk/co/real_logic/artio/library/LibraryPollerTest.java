@@ -25,9 +25,13 @@ import org.mockito.stubbing.Answer;
 import org.mockito.stubbing.OngoingStubbing;
 import org.mockito.verification.VerificationMode;
 import uk.co.real_logic.artio.FixCounters;
+import uk.co.real_logic.artio.Reply;
 import uk.co.real_logic.artio.engine.framer.FakeEpochClock;
 import uk.co.real_logic.artio.messages.ControlNotificationDecoder.SessionsDecoder;
+import uk.co.real_logic.artio.messages.GatewayError;
 import uk.co.real_logic.artio.messages.LogonStatus;
+import uk.co.real_logic.artio.messages.RequestSessionsReplyDecoder;
+import uk.co.real_logic.artio.messages.SessionReplyStatus;
 import uk.co.real_logic.artio.messages.SlowStatus;
 import uk.co.real_logic.artio.protocol.GatewayPublication;
 import uk.co.real_logic.artio.session.Session;
@@ -40,13 +44,17 @@ import java.util.function.LongSupplier;
 import static io.aeron.CommonContext.IPC_CHANNEL;
 import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.*;
 import static uk.co.real_logic.artio.CommonConfiguration.DEFAULT_REPLY_TIMEOUT_IN_MS;
 import static uk.co.real_logic.artio.LivenessDetector.SEND_INTERVAL_FRACTION;
 import static uk.co.real_logic.artio.engine.FixEngine.ENGINE_LIBRARY_ID;
 import static uk.co.real_logic.artio.messages.ConnectionType.ACCEPTOR;
+import static uk.co.real_logic.artio.messages.SessionReplyStatus.OK;
+import static uk.co.real_logic.artio.messages.SessionReplyStatus.UNKNOWN_SESSION;
 import static uk.co.real_logic.artio.messages.SessionState.ACTIVE;
 
 public class LibraryPollerTest
@@ -225,6 +233,104 @@ public class LibraryPollerTest
         doesNotAttemptConnectTo(LEADER_CHANNEL);
     }
 
+    @Test
+    public void shouldCompleteConnectReplyOnceConnected()
+    {
+        receiveOneApplicationHeartbeat();
+
+        newLibraryPoller(singletonList(IPC_CHANNEL));
+
+        library.startConnecting();
+
+        final Reply<FixLibrary> reply = library.connectReply(DEFAULT_REPLY_TIMEOUT_IN_MS);
+        assertTrue(reply.isExecuting());
+
+        pollTwice();
+
+        assertTrue("Connect reply not completed", reply.hasCompleted());
+        assertSame(fixLibrary, reply.resultIfPresent());
+    }
+
+    @Test
+    public void shouldTimeoutConnectReplyIfNotConnected()
+    {
+        setupAndConnectToFirstChannel();
+
+        final Reply<FixLibrary> reply = library.connectReply(CONNECT_ATTEMPT_TIMEOUT);
+
+        clock.advanceMilliSeconds(CONNECT_ATTEMPT_TIMEOUT + 1);
+
+        poll();
+
+        assertTrue("Connect reply not timed out", reply.hasTimedOut());
+    }
+
+    @Test
+    public void shouldRequestSessionsInBatches()
+    {
+        connectToSingleEngine();
+
+        when(outboundPublication.maxSessionsPerRequest()).thenReturn(2);
+        when(outboundPublication.saveRequestSessions(anyInt(), anyLong(), any(), anyInt(), anyInt()))
+            .thenReturn(1L);
+
+        final long[] sessionIds = {SESSION_ID, OTHER_SESSION_ID, SESSION_ID + 10};
+        final Reply<SessionReplyStatus[]> reply = library.requestSessions(sessionIds, DEFAULT_REPLY_TIMEOUT_IN_MS);
+
+        final ArgumentCaptor<Long> correlationIds = ArgumentCaptor.forClass(Long.class);
+        verify(outboundPublication).saveRequestSessions(
+            eq(libraryId()), correlationIds.capture(), eq(sessionIds), eq(0), eq(2));
+        verify(outboundPublication).saveRequestSessions(
+            eq(libraryId()), correlationIds.capture(), eq(sessionIds), eq(2), eq(1));
+
+        final List<Long> batchCorrelationIds = correlationIds.getAllValues();
+        library.onRequestSessionsReply(libraryId(), batchCorrelationIds.get(0), replyStatuses(OK, OK));
+        assertTrue(reply.isExecuting());
+
+        library.onRequestSessionsReply(libraryId(), batchCorrelationIds.get(1), replyStatuses(UNKNOWN_SESSION));
+        assertTrue("Request sessions reply not completed", reply.hasCompleted());
+        assertArrayEquals(new SessionReplyStatus[]{OK, OK, UNKNOWN_SESSION}, reply.resultIfPresent());
+    }
+
+    @Test
+    public void shouldCompleteRequestSessionsWithEngineError()
+    {
+        connectToSingleEngine();
+
+        when(outboundPublication.maxSessionsPerRequest()).thenReturn(2);
+        when(outboundPublication.saveRequestSessions(anyInt(), anyLong(), any(), anyInt(), anyInt()))
+            .thenReturn(1L);
+
+        final long[] sessionIds = {SESSION_ID, OTHER_SESSION_ID, SESSION_ID + 10};
+        final Reply<SessionReplyStatus[]> reply = library.requestSessions(sessionIds, DEFAULT_REPLY_TIMEOUT_IN_MS);
+
+        final ArgumentCaptor<Long> correlationIds = ArgumentCaptor.forClass(Long.class);
+        verify(outboundPublication, times(2)).saveRequestSessions(
+            eq(libraryId()), correlationIds.capture(), eq(sessionIds), anyInt(), anyInt());
+
+        library.onError(libraryId(), GatewayError.EXCEPTION, correlationIds.getAllValues().get(1), "Engine failure");
+
+        assertTrue("Request sessions reply not errored", reply.hasErrored());
+        assertTrue(reply.error().getMessage(), reply.error().getMessage().contains("Engine failure"));
+    }
+
+    private RequestSessionsReplyDecoder.SessionsDecoder replyStatuses(
+        final SessionReplyStatus first, final SessionReplyStatus... rest)
+    {
+        final RequestSessionsReplyDecoder.SessionsDecoder sessionsDecoder =
+            mock(RequestSessionsReplyDecoder.SessionsDecoder.class);
+        final Boolean[] moreHasNext = new Boolean[rest.length + 1];
+        for (int i = 0; i < rest.length; i++)
+        {
+            moreHasNext[i] = true;
+        }
+        moreHasNext[rest.length] = false;
+        when(sessionsDecoder.hasNext()).thenReturn(true, moreHasNext);
+        when(sessionsDecoder.next()).thenReturn(sessionsDecoder);
+        when(sessionsDecoder.status()).thenReturn(first, rest);
+        return sessionsDecoder;
+    }
+
     private void sendsLibraryConnect(final VerificationMode times)
     {
         verify(outboundPublication, times)
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.library;
+
+import org.junit.Test;
+import uk.co.real_logic.artio.WarmUp;
+
+import static org.junit.Assert.assertEquals;
+import static uk.co.real_logic.artio.messages.SessionState.ACTIVE;
+
+public class LibraryWarmUpTest
+{
+    @Test
+    public void shouldHandleEveryDefaultMessageWithoutDisconnecting()
+    {
+        final LibraryConfiguration configuration = new LibraryConfiguration();
+        final int messageCount = WarmUp.defaultMessages().size();
+
+        try (LibraryWarmUp warmUp = new LibraryWarmUp(configuration))
+        {
+            warmUp.run(2);
+
+            assertEquals(ACTIVE, warmUp.session().state());
+            assertEquals(messageCount, warmUp.session().lastReceivedMsgSeqNum());
+        }
+    }
+}
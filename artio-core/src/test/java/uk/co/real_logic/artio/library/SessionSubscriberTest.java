@@ -0,0 +1,119 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.library;
+
+import org.agrona.concurrent.UnsafeBuffer;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.verification.VerificationMode;
+import uk.co.real_logic.artio.messages.MessageStatus;
+import uk.co.real_logic.artio.session.Session;
+import uk.co.real_logic.artio.session.SessionParser;
+import uk.co.real_logic.artio.timing.Timer;
+
+import static io.aeron.logbuffer.ControlledFragmentHandler.Action.CONTINUE;
+import static org.mockito.Mockito.*;
+
+public class SessionSubscriberTest
+{
+    private static final int LIBRARY_ID = 1;
+    private static final long SESSION_ID = 2;
+    private static final int SEQUENCE_INDEX = 0;
+    private static final int MESSAGE_TYPE = 'D';
+    private static final int ROUTED_MESSAGE_TYPE = 'W';
+
+    private UnsafeBuffer buffer = new UnsafeBuffer(new byte[64]);
+    private SessionParser parser = mock(SessionParser.class);
+    private Session session = mock(Session.class);
+    private SessionHandler handler = mock(SessionHandler.class);
+
+    private SessionSubscriber sessionSubscriber = new SessionSubscriber(
+        parser, session, mock(Timer.class), mock(Timer.class));
+
+    @Before
+    public void setUp()
+    {
+        when(parser.onMessage(any(), anyInt(), anyInt(), anyInt(), anyLong())).thenReturn(CONTINUE);
+        when(session.isConnected()).thenReturn(true);
+        when(handler.onMessage(any(), anyInt(), anyInt(), anyInt(), any(), anyInt(), anyInt(), anyLong(), anyLong()))
+            .thenReturn(CONTINUE);
+        sessionSubscriber.handler(handler);
+    }
+
+    @Test
+    public void shouldHandleMessages()
+    {
+        onMessage(MESSAGE_TYPE);
+
+        verify(parser).onMessage(buffer, 0, buffer.capacity(), MESSAGE_TYPE, SESSION_ID);
+        verifyHandled(MESSAGE_TYPE, times(1));
+    }
+
+    @Test
+    public void shouldOnlyParseMessagesRoutedToAnotherLibrary()
+    {
+        onMessage(ROUTED_MESSAGE_TYPE, MessageStatus.ROUTED);
+
+        verify(parser).onMessage(buffer, 0, buffer.capacity(), ROUTED_MESSAGE_TYPE, SESSION_ID);
+        verifyHandled(ROUTED_MESSAGE_TYPE, never());
+    }
+
+    @Test
+    public void shouldHandleMessagesAfterARoutedMessage()
+    {
+        onMessage(ROUTED_MESSAGE_TYPE, MessageStatus.ROUTED);
+        onMessage(MESSAGE_TYPE);
+
+        verify(parser).onMessage(buffer, 0, buffer.capacity(), ROUTED_MESSAGE_TYPE, SESSION_ID);
+        verify(parser).onMessage(buffer, 0, buffer.capacity(), MESSAGE_TYPE, SESSION_ID);
+        verifyHandled(ROUTED_MESSAGE_TYPE, never());
+        verifyHandled(MESSAGE_TYPE, times(1));
+    }
+
+    private void onMessage(final int messageType)
+    {
+        onMessage(messageType, MessageStatus.OK);
+    }
+
+    private void onMessage(final int messageType, final MessageStatus status)
+    {
+        sessionSubscriber.onMessage(
+            buffer,
+            0,
+            buffer.capacity(),
+            LIBRARY_ID,
+            SESSION_ID,
+            SEQUENCE_INDEX,
+            messageType,
+            0,
+            status,
+            0);
+    }
+
+    private void verifyHandled(final int messageType, final VerificationMode times)
+    {
+        verify(handler, times).onMessage(
+            eq(buffer),
+            eq(0),
+            eq(buffer.capacity()),
+            eq(LIBRARY_ID),
+            eq(session),
+            eq(SEQUENCE_INDEX),
+            eq(messageType),
+            anyLong(),
+            anyLong());
+    }
+}
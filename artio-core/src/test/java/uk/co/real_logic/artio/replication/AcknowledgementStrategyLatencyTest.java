@@ -0,0 +1,116 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.replication;
+
+import org.agrona.collections.Int2IntHashMap;
+import org.agrona.collections.Long2LongHashMap;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Simulates a leader whose followers each acknowledge its position after a fixed delay, in order to measure the
+ * commit latency and consensus position advance of each acknowledgement strategy on a deterministic clock.
+ */
+public class AcknowledgementStrategyLatencyTest
+{
+    private static final long MESSAGE_LENGTH = 128;
+    private static final long DURATION_IN_MS = 1_000;
+
+    // The leader, two followers in the same rack as it, and two remote followers.
+    private static final long[] DELAYS_IN_MS = {0, 1, 1, 20, 40};
+    private static final int REMOTE_ZONE = 1;
+    private static final int FIRST_REMOTE_NODE = 4;
+
+    @Test
+    public void quorumShouldFollowNearestMajority()
+    {
+        assertCommitLatency(AcknowledgementStrategy.quorum(), 1);
+    }
+
+    @Test
+    public void entireClusterShouldFollowSlowestNode()
+    {
+        assertCommitLatency(AcknowledgementStrategy.entireCluster(), 40);
+    }
+
+    @Test
+    public void fastestShouldFollowFastestNodes()
+    {
+        assertCommitLatency(AcknowledgementStrategy.fastest(2), 1);
+    }
+
+    @Test
+    public void weightedQuorumShouldFollowHeavierNodes()
+    {
+        final Int2IntHashMap nodeIdToWeight = new Int2IntHashMap(-1);
+        for (int nodeId = FIRST_REMOTE_NODE; nodeId <= DELAYS_IN_MS.length; nodeId++)
+        {
+            nodeIdToWeight.put(nodeId, 3);
+        }
+
+        assertCommitLatency(AcknowledgementStrategy.weightedQuorum(nodeIdToWeight), 20);
+    }
+
+    @Test
+    public void zoneAwareShouldFollowNearestRemoteZone()
+    {
+        final Int2IntHashMap nodeIdToZone = new Int2IntHashMap(-1);
+        for (int nodeId = FIRST_REMOTE_NODE; nodeId <= DELAYS_IN_MS.length; nodeId++)
+        {
+            nodeIdToZone.put(nodeId, REMOTE_ZONE);
+        }
+
+        assertCommitLatency(AcknowledgementStrategy.zoneAware(nodeIdToZone, 2), 20);
+    }
+
+    private void assertCommitLatency(final AcknowledgementStrategy strategy, final long expectedLatencyInMs)
+    {
+        final Long2LongHashMap nodeToPosition = new Long2LongHashMap(-1);
+        for (int nodeId = 1; nodeId <= DELAYS_IN_MS.length; nodeId++)
+        {
+            nodeToPosition.put(nodeId, 0);
+        }
+
+        long ackedPosition = strategy.findAckedTerm(nodeToPosition);
+        long maxLatencyInMs = 0;
+
+        for (long timeInMs = 1; timeInMs <= DURATION_IN_MS; timeInMs++)
+        {
+            for (int nodeId = 1; nodeId <= DELAYS_IN_MS.length; nodeId++)
+            {
+                final long position = leaderPosition(timeInMs - DELAYS_IN_MS[nodeId - 1]);
+                final long previousPosition = nodeToPosition.put(nodeId, position);
+                if (previousPosition != position)
+                {
+                    ackedPosition = strategy.onPositionChange(nodeId, previousPosition, position, nodeToPosition);
+                }
+            }
+
+            final long publishedTimeInMs = ackedPosition / MESSAGE_LENGTH;
+            maxLatencyInMs = Math.max(maxLatencyInMs, timeInMs - publishedTimeInMs);
+        }
+
+        assertEquals(strategy.findAckedTerm(nodeToPosition), ackedPosition);
+        assertEquals("Commit latency", expectedLatencyInMs, maxLatencyInMs);
+        assertEquals("Consensus position", leaderPosition(DURATION_IN_MS - expectedLatencyInMs), ackedPosition);
+    }
+
+    private static long leaderPosition(final long timeInMs)
+    {
+        return Math.max(0, timeInMs) * MESSAGE_LENGTH;
+    }
+}
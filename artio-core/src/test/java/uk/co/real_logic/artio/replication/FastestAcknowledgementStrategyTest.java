@@ -0,0 +1,54 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.replication;
+
+import org.agrona.collections.Long2LongHashMap;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static uk.co.real_logic.artio.replication.WeightedQuorumAcknowledgementStrategyTest.changePosition;
+import static uk.co.real_logic.artio.replication.WeightedQuorumAcknowledgementStrategyTest.positions;
+
+public class FastestAcknowledgementStrategyTest
+{
+    @Test
+    public void shouldAcknowledgePositionOfFastestNodes()
+    {
+        final FastestAcknowledgementStrategy strategy = new FastestAcknowledgementStrategy(2);
+
+        assertEquals(4, strategy.findAckedTerm(positions(1, 2, 3, 4, 5)));
+    }
+
+    @Test
+    public void shouldAcknowledgeLowestPositionInSmallerCluster()
+    {
+        final FastestAcknowledgementStrategy strategy = new FastestAcknowledgementStrategy(3);
+
+        assertEquals(1, strategy.findAckedTerm(positions(2, 1)));
+    }
+
+    @Test
+    public void shouldUpdateFastestPositionIncrementally()
+    {
+        final FastestAcknowledgementStrategy strategy = new FastestAcknowledgementStrategy(2);
+        final Long2LongHashMap nodeToPosition = positions(1, 2, 3);
+        strategy.findAckedTerm(nodeToPosition);
+
+        assertEquals(3, changePosition(strategy, nodeToPosition, 1, 4));
+        assertEquals(4, changePosition(strategy, nodeToPosition, 2, 4));
+        assertEquals(4, changePosition(strategy, nodeToPosition, 3, 0));
+    }
+}
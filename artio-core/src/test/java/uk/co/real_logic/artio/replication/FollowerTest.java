@@ -147,6 +147,45 @@ public class FollowerTest
         acknowledgeLogEntries(times(2));
     }
 
+    @Test
+    public void shouldCoalesceAcknowledgementsUntilDataIsDrained()
+    {
+        coalesceAcknowledgements(LENGTH * 3);
+        when(leaderArchiver.poll()).thenReturn(LENGTH, LENGTH, 0);
+
+        poll();
+
+        poll();
+
+        verify(acknowledgementPublication, never()).saveMessageAcknowledgement(anyLong(), anyShort(), eq(OK));
+
+        poll();
+
+        verify(acknowledgementPublication).saveMessageAcknowledgement(POSITION + 2 * LENGTH, ID, OK);
+    }
+
+    @Test
+    public void shouldAcknowledgeOnceBatchSizeIsReached()
+    {
+        coalesceAcknowledgements(LENGTH * 2);
+        when(leaderArchiver.poll()).thenReturn(LENGTH);
+
+        poll();
+
+        verify(acknowledgementPublication, never()).saveMessageAcknowledgement(anyLong(), anyShort(), eq(OK));
+
+        poll();
+
+        verify(acknowledgementPublication).saveMessageAcknowledgement(POSITION + 2 * LENGTH, ID, OK);
+    }
+
+    private void coalesceAcknowledgements(final int batchSize)
+    {
+        follower
+            .acknowledgementCoalescing(batchSize, VOTE_TIMEOUT)
+            .follow(0);
+    }
+
     private void backPressureFirstAcknowledgement()
     {
         when(acknowledgementPublication.saveMessageAcknowledgement(anyLong(), anyShort(), any()))
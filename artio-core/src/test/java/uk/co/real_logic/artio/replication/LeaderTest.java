@@ -17,20 +17,42 @@ package uk.co.real_logic.artio.replication;
 
 import io.aeron.Subscription;
 import io.aeron.logbuffer.BlockHandler;
+import io.aeron.protocol.DataHeaderFlyweight;
 import org.agrona.DirectBuffer;
+import org.agrona.IoUtil;
 import org.agrona.collections.IntHashSet;
 import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.status.AtomicCounter;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.stubbing.OngoingStubbing;
 import org.mockito.verification.VerificationMode;
+import uk.co.real_logic.artio.engine.logger.ArchiveMetaData;
 import uk.co.real_logic.artio.engine.logger.ArchiveReader;
 import uk.co.real_logic.artio.engine.logger.Archiver;
 import uk.co.real_logic.artio.engine.logger.Archiver.SessionArchiver;
+import uk.co.real_logic.artio.engine.logger.LogDirectoryDescriptor;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+import static io.aeron.CommonContext.IPC_CHANNEL;
 import static io.aeron.Publication.BACK_PRESSURED;
+import static io.aeron.protocol.DataHeaderFlyweight.HEADER_LENGTH;
+import static io.aeron.protocol.HeaderFlyweight.HDR_TYPE_DATA;
+import static io.aeron.protocol.HeaderFlyweight.HDR_TYPE_PAD;
+import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
+import static uk.co.real_logic.artio.engine.EngineConfiguration.DEFAULT_LOGGER_CACHE_NUM_SETS;
+import static uk.co.real_logic.artio.engine.EngineConfiguration.DEFAULT_LOGGER_CACHE_SET_SIZE;
+import static uk.co.real_logic.artio.replication.ReservedValue.NO_FILTER;
 import static uk.co.real_logic.artio.replication.messages.AcknowledgementStatus.MISSING_LOG_ENTRIES;
 
 public class LeaderTest
@@ -44,6 +66,9 @@ public class LeaderTest
     private static final short FOLLOWER_ID = 4;
     private static final short OTHER_FOLLOWER_ID = 5;
     private static final DirectBuffer NODE_STATE_BUFFER = new UnsafeBuffer(new byte[1]);
+    private static final StreamIdentifier ARCHIVE_STREAM_ID = new StreamIdentifier(IPC_CHANNEL, 1);
+    private static final int TERM_BUFFER_LENGTH = 64 * 1024;
+    private static final String ARCHIVE_DIR = IoUtil.tmpDirName() + File.separator + "leader-catch-up";
 
     private RaftPublication controlPublication = mock(RaftPublication.class);
     private ClusterAgent clusterNode = mock(ClusterAgent.class);
@@ -59,33 +84,24 @@ public class LeaderTest
         .consensusPosition(POSITION);
     private NodeStateHandler nodeStateHandler = mock(NodeStateHandler.class);
 
-    private Leader leader = new Leader(
-        ID,
-        new EntireClusterAcknowledgementStrategy(),
-        new IntHashSet(40),
-        clusterNode,
-        0,
-        HEARTBEAT_INTERVAL_IN_MS,
-        termState,
-        LEADER_SESSION_ID,
-        archiveReader,
-        new RaftArchiver(termState.leaderSessionId(), archiver),
-        NODE_STATE_BUFFER,
-        nodeStateHandler);
+    private TermState followerTermState = new TermState()
+        .allPositions(0)
+        .leadershipTerm(LEADERSHIP_TERM)
+        .leaderSessionId(LEADER_SESSION_ID);
+    private List<Long> resendStartPositions = new ArrayList<>();
+    private List<Integer> patchedFrameIndices = new ArrayList<>();
+
+    private Leader leader;
 
     @Before
     public void setUp()
     {
+        deleteIfExists(ARCHIVE_DIR);
         when(archiver.session(LEADER_SESSION_ID)).thenReturn(sessionArchiver);
         when(archiveReader.session(LEADER_SESSION_ID)).thenReturn(sessionReader);
         termState.leaderSessionId(LEADER_SESSION_ID);
 
-        leader
-            .controlPublication(controlPublication)
-            .acknowledgementSubscription(acknowledgementSubscription)
-            .dataSubscription(dataSubscription)
-            .controlSubscription(controlSubscription)
-            .getsElected(TIME, POSITION);
+        leader = newLeader(archiveReader);
 
         whenBlockRead().then(
             (inv) ->
@@ -99,10 +115,16 @@ public class LeaderTest
                     handler.onBlock(new UnsafeBuffer(new byte[length]), 0, length, LEADER_SESSION_ID, 1);
                 }
 
-                return true;
+                return length;
             });
     }
 
+    @After
+    public void tearDown()
+    {
+        deleteIfExists(ARCHIVE_DIR);
+    }
+
     @Test
     public void onElectionHeartbeat()
     {
@@ -167,6 +189,204 @@ public class LeaderTest
         resendsMissingLogEntries(followerPosition, (int)POSITION, times(2));
     }
 
+    @Test
+    public void shouldStreamMissingLogEntriesInChunks()
+    {
+        final int chunkSize = 16;
+        final AtomicCounter bytesSent = mock(AtomicCounter.class);
+        final AtomicCounter bytesRemaining = mock(AtomicCounter.class);
+        leader
+            .catchUpPublication(controlPublication, chunkSize)
+            .catchUpCounters(bytesSent, bytesRemaining);
+
+        when(sessionArchiver.archivedPosition()).thenReturn(POSITION);
+
+        leader.readData();
+
+        receivesMissingLogEntries(0);
+
+        resendsMissingLogEntries(0, chunkSize, times(1));
+        verify(bytesRemaining).setOrdered(POSITION - chunkSize);
+
+        leader.poll(1, 0);
+
+        leader.poll(1, 0);
+
+        resendsMissingLogEntries(chunkSize, 2 * chunkSize, times(1));
+        resendsMissingLogEntries(2 * chunkSize, (int)POSITION, times(1));
+        verify(bytesSent, times(2)).getAndAdd(chunkSize);
+        verify(bytesRemaining).setOrdered(0);
+    }
+
+    @Test
+    public void shouldCatchUpFollowerFromStartOfStream() throws IOException
+    {
+        final int frameLength = 2 * HEADER_LENGTH;
+        final int frameCount = 3;
+        final int endPosition = frameCount * frameLength;
+        writeTerm(0, 0, frameCount, frameLength, false);
+
+        catchUpFollower(frameLength, endPosition);
+
+        assertEquals(Arrays.asList(0L, (long)frameLength, 2L * frameLength), resendStartPositions);
+        assertEquals(Arrays.asList(0, 1, 2), patchedFrameIndices);
+        assertEquals(endPosition, followerTermState.receivedPosition());
+    }
+
+    @Test
+    public void shouldCatchUpFollowerAcrossATermRoll() throws IOException
+    {
+        final int frameLength = TERM_BUFFER_LENGTH / 4;
+        final int endPosition = TERM_BUFFER_LENGTH + frameLength;
+        writeTerm(0, 0, 3, frameLength, true);
+        writeTerm(1, 3, 1, frameLength, false);
+
+        catchUpFollower(2 * frameLength, endPosition);
+
+        assertEquals(
+            Arrays.asList(0L, 2L * frameLength, (long)TERM_BUFFER_LENGTH), resendStartPositions);
+        assertEquals(Arrays.asList(0, 2, 3), patchedFrameIndices);
+        assertEquals(endPosition, followerTermState.receivedPosition());
+    }
+
+    private void catchUpFollower(final int chunkSize, final int endPosition)
+    {
+        final Archiver followerArchiver = mock(Archiver.class);
+        final SessionArchiver followerSessionArchiver = mock(SessionArchiver.class);
+        when(followerArchiver.session(LEADER_SESSION_ID)).thenReturn(followerSessionArchiver);
+        when(followerSessionArchiver.patch(any(), anyInt(), anyInt())).then(
+            (inv) ->
+            {
+                final DirectBuffer buffer = inv.getArgument(0);
+                final int offset = inv.getArgument(1);
+                patchedFrameIndices.add(buffer.getInt(offset + HEADER_LENGTH));
+                return true;
+            });
+
+        final Follower follower = new Follower(
+            FOLLOWER_ID,
+            clusterNode,
+            0,
+            HEARTBEAT_INTERVAL_IN_MS,
+            followerTermState,
+            new RaftArchiver(followerTermState.leaderSessionId(), followerArchiver),
+            NODE_STATE_BUFFER,
+            nodeStateHandler)
+            .controlPublication(mock(RaftPublication.class))
+            .acknowledgementPublication(mock(RaftPublication.class))
+            .controlSubscription(mock(Subscription.class))
+            .follow(0);
+
+        when(controlPublication.saveResend(
+            anyInt(), anyInt(), anyLong(), anyLong(), any(), anyInt(), anyInt())).then(
+            (inv) ->
+            {
+                final int leaderSessionId = inv.getArgument(0);
+                final int leadershipTerm = inv.getArgument(1);
+                final long startPosition = inv.getArgument(2);
+                final DirectBuffer buffer = inv.getArgument(4);
+                final int offset = inv.getArgument(5);
+                final int length = inv.getArgument(6);
+                resendStartPositions.add(startPosition);
+                follower.onResend(leaderSessionId, leadershipTerm, startPosition, buffer, offset, length);
+                return 100L;
+            });
+        when(sessionArchiver.archivedPosition()).thenReturn((long)endPosition);
+
+        final ArchiveMetaData metaData = new ArchiveMetaData(new LogDirectoryDescriptor(ARCHIVE_DIR));
+        metaData.write(ARCHIVE_STREAM_ID, LEADER_SESSION_ID, 0, TERM_BUFFER_LENGTH);
+        try (ArchiveReader realArchiveReader = new ArchiveReader(
+            metaData, DEFAULT_LOGGER_CACHE_NUM_SETS, DEFAULT_LOGGER_CACHE_SET_SIZE, ARCHIVE_STREAM_ID, NO_FILTER))
+        {
+            leader = newLeader(realArchiveReader).catchUpPublication(controlPublication, chunkSize);
+            leader.readData();
+
+            receivesMissingLogEntries(0);
+
+            for (int i = 0; i < 10 && followerTermState.receivedPosition() < endPosition; i++)
+            {
+                leader.poll(1, 0);
+            }
+        }
+    }
+
+    private void writeTerm(
+        final int termId,
+        final int firstFrameIndex,
+        final int frameCount,
+        final int frameLength,
+        final boolean padToEnd) throws IOException
+    {
+        final UnsafeBuffer termBuffer = new UnsafeBuffer(new byte[TERM_BUFFER_LENGTH]);
+        final DataHeaderFlyweight header = new DataHeaderFlyweight();
+        final CRC32 crc32 = new CRC32();
+        final int bodyLength = frameLength - HEADER_LENGTH;
+        int frameOffset = 0;
+        for (int i = 0; i < frameCount; i++)
+        {
+            final int bodyOffset = frameOffset + HEADER_LENGTH;
+            termBuffer.putInt(bodyOffset, firstFrameIndex + i);
+
+            crc32.reset();
+            crc32.update(termBuffer.byteArray(), bodyOffset, bodyLength);
+            header.wrap(termBuffer, frameOffset, HEADER_LENGTH);
+            header.frameLength(frameLength);
+            header.headerType(HDR_TYPE_DATA);
+            header.termOffset(frameOffset);
+            header.termId(termId);
+            header.reservedValue(ReservedValue.ofChecksum((int)crc32.getValue()));
+            frameOffset += frameLength;
+        }
+
+        if (padToEnd)
+        {
+            header.wrap(termBuffer, frameOffset, HEADER_LENGTH);
+            header.frameLength(TERM_BUFFER_LENGTH - frameOffset);
+            header.headerType(HDR_TYPE_PAD);
+            header.termOffset(frameOffset);
+            header.termId(termId);
+        }
+
+        final LogDirectoryDescriptor directory = new LogDirectoryDescriptor(ARCHIVE_DIR);
+        final File termFile = directory.logFile(ARCHIVE_STREAM_ID, LEADER_SESSION_ID, termId);
+        IoUtil.ensureDirectoryExists(termFile.getParentFile(), "archive");
+        try (RandomAccessFile file = new RandomAccessFile(termFile, "rw"))
+        {
+            file.write(termBuffer.byteArray());
+        }
+    }
+
+    private void deleteIfExists(final String dir)
+    {
+        final File file = new File(dir);
+        if (file.exists())
+        {
+            IoUtil.delete(file, false);
+        }
+    }
+
+    private Leader newLeader(final ArchiveReader archiveReader)
+    {
+        return new Leader(
+            ID,
+            new EntireClusterAcknowledgementStrategy(),
+            new IntHashSet(40),
+            clusterNode,
+            0,
+            HEARTBEAT_INTERVAL_IN_MS,
+            termState,
+            LEADER_SESSION_ID,
+            archiveReader,
+            new RaftArchiver(termState.leaderSessionId(), archiver),
+            NODE_STATE_BUFFER,
+            nodeStateHandler)
+            .controlPublication(controlPublication)
+            .acknowledgementSubscription(acknowledgementSubscription)
+            .dataSubscription(dataSubscription)
+            .controlSubscription(controlSubscription)
+            .getsElected(TIME, POSITION);
+    }
+
     private void backPressureResend(final long position)
     {
         when(controlPublication.saveResend(anyInt(), anyInt(), eq(position), anyLong(), any(), anyInt(), anyInt()))
@@ -176,7 +396,7 @@ public class LeaderTest
     @Test
     public void shouldRespondToMissingLogEntriesWhenTheresNoData()
     {
-        whenBlockRead().thenReturn(false);
+        whenBlockRead().thenReturn(0);
 
         final long followerPosition = 0;
 
@@ -207,8 +427,8 @@ public class LeaderTest
             eq((int)(length - followerPosition)));
     }
 
-    private OngoingStubbing<Boolean> whenBlockRead()
+    private OngoingStubbing<Integer> whenBlockRead()
     {
-        return when(sessionReader.readBlock(anyLong(), anyInt(), any()));
+        return when(sessionReader.readBlockUpTo(anyLong(), anyInt(), any()));
     }
 }
@@ -90,6 +90,41 @@ public class QuorumAcknowledgementStrategyTest
         assertEquals(2, ackedTerm);
     }
 
+    @Test
+    public void shouldUpdateQuorumPositionIncrementally()
+    {
+        final Long2LongHashMap sessionIdToPosition = new Long2LongHashMap(-1L);
+        sessionIdToPosition.put(1, 1);
+        sessionIdToPosition.put(2, 2);
+        sessionIdToPosition.put(3, 3);
+        sessionIdToPosition.put(4, 4);
+        sessionIdToPosition.put(5, 5);
+        strategy.findAckedTerm(sessionIdToPosition);
+
+        assertEquals(4, changePosition(sessionIdToPosition, 1, 6));
+        assertEquals(3, changePosition(sessionIdToPosition, 4, 0));
+        assertEquals(5, changePosition(sessionIdToPosition, 2, 7));
+    }
+
+    @Test
+    public void shouldRecalculateQuorumPositionWhenNodeAdded()
+    {
+        final Long2LongHashMap sessionIdToPosition = new Long2LongHashMap(-1L);
+        sessionIdToPosition.put(1, 1);
+        sessionIdToPosition.put(2, 2);
+        strategy.findAckedTerm(sessionIdToPosition);
+
+        assertEquals(2, changePosition(sessionIdToPosition, 3, 3));
+    }
+
+    private long changePosition(final Long2LongHashMap sessionIdToPosition, final long nodeId, final long position)
+    {
+        final long previousPosition = sessionIdToPosition.put(nodeId, position);
+        final long ackedTerm = strategy.onPositionChange(nodeId, previousPosition, position, sessionIdToPosition);
+        assertEquals(strategy.findAckedTerm(sessionIdToPosition), ackedTerm);
+        return ackedTerm;
+    }
+
     @Test
     public void shouldElectWithMajority()
     {
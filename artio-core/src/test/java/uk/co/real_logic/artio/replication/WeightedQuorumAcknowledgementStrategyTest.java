@@ -0,0 +1,101 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.replication;
+
+import org.agrona.collections.Int2IntHashMap;
+import org.agrona.collections.Long2LongHashMap;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class WeightedQuorumAcknowledgementStrategyTest
+{
+    private final Int2IntHashMap nodeIdToWeight = new Int2IntHashMap(-1);
+
+    @Test
+    public void shouldAcknowledgeQuorumPositionWithEqualWeights()
+    {
+        final WeightedQuorumAcknowledgementStrategy strategy = new WeightedQuorumAcknowledgementStrategy(
+            nodeIdToWeight);
+
+        assertEquals(2, strategy.findAckedTerm(positions(1, 2, 3)));
+    }
+
+    @Test
+    public void shouldAcknowledgePositionOfHeavierNodes()
+    {
+        nodeIdToWeight.put(1, 3);
+        nodeIdToWeight.put(2, 3);
+        final WeightedQuorumAcknowledgementStrategy strategy = new WeightedQuorumAcknowledgementStrategy(
+            nodeIdToWeight);
+
+        assertEquals(8, strategy.findAckedTerm(positions(9, 8, 5, 4)));
+    }
+
+    @Test
+    public void shouldUpdateWeightedPositionIncrementally()
+    {
+        nodeIdToWeight.put(1, 2);
+        final WeightedQuorumAcknowledgementStrategy strategy = new WeightedQuorumAcknowledgementStrategy(
+            nodeIdToWeight);
+        final Long2LongHashMap nodeToPosition = positions(1, 2, 3);
+        strategy.findAckedTerm(nodeToPosition);
+
+        assertEquals(3, changePosition(strategy, nodeToPosition, 1, 4));
+        assertEquals(2, changePosition(strategy, nodeToPosition, 1, 2));
+        assertEquals(2, changePosition(strategy, nodeToPosition, 3, 2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNegativeWeights()
+    {
+        nodeIdToWeight.put(1, -1);
+
+        new WeightedQuorumAcknowledgementStrategy(nodeIdToWeight);
+    }
+
+    @Test
+    public void shouldElectWithMajority()
+    {
+        final WeightedQuorumAcknowledgementStrategy strategy = new WeightedQuorumAcknowledgementStrategy(
+            nodeIdToWeight);
+
+        assertTrue(strategy.isElected(2, 3));
+        assertFalse(strategy.isElected(1, 3));
+    }
+
+    static Long2LongHashMap positions(final long... positions)
+    {
+        final Long2LongHashMap nodeToPosition = new Long2LongHashMap(-1L);
+        for (int i = 0; i < positions.length; i++)
+        {
+            nodeToPosition.put(i + 1, positions[i]);
+        }
+        return nodeToPosition;
+    }
+
+    static long changePosition(
+        final AcknowledgementStrategy strategy,
+        final Long2LongHashMap nodeToPosition,
+        final long nodeId,
+        final long position)
+    {
+        final long previousPosition = nodeToPosition.put(nodeId, position);
+        final long ackedTerm = strategy.onPositionChange(nodeId, previousPosition, position, nodeToPosition);
+        assertEquals(strategy.findAckedTerm(nodeToPosition), ackedTerm);
+        return ackedTerm;
+    }
+}
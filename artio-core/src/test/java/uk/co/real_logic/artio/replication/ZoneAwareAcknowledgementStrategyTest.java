@@ -0,0 +1,76 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.replication;
+
+import org.agrona.collections.Int2IntHashMap;
+import org.agrona.collections.Long2LongHashMap;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static uk.co.real_logic.artio.replication.WeightedQuorumAcknowledgementStrategyTest.changePosition;
+import static uk.co.real_logic.artio.replication.WeightedQuorumAcknowledgementStrategyTest.positions;
+
+public class ZoneAwareAcknowledgementStrategyTest
+{
+    private final Int2IntHashMap nodeIdToZone = new Int2IntHashMap(-1);
+
+    @Test
+    public void shouldAcknowledgeQuorumPositionWithinOneZone()
+    {
+        final ZoneAwareAcknowledgementStrategy strategy = new ZoneAwareAcknowledgementStrategy(nodeIdToZone, 1);
+
+        assertEquals(3, strategy.findAckedTerm(positions(1, 2, 3, 4, 5)));
+    }
+
+    @Test
+    public void shouldRequireAcknowledgementFromAnotherZone()
+    {
+        nodeIdToZone.put(4, 1);
+        nodeIdToZone.put(5, 1);
+        final ZoneAwareAcknowledgementStrategy strategy = new ZoneAwareAcknowledgementStrategy(nodeIdToZone, 2);
+
+        assertEquals(2, strategy.findAckedTerm(positions(10, 10, 10, 2, 1)));
+    }
+
+    @Test
+    public void shouldAcknowledgeWithinAvailableZones()
+    {
+        final ZoneAwareAcknowledgementStrategy strategy = new ZoneAwareAcknowledgementStrategy(nodeIdToZone, 2);
+
+        assertEquals(2, strategy.findAckedTerm(positions(1, 2, 3)));
+    }
+
+    @Test
+    public void shouldUpdateZoneAwarePositionIncrementally()
+    {
+        nodeIdToZone.put(3, 1);
+        final ZoneAwareAcknowledgementStrategy strategy = new ZoneAwareAcknowledgementStrategy(nodeIdToZone, 2);
+        final Long2LongHashMap nodeToPosition = positions(5, 5, 1);
+        strategy.findAckedTerm(nodeToPosition);
+
+        assertEquals(3, changePosition(strategy, nodeToPosition, 3, 3));
+        assertEquals(5, changePosition(strategy, nodeToPosition, 3, 7));
+        assertEquals(6, changePosition(strategy, nodeToPosition, 2, 6));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectZonesOutOfRange()
+    {
+        nodeIdToZone.put(1, ZoneAwareAcknowledgementStrategy.MAX_ZONE + 1);
+
+        new ZoneAwareAcknowledgementStrategy(nodeIdToZone, 1);
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio;
+
+import io.aeron.Aeron;
+import io.aeron.CommonContext;
+import io.aeron.Subscription;
+import io.aeron.driver.MediaDriver;
+import io.aeron.driver.ThreadingMode;
+import org.agrona.CloseHelper;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.AtomicBuffer;
+import org.agrona.concurrent.BusySpinIdleStrategy;
+import org.agrona.concurrent.SystemNanoClock;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.status.AtomicCounter;
+import org.agrona.concurrent.status.CountersManager;
+import uk.co.real_logic.artio.protocol.GatewayPublication;
+import uk.co.real_logic.artio.replication.ClusterablePublication;
+
+import java.io.File;
+
+/**
+ * An embedded media driver and client for benchmarks of engine components that publish to, or read from,
+ * Aeron streams. Streams are IPC so that results aren't dominated by the network.
+ */
+public final class EmbeddedAeron implements AutoCloseable
+{
+    public static final String IPC_CHANNEL = CommonContext.IPC_CHANNEL;
+
+    private static final String AERON_DIR = IoUtil.tmpDirName() + "artio-benchmarks-aeron";
+    private static final int TERM_BUFFER_LENGTH = 16 * 1024 * 1024;
+    private static final int COUNTER_VALUES_LENGTH = 64 * 1024;
+    private static final int MAX_CLAIM_ATTEMPTS = 1024;
+
+    private final MediaDriver mediaDriver;
+    private final Aeron aeron;
+    private final CountersManager countersManager;
+
+    public EmbeddedAeron()
+    {
+        mediaDriver = MediaDriver.launch(new MediaDriver.Context()
+            .aeronDirectoryName(AERON_DIR)
+            .threadingMode(ThreadingMode.SHARED)
+            .dirDeleteOnStart(true)
+            .warnIfDirectoryExists(false)
+            .ipcTermBufferLength(TERM_BUFFER_LENGTH));
+        aeron = Aeron.connect(new Aeron.Context().aeronDirectoryName(AERON_DIR));
+
+        final AtomicBuffer metaDataBuffer = new UnsafeBuffer(new byte[COUNTER_VALUES_LENGTH * 2]);
+        final AtomicBuffer valuesBuffer = new UnsafeBuffer(new byte[COUNTER_VALUES_LENGTH]);
+        countersManager = new CountersManager(metaDataBuffer, valuesBuffer);
+    }
+
+    public Aeron aeron()
+    {
+        return aeron;
+    }
+
+    public GatewayPublication gatewayPublication(final int streamId)
+    {
+        return new GatewayPublication(
+            ClusterablePublication.solo(aeron.addExclusivePublication(IPC_CHANNEL, streamId)),
+            newCounter("Failed offer to stream " + streamId),
+            new BusySpinIdleStrategy(),
+            new SystemNanoClock(),
+            MAX_CLAIM_ATTEMPTS);
+    }
+
+    public Subscription subscription(final int streamId)
+    {
+        return aeron.addSubscription(IPC_CHANNEL, streamId);
+    }
+
+    public AtomicCounter newCounter(final String label)
+    {
+        return countersManager.newCounter(label);
+    }
+
+    public void close()
+    {
+        CloseHelper.close(aeron);
+        CloseHelper.close(mediaDriver);
+        IoUtil.delete(new File(AERON_DIR), true);
+    }
+}
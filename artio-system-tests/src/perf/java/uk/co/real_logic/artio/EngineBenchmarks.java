@@ -0,0 +1,45 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks of the engine's framing, archiving, indexing and session parsing paths with the GC
+ * profiler, so that both their latency and the bytes that they allocate per operation are reported. An
+ * allocation rate that isn't close to zero is a regression.
+ *
+ * Takes an optional regular expression of the benchmarks to run, otherwise runs all of them.
+ */
+public final class EngineBenchmarks
+{
+    private static final String ENGINE_BENCHMARKS =
+        "uk\\.co\\.real_logic\\.artio\\.(engine|session)\\..*Benchmark";
+
+    public static void main(final String[] args) throws RunnerException
+    {
+        final Options options = new OptionsBuilder()
+            .include(args.length > 0 ? args[0] : ENGINE_BENCHMARKS)
+            .addProfiler(GCProfiler.class)
+            .build();
+
+        new Runner(options).run();
+    }
+}
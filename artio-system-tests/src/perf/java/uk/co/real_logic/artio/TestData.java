@@ -16,6 +16,14 @@
 package uk.co.real_logic.artio;
 
 import org.agrona.concurrent.UnsafeBuffer;
+import uk.co.real_logic.artio.builder.Encoder;
+import uk.co.real_logic.artio.builder.TestRequestEncoder;
+import uk.co.real_logic.artio.decoder.TestRequestDecoder;
+import uk.co.real_logic.artio.fields.UtcTimestampEncoder;
+import uk.co.real_logic.artio.messages.FixMessageEncoder;
+import uk.co.real_logic.artio.messages.MessageHeaderEncoder;
+import uk.co.real_logic.artio.messages.MessageStatus;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
 
 import java.nio.charset.StandardCharsets;
 
@@ -31,4 +39,64 @@ public final class TestData
         ("8=FIX.4.4\0019=0103\00135=A\00149=ABC_DEFG01\00156=CCG\00134=10\001" +
         "52=20150514-15:57:31.336\00198=0\001108=10\001383=512\001553=username" +
         "\001554=password\00110=243\001").getBytes(StandardCharsets.US_ASCII));
+
+    public static final String SENDER_COMP_ID = "sender";
+    public static final String TARGET_COMP_ID = "target";
+
+    /**
+     * Encode a test request, with a valid body length and checksum, at the start of the buffer.
+     *
+     * @param buffer the buffer to encode into.
+     * @param msgSeqNum the sequence number of the message.
+     * @param sendingTime the sending time of the message in milliseconds since the epoch.
+     * @return the length of the message.
+     */
+    public static int encodeTestRequest(final MutableAsciiBuffer buffer, final int msgSeqNum, final long sendingTime)
+    {
+        final UtcTimestampEncoder timestampEncoder = new UtcTimestampEncoder();
+        final int timestampLength = timestampEncoder.encode(sendingTime);
+        final TestRequestEncoder testRequest = new TestRequestEncoder();
+        testRequest
+            .testReqID("abc")
+            .header()
+            .sendingTime(timestampEncoder.buffer(), timestampLength)
+            .senderCompID(SENDER_COMP_ID)
+            .targetCompID(TARGET_COMP_ID)
+            .msgSeqNum(msgSeqNum);
+
+        final MutableAsciiBuffer encodeBuffer = new MutableAsciiBuffer(new byte[buffer.capacity()]);
+        final long result = testRequest.encode(encodeBuffer, 0);
+        final int length = Encoder.length(result);
+        buffer.putBytes(0, encodeBuffer, Encoder.offset(result), length);
+
+        return length;
+    }
+
+    /**
+     * Encode a test request framed as it is on the engine's archived streams, at the start of the buffer.
+     *
+     * @param buffer the buffer to encode into.
+     * @param sessionId the FIX session id of the message.
+     * @param msgSeqNum the sequence number of the message.
+     * @param sendingTime the sending time of the message in milliseconds since the epoch.
+     * @return the length of the framed message.
+     */
+    public static int encodeFramedTestRequest(
+        final UnsafeBuffer buffer, final long sessionId, final int msgSeqNum, final long sendingTime)
+    {
+        final MutableAsciiBuffer body = new MutableAsciiBuffer(new byte[buffer.capacity()]);
+        final int bodyLength = encodeTestRequest(body, msgSeqNum, sendingTime);
+
+        final FixMessageEncoder messageFrame = new FixMessageEncoder();
+        messageFrame
+            .wrapAndApplyHeader(buffer, 0, new MessageHeaderEncoder())
+            .messageType(TestRequestDecoder.MESSAGE_TYPE)
+            .session(sessionId)
+            .connection(1)
+            .sequenceIndex(0)
+            .status(MessageStatus.OK)
+            .putBody(body, 0, bodyLength);
+
+        return MessageHeaderEncoder.ENCODED_LENGTH + messageFrame.encodedLength();
+    }
 }
@@ -0,0 +1,172 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import io.aeron.Subscription;
+import io.aeron.logbuffer.FragmentHandler;
+import org.agrona.ErrorHandler;
+import org.agrona.IoUtil;
+import org.agrona.collections.LongHashSet;
+import org.agrona.concurrent.SystemEpochClock;
+import org.openjdk.jmh.annotations.*;
+import uk.co.real_logic.artio.EmbeddedAeron;
+import uk.co.real_logic.artio.TestData;
+import uk.co.real_logic.artio.engine.MappedFile;
+import uk.co.real_logic.artio.messages.ConnectionType;
+import uk.co.real_logic.artio.messages.SequenceNumberType;
+import uk.co.real_logic.artio.protocol.GatewayPublication;
+import uk.co.real_logic.artio.session.Session;
+import uk.co.real_logic.artio.session.SessionCustomisationStrategy;
+import uk.co.real_logic.artio.session.SessionIdStrategy;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static uk.co.real_logic.artio.CommonConfiguration.*;
+import static uk.co.real_logic.artio.GatewayProcess.INBOUND_LIBRARY_STREAM;
+import static uk.co.real_logic.artio.engine.EngineConfiguration.*;
+import static uk.co.real_logic.artio.engine.SectorFramer.OUT_OF_SPACE;
+
+/**
+ * Benchmarks framing messages that have been read from a TCP connection and publishing them to the library,
+ * reading from an in memory channel rather than a socket.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ReceiverEndPointBenchmark
+{
+    private static final long CONNECTION_ID = 1;
+    private static final long SESSION_ID = 1;
+    private static final int LIBRARY_ID = 1;
+    private static final int FRAGMENT_LIMIT = 100;
+
+    @Param({"1", "10"})
+    public int messagesPerRead;
+
+    private final ErrorHandler errorHandler = Throwable::printStackTrace;
+    private final FragmentHandler drainHandler = (buffer, offset, length, header) -> {};
+
+    private EmbeddedAeron embeddedAeron;
+    private Subscription librarySubscription;
+    private MappedFile sessionIdFile;
+    private InMemoryTcpChannel channel;
+    private ReceiverEndPoint receiverEndPoint;
+
+    @Setup
+    public void setup()
+    {
+        embeddedAeron = new EmbeddedAeron();
+        final GatewayPublication libraryPublication = embeddedAeron.gatewayPublication(INBOUND_LIBRARY_STREAM);
+        librarySubscription = embeddedAeron.subscription(INBOUND_LIBRARY_STREAM);
+
+        final File sessionIdFile = new File(IoUtil.tmpDirName(), "receiver-benchmark-session-ids");
+        IoUtil.deleteIfExists(sessionIdFile);
+        this.sessionIdFile = MappedFile.map(sessionIdFile, DEFAULT_SESSION_ID_BUFFER_SIZE);
+        final SessionIdStrategy sessionIdStrategy = SessionIdStrategy.senderAndTarget();
+        final SessionContexts sessionContexts = new SessionContexts(
+            this.sessionIdFile, sessionIdStrategy, errorHandler);
+        final GatewaySessions gatewaySessions = new GatewaySessions(
+            new SystemEpochClock(),
+            libraryPublication,
+            sessionIdStrategy,
+            SessionCustomisationStrategy.none(),
+            null,
+            null,
+            null,
+            DEFAULT_SESSION_BUFFER_SIZE,
+            DEFAULT_SENDING_TIME_WINDOW,
+            DEFAULT_REASONABLE_TRANSMISSION_TIME_IN_MS,
+            errorHandler,
+            sessionContexts,
+            null);
+
+        channel = new InMemoryTcpChannel(readData());
+        receiverEndPoint = new ReceiverEndPoint(
+            channel,
+            DEFAULT_RECEIVER_BUFFER_SIZE,
+            libraryPublication,
+            libraryPublication,
+            CONNECTION_ID,
+            SESSION_ID,
+            0,
+            sessionContexts,
+            null,
+            null,
+            embeddedAeron.newCounter("Messages read"),
+            null,
+            errorHandler,
+            LIBRARY_ID,
+            SequenceNumberType.TRANSIENT,
+            ConnectionType.INITIATOR,
+            new LongHashSet(),
+            gatewaySessions,
+            new MessageTypeRouter(Collections.emptyMap()));
+
+        final SessionContext context = new SessionContext(
+            SESSION_ID, 0, Session.NO_LOGON_TIME, sessionContexts, OUT_OF_SPACE);
+        receiverEndPoint.gatewaySession(new GatewaySession(
+            CONNECTION_ID,
+            context,
+            channel.remoteAddress(),
+            ConnectionType.INITIATOR,
+            null,
+            receiverEndPoint,
+            null,
+            null));
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        sessionIdFile.close();
+        embeddedAeron.close();
+    }
+
+    @Benchmark
+    public int pollForData()
+    {
+        channel.rewind();
+        final int bytesRead = receiverEndPoint.pollForData();
+
+        while (librarySubscription.poll(drainHandler, FRAGMENT_LIMIT) > 0)
+        {
+        }
+
+        return bytesRead;
+    }
+
+    private ByteBuffer readData()
+    {
+        final MutableAsciiBuffer message = new MutableAsciiBuffer(new byte[DEFAULT_RECEIVER_BUFFER_SIZE]);
+        final int length = TestData.encodeTestRequest(message, 1, System.currentTimeMillis());
+
+        final ByteBuffer readData = ByteBuffer.allocateDirect(length * messagesPerRead);
+        for (int i = 0; i < messagesPerRead; i++)
+        {
+            message.getBytes(0, readData, length);
+        }
+        readData.flip();
+
+        return readData;
+    }
+}
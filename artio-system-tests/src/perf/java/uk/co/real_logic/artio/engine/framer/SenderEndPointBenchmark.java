@@ -0,0 +1,93 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.framer;
+
+import org.agrona.ErrorHandler;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.agrona.concurrent.status.CountersManager;
+import org.openjdk.jmh.annotations.*;
+import uk.co.real_logic.artio.TestData;
+import uk.co.real_logic.artio.engine.SessionThrottleStrategy;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import static uk.co.real_logic.artio.engine.EngineConfiguration.DEFAULT_SENDER_MAX_BYTES_IN_BUFFER;
+import static uk.co.real_logic.artio.engine.EngineConfiguration.DEFAULT_SLOW_CONSUMER_TIMEOUT_IN_MS;
+import static uk.co.real_logic.artio.engine.EngineConfiguration.DEFAULT_THROTTLE_WINDOW_IN_MS;
+
+/**
+ * Benchmarks writing outbound messages to a TCP connection, writing to an in memory channel rather than a socket.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class SenderEndPointBenchmark
+{
+    private static final long CONNECTION_ID = 1;
+    private static final int LIBRARY_ID = 1;
+    private static final int MESSAGE_TYPE = 'D';
+    private static final int BUFFER_SIZE = 8 * 1024;
+    private static final int COUNTER_VALUES_LENGTH = 1024;
+
+    private final ErrorHandler errorHandler = Throwable::printStackTrace;
+
+    private SenderEndPoint senderEndPoint;
+    private MutableAsciiBuffer message;
+    private int messageLength;
+    private long position;
+
+    @Setup
+    public void setup()
+    {
+        final CountersManager countersManager = new CountersManager(
+            new UnsafeBuffer(new byte[COUNTER_VALUES_LENGTH * 2]), new UnsafeBuffer(new byte[COUNTER_VALUES_LENGTH]));
+
+        message = new MutableAsciiBuffer(ByteBuffer.allocateDirect(BUFFER_SIZE));
+        messageLength = TestData.encodeTestRequest(message, 1, System.currentTimeMillis());
+
+        senderEndPoint = new SenderEndPoint(
+            CONNECTION_ID,
+            LIBRARY_ID,
+            new BlockablePosition(),
+            new BlockablePosition(),
+            new InMemoryTcpChannel(ByteBuffer.allocate(0)),
+            countersManager.newCounter("Bytes in buffer"),
+            countersManager.newCounter("Invalid library attempts"),
+            countersManager.newCounter("Messages written"),
+            countersManager.newCounter("Slow consumer time in ms"),
+            errorHandler,
+            null,
+            null,
+            DEFAULT_SENDER_MAX_BYTES_IN_BUFFER,
+            DEFAULT_SLOW_CONSUMER_TIMEOUT_IN_MS,
+            System.currentTimeMillis(),
+            SessionThrottleStrategy.none(),
+            new SlidingWindowThrottle(DEFAULT_THROTTLE_WINDOW_IN_MS),
+            countersManager.newCounter("Throttled time in ms"));
+    }
+
+    @Benchmark
+    public void onOutboundMessage()
+    {
+        position += messageLength;
+        senderEndPoint.onOutboundMessage(LIBRARY_ID, message, 0, messageLength, MESSAGE_TYPE, position, 0);
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import org.agrona.IoUtil;
+import org.openjdk.jmh.annotations.*;
+import uk.co.real_logic.artio.EmbeddedAeron;
+import uk.co.real_logic.artio.TestData;
+import uk.co.real_logic.artio.decoder.TestRequestDecoder;
+import uk.co.real_logic.artio.engine.CompletionPosition;
+import uk.co.real_logic.artio.protocol.GatewayPublication;
+import uk.co.real_logic.artio.replication.StreamIdentifier;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import static uk.co.real_logic.artio.CommonConfiguration.DEFAULT_NAME_PREFIX;
+import static uk.co.real_logic.artio.GatewayProcess.OUTBOUND_LIBRARY_STREAM;
+import static uk.co.real_logic.artio.engine.EngineConfiguration.DEFAULT_LOGGER_CACHE_NUM_SETS;
+import static uk.co.real_logic.artio.engine.EngineConfiguration.DEFAULT_LOGGER_CACHE_SET_SIZE;
+import static uk.co.real_logic.artio.messages.MessageStatus.OK;
+
+/**
+ * Benchmarks archiving messages, each of which is published to an IPC stream and then archived by
+ * {@link Archiver#onBlock}. The archive is removed after every iteration so that it doesn't fill the disk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ArchiverBenchmark
+{
+    private static final String LOG_FILE_DIR = IoUtil.tmpDirName() + "artio-archiver-benchmark";
+    private static final long SESSION_ID = 1;
+    private static final long CONNECTION_ID = 1;
+    private static final int LIBRARY_ID = 1;
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private EmbeddedAeron embeddedAeron;
+    private MutableAsciiBuffer message;
+    private int messageLength;
+    private GatewayPublication publication;
+    private Archiver archiver;
+
+    @Setup
+    public void setup()
+    {
+        embeddedAeron = new EmbeddedAeron();
+        message = new MutableAsciiBuffer(new byte[BUFFER_SIZE]);
+        messageLength = TestData.encodeTestRequest(message, 1, System.currentTimeMillis());
+    }
+
+    @Setup(Level.Iteration)
+    public void setupArchive()
+    {
+        deleteLogFileDir();
+
+        final CompletionPosition completionPosition = new CompletionPosition();
+        completionPosition.completeDuringStartup();
+        final StreamIdentifier streamId = new StreamIdentifier(EmbeddedAeron.IPC_CHANNEL, OUTBOUND_LIBRARY_STREAM);
+        archiver = new Archiver(
+            LoggerUtil.newArchiveMetaData(LOG_FILE_DIR),
+            DEFAULT_LOGGER_CACHE_NUM_SETS,
+            DEFAULT_LOGGER_CACHE_SET_SIZE,
+            streamId,
+            DEFAULT_NAME_PREFIX,
+            completionPosition);
+        archiver.subscription(embeddedAeron.subscription(OUTBOUND_LIBRARY_STREAM));
+        publication = embeddedAeron.gatewayPublication(OUTBOUND_LIBRARY_STREAM);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDownArchive()
+    {
+        archiver.onClose();
+        publication.close();
+        deleteLogFileDir();
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        embeddedAeron.close();
+    }
+
+    @Benchmark
+    public int publishAndArchive()
+    {
+        final long position = publication.saveMessage(
+            message, 0, messageLength, LIBRARY_ID, TestRequestDecoder.MESSAGE_TYPE, SESSION_ID, 0, CONNECTION_ID, OK);
+
+        int archived = 0;
+        if (position > 0)
+        {
+            while (archiver.positionOf(publication.id()) < position)
+            {
+                archived += archiver.doWork();
+            }
+        }
+
+        return archived;
+    }
+
+    private static void deleteLogFileDir()
+    {
+        final File logFileDir = new File(LOG_FILE_DIR);
+        if (logFileDir.exists())
+        {
+            IoUtil.delete(logFileDir, false);
+        }
+    }
+}
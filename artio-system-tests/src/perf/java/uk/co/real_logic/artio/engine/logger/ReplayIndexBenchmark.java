@@ -0,0 +1,116 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import io.aeron.logbuffer.FrameDescriptor;
+import org.agrona.BitUtil;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.openjdk.jmh.annotations.*;
+import uk.co.real_logic.artio.TestData;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import static uk.co.real_logic.artio.GatewayProcess.OUTBOUND_LIBRARY_STREAM;
+import static uk.co.real_logic.artio.engine.EngineConfiguration.*;
+import static uk.co.real_logic.artio.engine.logger.ReplayIndexDescriptor.REPLAY_POSITION_BUFFER_SIZE;
+
+/**
+ * Benchmarks indexing archived messages for replay, with the checksums of the indexed positions updated for
+ * every record, as happens when records aren't polled in batches, or once for each batch of records.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ReplayIndexBenchmark
+{
+    private static final String LOG_FILE_DIR = IoUtil.tmpDirName() + "artio-replay-index-benchmark";
+    private static final int AERON_SESSION_ID = 1;
+    private static final int BATCH_SIZE = 10;
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private final UnsafeBuffer buffer = new UnsafeBuffer(new byte[BUFFER_SIZE]);
+
+    private ReplayIndex replayIndex;
+    private int length;
+    private int alignedLength;
+    private long position;
+
+    @Setup
+    public void setup()
+    {
+        deleteLogFileDir();
+        IoUtil.ensureDirectoryExists(new File(LOG_FILE_DIR), LOG_FILE_DIR);
+
+        length = TestData.encodeFramedTestRequest(buffer, 1, 1, System.currentTimeMillis());
+        alignedLength = BitUtil.align(length, FrameDescriptor.FRAME_ALIGNMENT);
+
+        replayIndex = new ReplayIndex(
+            LOG_FILE_DIR,
+            OUTBOUND_LIBRARY_STREAM,
+            DEFAULT_REPLAY_INDEX_FILE_SIZE,
+            DEFAULT_LOGGER_CACHE_NUM_SETS,
+            DEFAULT_LOGGER_CACHE_SET_SIZE,
+            LoggerUtil::map,
+            new UnsafeBuffer(new byte[REPLAY_POSITION_BUFFER_SIZE]),
+            Throwable::printStackTrace);
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        replayIndex.close();
+        deleteLogFileDir();
+    }
+
+    @Benchmark
+    public void indexRecord()
+    {
+        index();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void indexBatch()
+    {
+        final ReplayIndex replayIndex = this.replayIndex;
+        replayIndex.beginBatch();
+        for (int i = 0; i < BATCH_SIZE; i++)
+        {
+            index();
+        }
+        replayIndex.endBatch();
+    }
+
+    private void index()
+    {
+        position += alignedLength;
+        replayIndex.indexRecord(buffer, 0, length, OUTBOUND_LIBRARY_STREAM, AERON_SESSION_ID, position);
+    }
+
+    private static void deleteLogFileDir()
+    {
+        final File logFileDir = new File(LOG_FILE_DIR);
+        if (logFileDir.exists())
+        {
+            IoUtil.delete(logFileDir, false);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import io.aeron.Image;
+import io.aeron.Subscription;
+import io.aeron.logbuffer.ControlledFragmentHandler;
+import org.agrona.CloseHelper;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.BusySpinIdleStrategy;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.openjdk.jmh.annotations.*;
+import uk.co.real_logic.artio.EmbeddedAeron;
+import uk.co.real_logic.artio.TestData;
+import uk.co.real_logic.artio.decoder.TestRequestDecoder;
+import uk.co.real_logic.artio.engine.CompletionPosition;
+import uk.co.real_logic.artio.protocol.GatewayPublication;
+import uk.co.real_logic.artio.replication.StreamIdentifier;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import static io.aeron.logbuffer.ControlledFragmentHandler.Action.CONTINUE;
+import static uk.co.real_logic.artio.CommonConfiguration.DEFAULT_NAME_PREFIX;
+import static uk.co.real_logic.artio.GatewayProcess.OUTBOUND_LIBRARY_STREAM;
+import static uk.co.real_logic.artio.engine.EngineConfiguration.*;
+import static uk.co.real_logic.artio.engine.logger.ReplayIndexDescriptor.REPLAY_POSITION_BUFFER_SIZE;
+import static uk.co.real_logic.artio.messages.MessageStatus.OK;
+import static uk.co.real_logic.artio.replication.ReservedValue.NO_FILTER;
+
+/**
+ * Benchmarks querying the replay index for a range of messages and reading them from the archive. The archive
+ * and index are populated once, with a single session's messages, before the benchmark runs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ReplayQueryBenchmark
+{
+    private static final String LOG_FILE_DIR = IoUtil.tmpDirName() + "artio-replay-query-benchmark";
+    private static final long SESSION_ID = 1;
+    private static final long CONNECTION_ID = 1;
+    private static final int LIBRARY_ID = 1;
+    private static final int BUFFER_SIZE = 8 * 1024;
+    private static final int FRAGMENT_LIMIT = 100;
+
+    @Param({"1000"})
+    public int archivedMessages;
+
+    @Param({"1", "100"})
+    public int queriedMessages;
+
+    private final ControlledFragmentHandler replayHandler = (buffer, offset, length, header) -> CONTINUE;
+
+    private EmbeddedAeron embeddedAeron;
+    private Archiver archiver;
+    private ReplayIndex replayIndex;
+    private ReplayQuery replayQuery;
+    private int beginSequenceNumber;
+
+    @Setup
+    public void setup()
+    {
+        deleteLogFileDir();
+        IoUtil.ensureDirectoryExists(new File(LOG_FILE_DIR), LOG_FILE_DIR);
+
+        embeddedAeron = new EmbeddedAeron();
+
+        final CompletionPosition completionPosition = new CompletionPosition();
+        completionPosition.completeDuringStartup();
+        final StreamIdentifier streamId = new StreamIdentifier(EmbeddedAeron.IPC_CHANNEL, OUTBOUND_LIBRARY_STREAM);
+        archiver = new Archiver(
+            LoggerUtil.newArchiveMetaData(LOG_FILE_DIR),
+            DEFAULT_LOGGER_CACHE_NUM_SETS,
+            DEFAULT_LOGGER_CACHE_SET_SIZE,
+            streamId,
+            DEFAULT_NAME_PREFIX,
+            completionPosition);
+        archiver.subscription(embeddedAeron.subscription(OUTBOUND_LIBRARY_STREAM));
+
+        replayIndex = new ReplayIndex(
+            LOG_FILE_DIR,
+            OUTBOUND_LIBRARY_STREAM,
+            DEFAULT_REPLAY_INDEX_FILE_SIZE,
+            DEFAULT_LOGGER_CACHE_NUM_SETS,
+            DEFAULT_LOGGER_CACHE_SET_SIZE,
+            LoggerUtil::map,
+            new UnsafeBuffer(new byte[REPLAY_POSITION_BUFFER_SIZE]),
+            Throwable::printStackTrace);
+
+        populate(embeddedAeron.gatewayPublication(OUTBOUND_LIBRARY_STREAM));
+
+        final ArchiveReader archiveReader = new ArchiveReader(
+            LoggerUtil.newArchiveMetaData(LOG_FILE_DIR),
+            DEFAULT_LOGGER_CACHE_NUM_SETS,
+            DEFAULT_LOGGER_CACHE_SET_SIZE,
+            streamId,
+            NO_FILTER);
+        replayQuery = new ReplayQuery(
+            LOG_FILE_DIR,
+            DEFAULT_LOGGER_CACHE_NUM_SETS,
+            DEFAULT_LOGGER_CACHE_SET_SIZE,
+            LoggerUtil::mapExistingFile,
+            archiveReader,
+            OUTBOUND_LIBRARY_STREAM,
+            new BusySpinIdleStrategy());
+
+        // Query the most recent messages, since those are the ones that are usually resent.
+        beginSequenceNumber = archivedMessages - queriedMessages + 1;
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        CloseHelper.close(replayQuery);
+        CloseHelper.close(replayIndex);
+        archiver.onClose();
+        embeddedAeron.close();
+        deleteLogFileDir();
+    }
+
+    @Benchmark
+    public int query()
+    {
+        return replayQuery.query(
+            replayHandler, SESSION_ID, beginSequenceNumber, 0, archivedMessages, 0);
+    }
+
+    private void populate(final GatewayPublication publication)
+    {
+        final Subscription indexSubscription = embeddedAeron.subscription(OUTBOUND_LIBRARY_STREAM);
+        final MutableAsciiBuffer message = new MutableAsciiBuffer(new byte[BUFFER_SIZE]);
+        final long sendingTime = System.currentTimeMillis();
+        for (int msgSeqNum = 1; msgSeqNum <= archivedMessages; msgSeqNum++)
+        {
+            final int length = TestData.encodeTestRequest(message, msgSeqNum, sendingTime);
+            while (publication.saveMessage(
+                message, 0, length, LIBRARY_ID, TestRequestDecoder.MESSAGE_TYPE, SESSION_ID, 0, CONNECTION_ID, OK) < 0)
+            {
+                Thread.yield();
+            }
+        }
+
+        final long endPosition = publication.position();
+        while (archiver.positionOf(publication.id()) < endPosition)
+        {
+            archiver.doWork();
+        }
+
+        while (indexSubscription.imageCount() == 0)
+        {
+            Thread.yield();
+        }
+
+        final Image image = indexSubscription.imageAtIndex(0);
+        while (image.position() < endPosition)
+        {
+            image.controlledPoll(replayIndex, FRAGMENT_LIMIT);
+        }
+
+        indexSubscription.close();
+    }
+
+    private static void deleteLogFileDir()
+    {
+        final File logFileDir = new File(LOG_FILE_DIR);
+        if (logFileDir.exists())
+        {
+            IoUtil.delete(logFileDir, false);
+        }
+    }
+}
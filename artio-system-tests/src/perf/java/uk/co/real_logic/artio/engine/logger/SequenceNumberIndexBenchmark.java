@@ -0,0 +1,101 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.engine.logger;
+
+import io.aeron.logbuffer.FrameDescriptor;
+import org.agrona.BitUtil;
+import org.agrona.IoUtil;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.openjdk.jmh.annotations.*;
+import uk.co.real_logic.artio.TestData;
+import uk.co.real_logic.artio.engine.MappedFile;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+import static uk.co.real_logic.artio.GatewayProcess.OUTBOUND_LIBRARY_STREAM;
+import static uk.co.real_logic.artio.engine.EngineConfiguration.DEFAULT_SEQUENCE_NUMBER_INDEX_SIZE;
+
+/**
+ * Benchmarks indexing the last sequence number of each session, for every record or for each batch of records.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class SequenceNumberIndexBenchmark
+{
+    private static final File INDEX_FILE = new File(IoUtil.tmpDirName(), "artio-sequence-number-index-benchmark");
+    private static final int AERON_SESSION_ID = 1;
+    private static final int BATCH_SIZE = 10;
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private final UnsafeBuffer buffer = new UnsafeBuffer(new byte[BUFFER_SIZE]);
+
+    private SequenceNumberIndexWriter writer;
+    private int length;
+    private int alignedLength;
+    private long position;
+
+    @Setup
+    public void setup()
+    {
+        IoUtil.deleteIfExists(INDEX_FILE);
+
+        length = TestData.encodeFramedTestRequest(buffer, 1, 1, System.currentTimeMillis());
+        alignedLength = BitUtil.align(length, FrameDescriptor.FRAME_ALIGNMENT);
+
+        writer = new SequenceNumberIndexWriter(
+            new UnsafeBuffer(new byte[DEFAULT_SEQUENCE_NUMBER_INDEX_SIZE]),
+            MappedFile.map(INDEX_FILE, DEFAULT_SEQUENCE_NUMBER_INDEX_SIZE),
+            Throwable::printStackTrace,
+            OUTBOUND_LIBRARY_STREAM);
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        writer.close();
+        IoUtil.deleteIfExists(INDEX_FILE);
+    }
+
+    @Benchmark
+    public void indexRecord()
+    {
+        index();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void indexBatch()
+    {
+        final SequenceNumberIndexWriter writer = this.writer;
+        writer.beginBatch();
+        for (int i = 0; i < BATCH_SIZE; i++)
+        {
+            index();
+        }
+        writer.endBatch();
+    }
+
+    private void index()
+    {
+        position += alignedLength;
+        writer.indexRecord(buffer, 0, length, OUTBOUND_LIBRARY_STREAM, AERON_SESSION_ID, position);
+    }
+}
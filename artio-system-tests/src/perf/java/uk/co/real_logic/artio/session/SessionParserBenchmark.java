@@ -0,0 +1,145 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.session;
+
+import io.aeron.logbuffer.ControlledFragmentHandler.Action;
+import org.agrona.concurrent.EpochClock;
+import org.agrona.concurrent.UnsafeBuffer;
+import org.openjdk.jmh.annotations.*;
+import uk.co.real_logic.artio.EmbeddedAeron;
+import uk.co.real_logic.artio.TestData;
+import uk.co.real_logic.artio.builder.Encoder;
+import uk.co.real_logic.artio.builder.HeartbeatEncoder;
+import uk.co.real_logic.artio.decoder.HeartbeatDecoder;
+import uk.co.real_logic.artio.fields.UtcTimestampEncoder;
+import uk.co.real_logic.artio.messages.SessionState;
+import uk.co.real_logic.artio.protocol.GatewayPublication;
+import uk.co.real_logic.artio.util.MutableAsciiBuffer;
+import uk.co.real_logic.artio.validation.MessageValidationStrategy;
+
+import java.util.concurrent.TimeUnit;
+
+import static uk.co.real_logic.artio.CommonConfiguration.*;
+import static uk.co.real_logic.artio.GatewayProcess.OUTBOUND_LIBRARY_STREAM;
+
+/**
+ * Benchmarks parsing in sequence session messages and passing them to their session.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class SessionParserBenchmark
+{
+    private static final long CONNECTION_ID = 1;
+    private static final long SESSION_ID = 1;
+    private static final int LIBRARY_ID = 1;
+    private static final int HEARTBEAT_INTERVAL_IN_S = 10;
+    private static final int MESSAGE_COUNT = 1024;
+    private static final int MESSAGE_SIZE = 256;
+
+    private final UnsafeBuffer buffer = new UnsafeBuffer(new byte[MESSAGE_COUNT * MESSAGE_SIZE]);
+    private final int[] lengths = new int[MESSAGE_COUNT];
+    private final long sendingTime = System.currentTimeMillis();
+    private final EpochClock clock = () -> sendingTime;
+
+    private EmbeddedAeron embeddedAeron;
+    private Session session;
+    private SessionParser parser;
+    private int messageIndex;
+
+    @Setup
+    public void setup()
+    {
+        embeddedAeron = new EmbeddedAeron();
+        final GatewayPublication publication = embeddedAeron.gatewayPublication(OUTBOUND_LIBRARY_STREAM);
+        final SessionIdStrategy sessionIdStrategy = SessionIdStrategy.senderAndTarget();
+        final SessionProxy proxy = new SessionProxy(
+            new MutableAsciiBuffer(new byte[DEFAULT_SESSION_BUFFER_SIZE]),
+            publication,
+            sessionIdStrategy,
+            SessionCustomisationStrategy.none(),
+            clock,
+            CONNECTION_ID,
+            LIBRARY_ID);
+
+        session = new AcceptorSession(
+            HEARTBEAT_INTERVAL_IN_S,
+            CONNECTION_ID,
+            clock,
+            proxy,
+            publication,
+            sessionIdStrategy,
+            DEFAULT_SENDING_TIME_WINDOW,
+            embeddedAeron.newCounter("Received MsgSeqNo"),
+            embeddedAeron.newCounter("Sent MsgSeqNo"),
+            LIBRARY_ID,
+            1,
+            0,
+            SessionState.ACTIVE,
+            DEFAULT_REASONABLE_TRANSMISSION_TIME_IN_MS,
+            new MutableAsciiBuffer(new byte[DEFAULT_SESSION_BUFFER_SIZE]));
+        parser = new SessionParser(session, sessionIdStrategy, MessageValidationStrategy.none(), null);
+
+        encodeHeartbeats();
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        embeddedAeron.close();
+    }
+
+    @Benchmark
+    public Action onHeartbeat()
+    {
+        final int messageIndex = this.messageIndex;
+        if (messageIndex == 0)
+        {
+            // Start again from the first sequence number
+            session.lastReceivedMsgSeqNum(0);
+        }
+        this.messageIndex = (messageIndex + 1) % MESSAGE_COUNT;
+
+        return parser.onMessage(
+            buffer, messageIndex * MESSAGE_SIZE, lengths[messageIndex], HeartbeatDecoder.MESSAGE_TYPE, SESSION_ID);
+    }
+
+    // Each message has its next sequence number, so that they're all valid for the session.
+    private void encodeHeartbeats()
+    {
+        final UtcTimestampEncoder timestampEncoder = new UtcTimestampEncoder();
+        final int timestampLength = timestampEncoder.encode(sendingTime);
+        final HeartbeatEncoder heartbeat = new HeartbeatEncoder();
+        final MutableAsciiBuffer encodeBuffer = new MutableAsciiBuffer(new byte[MESSAGE_SIZE]);
+        for (int i = 0; i < MESSAGE_COUNT; i++)
+        {
+            heartbeat
+                .header()
+                .sendingTime(timestampEncoder.buffer(), timestampLength)
+                .senderCompID(TestData.SENDER_COMP_ID)
+                .targetCompID(TestData.TARGET_COMP_ID)
+                .msgSeqNum(i + 1);
+
+            final long result = heartbeat.encode(encodeBuffer, 0);
+            final int length = Encoder.length(result);
+            buffer.putBytes(i * MESSAGE_SIZE, encodeBuffer, Encoder.offset(result), length);
+            lengths[i] = length;
+        }
+    }
+}
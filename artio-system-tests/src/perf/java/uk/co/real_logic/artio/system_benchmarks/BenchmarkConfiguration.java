@@ -37,6 +37,15 @@ public final class BenchmarkConfiguration
     public static final int MAX_MESSAGES_IN_FLIGHT = Integer.getInteger("fix.benchmark.max_messages_in_flight", 20);
     public static final int SEND_RATE_PER_SECOND = Integer.getInteger("fix.benchmark.send_rate_sec", 1_000);
     public static final int NUMBER_OF_SESSIONS = Integer.getInteger("fix.benchmark.num_sessions", 1);
+    public static final int[] SEND_RATE_SWEEP_PER_SECOND = rates(
+        System.getProperty("fix.benchmark.send_rate_sweep_sec", "1000,5000,10000,25000,50000,100000"));
+    public static final int SWEEP_STEP_DURATION_IN_S = Integer.getInteger("fix.benchmark.sweep_step_duration_sec", 5);
+    public static final double KNEE_LATENCY_FACTOR =
+        Double.parseDouble(System.getProperty("fix.benchmark.knee_latency_factor", "2.0"));
+    public static final boolean STOP_AT_KNEE =
+        Boolean.parseBoolean(System.getProperty("fix.benchmark.stop_at_knee", "true"));
+    public static final String HISTOGRAM_LOG_FILE =
+        System.getProperty("fix.benchmark.histogram_file", "loopback-latency-histograms");
 
     static IdleStrategy idleStrategy()
     {
@@ -56,4 +65,16 @@ public final class BenchmarkConfiguration
                 return backoffIdleStrategy();
         }
     }
+
+    private static int[] rates(final String rates)
+    {
+        final String[] values = rates.split(",");
+        final int[] parsed = new int[values.length];
+        for (int i = 0; i < values.length; i++)
+        {
+            parsed[i] = Integer.parseInt(values[i].trim());
+        }
+
+        return parsed;
+    }
 }
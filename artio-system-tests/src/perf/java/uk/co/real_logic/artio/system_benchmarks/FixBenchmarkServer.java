@@ -62,7 +62,7 @@ public final class FixBenchmarkServer
         }
     }
 
-    private static MediaDriver newMediaDriver()
+    static MediaDriver newMediaDriver()
     {
         final MediaDriver.Context context = new MediaDriver.Context()
             .dirDeleteOnStart(true)
@@ -71,7 +71,7 @@ public final class FixBenchmarkServer
         return MediaDriver.launch(context);
     }
 
-    private static EngineConfiguration engineConfiguration()
+    static EngineConfiguration engineConfiguration()
     {
         final String acceptorLogs = "acceptor_logs";
         final File dir = new File(acceptorLogs);
@@ -93,7 +93,7 @@ public final class FixBenchmarkServer
             .framerIdleStrategy(idleStrategy());
     }
 
-    private static LibraryConfiguration libraryConfiguration()
+    static LibraryConfiguration libraryConfiguration()
     {
         final LibraryConfiguration configuration = new LibraryConfiguration();
         configuration.printAeronStreamIdentifiers(true);
@@ -0,0 +1,278 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.system_benchmarks;
+
+import io.aeron.driver.MediaDriver;
+import org.HdrHistogram.Histogram;
+import org.agrona.concurrent.IdleStrategy;
+import uk.co.real_logic.artio.builder.HeaderEncoder;
+import uk.co.real_logic.artio.builder.TestRequestEncoder;
+import uk.co.real_logic.artio.engine.FixEngine;
+import uk.co.real_logic.artio.library.FixLibrary;
+import uk.co.real_logic.artio.timing.HistogramLogReader;
+import uk.co.real_logic.artio.timing.HistogramLogWriter;
+
+import java.io.IOException;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static uk.co.real_logic.artio.system_benchmarks.BenchmarkConfiguration.*;
+
+/**
+ * Measures round trip latency through an engine and library over loopback, with the media driver, engine,
+ * library and a raw socket client all running in this process.
+ *
+ * Test requests are sent on a constant rate schedule. Latency is recorded both from the time at which each message
+ * was meant to be sent and from the time at which it was actually sent. The former corrects for coordinated
+ * omission: when a reply is delayed the client falls behind its schedule, and measuring from the actual send time
+ * would hide the time that the following messages spent waiting to be sent.
+ *
+ * The send rate is swept through {@link BenchmarkConfiguration#SEND_RATE_SWEEP_PER_SECOND} in order to find the
+ * knee: the first rate at which latency, measured against the schedule, degrades by more than
+ * {@link BenchmarkConfiguration#KNEE_LATENCY_FACTOR} compared to the lowest rate, or at which the client can't
+ * keep up with its schedule. The histograms of every rate are written to
+ * {@link BenchmarkConfiguration#HISTOGRAM_LOG_FILE}, which can be read with {@link HistogramLogReader}.
+ */
+public final class LoopbackLatencyBenchmark extends AbstractBenchmarkClient
+{
+    private static final double MICROS = MICROSECONDS.toNanos(1);
+    private static final double SCHEDULE_TOLERANCE = 0.95;
+    private static final double KNEE_PERCENTILE = 99;
+
+    public static void main(final String[] args) throws Exception
+    {
+        try (MediaDriver mediaDriver = FixBenchmarkServer.newMediaDriver();
+            FixEngine engine = FixEngine.launch(FixBenchmarkServer.engineConfiguration());
+            FixLibrary library = FixLibrary.connect(FixBenchmarkServer.libraryConfiguration()))
+        {
+            final LibraryPoller libraryPoller = new LibraryPoller(library);
+            libraryPoller.start();
+            try
+            {
+                libraryPoller.awaitConnected();
+                new LoopbackLatencyBenchmark().runBenchmark();
+            }
+            finally
+            {
+                libraryPoller.close();
+            }
+        }
+    }
+
+    private final List<RateResult> results = new ArrayList<>();
+    private int seqNo = 2;
+
+    public void runBenchmark() throws IOException
+    {
+        try (SocketChannel socketChannel = open())
+        {
+            logon(socketChannel);
+
+            final TestRequestEncoder testRequest = setupTestRequest();
+            final HeaderEncoder header = testRequest.header();
+            final int[] rates = SEND_RATE_SWEEP_PER_SECOND;
+
+            // Warm up at the lowest rate, so that the baseline isn't measured against cold code.
+            runAtRate(socketChannel, testRequest, header, rates[0]);
+            parkAfterWarmup();
+
+            for (final int rate : rates)
+            {
+                final RateResult result = runAtRate(socketChannel, testRequest, header, rate);
+                results.add(result);
+                result.print();
+
+                if (isKnee(result))
+                {
+                    System.out.printf("Knee at %d messages / s%n", rate);
+                    if (STOP_AT_KNEE)
+                    {
+                        break;
+                    }
+                }
+            }
+        }
+
+        writeHistograms();
+    }
+
+    private RateResult runAtRate(
+        final SocketChannel socketChannel,
+        final TestRequestEncoder testRequest,
+        final HeaderEncoder header,
+        final int rate)
+        throws IOException
+    {
+        final int messages = rate * SWEEP_STEP_DURATION_IN_S;
+        final long intervalInNs = SECONDS.toNanos(1) / rate;
+        final long[] intendedSendTimes = new long[messages];
+        final long[] actualSendTimes = new long[messages];
+        final Histogram intendedLatency = new Histogram(3);
+        final Histogram actualLatency = new Histogram(3);
+
+        final long startTime = System.nanoTime();
+        long lastSendTime = startTime;
+        int sent = 0;
+        int received = 0;
+        while (received < messages)
+        {
+            if (sent < messages)
+            {
+                final long intendedSendTime = startTime + sent * intervalInNs;
+                if (System.nanoTime() >= intendedSendTime)
+                {
+                    final long result = encode(testRequest, header, seqNo++);
+                    intendedSendTimes[sent] = intendedSendTime;
+                    lastSendTime = System.nanoTime();
+                    actualSendTimes[sent] = lastSendTime;
+                    write(socketChannel, result);
+                    sent++;
+                }
+            }
+
+            final int length = poll(socketChannel);
+            if (length > 0)
+            {
+                final long time = System.nanoTime();
+                final int replies = Math.min(scanForReceivesMessages(readFlyweight, length), sent - received);
+                for (int i = 0; i < replies; i++)
+                {
+                    intendedLatency.recordValue(time - intendedSendTimes[received + i]);
+                    actualLatency.recordValue(time - actualSendTimes[received + i]);
+                }
+                received += replies;
+            }
+        }
+
+        final double sendDurationInS = (double)Math.max(1, lastSendTime - startTime) / SECONDS.toNanos(1);
+        final double achievedRate = (messages - 1) / sendDurationInS;
+
+        return new RateResult(rate, achievedRate, intendedLatency, actualLatency);
+    }
+
+    private int poll(final SocketChannel socketChannel) throws IOException
+    {
+        readBuffer.clear();
+        return socketChannel.read(readBuffer);
+    }
+
+    private boolean isKnee(final RateResult result)
+    {
+        final RateResult baseline = results.get(0);
+        if (result == baseline)
+        {
+            return false;
+        }
+
+        final long baselineLatency = baseline.intendedLatency.getValueAtPercentile(KNEE_PERCENTILE);
+        final long latency = result.intendedLatency.getValueAtPercentile(KNEE_PERCENTILE);
+
+        return latency > baselineLatency * KNEE_LATENCY_FACTOR ||
+            result.achievedRate < result.rate * SCHEDULE_TOLERANCE;
+    }
+
+    private void writeHistograms()
+    {
+        final List<RateResult> results = this.results;
+        try (HistogramLogWriter writer = new HistogramLogWriter(
+            results.size() * 2, HISTOGRAM_LOG_FILE, Throwable::printStackTrace))
+        {
+            for (int i = 0; i < results.size(); i++)
+            {
+                final int rate = results.get(i).rate;
+                writer.identifyTimer(2 * i, "Intended @ " + rate + " / s");
+                writer.identifyTimer(2 * i + 1, "Actual @ " + rate + " / s");
+            }
+            writer.onEndTimerIdentification();
+
+            writer.onBeginTimerUpdate(System.currentTimeMillis());
+            for (int i = 0; i < results.size(); i++)
+            {
+                final RateResult result = results.get(i);
+                writer.onTimerUpdate(2 * i, result.intendedLatency);
+                writer.onTimerUpdate(2 * i + 1, result.actualLatency);
+            }
+            writer.onEndTimerUpdate();
+        }
+    }
+
+    private static final class RateResult
+    {
+        private final int rate;
+        private final double achievedRate;
+        private final Histogram intendedLatency;
+        private final Histogram actualLatency;
+
+        private RateResult(
+            final int rate,
+            final double achievedRate,
+            final Histogram intendedLatency,
+            final Histogram actualLatency)
+        {
+            this.rate = rate;
+            this.achievedRate = achievedRate;
+            this.intendedLatency = intendedLatency;
+            this.actualLatency = actualLatency;
+        }
+
+        private void print()
+        {
+            final long timeInMs = System.currentTimeMillis();
+            System.out.printf("%d messages / s scheduled, %G messages / s sent%n", rate, achievedRate);
+            HistogramLogReader.prettyPrint(timeInMs, intendedLatency, "Intended in Micros", MICROS);
+            HistogramLogReader.prettyPrint(timeInMs, actualLatency, "Actual in Micros", MICROS);
+        }
+    }
+
+    private static final class LibraryPoller extends Thread implements AutoCloseable
+    {
+        private final FixLibrary library;
+        private volatile boolean running = true;
+
+        private LibraryPoller(final FixLibrary library)
+        {
+            super("library-poller");
+            this.library = library;
+            setDaemon(true);
+        }
+
+        public void run()
+        {
+            final IdleStrategy idleStrategy = idleStrategy();
+            while (running)
+            {
+                idleStrategy.idle(library.poll(10));
+            }
+        }
+
+        private void awaitConnected()
+        {
+            while (!library.isConnected())
+            {
+                Thread.yield();
+            }
+        }
+
+        public void close() throws InterruptedException
+        {
+            running = false;
+            join();
+        }
+    }
+}
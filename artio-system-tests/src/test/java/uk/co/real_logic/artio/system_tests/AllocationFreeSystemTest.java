@@ -0,0 +1,281 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.system_tests;
+
+import io.aeron.driver.MediaDriver;
+import io.aeron.logbuffer.ControlledFragmentHandler.Action;
+import org.agrona.DirectBuffer;
+import org.agrona.concurrent.Agent;
+import org.agrona.concurrent.AgentRunner;
+import org.agrona.concurrent.BusySpinIdleStrategy;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import uk.co.real_logic.artio.decoder.ExampleMessageDecoder;
+import uk.co.real_logic.artio.decoder.LogonDecoder;
+import uk.co.real_logic.artio.decoder.LogoutDecoder;
+import uk.co.real_logic.artio.decoder.SequenceResetDecoder;
+import uk.co.real_logic.artio.engine.EngineConfiguration;
+import uk.co.real_logic.artio.engine.FixEngine;
+import uk.co.real_logic.artio.engine.GroupingEngineScheduler;
+import uk.co.real_logic.artio.library.FixLibrary;
+import uk.co.real_logic.artio.library.LibraryConfiguration;
+import uk.co.real_logic.artio.library.SessionAcquireHandler;
+import uk.co.real_logic.artio.library.SessionHandler;
+import uk.co.real_logic.artio.messages.DisconnectReason;
+import uk.co.real_logic.artio.session.Session;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static io.aeron.CommonContext.IPC_CHANNEL;
+import static io.aeron.logbuffer.ControlledFragmentHandler.Action.CONTINUE;
+import static java.util.Collections.singletonList;
+import static org.agrona.CloseHelper.close;
+import static org.agrona.concurrent.AgentRunner.startOnThread;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static uk.co.real_logic.artio.TestFixtures.cleanupMediaDriver;
+import static uk.co.real_logic.artio.TestFixtures.launchMediaDriver;
+import static uk.co.real_logic.artio.TestFixtures.unusedPort;
+import static uk.co.real_logic.artio.Timing.assertEventuallyTrue;
+import static uk.co.real_logic.artio.system_tests.SystemTestUtil.*;
+
+/**
+ * Checks that once warmed up the framer, archiver and library threads don't allocate whilst handling messages.
+ *
+ * Each round of the conversation logs on, sends a batch of orders, requests a resend and logs out. Logging on
+ * and out creates the session and its end points, so only the messages in between are measured.
+ */
+public class AllocationFreeSystemTest
+{
+    private static final String FRAMER_THREAD = "Framer";
+    private static final String ARCHIVER_THREAD = "Archiver";
+    private static final String LIBRARY_THREAD = "Library";
+
+    private static final int WARMUP_ROUNDS = 100;
+    private static final int MEASURED_ROUNDS = 5;
+    private static final int ORDERS_PER_ROUND = 200;
+    private static final int FRAGMENT_LIMIT = 10;
+
+    // Messages are archived asynchronously, so give the engine time to finish with them
+    private static final long SETTLE_TIME_IN_MS = 200;
+
+    private final int port = unusedPort();
+    private final CountingHandler handler = new CountingHandler();
+
+    private MediaDriver mediaDriver;
+    private FixEngine engine;
+    private FixLibrary library;
+    private AgentRunner libraryRunner;
+
+    @Before
+    public void launch()
+    {
+        mediaDriver = launchMediaDriver();
+
+        delete(ACCEPTOR_LOGS);
+        final EngineConfiguration engineConfiguration = acceptingConfig(port, ACCEPTOR_ID, INITIATOR_ID)
+            .scheduler(new GroupingEngineScheduler());
+        engine = FixEngine.launch(engineConfiguration);
+
+        final LibraryConfiguration libraryConfiguration = new LibraryConfiguration();
+        setupCommonConfig(ACCEPTOR_ID, INITIATOR_ID, libraryConfiguration);
+        libraryConfiguration
+            .sessionAcquireHandler(handler)
+            .libraryAeronChannels(singletonList(IPC_CHANNEL));
+        library = FixLibrary.connect(libraryConfiguration);
+
+        libraryRunner = new AgentRunner(new BusySpinIdleStrategy(), Throwable::printStackTrace, null, new Agent()
+        {
+            public int doWork()
+            {
+                return library.poll(FRAGMENT_LIMIT);
+            }
+
+            public String roleName()
+            {
+                return LIBRARY_THREAD;
+            }
+        });
+        startOnThread(libraryRunner);
+
+        assertEventuallyTrue("Library failed to connect", library::isConnected);
+    }
+
+    @Test(timeout = 120_000L)
+    public void shouldNotAllocateWhilstHandlingMessages() throws IOException
+    {
+        for (int i = 0; i < WARMUP_ROUNDS; i++)
+        {
+            round(null);
+        }
+
+        final ThreadAllocations allocations = new ThreadAllocations(FRAMER_THREAD, ARCHIVER_THREAD, LIBRARY_THREAD);
+        for (int i = 0; i < MEASURED_ROUNDS; i++)
+        {
+            round(allocations);
+        }
+
+        final long messages = MEASURED_ROUNDS * (ORDERS_PER_ROUND + 2L);
+        final List<String> allocatingThreads = new ArrayList<>();
+        final StringBuilder report = new StringBuilder();
+        allocations.allocatedBytes().forEach((threadName, bytes) ->
+        {
+            if (bytes > 0)
+            {
+                allocatingThreads.add(threadName);
+                report
+                    .append(threadName)
+                    .append(" allocated ")
+                    .append(bytes / (double)messages)
+                    .append(" bytes per message\n");
+            }
+        });
+
+        if (!allocatingThreads.isEmpty())
+        {
+            report.append(allocations.sampleSites(allocatingThreads, () ->
+            {
+                try
+                {
+                    round(null);
+                }
+                catch (final IOException e)
+                {
+                    throw new RuntimeException(e);
+                }
+            }));
+
+            fail(report.toString());
+        }
+    }
+
+    private void round(final ThreadAllocations allocations) throws IOException
+    {
+        try (FixConnection connection = new FixConnection(port))
+        {
+            connection.logon(System.currentTimeMillis());
+            final LogonDecoder logon = new LogonDecoder();
+            connection.readMessage(logon);
+            assertTrue(logon.validate());
+
+            settle();
+            if (allocations != null)
+            {
+                allocations.start();
+            }
+
+            final long expectedOrders = handler.orders() + ORDERS_PER_ROUND;
+            for (int i = 0; i < ORDERS_PER_ROUND; i++)
+            {
+                connection.exampleMessage(System.currentTimeMillis(), testReqId());
+            }
+            assertEventuallyTrue("Library failed to receive orders", () -> handler.orders() == expectedOrders);
+
+            // Nothing but the logon has been sent by the acceptor, so it is replayed as a gap fill.
+            connection.resendRequest(System.currentTimeMillis(), 1, 0);
+            final SequenceResetDecoder sequenceReset = new SequenceResetDecoder();
+            connection.readMessage(sequenceReset);
+            assertTrue(sequenceReset.gapFillFlag());
+
+            settle();
+            if (allocations != null)
+            {
+                allocations.stop();
+            }
+
+            connection.logout();
+            final LogoutDecoder logout = new LogoutDecoder();
+            connection.readMessage(logout);
+            assertTrue(logout.validate());
+        }
+    }
+
+    private static void settle()
+    {
+        try
+        {
+            Thread.sleep(SETTLE_TIME_IN_MS);
+        }
+        catch (final InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @After
+    public void tearDown()
+    {
+        close(libraryRunner);
+        close(library);
+        close(engine);
+        cleanupMediaDriver(mediaDriver);
+    }
+
+    private static final class CountingHandler implements SessionHandler, SessionAcquireHandler
+    {
+        private final AtomicLong orders = new AtomicLong();
+
+        long orders()
+        {
+            return orders.get();
+        }
+
+        public Action onMessage(
+            final DirectBuffer buffer,
+            final int offset,
+            final int length,
+            final int libraryId,
+            final Session session,
+            final int sequenceIndex,
+            final int messageType,
+            final long timestampInNs,
+            final long position)
+        {
+            if (messageType == ExampleMessageDecoder.MESSAGE_TYPE)
+            {
+                orders.lazySet(orders.get() + 1);
+            }
+
+            return CONTINUE;
+        }
+
+        public void onTimeout(final int libraryId, final Session session)
+        {
+        }
+
+        public void onSlowStatus(final int libraryId, final Session session, final boolean hasBecomeSlow)
+        {
+        }
+
+        public Action onDisconnect(final int libraryId, final Session session, final DisconnectReason reason)
+        {
+            return CONTINUE;
+        }
+
+        public void onSessionStart(final Session session)
+        {
+        }
+
+        public SessionHandler onSessionAcquired(final Session session, final boolean isSlow)
+        {
+            return this;
+        }
+    }
+}
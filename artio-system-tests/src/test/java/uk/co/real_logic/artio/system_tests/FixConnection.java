@@ -44,6 +44,8 @@ class FixConnection implements AutoCloseable
     private final LogonEncoder logon = new LogonEncoder();
     private final LogoutEncoder logout = new LogoutEncoder();
     private final HeartbeatEncoder heartbeatEncoder = new HeartbeatEncoder();
+    private final ExampleMessageEncoder exampleMessage = new ExampleMessageEncoder();
+    private final ResendRequestEncoder resendRequest = new ResendRequestEncoder();
 
     private final SocketChannel socket;
 
@@ -74,6 +76,26 @@ class FixConnection implements AutoCloseable
         send(heartbeatEncoder);
     }
 
+    void exampleMessage(final long timestamp, final String testReqId)
+    {
+        setupHeader(exampleMessage.header(), timestamp);
+
+        exampleMessage.testReqID(testReqId);
+
+        send(exampleMessage);
+    }
+
+    void resendRequest(final long timestamp, final int beginSeqNo, final int endSeqNo)
+    {
+        setupHeader(resendRequest.header(), timestamp);
+
+        resendRequest
+            .beginSeqNo(beginSeqNo)
+            .endSeqNo(endSeqNo);
+
+        send(resendRequest);
+    }
+
     void logout()
     {
         setupHeader(logout.header(), System.currentTimeMillis());
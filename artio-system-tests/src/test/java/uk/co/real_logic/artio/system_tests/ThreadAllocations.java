@@ -0,0 +1,184 @@
+/*
+ * Copyright 2015-2017 Real Logic Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package uk.co.real_logic.artio.system_tests;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Measures the bytes allocated by named threads, using the HotSpot specific
+ * {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)}.
+ *
+ * Allocation sites are found by sampling: the stacks of the threads are captured whenever their allocated
+ * byte count has grown since the last sample. Stacks can only be captured at a safepoint, so a site is
+ * approximate, but the frames near the top of the stack are usually enough to find the allocation.
+ */
+class ThreadAllocations
+{
+    private static final int SITE_DEPTH = 8;
+
+    private final com.sun.management.ThreadMXBean threadMXBean =
+        (com.sun.management.ThreadMXBean)ManagementFactory.getThreadMXBean();
+    private final Map<String, long[]> threadNameToIds = new LinkedHashMap<>();
+    private final Map<String, Long> threadNameToStartBytes = new HashMap<>();
+    private final Map<String, Long> threadNameToAllocatedBytes = new LinkedHashMap<>();
+
+    ThreadAllocations(final String... threadNames)
+    {
+        assertTrue("Thread allocation measurement isn't supported", threadMXBean.isThreadAllocatedMemorySupported());
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+
+        for (final String threadName : threadNames)
+        {
+            final long[] threadIds = Thread.getAllStackTraces()
+                .keySet()
+                .stream()
+                .filter((thread) -> thread.getName().equals(threadName))
+                .mapToLong(Thread::getId)
+                .toArray();
+            assertTrue("No thread called " + threadName, threadIds.length > 0);
+            threadNameToIds.put(threadName, threadIds);
+            threadNameToAllocatedBytes.put(threadName, 0L);
+        }
+    }
+
+    void start()
+    {
+        threadNameToIds.forEach((threadName, threadIds) -> threadNameToStartBytes.put(threadName, bytes(threadIds)));
+    }
+
+    void stop()
+    {
+        threadNameToIds.forEach((threadName, threadIds) -> threadNameToAllocatedBytes.merge(
+            threadName, bytes(threadIds) - threadNameToStartBytes.get(threadName), Long::sum));
+    }
+
+    /**
+     * Get the bytes allocated by each thread whilst measuring, that is between calls to {@link #start()} and
+     * {@link #stop()}.
+     *
+     * @return the bytes allocated by each thread.
+     */
+    Map<String, Long> allocatedBytes()
+    {
+        return threadNameToAllocatedBytes;
+    }
+
+    /**
+     * Run the workload whilst sampling the allocation sites of the given threads.
+     *
+     * @param threadNames the threads to sample.
+     * @param workload the work that causes the allocations.
+     * @return a description of each site that was seen, most frequent first.
+     */
+    String sampleSites(final List<String> threadNames, final Runnable workload)
+    {
+        final List<Long> threadIds = new ArrayList<>();
+        threadNames.forEach((threadName) ->
+        {
+            for (final long threadId : threadNameToIds.get(threadName))
+            {
+                threadIds.add(threadId);
+            }
+        });
+
+        final Map<String, Integer> siteToCount = new HashMap<>();
+        final Thread sampler = new Thread(() -> sample(threadIds, siteToCount), "AllocationSampler");
+        sampler.start();
+        try
+        {
+            workload.run();
+        }
+        finally
+        {
+            sampler.interrupt();
+            try
+            {
+                sampler.join();
+            }
+            catch (final InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        final StringBuilder sites = new StringBuilder();
+        siteToCount
+            .entrySet()
+            .stream()
+            .sorted((left, right) -> Integer.compare(right.getValue(), left.getValue()))
+            .forEach((entry) -> sites
+                .append(entry.getValue())
+                .append(" samples at:\n")
+                .append(entry.getKey()));
+        return sites.toString();
+    }
+
+    private void sample(final List<Long> threadIds, final Map<String, Integer> siteToCount)
+    {
+        final long[] lastBytes = new long[threadIds.size()];
+        for (int i = 0; i < lastBytes.length; i++)
+        {
+            lastBytes[i] = threadMXBean.getThreadAllocatedBytes(threadIds.get(i));
+        }
+
+        while (!Thread.currentThread().isInterrupted())
+        {
+            for (int i = 0; i < lastBytes.length; i++)
+            {
+                final long threadId = threadIds.get(i);
+                final long bytes = threadMXBean.getThreadAllocatedBytes(threadId);
+                if (bytes > lastBytes[i])
+                {
+                    lastBytes[i] = bytes;
+                    final ThreadInfo info = threadMXBean.getThreadInfo(threadId, SITE_DEPTH);
+                    if (info != null)
+                    {
+                        siteToCount.merge(site(info), 1, Integer::sum);
+                    }
+                }
+            }
+        }
+    }
+
+    private static String site(final ThreadInfo info)
+    {
+        final StringBuilder site = new StringBuilder();
+        site.append("  [").append(info.getThreadName()).append("]\n");
+        for (final StackTraceElement element : info.getStackTrace())
+        {
+            site.append("    ").append(element).append('\n');
+        }
+        return site.toString();
+    }
+
+    private long bytes(final long[] threadIds)
+    {
+        long total = 0;
+        for (final long threadId : threadIds)
+        {
+            total += threadMXBean.getThreadAllocatedBytes(threadId);
+        }
+        return total;
+    }
+}
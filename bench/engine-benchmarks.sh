@@ -0,0 +1,7 @@
+#!/bin/sh
+
+set -eu
+
+java \
+  -cp artio-system-tests-*-benchmarks.jar \
+  uk.co.real_logic.artio.EngineBenchmarks "$@"
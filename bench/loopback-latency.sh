@@ -0,0 +1,13 @@
+#!/bin/sh
+
+set -eu
+
+java \
+  -verbose:gc \
+  -XX:+PrintGCDetails \
+  -cp artio-system-tests-*-benchmarks.jar \
+  -Dfix.codecs.no_validation=true \
+  -Dfix.benchmark.engine_idle=noop \
+  -Dfix.benchmark.send_rate_sweep_sec=1000,5000,10000,25000,50000,100000 \
+  -Dfix.benchmark.sweep_step_duration_sec=5 \
+  uk.co.real_logic.artio.system_benchmarks.LoopbackLatencyBenchmark